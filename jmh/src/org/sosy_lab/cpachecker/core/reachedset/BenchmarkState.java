@@ -0,0 +1,27 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+
+/** Minimal partitionable state for the reached-set benchmarks. */
+final class BenchmarkState implements AbstractState, Partitionable {
+
+  private final Integer partition;
+
+  BenchmarkState(int pPartition) {
+    partition = pPartition;
+  }
+
+  @Override
+  public Object getPartitionKey() {
+    return partition;
+  }
+}
@@ -0,0 +1,124 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.cpa.alwaystop.AlwaysTopCPA;
+
+/**
+ * Contention benchmark for the thread-safe reached-set implementations. Several threads add states
+ * to a shared reached set and, like the stop operator does, look up and iterate over random
+ * partitions. The time for a fixed amount of work per thread of a {@link SynchronizedReachedSet}
+ * around a {@link PartitionedReachedSet} is compared with the {@link
+ * ConcurrentPartitionedReachedSet}.
+ *
+ * <p>By default all available cores are used, use the JMH option "-t" for other numbers of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Threads(Threads.MAX)
+@Fork(1)
+public class ConcurrentReachedSetBenchmark {
+
+  private static final int PARTITIONS = 2_000;
+  private static final int STATES_PER_THREAD = 20_000;
+  private static final int LOOKUPS_PER_STATE = 4;
+
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+
+  public enum Implementation {
+    SYNCHRONIZED {
+      @Override
+      ConcurrentReachedSet create() {
+        return new SynchronizedReachedSet(
+            new PartitionedReachedSet(AlwaysTopCPA.INSTANCE, TraversalMethod.BFS));
+      }
+    },
+    CONCURRENT {
+      @Override
+      ConcurrentReachedSet create() {
+        return new ConcurrentPartitionedReachedSet(AlwaysTopCPA.INSTANCE, TraversalMethod.BFS);
+      }
+    };
+
+    abstract ConcurrentReachedSet create();
+  }
+
+  @Param private Implementation implementation;
+
+  private ConcurrentReachedSet reached;
+  private final AtomicInteger threadIds = new AtomicInteger();
+  private final AtomicInteger runs = new AtomicInteger();
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    reached = implementation.create();
+    runs.set(0);
+  }
+
+  @TearDown(Level.Iteration)
+  public void checkResult() {
+    checkState(reached.size() == runs.get() * STATES_PER_THREAD, "lost states in reached set");
+  }
+
+  /** Each thread has its own sequence of random partitions. */
+  @State(Scope.Thread)
+  public static class ThreadRandom {
+    private Random random;
+
+    @Setup
+    public void setup(ConcurrentReachedSetBenchmark pBenchmark) {
+      random = new Random(pBenchmark.threadIds.getAndIncrement());
+    }
+  }
+
+  @Benchmark
+  public long addAndGetReached(ThreadRandom pThreadRandom) {
+    Random random = pThreadRandom.random;
+    long visited = 0;
+    for (int i = 0; i < STATES_PER_THREAD; i++) {
+      reached.add(new BenchmarkState(random.nextInt(PARTITIONS)), PRECISION);
+      for (int j = 0; j < LOOKUPS_PER_STATE; j++) {
+        BenchmarkState lookup = new BenchmarkState(random.nextInt(PARTITIONS));
+        for (AbstractState state : reached.getReached(lookup)) {
+          if (state != lookup) {
+            visited++;
+          }
+        }
+      }
+    }
+    runs.incrementAndGet();
+    return visited;
+  }
+}
@@ -0,0 +1,99 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.cpa.alwaystop.AlwaysTopCPA;
+
+/**
+ * Single-threaded benchmark for {@link PartitionedReachedSet}: states are added to a new reached
+ * set and, like the stop operator does, the partitions of random states are looked up and iterated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartitionedReachedSetBenchmark {
+
+  private static final int LOOKUPS_PER_STATE = 4;
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+
+  /** Number of states added to the reached set per operation. */
+  @Param({"1000", "10000"})
+  private int states;
+
+  /** Number of distinct partitions. */
+  @Param({"10", "1000"})
+  private int partitions;
+
+  private BenchmarkState[] toAdd;
+  private BenchmarkState[] toLookup;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    toAdd = new BenchmarkState[states];
+    toLookup = new BenchmarkState[states * LOOKUPS_PER_STATE];
+    for (int i = 0; i < toAdd.length; i++) {
+      toAdd[i] = new BenchmarkState(random.nextInt(partitions));
+    }
+    for (int i = 0; i < toLookup.length; i++) {
+      toLookup[i] = new BenchmarkState(random.nextInt(partitions));
+    }
+  }
+
+  @Benchmark
+  public long addAndGetReached() {
+    ReachedSet reached = new PartitionedReachedSet(AlwaysTopCPA.INSTANCE, TraversalMethod.BFS);
+    long visited = 0;
+    for (int i = 0; i < toAdd.length; i++) {
+      reached.add(toAdd[i], PRECISION);
+      for (int j = i * LOOKUPS_PER_STATE; j < (i + 1) * LOOKUPS_PER_STATE; j++) {
+        for (AbstractState state : reached.getReached(toLookup[j])) {
+          if (state != toLookup[j]) {
+            visited++;
+          }
+        }
+      }
+    }
+    return visited;
+  }
+
+  @Benchmark
+  public int addAndPopAll() {
+    ReachedSet reached = new PartitionedReachedSet(AlwaysTopCPA.INSTANCE, TraversalMethod.BFS);
+    for (BenchmarkState state : toAdd) {
+      reached.add(state, PRECISION);
+    }
+    int popped = 0;
+    while (reached.hasWaitingState()) {
+      reached.popFromWaitlist();
+      popped++;
+    }
+    return popped;
+  }
+}
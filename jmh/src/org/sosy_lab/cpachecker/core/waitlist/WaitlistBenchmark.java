@@ -0,0 +1,224 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocation;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeState;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Benchmark for the waitlist implementations: a batch of states is pushed and afterwards all
+ * states are popped, interleaved with further pushes as in the CPA algorithm.
+ *
+ * <p>The states are composite states with a location, a callstack, and a value-analysis state with
+ * varying properties, such that the sorted waitlists have keys to sort by. Waitlists that need
+ * states of further CPAs (threading, SMG, automata, loop stacks, blocks, branches) are not
+ * covered.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaitlistBenchmark {
+
+  private static final int LOCATIONS = 200;
+  private static final int MAX_CALLSTACK_DEPTH = 8;
+  private static final int MAX_VARIABLES = 16;
+
+  public enum Implementation {
+    DFS,
+    BFS,
+    RAND,
+    RANDOM_PATH,
+    ROUND_ROBIN,
+    REVERSE_POSTORDER,
+    REVERSE_POSTORDER_HEAP,
+    POSTORDER,
+    CALLSTACK,
+    CALLSTACK_REVERSE_POSTORDER,
+    CALLSTACK_REVERSE_POSTORDER_HEAP,
+    EXPLICIT,
+    DEPTH_BASED_WEIGHTED;
+
+    WaitlistFactory factory() throws InvalidConfigurationException {
+      switch (this) {
+        case DFS:
+          return TraversalMethod.DFS;
+        case BFS:
+          return TraversalMethod.BFS;
+        case RAND:
+          return TraversalMethod.RAND;
+        case RANDOM_PATH:
+          return TraversalMethod.RANDOM_PATH;
+        case ROUND_ROBIN:
+          return TraversalMethod.ROUND_ROBIN;
+        case REVERSE_POSTORDER:
+          return ReversePostorderSortedWaitlist.factory(TraversalMethod.DFS);
+        case REVERSE_POSTORDER_HEAP:
+          return IndexedHeapWaitlist.factory(REVERSE_POSTORDER.factory());
+        case POSTORDER:
+          return PostorderSortedWaitlist.factory(TraversalMethod.DFS);
+        case CALLSTACK:
+          return CallstackSortedWaitlist.factory(TraversalMethod.DFS);
+        case CALLSTACK_REVERSE_POSTORDER:
+          return CallstackSortedWaitlist.factory(REVERSE_POSTORDER.factory());
+        case CALLSTACK_REVERSE_POSTORDER_HEAP:
+          return IndexedHeapWaitlist.factory(CALLSTACK_REVERSE_POSTORDER.factory());
+        case EXPLICIT:
+          return ExplicitSortedWaitlist.factory(TraversalMethod.DFS);
+        case DEPTH_BASED_WEIGHTED:
+          return DepthBasedWeightedWaitlist.factory(
+              TraversalMethod.DFS,
+              new WeightedRandomWaitlist.WaitlistOptions(Configuration.defaultConfiguration()));
+        default:
+          throw new AssertionError();
+      }
+    }
+  }
+
+  @Param private Implementation implementation;
+
+  /** Number of states pushed in the initial batch. */
+  @Param({"100", "10000"})
+  private int states;
+
+  private WaitlistFactory factory;
+  private AbstractState[] batch;
+
+  private static final class LocationOnlyState implements AbstractStateWithLocation {
+
+    private final CFANode location;
+
+    private LocationOnlyState(CFANode pLocation) {
+      location = pLocation;
+    }
+
+    @Override
+    public CFANode getLocationNode() {
+      return location;
+    }
+  }
+
+  @Setup
+  public void setup() throws InvalidConfigurationException {
+    factory = implementation.factory();
+    Random random = new Random(0);
+
+    CFANode[] nodes = new CFANode[LOCATIONS];
+    for (int i = 0; i < LOCATIONS; i++) {
+      nodes[i] = CFANode.newDummyCFANode("main");
+      nodes[i].setReversePostorderId(i);
+    }
+    CallstackState[] callstacks = new CallstackState[MAX_CALLSTACK_DEPTH];
+    callstacks[0] = new CallstackState(null, "main", nodes[0]);
+    for (int i = 1; i < MAX_CALLSTACK_DEPTH; i++) {
+      callstacks[i] = new CallstackState(callstacks[i - 1], "f" + i, nodes[i]);
+    }
+
+    batch = new AbstractState[states * 2];
+    for (int i = 0; i < batch.length; i++) {
+      ValueAnalysisState values = new ValueAnalysisState(MachineModel.LINUX64);
+      int variables = random.nextInt(MAX_VARIABLES);
+      for (int v = 0; v < variables; v++) {
+        values.assignConstant(
+            MemoryLocation.forIdentifier("main::var" + v),
+            new NumericValue(v),
+            CNumericTypes.SIGNED_INT);
+      }
+      batch[i] =
+          new CompositeState(
+              ImmutableList.of(
+                  new LocationOnlyState(nodes[random.nextInt(LOCATIONS)]),
+                  callstacks[random.nextInt(MAX_CALLSTACK_DEPTH)],
+                  values));
+    }
+  }
+
+  /** Push all states, then pop all states. */
+  @Benchmark
+  public int pushThenPop() {
+    Waitlist waitlist = factory.createWaitlistInstance();
+    for (int i = 0; i < states; i++) {
+      waitlist.add(batch[i]);
+    }
+    int popped = 0;
+    while (!waitlist.isEmpty()) {
+      waitlist.pop();
+      popped++;
+    }
+    return popped;
+  }
+
+  /** Push a batch of states, then pop one and push one (like a successor) alternately. */
+  @Benchmark
+  public int interleaved() {
+    Waitlist waitlist = factory.createWaitlistInstance();
+    for (int i = 0; i < states; i++) {
+      waitlist.add(batch[i]);
+    }
+    int popped = 0;
+    for (int i = states; i < batch.length; i++) {
+      waitlist.pop();
+      waitlist.add(batch[i]);
+      popped++;
+    }
+    while (!waitlist.isEmpty()) {
+      waitlist.pop();
+      popped++;
+    }
+    return popped;
+  }
+
+  /** Push all states, then remove every second state (like refinement does), then pop the rest. */
+  @Benchmark
+  public int pushRemovePop() {
+    Waitlist waitlist = factory.createWaitlistInstance();
+    for (int i = 0; i < states; i++) {
+      waitlist.add(batch[i]);
+    }
+    int removed = 0;
+    for (int i = 0; i < states; i += 2) {
+      if (waitlist.remove(batch[i])) {
+        removed++;
+      }
+    }
+    while (!waitlist.isEmpty()) {
+      waitlist.pop();
+      removed++;
+    }
+    return removed;
+  }
+}
@@ -0,0 +1,85 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for building ARGs: creating {@link ARGState}s as successors of existing states, adding
+ * further parents (as merge does), and iterating over the children.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ARGStateBenchmark {
+
+  /** Number of states created per operation. */
+  @Param({"1000", "10000"})
+  private int states;
+
+  /** Number of children of each inner state. */
+  @Param({"1", "2", "8"})
+  private int branching;
+
+  /** Create a tree with the given branching factor in breadth-first order. */
+  @Benchmark
+  public ARGState createTree() {
+    ARGState[] created = new ARGState[states];
+    ARGState root = new ARGState(null, null);
+    created[0] = root;
+    for (int i = 1; i < states; i++) {
+      created[i] = new ARGState(null, created[(i - 1) / branching]);
+    }
+    return root;
+  }
+
+  /** Create a tree and additionally let each state cover its neighbor as second parent. */
+  @Benchmark
+  public ARGState createDag() {
+    ARGState[] created = new ARGState[states];
+    ARGState root = new ARGState(null, null);
+    created[0] = root;
+    for (int i = 1; i < states; i++) {
+      created[i] = new ARGState(null, created[(i - 1) / branching]);
+      if (i > 1) {
+        created[i].addParent(created[i - 1]);
+      }
+    }
+    return root;
+  }
+
+  /** Create a tree and traverse it once via the children of each state. */
+  @Benchmark
+  public void createAndTraverse(Blackhole pBlackhole) {
+    ARGState[] created = new ARGState[states];
+    created[0] = new ARGState(null, null);
+    for (int i = 1; i < states; i++) {
+      created[i] = new ARGState(null, created[(i - 1) / branching]);
+    }
+    for (ARGState state : created) {
+      for (ARGState child : state.getChildren()) {
+        pBlackhole.consume(child);
+      }
+    }
+  }
+}
@@ -0,0 +1,145 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.io.TempFile;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.WitnessParseException;
+import org.sosy_lab.cpachecker.cpa.automaton.GraphMLReader.ElementHandler;
+import org.sosy_lab.cpachecker.util.PeakHeapProfiler;
+
+/**
+ * Benchmark for reading large generated violation witnesses with the streaming (StAX) reader and
+ * with the DOM-based reader. The handler keeps all elements, like {@link AutomatonGraphmlParser}
+ * keeps the states and transitions created from them, so the difference in memory consumption is
+ * only caused by the DOM.
+ *
+ * <p>Use the {@link PeakHeapProfiler} to compare the peak heap usage in addition to the time,
+ * e.g., with {@code -Djmh.args="GraphMLReaderBenchmark -prof
+ * org.sosy_lab.cpachecker.util.PeakHeapProfiler"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class GraphMLReaderBenchmark {
+
+  public enum Reader {
+    STREAMING,
+    DOCUMENT,
+  }
+
+  @Param({"STREAMING", "DOCUMENT"})
+  private Reader reader;
+
+  /** Number of edges in the witness, which is a path with one more node. */
+  @Param({"10000", "100000", "1000000"})
+  private int edges;
+
+  private Path witness;
+
+  private static class RetainingHandler implements ElementHandler {
+
+    private final List<GraphMLElement> elements = new ArrayList<>();
+
+    @Override
+    public void handleNode(GraphMLElement pNode) {
+      elements.add(pNode);
+    }
+
+    @Override
+    public void handleEdge(GraphMLElement pEdge) {
+      elements.add(pEdge);
+    }
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    witness = TempFile.builder().prefix("witness").suffix(".graphml").create();
+    try (BufferedWriter out = Files.newBufferedWriter(witness, UTF_8)) {
+      out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+      out.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+      out.write("<graph edgedefault=\"directed\">\n");
+      out.write("<data key=\"witness-type\">violation_witness</data>\n");
+      out.write("<data key=\"sourcecodelang\">C</data>\n");
+      out.write("<data key=\"producer\">CPAchecker</data>\n");
+      out.write("<data key=\"specification\">CHECK( init(main()), LTL(G ! call(reach_error())) )");
+      out.write("</data>\n");
+      out.write("<node id=\"N0\"><data key=\"entry\">true</data></node>\n");
+      for (int i = 1; i <= edges; i++) {
+        out.write("<node id=\"N" + i + "\"");
+        if (i == edges) {
+          out.write("><data key=\"violation\">true</data></node>\n");
+        } else {
+          out.write("/>\n");
+        }
+        out.write("<edge source=\"N" + (i - 1) + "\" target=\"N" + i + "\">\n");
+        out.write("<data key=\"startline\">" + (i % 1000 + 1) + "</data>\n");
+        out.write("<data key=\"originfile\">/tmp/program.c</data>\n");
+        if (i % 3 == 0) {
+          out.write("<data key=\"control\">condition-" + (i % 2 == 0 ? "true" : "false"));
+          out.write("</data>\n");
+        }
+        if (i % 5 == 0) {
+          out.write("<data key=\"assumption\">x" + (i % 100) + " == " + i + ";</data>\n");
+          out.write("<data key=\"assumption.scope\">main</data>\n");
+        }
+        out.write("</edge>\n");
+      }
+      out.write("</graph>\n");
+      out.write("</graphml>\n");
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(witness);
+  }
+
+  @Benchmark
+  public int read() throws IOException, WitnessParseException {
+    RetainingHandler handler = new RetainingHandler();
+    try (InputStream input = Files.newInputStream(witness)) {
+      switch (reader) {
+        case STREAMING:
+          GraphMLReader.readStreaming(input, handler);
+          break;
+        case DOCUMENT:
+          GraphMLReader.readDocument(input, handler);
+          break;
+        default:
+          throw new AssertionError();
+      }
+    }
+    return handler.elements.size();
+  }
+}
@@ -0,0 +1,102 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.invariants;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the arithmetic on {@link CompoundBitVectorInterval}s that the invariants analysis
+ * performs when evaluating expressions. The operands consist of several disjoint intervals, as
+ * they occur after joins of states.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompoundBitVectorIntervalBenchmark {
+
+  private static final OverflowEventHandler OVERFLOW = OverflowEventHandler.EMPTY;
+
+  /** Number of disjoint intervals in each operand. */
+  @Param({"1", "4", "16"})
+  private int pieces;
+
+  @Param({"true", "false"})
+  private boolean allowSignedWrapAround;
+
+  private CompoundBitVectorInterval left;
+  private CompoundBitVectorInterval right;
+
+  @Setup
+  public void setup() {
+    BitVectorInfo info = BitVectorInfo.from(32, true);
+    left = create(info, -1000, 50);
+    right = create(info, 3, 7);
+  }
+
+  private CompoundBitVectorInterval create(BitVectorInfo pInfo, long pStart, long pWidth) {
+    CompoundBitVectorInterval result = CompoundBitVectorInterval.singleton(pInfo, pStart);
+    for (int i = 0; i < pieces; i++) {
+      long lower = pStart + i * 2 * pWidth;
+      result =
+          result.unionWith(
+              CompoundBitVectorInterval.cast(
+                  pInfo,
+                  BigInteger.valueOf(lower),
+                  BigInteger.valueOf(lower + pWidth),
+                  allowSignedWrapAround,
+                  OVERFLOW));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval add() {
+    return left.add(right, allowSignedWrapAround, OVERFLOW);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval multiply() {
+    return left.multiply(right, allowSignedWrapAround, OVERFLOW);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval divide() {
+    return left.divide(right, allowSignedWrapAround, OVERFLOW);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval modulo() {
+    return left.modulo(right, allowSignedWrapAround, OVERFLOW);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval binaryAnd() {
+    return left.binaryAnd(right, allowSignedWrapAround, OVERFLOW);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval unionWith() {
+    return left.unionWith(right);
+  }
+}
@@ -0,0 +1,84 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.value;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Benchmark for the operations on {@link ValueAnalysisState} that the value analysis performs for
+ * every transfer and merge: copying a state, assigning a variable in the copy, and joining two
+ * states that differ in some variables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueAnalysisStateBenchmark {
+
+  /** Number of variables in each state. */
+  @Param({"10", "100", "1000"})
+  private int variables;
+
+  private MemoryLocation[] locations;
+  private ValueAnalysisState state;
+  private ValueAnalysisState otherState;
+
+  @Setup
+  public void setup() {
+    locations = new MemoryLocation[variables];
+    state = new ValueAnalysisState(MachineModel.LINUX64);
+    otherState = new ValueAnalysisState(MachineModel.LINUX64);
+    for (int i = 0; i < variables; i++) {
+      locations[i] = MemoryLocation.forIdentifier("main::var" + i);
+      state.assignConstant(locations[i], new NumericValue(i), CNumericTypes.SIGNED_INT);
+      // every second variable has a different value in the other state
+      otherState.assignConstant(
+          locations[i], new NumericValue(i % 2 == 0 ? i : -i), CNumericTypes.SIGNED_INT);
+    }
+  }
+
+  @Benchmark
+  public ValueAnalysisState copy() {
+    return ValueAnalysisState.copyOf(state);
+  }
+
+  @Benchmark
+  public ValueAnalysisState copyAndAssign() {
+    ValueAnalysisState copy = ValueAnalysisState.copyOf(state);
+    copy.assignConstant(locations[variables / 2], new NumericValue(-1), CNumericTypes.SIGNED_INT);
+    return copy;
+  }
+
+  @Benchmark
+  public ValueAnalysisState joinEqual() {
+    return state.join(state);
+  }
+
+  @Benchmark
+  public ValueAnalysisState joinDifferent() {
+    return state.join(otherState);
+  }
+}
@@ -0,0 +1,146 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.bdd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.regions.Region;
+import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
+import org.sosy_lab.cpachecker.util.predicates.regions.SynchronizedRegionManager;
+
+/**
+ * Throughput benchmark for BDD operations that are executed concurrently by several threads on a
+ * shared region manager, as it happens for example in parallel BAM. PJBDD behind the global lock of
+ * {@link SynchronizedRegionManager} is compared with PJBDD used concurrently without a lock, as
+ * {@link BDDManagerFactory} creates it. Each invocation executes a fixed amount of work, which is
+ * split among the given number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ConcurrentRegionManagerBenchmark {
+
+  private static final int PREDICATES = 64;
+  private static final int TOTAL_OPERATIONS = 200_000;
+  private static final int CUBE_SIZE = 6;
+
+  public enum Implementation {
+    SYNCHRONIZED {
+      @Override
+      RegionManager create(Configuration pConfig) throws InvalidConfigurationException {
+        return new SynchronizedRegionManager(new PJBDDRegionManager(pConfig));
+      }
+    },
+    CONCURRENT {
+      @Override
+      RegionManager create(Configuration pConfig) throws InvalidConfigurationException {
+        return new BDDManagerFactory(pConfig, LogManager.createNullLogManager())
+            .createRegionManager();
+      }
+    };
+
+    abstract RegionManager create(Configuration pConfig) throws InvalidConfigurationException;
+  }
+
+  @Param private Implementation implementation;
+
+  @Param({"1", "2", "4", "8", "16"})
+  private int threads;
+
+  private RegionManager rmgr;
+  private Region[] predicates;
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void setup() throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("bdd.package", "PJBDD")
+            .setOption("bdd.synchronizeLibraryAccess", "true")
+            .build();
+    rmgr = implementation.create(config);
+    predicates = new Region[PREDICATES];
+    for (int i = 0; i < PREDICATES; i++) {
+      predicates[i] = rmgr.createPredicate();
+    }
+    executor = Executors.newFixedThreadPool(threads);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  public int applyOperations() throws InterruptedException, ExecutionException {
+    List<Future<Region>> results = new ArrayList<>(threads);
+    for (int t = 0; t < threads; t++) {
+      results.add(executor.submit(buildDisjunction(t, TOTAL_OPERATIONS / threads)));
+    }
+    int nonTrivial = 0;
+    for (Future<Region> result : results) {
+      if (!result.get().isTrue()) {
+        nonTrivial++;
+      }
+    }
+    return nonTrivial;
+  }
+
+  /**
+   * Build a disjunction of random cubes over the predicates and occasionally quantify a predicate
+   * away, similar to what the BDD and predicate analyses do.
+   */
+  private Callable<Region> buildDisjunction(int pSeed, int pOperations) {
+    return () -> {
+      Random random = new Random(pSeed);
+      Region result = rmgr.makeFalse();
+      int operations = 0;
+      while (operations < pOperations) {
+        Region cube = rmgr.makeTrue();
+        for (int i = 0; i < CUBE_SIZE; i++) {
+          Region predicate = predicates[random.nextInt(PREDICATES)];
+          cube = rmgr.makeAnd(cube, random.nextBoolean() ? predicate : rmgr.makeNot(predicate));
+        }
+        result = rmgr.makeOr(result, cube);
+        operations += 2 * CUBE_SIZE + 1;
+        if (random.nextInt(16) == 0) {
+          result = rmgr.makeExists(result, predicates[random.nextInt(PREDICATES)]);
+          operations++;
+        }
+      }
+      return result;
+    };
+  }
+}
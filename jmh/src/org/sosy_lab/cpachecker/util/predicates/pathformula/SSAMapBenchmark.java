@@ -0,0 +1,90 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.SSAMapBuilder;
+
+/**
+ * Benchmark for updating {@link SSAMap}s as it happens for every assignment during path-formula
+ * construction: a few indices of an existing map are incremented and a new map is built.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SSAMapBenchmark {
+
+  private static final CType TYPE = CNumericTypes.SIGNED_INT;
+
+  /** Number of variables in the SSAMap. */
+  @Param({"10", "100", "1000"})
+  private int variables;
+
+  /** Number of variables that are updated per operation. */
+  @Param({"1", "10"})
+  private int updates;
+
+  private String[] names;
+  private SSAMap ssa;
+
+  @Setup
+  public void setup() {
+    names = new String[variables];
+    SSAMapBuilder builder = SSAMap.emptySSAMap().builder();
+    for (int i = 0; i < variables; i++) {
+      names[i] = "main::var" + i;
+      builder.setIndex(names[i], TYPE, 1);
+    }
+    ssa = builder.build();
+  }
+
+  @Benchmark
+  public SSAMap updateExisting() {
+    SSAMapBuilder builder = ssa.builder();
+    for (int i = 0; i < updates; i++) {
+      String name = names[(i * 31) % variables];
+      builder.setIndex(name, TYPE, builder.getFreshIndex(name));
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public SSAMap addNew() {
+    SSAMapBuilder builder = ssa.builder();
+    for (int i = 0; i < updates; i++) {
+      builder.setIndex("main::fresh" + i, TYPE, 1);
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public int lookup() {
+    int sum = 0;
+    for (int i = 0; i < updates; i++) {
+      sum += ssa.getIndex(names[(i * 31) % variables]);
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,160 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2021 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.smg;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.cpachecker.cpa.smg2.util.SMGObjectsAndValues;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGHasValueEdge;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGObject;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGPointsToEdge;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGTargetSpecifier;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGValue;
+
+/**
+ * Benchmark for pruning unreachable objects from an SMG, as done when a function returns.
+ *
+ * <p>The heap is shaped like the heaps of the list-manipulating programs in
+ * test/programs/smgListAbstraction: it consists of several doubly-linked lists, each referenced
+ * from a variable. Before pruning, the first node of one list is removed (as in
+ * dll_2+_remove_*.c) or the whole list is dropped, such that the pruned part is small or large
+ * compared to the heap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SMGPruningBenchmark {
+
+  private static final BigInteger POINTER_SIZE = BigInteger.valueOf(64);
+  private static final BigInteger NODE_SIZE = BigInteger.valueOf(192);
+  private static final BigInteger NEXT_OFFSET = BigInteger.ZERO;
+  private static final BigInteger PREV_OFFSET = BigInteger.valueOf(64);
+  private static final BigInteger DATA_OFFSET = BigInteger.valueOf(128);
+
+  public enum Change {
+    REMOVE_FIRST_NODE,
+    DROP_LIST
+  }
+
+  @Param({"1", "16"})
+  private int lists;
+
+  @Param({"100", "1000"})
+  private int listLength;
+
+  @Param private Change change;
+
+  private SMG smg;
+  private Set<SMGObject> variables;
+  private SMG changedSmg;
+
+  @Setup
+  public void setup() {
+    smg = new SMG(POINTER_SIZE);
+    List<SMGObject> variablesList = new ArrayList<>(lists);
+    List<List<SMGObject>> allNodes = new ArrayList<>(lists);
+    for (int l = 0; l < lists; l++) {
+      SMGObject variable = SMGObject.of(0, POINTER_SIZE, BigInteger.ZERO);
+      smg = smg.copyAndAddObject(variable);
+      variablesList.add(variable);
+      List<SMGObject> nodes = new ArrayList<>(listLength);
+      for (int i = 0; i < listLength; i++) {
+        SMGObject node = SMGObject.of(0, NODE_SIZE, BigInteger.ZERO);
+        smg = smg.copyAndAddObject(node);
+        nodes.add(node);
+      }
+      link(variable, BigInteger.ZERO, nodes.get(0));
+      for (int i = 0; i < listLength; i++) {
+        SMGObject node = nodes.get(i);
+        link(node, NEXT_OFFSET, i + 1 < listLength ? nodes.get(i + 1) : smg.getNullObject());
+        link(node, PREV_OFFSET, i > 0 ? nodes.get(i - 1) : smg.getNullObject());
+        SMGValue data = SMGValue.of();
+        smg =
+            smg.copyAndAddValue(data)
+                .copyAndAddHVEdge(new SMGHasValueEdge(data, DATA_OFFSET, POINTER_SIZE), node);
+      }
+      allNodes.add(nodes);
+    }
+    variables = ImmutableSet.copyOf(variablesList);
+
+    // start from a pruned heap, such that only the following change needs to be inspected
+    smg = smg.copyAndPruneUnreachable(variables, new ArrayList<>());
+
+    SMGObject variable = variablesList.get(0);
+    SMGHasValueEdge head = smg.getEdges(variable).iterator().next();
+    switch (change) {
+      case REMOVE_FIRST_NODE:
+        List<SMGObject> nodes = allNodes.get(0);
+        SMGValue second = pointerTo(nodes.size() > 1 ? nodes.get(1) : smg.getNullObject());
+        changedSmg =
+            smg.copyAndRemoveHVEdges(ImmutableList.of(head), variable)
+                .copyAndAddHVEdge(
+                    new SMGHasValueEdge(second, BigInteger.ZERO, POINTER_SIZE), variable);
+        break;
+      case DROP_LIST:
+        changedSmg = smg.copyAndRemoveHVEdges(ImmutableList.of(head), variable);
+        break;
+      default:
+        throw new AssertionError(change);
+    }
+  }
+
+  private SMGValue pointerTo(SMGObject pTarget) {
+    SMGValue pointer = SMGValue.of();
+    smg =
+        smg.copyAndAddValue(pointer)
+            .copyAndAddPTEdge(
+                new SMGPointsToEdge(pTarget, BigInteger.ZERO, SMGTargetSpecifier.IS_REGION),
+                pointer);
+    return pointer;
+  }
+
+  private void link(SMGObject pSource, BigInteger pOffset, SMGObject pTarget) {
+    SMGValue pointer = pointerTo(pTarget);
+    smg = smg.copyAndAddHVEdge(new SMGHasValueEdge(pointer, pOffset, POINTER_SIZE), pSource);
+  }
+
+  @Benchmark
+  public SMG incrementalPruning() {
+    return changedSmg.copyAndPruneUnreachable(variables, new ArrayList<>());
+  }
+
+  /** Pruning based on the reachability of the whole heap, as done previously. */
+  @Benchmark
+  public SMG fullReachabilityPruning() {
+    SMGObjectsAndValues reachable = changedSmg.collectReachableObjectsAndValues(variables);
+    Set<SMGObject> unreachableObjects =
+        Sets.difference(changedSmg.getObjects(), reachable.getObjects()).immutableCopy();
+    Set<SMGValue> unreachableValues =
+        Sets.difference(changedSmg.getValues(), reachable.getValues()).immutableCopy();
+    return changedSmg
+        .copyAndRemoveObjects(unreachableObjects)
+        .copyAndRemoveValues(unreachableValues);
+  }
+}
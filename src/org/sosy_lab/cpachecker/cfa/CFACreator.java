@@ -29,9 +29,11 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPOutputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.Concurrency;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -41,6 +43,7 @@ import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.AExpression;
@@ -305,6 +308,7 @@ public class CFACreator {
     private final Timer parserInstantiationTime = new Timer();
     private final Timer totalTime = new Timer();
     private Timer parsingTime;
+    private @Nullable TimeSpan summedParsingTime;
     private Timer conversionTime;
     private final Timer checkTime = new Timer();
     private final Timer processingTime = new Timer();
@@ -327,6 +331,14 @@ public class CFACreator {
       out.println("  Time for loading parser:    " + parserInstantiationTime);
       out.println("  Time for CFA construction:  " + totalTime);
       out.println("    Time for parsing file(s): " + parsingTime);
+      if (summedParsingTime != null && parsingTime.getSumTime().compareTo(summedParsingTime) < 0) {
+        // files were parsed in parallel, so the wall time is less than the summed time
+        out.println(
+            "      Sum over all files:     " + summedParsingTime.formatAs(TimeUnit.SECONDS));
+        out.printf(
+            "      Speedup of parsing:     %.2f%n",
+            (double) summedParsingTime.asNanos() / parsingTime.getSumTime().asNanos());
+      }
       out.println("    Time for AST to CFA:      " + conversionTime);
       out.println("    Time for CFA sanity check:" + checkTime);
       out.println("    Time for post-processing: " + processingTime);
@@ -716,6 +728,7 @@ public class CFACreator {
     }
 
     parseResult = parser.parseFiles(sourceFiles);
+    stats.summedParsingTime = parser.getSummedParseTime();
 
     if (parseResult.isEmpty()) {
       switch (language) {
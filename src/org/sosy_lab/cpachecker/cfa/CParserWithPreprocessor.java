@@ -11,6 +11,8 @@ package org.sosy_lab.cpachecker.cfa;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
 import org.sosy_lab.cpachecker.cfa.parser.Scope;
@@ -42,6 +44,11 @@ class CParserWithPreprocessor implements CParser {
     return realParser.getParseTime();
   }
 
+  @Override
+  public @Nullable TimeSpan getSummedParseTime() {
+    return realParser.getSummedParseTime();
+  }
+
   @Override
   public Timer getCFAConstructionTime() {
     return realParser.getCFAConstructionTime();
@@ -11,7 +11,9 @@ package org.sosy_lab.cpachecker.cfa;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.exceptions.ParserException;
 
@@ -52,6 +54,15 @@ public interface Parser {
    */
   Timer getParseTime();
 
+  /**
+   * Return the time needed for parsing summed up over all parsed files. If several files are
+   * parsed in parallel, this is larger than the wall time measured by {@link #getParseTime()}.
+   * Optional method: may return null.
+   */
+  default @Nullable TimeSpan getSummedParseTime() {
+    return null;
+  }
+
   /**
    * Return a timer that measured the time need for CFA construction.
    * Optional method: may return null.
@@ -19,6 +19,7 @@ import org.sosy_lab.common.Classes;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.annotations.SuppressForbidden;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -63,6 +64,17 @@ public class Parsers {
     @Option(secure = true, description = "simplify simple const expressions like 1+2")
     private boolean simplifyConstExpressions = true;
 
+    @Option(
+        secure = true,
+        description =
+            "Number of threads for parsing the source files of a program in parallel. "
+                + "Only the parsing with Eclipse CDT is parallelized, the conversion of the "
+                + "parsed files into the CFA (including the CFAs of all functions) is still "
+                + "done sequentially in the order of the files, "
+                + "so the result does not depend on this option.")
+    @IntegerOption(min = 1)
+    private int parallelParsingThreads = 1;
+
     public boolean initializeAllVariables() {
       return initializeAllVariables;
     }
@@ -78,6 +90,10 @@ public class Parsers {
     public boolean simplifyConstExpressions() {
       return simplifyConstExpressions;
     }
+
+    public int getParallelParsingThreads() {
+      return parallelParsingThreads;
+    }
   }
 
   private Parsers() { }
@@ -14,10 +14,12 @@ import com.google.common.base.CharMatcher;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -29,6 +31,10 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
 import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
 import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
@@ -49,9 +55,11 @@ import org.eclipse.cdt.internal.core.parser.InternalParserUtil;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContentProvider;
 import org.eclipse.core.runtime.CoreException;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.log.LogManagerWithoutDuplicates;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CParser;
 import org.sosy_lab.cpachecker.cfa.CProgramScope;
@@ -62,6 +70,7 @@ import org.sosy_lab.cpachecker.cfa.parser.Parsers.EclipseCParserOptions;
 import org.sosy_lab.cpachecker.cfa.parser.Scope;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.exceptions.CParserException;
+import org.sosy_lab.cpachecker.util.statistics.StatConcurrentTimer;
 
 /** Wrapper for Eclipse CDT */
 class EclipseCParser implements CParser {
@@ -76,6 +85,8 @@ class EclipseCParser implements CParser {
   private final ShutdownNotifier shutdownNotifier;
 
   private final Timer parseTimer = new Timer();
+  private final StatConcurrentTimer fileParseTimer =
+      new StatConcurrentTimer("Time for parsing single files");
   private final Timer cfaTimer = new Timer();
 
   public EclipseCParser(
@@ -146,21 +157,90 @@ class EclipseCParser implements CParser {
     ParseContext parseContext =
         new ParseContext(createNiceFileNameFunction(fileNameMapping.keySet()), sourceOriginMapping);
 
-    List<IASTTranslationUnit> astUnits = new ArrayList<>(pInput.size());
-
-    for (FileToParse f : pInput) {
-      final Path fileName = fixPath(f.getFileName());
-
-      try {
-        astUnits.add(parse(pWrapperFunction.wrap(fileName, f), parseContext));
-      } catch (IOException e) {
-        throw new CParserException("IO failed!", e);
+    List<IASTTranslationUnit> astUnits;
+    parseTimer.start();
+    try {
+      if (pInput.size() > 1 && options.getParallelParsingThreads() > 1) {
+        astUnits = parseInParallel(pInput, parseContext, pWrapperFunction);
+      } else {
+        astUnits = new ArrayList<>(pInput.size());
+        for (FileToParse f : pInput) {
+          astUnits.add(parseFile(f, parseContext, pWrapperFunction, parserLog));
+        }
       }
+    } finally {
+      parseTimer.stop();
     }
 
     return buildCFA(astUnits, parseContext, scope);
   }
 
+  private IASTTranslationUnit parseFile(
+      FileToParse pFile,
+      ParseContext pParseContext,
+      FileParseWrapper pWrapperFunction,
+      IParserLogService pParserLog)
+      throws CParserException, InterruptedException {
+    try {
+      FileContent content = pWrapperFunction.wrap(fixPath(pFile.getFileName()), pFile);
+      return parse(content, pParseContext, pParserLog);
+    } catch (IOException e) {
+      throw new CParserException("IO failed!", e);
+    }
+  }
+
+  /**
+   * Parse the given files with several threads. Translation units are independent of each other
+   * for Eclipse CDT, so they can be parsed in parallel. The creation of the CFA (including the
+   * {@link CFAFunctionBuilder}s, which share global scopes and node ids) is not parallelized and
+   * happens afterwards in {@link #buildCFA}. The result is in the same order as the input, so the
+   * CFA is identical to the one created from sequentially parsed files.
+   */
+  private List<IASTTranslationUnit> parseInParallel(
+      List<? extends FileToParse> pInput,
+      ParseContext pParseContext,
+      FileParseWrapper pWrapperFunction)
+      throws CParserException, InterruptedException {
+
+    int threads = Math.min(options.getParallelParsingThreads(), pInput.size());
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            threads,
+            new ThreadFactoryBuilder().setNameFormat("CParser-%d").setDaemon(true).build());
+    try {
+      List<Future<IASTTranslationUnit>> futures = new ArrayList<>(pInput.size());
+      for (FileToParse f : pInput) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  // the log adapter stores the currently running parser for cancellation,
+                  // so each parser needs its own instance
+                  ShutdownNotifierLogAdapter log = new ShutdownNotifierLogAdapter(shutdownNotifier);
+                  try {
+                    return parseFile(f, pParseContext, pWrapperFunction, log);
+                  } finally {
+                    shutdownNotifier.unregister(log);
+                  }
+                }));
+      }
+
+      List<IASTTranslationUnit> astUnits = new ArrayList<>(pInput.size());
+      for (Future<IASTTranslationUnit> future : futures) {
+        try {
+          astUnits.add(future.get());
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          Throwables.propagateIfPossible(cause, CParserException.class, InterruptedException.class);
+          throw new UnexpectedCheckedException("parsing of C file", cause);
+        }
+      }
+      return astUnits;
+
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Override
   public ParseResult parseFiles(List<String> pFilenames)
       throws CParserException, InterruptedException {
@@ -207,7 +287,13 @@ class EclipseCParser implements CParser {
   private IASTStatement[] parseCodeFragmentReturnBody(String pCode)
       throws CParserException, InterruptedException {
     // parse
-    IASTTranslationUnit ast = parse(wrapCode(Path.of("fragment"), pCode), ParseContext.dummy());
+    IASTTranslationUnit ast;
+    parseTimer.start();
+    try {
+      ast = parse(wrapCode(Path.of("fragment"), pCode), ParseContext.dummy(), parserLog);
+    } finally {
+      parseTimer.stop();
+    }
 
     // strip wrapping function header
     IASTDeclaration[] declarations = ast.getDeclarations();
@@ -289,11 +375,13 @@ class EclipseCParser implements CParser {
   // we don't use IASTName#getImageLocation(), so the parser doesn't need to create them
   protected static final int PARSER_OPTIONS = ILanguage.OPTION_NO_IMAGE_LOCATIONS;
 
-  private IASTTranslationUnit parse(FileContent codeReader, ParseContext parseContext)
+  /** Parse a single file, this method may be called concurrently by several threads. */
+  private IASTTranslationUnit parse(
+      FileContent codeReader, ParseContext parseContext, IParserLogService pParserLog)
       throws CParserException, InterruptedException {
-    parseTimer.start();
+    long start = fileParseTimer.start();
     try {
-      IASTTranslationUnit result = getASTTranslationUnit(codeReader);
+      IASTTranslationUnit result = getASTTranslationUnit(codeReader, pParserLog);
 
       // Separate handling of include problems
       // so that we can give a better error message.
@@ -319,11 +407,12 @@ class EclipseCParser implements CParser {
     } catch (CFAGenerationRuntimeException | CoreException e) {
       throw new CParserException(e);
     } finally {
-      parseTimer.stop();
+      fileParseTimer.stop(start);
     }
   }
 
-  private IASTTranslationUnit getASTTranslationUnit(FileContent pCode)
+  private IASTTranslationUnit getASTTranslationUnit(
+      FileContent pCode, IParserLogService pParserLog)
       throws CFAGenerationRuntimeException, CoreException, InterruptedException {
     try {
       return language.getASTTranslationUnit(
@@ -332,7 +421,7 @@ class EclipseCParser implements CParser {
           FileContentProvider.instance,
           null,
           PARSER_OPTIONS,
-          parserLog);
+          pParserLog);
     } finally {
       shutdownNotifier.shutdownIfNecessary();
     }
@@ -442,6 +531,11 @@ class EclipseCParser implements CParser {
     return parseTimer;
   }
 
+  @Override
+  public TimeSpan getSummedParseTime() {
+    return fileParseTimer.getConsumedTime();
+  }
+
   @Override
   public Timer getCFAConstructionTime() {
     return cfaTimer;
@@ -0,0 +1,86 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cfa.parser.eclipse.c;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/** Checks that parsing the files of a program in parallel results in the same CFA. */
+public class EclipseCParserTest {
+
+  private static final String DIR = "test/programs/simple/multipleCFiles/";
+
+  private static final ImmutableList<ImmutableList<String>> PROGRAMS =
+      ImmutableList.of(
+          ImmutableList.of(DIR + "test1/hello.c", DIR + "test1/hello_fn.c"),
+          ImmutableList.of(
+              DIR + "equalNamedTypes_save/main.c", DIR + "equalNamedTypes_save/func.c"));
+
+  private static CFA createCfa(List<String> pFiles, int pThreads) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("cfa.parallelParsingThreads", Integer.toString(pThreads))
+            .build();
+    return new CFACreator(config, LogManager.createTestLogManager(), ShutdownNotifier.createDummy())
+        .parseFileAndCreateCFA(pFiles);
+  }
+
+  /**
+   * Returns the edges of the CFA as strings. Nodes are identified by function and
+   * reverse-postorder id, because the node numbers differ between two created CFAs.
+   */
+  private static Set<String> getEdges(CFA pCfa) {
+    Set<String> edges = new HashSet<>();
+    for (CFANode node : pCfa.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.allLeavingEdges(node)) {
+        edges.add(
+            String.format(
+                "%s -> %s: %s %s (%s)",
+                describe(node),
+                describe(edge.getSuccessor()),
+                edge.getEdgeType(),
+                edge.getDescription(),
+                edge.getFileLocation()));
+      }
+    }
+    return edges;
+  }
+
+  private static String describe(CFANode pNode) {
+    return pNode.getFunctionName() + ":" + pNode.getReversePostorderId();
+  }
+
+  @Test
+  public void testSameCfaAsSequential() throws Exception {
+    for (List<String> program : PROGRAMS) {
+      CFA sequential = createCfa(program, 1);
+      CFA parallel = createCfa(program, program.size());
+
+      assertThat(parallel.getAllFunctionNames())
+          .containsExactlyElementsIn(sequential.getAllFunctionNames())
+          .inOrder();
+      assertThat(parallel.getAllNodes()).hasSize(sequential.getAllNodes().size());
+      assertThat(getEdges(parallel)).containsExactlyElementsIn(getEdges(sequential));
+    }
+  }
+}
@@ -199,6 +199,10 @@ public class CPABuilder {
         allCpas.size() == allCpaConfigs.size() + cpas.size() - placeholderCount,
         "Number of CPAs in final CPA tree does not match configured CPAs");
 
+    if (reachedSetFactory != null) {
+      reachedSetFactory.checkCompatibility(cpa);
+    }
+
     return cpa;
   }
 
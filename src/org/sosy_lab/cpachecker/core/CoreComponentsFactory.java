@@ -37,6 +37,8 @@ import org.sosy_lab.cpachecker.core.algorithm.InvariantExportAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.MPIPortfolioAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.NoopAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.ParallelAlgorithm;
+import org.sosy_lab.cpachecker.core.algorithm.ParallelCPAAlgorithm;
+import org.sosy_lab.cpachecker.core.algorithm.ProcessPortfolioAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.ProgramSplitAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.RandomTestGeneratorAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.RestartAlgorithm;
@@ -239,6 +241,15 @@ public class CoreComponentsFactory {
               + "get aborted.")
   private boolean useMPIProcessAlgorithm = false;
 
+  @Option(
+      secure = true,
+      name = "algorithm.processPortfolio",
+      description =
+          "Run analyses in parallel, each in its own child JVM on the local machine. The result is"
+              + " the one of the first analysis with a definitive result. All other processes"
+              + " are killed.")
+  private boolean useProcessPortfolioAlgorithm = false;
+
   @Option(
       secure = true,
       name = "algorithm.termination",
@@ -353,6 +364,14 @@ public class CoreComponentsFactory {
       description = "run the parallel BAM algortihm.")
   private boolean useParallelBAM = false;
 
+  @Option(
+      secure = true,
+      name = "algorithm.parallelCPA",
+      description =
+          "compute successors of several waitlist states in parallel"
+              + " (requires CPAs whose operators can be called concurrently)")
+  private boolean useParallelCPAAlgorithm = false;
+
   @Option(
       secure = true,
       name = "unknownIfUnrestrictedProgram",
@@ -508,6 +527,9 @@ public class CoreComponentsFactory {
     } else if (useMPIProcessAlgorithm) {
       algorithm = new MPIPortfolioAlgorithm(config, logger, shutdownNotifier, specification);
 
+    } else if (useProcessPortfolioAlgorithm) {
+      algorithm = new ProcessPortfolioAlgorithm(config, logger, shutdownNotifier, specification);
+
     } else if (useWitnessToInvariantAlgorithm) {
       try {
         algorithm =
@@ -536,7 +558,11 @@ public class CoreComponentsFactory {
       algorithm =
           new RandomTestGeneratorAlgorithm(config, logger, shutdownNotifier, cfa, specification);
     } else {
-      algorithm = CPAAlgorithm.create(cpa, logger, config, shutdownNotifier);
+      if (useParallelCPAAlgorithm) {
+        algorithm = new ParallelCPAAlgorithm(cpa, config, logger, shutdownNotifier);
+      } else {
+        algorithm = CPAAlgorithm.create(cpa, logger, config, shutdownNotifier);
+      }
 
       if (testGoalConverter) {
         algorithm =
@@ -773,6 +799,7 @@ public class CoreComponentsFactory {
         || useRestartingAlgorithm
         || useHeuristicSelectionAlgorithm
         || useParallelAlgorithm
+        || useProcessPortfolioAlgorithm
         || useProofCheckAlgorithmWithStoredConfig
         || useProofCheckWithARGCMCStrategy
         || asConditionalVerifier
@@ -249,7 +249,7 @@ public class MPIPortfolioAlgorithm implements Algorithm, StatisticsProvider {
   }
 
   @SuppressWarnings("deprecation")
-  private static String computeTimelimitForSubanalyses(Configuration pConfig)
+  static String computeTimelimitForSubanalyses(Configuration pConfig)
       throws InvalidConfigurationException {
     if (!pConfig.hasProperty("limits.time.cpu")) {
       return SubanalysisConfig.SUBPROCESS_DEFAULT_TIMELIMIT;
@@ -285,7 +285,7 @@ public class MPIPortfolioAlgorithm implements Algorithm, StatisticsProvider {
     return limitSubanalyses + "s";
   }
 
-  private static Path getPathOrThrowError(String pRequiredBin)
+  static Path getPathOrThrowError(String pRequiredBin)
       throws InvalidConfigurationException {
     Optional<Path> pathOpt =
         Stream.of(System.getenv("PATH").split(Pattern.quote(File.pathSeparator)))
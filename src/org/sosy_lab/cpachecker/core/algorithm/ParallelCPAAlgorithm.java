@@ -0,0 +1,551 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import com.google.common.base.Functions;
+import com.google.common.base.Throwables;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.ConcurrentReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ForwardingReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.SynchronizedReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGCPA;
+import org.sosy_lab.cpachecker.cpa.arg.ARGMergeJoinCPAEnabledAnalysis;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatConcurrentTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Multi-threaded variant of the {@link CPAAlgorithm}.
+ *
+ * <p>In each iteration, a batch of states is taken from the waitlist and their successors are
+ * computed (transfer relation and precision adjustment) in parallel on a work-stealing pool.
+ * Afterwards, the successors are committed to the reached set (merge, stop, and add). Successors
+ * that belong to different partitions of the reached set are committed in parallel, successors of
+ * the same partition are committed sequentially. For this, the reached set is used as a {@link
+ * ConcurrentReachedSet}, and wrapped in a {@link SynchronizedReachedSet} if necessary. All
+ * successors of one partition are committed by the same task, so merge and stop are never called
+ * concurrently for states of the same partition. The merge and stop operators of the {@link
+ * ARGCPA} also change the parents and children of states of other partitions, they guard these
+ * changes themselves. Only the merge operator {@link ARGMergeJoinCPAEnabledAnalysis}, which removes
+ * whole subgraphs from the reached set, requires that the successors are committed sequentially.
+ *
+ * <p>This algorithm is only sound if the operators of the CPA can be called concurrently. Forced
+ * covering is not supported.
+ */
+@Options(prefix = "cpa.parallel")
+public class ParallelCPAAlgorithm implements Algorithm, StatisticsProvider {
+
+  private static class ParallelCPAStatistics implements Statistics {
+
+    private final StatTimer totalTimer = new StatTimer("Total time for parallel CPA algorithm");
+    private final StatTimer chooseTimer = new StatTimer("Time for choose from waitlist");
+    private final StatTimer expandTimer = new StatTimer("Time for computing successors");
+    private final StatTimer commitTimer = new StatTimer("Time for committing successors");
+    private final StatConcurrentTimer transferTimer =
+        new StatConcurrentTimer("CPU time for transfer relation");
+    private final StatConcurrentTimer precisionTimer =
+        new StatConcurrentTimer("CPU time for precision adjustment");
+    private final StatConcurrentTimer mergeTimer =
+        new StatConcurrentTimer("CPU time for merge operator");
+    private final StatConcurrentTimer stopTimer =
+        new StatConcurrentTimer("CPU time for stop operator");
+
+    private final StatCounter countIterations = new StatCounter("Number of iterations");
+    private final StatInt batchSize = new StatInt(StatKind.AVG, "Size of batches");
+    private final StatInt partitionsPerBatch =
+        new StatInt(StatKind.AVG, "Partitions committed per batch");
+    private final StatInt countSuccessors =
+        new StatInt(StatKind.SUM, "Number of computed successors");
+    private final StatCounter countMerge = new StatCounter("Number of times merged");
+    private final StatCounter countStop = new StatCounter("Number of times stopped");
+    private final StatCounter countBreak = new StatCounter("Number of times breaked");
+
+    @Override
+    public String getName() {
+      return "Parallel CPA algorithm";
+    }
+
+    @Override
+    public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+      StatisticsWriter w = StatisticsWriter.writingStatisticsTo(out);
+      w.put(countIterations);
+      if (countIterations.getValue() == 0) {
+        return;
+      }
+      w.put(batchSize)
+          .put(partitionsPerBatch)
+          .put(countSuccessors)
+          .put(countMerge)
+          .put(countStop)
+          .put(countBreak)
+          .spacer()
+          .put(totalTimer)
+          .beginLevel()
+          .put(chooseTimer)
+          .put(expandTimer)
+          .beginLevel()
+          .put(transferTimer)
+          .put(precisionTimer)
+          .endLevel()
+          .put(commitTimer)
+          .beginLevel()
+          .put(mergeTimer)
+          .put(stopTimer);
+    }
+  }
+
+  /** One successor of a state from the waitlist after precision adjustment. */
+  private static class Successor {
+    private final AbstractState parent;
+    private final AbstractState state;
+    private final Precision precision;
+    private final Action action;
+    private volatile boolean committed = false;
+
+    private Successor(
+        AbstractState pParent, AbstractState pState, Precision pPrecision, Action pAction) {
+      parent = pParent;
+      state = pState;
+      precision = pPrecision;
+      action = pAction;
+    }
+  }
+
+  @Option(
+      secure = true,
+      description =
+          "number of threads, positive values match exactly, "
+              + "with -1 we use the number of available cores of the machine.")
+  private int numberOfThreads = -1;
+
+  @Option(
+      secure = true,
+      description =
+          "maximal number of states that are taken from the waitlist at once and expanded in"
+              + " parallel, with -1 we use four times the number of threads.")
+  private int batchSize = -1;
+
+  private final ParallelCPAStatistics stats = new ParallelCPAStatistics();
+
+  private final TransferRelation transferRelation;
+  private final MergeOperator mergeOperator;
+  private final StopOperator stopOperator;
+  private final PrecisionAdjustment precisionAdjustment;
+
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+
+  /** Lock for committing successors if this must not be done concurrently, null otherwise. */
+  private final @Nullable Object commitLock;
+
+  private final int threads;
+  private final int maxBatchSize;
+
+  public ParallelCPAAlgorithm(
+      ConfigurableProgramAnalysis pCpa,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (numberOfThreads == 0 || numberOfThreads < -1) {
+      throw new InvalidConfigurationException(
+          "Number of threads for parallel CPA algorithm must be positive or -1.");
+    }
+    if (batchSize == 0 || batchSize < -1) {
+      throw new InvalidConfigurationException(
+          "Batch size for parallel CPA algorithm must be positive or -1.");
+    }
+    transferRelation = pCpa.getTransferRelation();
+    mergeOperator = pCpa.getMergeOperator();
+    stopOperator = pCpa.getStopOperator();
+    precisionAdjustment = pCpa.getPrecisionAdjustment();
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    commitLock = mergeOperator instanceof ARGMergeJoinCPAEnabledAnalysis ? new Object() : null;
+
+    threads = numberOfThreads > 0 ? numberOfThreads : Runtime.getRuntime().availableProcessors();
+    maxBatchSize = batchSize > 0 ? batchSize : 4 * threads;
+  }
+
+  @Override
+  public AlgorithmStatus run(final ReachedSet pReachedSet)
+      throws CPAException, InterruptedException {
+    stats.totalTimer.start();
+    ForkJoinWorkerThreadFactory threadFactory =
+        pool -> {
+          ForkJoinWorkerThread thread =
+              ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+          thread.setName("ParallelCPA-thread-" + thread.getPoolIndex());
+          return thread;
+        };
+    ForkJoinPool pool = new ForkJoinPool(threads, threadFactory, null, false);
+    try {
+      return run0(asConcurrentReachedSet(pReachedSet), pool);
+    } finally {
+      pool.shutdownNow();
+      stats.totalTimer.stop();
+    }
+  }
+
+  private static ConcurrentReachedSet asConcurrentReachedSet(ReachedSet pReachedSet) {
+    ReachedSet inner = pReachedSet;
+    while (inner instanceof ForwardingReachedSet) {
+      inner = ((ForwardingReachedSet) inner).getDelegate();
+    }
+    if (inner instanceof ConcurrentReachedSet) {
+      return (ConcurrentReachedSet) inner;
+    }
+    return new SynchronizedReachedSet(pReachedSet);
+  }
+
+  private AlgorithmStatus run0(final ConcurrentReachedSet reachedSet, final ForkJoinPool pool)
+      throws CPAException, InterruptedException {
+    while (reachedSet.hasWaitingState()) {
+      shutdownNotifier.shutdownIfNecessary();
+      stats.countIterations.inc();
+
+      stats.chooseTimer.start();
+      List<Pair<AbstractState, Precision>> batch = new ArrayList<>(maxBatchSize);
+      while (batch.size() < maxBatchSize && reachedSet.hasWaitingState()) {
+        AbstractState state = reachedSet.popFromWaitlist();
+        batch.add(Pair.of(state, reachedSet.getPrecision(state)));
+      }
+      stats.chooseTimer.stop();
+      stats.batchSize.setNextValue(batch.size());
+      logger.log(Level.FINER, "Retrieved", batch.size(), "states from waitlist");
+
+      List<Successor> successors;
+      stats.expandTimer.start();
+      try {
+        successors = expand(batch, reachedSet, pool);
+      } catch (CPAException | InterruptedException e) {
+        // re-add the old states to the waitlist, there might be unhandled successors left
+        // that otherwise would be forgotten (which would be unsound)
+        reAddToWaitlist(batch, reachedSet);
+        throw e;
+      } finally {
+        stats.expandTimer.stop();
+      }
+
+      stats.commitTimer.start();
+      boolean breakRequested;
+      try {
+        breakRequested = commit(successors, reachedSet, pool);
+      } catch (CPAException | InterruptedException e) {
+        reAddToWaitlist(batch, reachedSet);
+        throw e;
+      } finally {
+        stats.commitTimer.stop();
+      }
+
+      if (breakRequested) {
+        // re-add the states that have unhandled successors left
+        for (Successor successor : successors) {
+          if (!successor.committed && reachedSet.contains(successor.parent)) {
+            reachedSet.reAddToWaitlist(successor.parent);
+          }
+        }
+        return AlgorithmStatus.SOUND_AND_PRECISE;
+      }
+    }
+    return AlgorithmStatus.SOUND_AND_PRECISE;
+  }
+
+  private void reAddToWaitlist(
+      List<Pair<AbstractState, Precision>> pBatch, ConcurrentReachedSet pReachedSet) {
+    for (Pair<AbstractState, Precision> entry : pBatch) {
+      if (pReachedSet.contains(entry.getFirst())) {
+        pReachedSet.reAddToWaitlist(entry.getFirst());
+      }
+    }
+  }
+
+  /**
+   * Compute the successors of all given states in parallel. The reached set is not modified in
+   * this phase.
+   */
+  private List<Successor> expand(
+      List<Pair<AbstractState, Precision>> pBatch,
+      UnmodifiableReachedSet pReachedSet,
+      ForkJoinPool pPool)
+      throws CPAException, InterruptedException {
+    List<Callable<List<Successor>>> tasks = new ArrayList<>(pBatch.size());
+    for (Pair<AbstractState, Precision> entry : pBatch) {
+      tasks.add(() -> expand(entry.getFirst(), entry.getSecond(), pReachedSet));
+    }
+    List<Successor> result = new ArrayList<>();
+    for (List<Successor> successors : invokeAll(pPool, tasks)) {
+      result.addAll(successors);
+    }
+    return result;
+  }
+
+  private List<Successor> expand(
+      AbstractState pState, Precision pPrecision, UnmodifiableReachedSet pReachedSet)
+      throws CPAException, InterruptedException {
+    logger.log(Level.ALL, "Current state is", pState, "with precision", pPrecision);
+
+    Collection<? extends AbstractState> successors;
+    long transferStart = stats.transferTimer.start();
+    try {
+      successors = transferRelation.getAbstractSuccessors(pState, pPrecision);
+    } finally {
+      stats.transferTimer.stop(transferStart);
+    }
+
+    int numSuccessors = successors.size();
+    logger.log(Level.FINER, "Current state has", numSuccessors, "successors");
+    stats.countSuccessors.setNextValue(numSuccessors);
+
+    List<Successor> result = new ArrayList<>(numSuccessors);
+    for (AbstractState successor : successors) {
+      shutdownNotifier.shutdownIfNecessary();
+      long precisionStart = stats.precisionTimer.start();
+      try {
+        Optional<PrecisionAdjustmentResult> precAdjustmentResult =
+            precisionAdjustment.prec(
+                successor, pPrecision, pReachedSet, Functions.identity(), successor);
+        if (precAdjustmentResult.isPresent()) {
+          PrecisionAdjustmentResult adjusted = precAdjustmentResult.orElseThrow();
+          result.add(
+              new Successor(
+                  pState, adjusted.abstractState(), adjusted.precision(), adjusted.action()));
+        }
+      } finally {
+        stats.precisionTimer.stop(precisionStart);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Commit all given successors to the reached set. Successors of different partitions are
+   * committed in parallel.
+   *
+   * @return true if the analysis should terminate because the precision adjustment signalled a
+   *     break
+   */
+  private boolean commit(
+      List<Successor> pSuccessors, ConcurrentReachedSet pReachedSet, ForkJoinPool pPool)
+      throws CPAException, InterruptedException {
+    Map<Object, List<Successor>> partitions = new LinkedHashMap<>();
+    for (Successor successor : pSuccessors) {
+      partitions
+          .computeIfAbsent(pReachedSet.getPartitionKey(successor.state), k -> new ArrayList<>())
+          .add(successor);
+    }
+    stats.partitionsPerBatch.setNextValue(partitions.size());
+
+    AtomicBoolean breakRequested = new AtomicBoolean(false);
+    List<Callable<Void>> tasks = new ArrayList<>(partitions.size());
+    for (List<Successor> partition : partitions.values()) {
+      tasks.add(
+          () -> {
+            commitPartition(partition, pReachedSet, breakRequested);
+            return null;
+          });
+    }
+    invokeAll(pPool, tasks);
+    return breakRequested.get();
+  }
+
+  private void commitPartition(
+      List<Successor> pSuccessors, ConcurrentReachedSet pReachedSet, AtomicBoolean pBreakRequested)
+      throws CPAException, InterruptedException {
+    for (Successor successor : pSuccessors) {
+      if (pBreakRequested.get()) {
+        return;
+      }
+      shutdownNotifier.shutdownIfNecessary();
+      if (commitLock != null) {
+        synchronized (commitLock) {
+          commitSuccessor(successor, pReachedSet, pBreakRequested);
+        }
+      } else {
+        commitSuccessor(successor, pReachedSet, pBreakRequested);
+      }
+    }
+  }
+
+  private void commitSuccessor(
+      Successor pSuccessor,
+      ConcurrentReachedSet pReachedSet,
+      AtomicBoolean pBreakRequested)
+      throws CPAException, InterruptedException {
+    logger.log(Level.ALL, "Successor of", pSuccessor.parent, "\nis", pSuccessor.state);
+
+    if (pSuccessor.action == Action.BREAK) {
+      long stopStart = stats.stopTimer.start();
+      boolean stop;
+      try {
+        stop =
+            stopOperator.stop(
+                pSuccessor.state, pReachedSet.getReached(pSuccessor.state), pSuccessor.precision);
+      } finally {
+        stats.stopTimer.stop(stopStart);
+      }
+
+      if (AbstractStates.isTargetState(pSuccessor.state) && stop) {
+        // don't signal BREAK for covered states
+        stats.countStop.inc();
+        logger.log(Level.FINER, "Break was signalled but ignored because the state is covered.");
+      } else {
+        stats.countBreak.inc();
+        logger.log(Level.FINER, "Break signalled, parallel CPA algorithm will stop.");
+        pReachedSet.add(pSuccessor.state, pSuccessor.precision);
+        pBreakRequested.set(true);
+      }
+      pSuccessor.committed = true;
+      return;
+    }
+    assert pSuccessor.action == Action.CONTINUE : "Enum Action has unhandled values!";
+
+    Collection<AbstractState> reached = pReachedSet.getReached(pSuccessor.state);
+
+    // An optimization, we don't bother merging if we know that the
+    // merge operator won't do anything (i.e., it is merge-sep).
+    if (mergeOperator != MergeSepOperator.getInstance() && !reached.isEmpty()) {
+      long mergeStart = stats.mergeTimer.start();
+      try {
+        merge(pSuccessor, reached, pReachedSet);
+        if (mergeOperator instanceof ARGMergeJoinCPAEnabledAnalysis) {
+          // this merge operator collects states to delete in a list, guarded by commitLock
+          ((ARGMergeJoinCPAEnabledAnalysis) mergeOperator).cleanUp(pReachedSet);
+        }
+      } finally {
+        stats.mergeTimer.stop(mergeStart);
+      }
+      // the collection might be a snapshot that does not contain the merged states
+      reached = pReachedSet.getReached(pSuccessor.state);
+    }
+
+    long stopStart = stats.stopTimer.start();
+    boolean stop;
+    try {
+      stop = stopOperator.stop(pSuccessor.state, reached, pSuccessor.precision);
+    } finally {
+      stats.stopTimer.stop(stopStart);
+    }
+
+    if (stop) {
+      logger.log(Level.FINER, "Successor is covered or unreachable, not adding to waitlist");
+      stats.countStop.inc();
+    } else {
+      logger.log(Level.FINER, "No need to stop, adding pSuccessor to waitlist");
+      pReachedSet.add(pSuccessor.state, pSuccessor.precision);
+    }
+    pSuccessor.committed = true;
+  }
+
+  private void merge(
+      Successor pSuccessor, Collection<AbstractState> pReached, ReachedSet pReachedSet)
+      throws CPAException, InterruptedException {
+    List<AbstractState> toRemove = new ArrayList<>();
+    List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
+    try {
+      logger.log(Level.FINER, "Considering", pReached.size(), "states from reached set for merge");
+      for (AbstractState reachedState : pReached) {
+        shutdownNotifier.shutdownIfNecessary();
+        AbstractState mergedState =
+            mergeOperator.merge(pSuccessor.state, reachedState, pSuccessor.precision);
+
+        if (!mergedState.equals(reachedState)) {
+          logger.log(Level.FINER, "Successor was merged with state from reached set");
+          logger.log(
+              Level.ALL, "Merged", pSuccessor.state, "\nand", reachedState, "\n-->", mergedState);
+          stats.countMerge.inc();
+
+          toRemove.add(reachedState);
+          toAdd.add(Pair.of(mergedState, pSuccessor.precision));
+        }
+      }
+    } finally {
+      // If we terminate, we should still update the reachedSet if necessary
+      // because ARGCPA doesn't like states in toRemove to be in the reachedSet.
+      pReachedSet.removeAll(toRemove);
+      pReachedSet.addAll(toAdd);
+    }
+  }
+
+  /**
+   * Execute all tasks in the given pool and wait for all of them to finish. If one of the tasks
+   * failed, its exception is re-thrown.
+   */
+  private static <T> List<T> invokeAll(ForkJoinPool pPool, List<Callable<T>> pTasks)
+      throws CPAException, InterruptedException {
+    List<Future<T>> futures = pPool.invokeAll(pTasks);
+    List<T> results = new ArrayList<>(futures.size());
+    @Nullable Throwable failure = null;
+    for (Future<T> future : futures) {
+      try {
+        results.add(future.get());
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        } else {
+          failure.addSuppressed(e.getCause());
+        }
+      }
+    }
+    if (failure != null) {
+      Throwables.propagateIfPossible(failure, CPAException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel CPA algorithm", failure);
+    }
+    return results;
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.add(stats);
+  }
+}
@@ -0,0 +1,99 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/** Tests that the {@link ParallelCPAAlgorithm} computes the same result as the CPA algorithm. */
+@RunWith(Parameterized.class)
+public class ParallelCPAAlgorithmTest {
+
+  private static final String PROGRAMS = "test/programs/simple/";
+
+  @Parameters(name = "{0}")
+  public static Object[] getPrograms() {
+    return new Object[] {
+      PROGRAMS + "functionCall.c",
+      PROGRAMS + "goto-loop1.c",
+      PROGRAMS + "explicit/explicitIgnoreFeatureVars.c"
+    };
+  }
+
+  @Parameter(0)
+  public String program;
+
+  private static ConfigurationBuilder configuration(boolean pParallel) {
+    return TestDataTools.configurationForTest()
+        .setOption("cpa", "cpa.arg.ARGCPA")
+        .setOption("ARGCPA.cpa", "cpa.composite.CompositeCPA")
+        .setOption(
+            "CompositeCPA.cpas",
+            "cpa.location.LocationCPA, cpa.callstack.CallstackCPA, cpa.value.ValueAnalysisCPA")
+        .setOption("specification", "config/specification/default.spc")
+        .setOption("analysis.algorithm.parallelCPA", Boolean.toString(pParallel))
+        .setOption("cpa.parallel.numberOfThreads", "4")
+        .setOption("cpa.parallel.batchSize", "3");
+  }
+
+  private CPAcheckerResult run(Configuration pConfig) throws Exception {
+    CPAcheckerResult result = CPATestRunner.run(pConfig, program).getCheckerResult();
+    assertThat(result.getResult()).isAnyOf(Result.TRUE, Result.FALSE);
+    return result;
+  }
+
+  @Test
+  public void testSameResultWithMergeSep() throws Exception {
+    CPAcheckerResult sequential = run(configuration(false).build());
+    CPAcheckerResult parallel = run(configuration(true).build());
+
+    assertThat(parallel.getResult()).isEqualTo(sequential.getResult());
+    if (sequential.getResult() == Result.TRUE) {
+      // The number of reached states depends on the order of exploration because of coverage,
+      // the reached locations do not. With a counterexample, the analysis stops at a state that
+      // depends on the order.
+      assertThat(getReachedLocations(parallel))
+          .containsExactlyElementsIn(getReachedLocations(sequential));
+    }
+  }
+
+  /**
+   * Returns the reached locations, identified by function and reverse-postorder id, because the
+   * node numbers differ between two runs.
+   */
+  private static Set<String> getReachedLocations(CPAcheckerResult pResult) {
+    return AbstractStates.extractLocations(pResult.getReached())
+        .transform(node -> node.getFunctionName() + ":" + node.getReversePostorderId())
+        .toSet();
+  }
+
+  @Test
+  public void testSameResultWithMergeJoin() throws Exception {
+    // merge-join of ARGCPA modifies the parents of merged states
+    CPAcheckerResult sequential =
+        run(configuration(false).setOption("cpa.value.merge", "JOIN").build());
+    CPAcheckerResult parallel =
+        run(configuration(true).setOption("cpa.value.merge", "JOIN").build());
+
+    assertThat(parallel.getResult()).isEqualTo(sequential.getResult());
+  }
+}
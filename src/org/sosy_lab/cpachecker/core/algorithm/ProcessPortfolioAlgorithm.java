@@ -0,0 +1,466 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.defaults.DummyTargetState;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.core.specification.Specification;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Portfolio of analyses that are run in parallel on the local machine, each in its own child JVM.
+ * In contrast to {@link ParallelAlgorithm}, the analyses do not share heap and garbage collector,
+ * and in contrast to {@link MPIPortfolioAlgorithm}, no MPI installation is required.
+ *
+ * <p>The children report their results and statistics over their standard output. As soon as one
+ * child reports a definitive result, all other children are killed.
+ */
+@Options(prefix = "processPortfolio")
+public class ProcessPortfolioAlgorithm implements Algorithm, StatisticsProvider {
+
+  private static final String MAIN_CLASS = "org.sosy_lab.cpachecker.cmdline.CPAMain";
+  private static final String TASKSET_BIN = "taskset";
+
+  private static final String RESULT_PREFIX = "Verification result:";
+  private static final String CPU_TIME_PREFIX = "Total CPU time for CPAchecker:";
+  private static final String HEAP_PREFIX = "Used heap memory:";
+  private static final Pattern SECONDS_PATTERN = Pattern.compile("(\\d+(?:\\.\\d+)?)s");
+
+  @Option(
+      secure = true,
+      required = true,
+      description = "List of configuration files, each of which is run in its own child process.")
+  @FileOption(FileOption.Type.REQUIRED_INPUT_FILE)
+  private List<Path> configFiles;
+
+  @Option(
+      secure = true,
+      description =
+          "Max. number of child processes. If not positive, one process per available processor"
+              + " is used. At most one process per configuration file is started.")
+  private int numberProcesses = 0;
+
+  @Option(
+      secure = true,
+      description =
+          "Max. Java heap size of each child process in the format of the -Xmx option of the JVM"
+              + " (e.g., 2000m). By default, the max. heap size of the main process is divided"
+              + " among the child processes.")
+  private @Nullable String heapSize = null;
+
+  @Option(
+      secure = true,
+      description =
+          "Pin each child process to its own range of processors with 'taskset'."
+              + " Only available on Linux.")
+  private boolean pinToProcessors = false;
+
+  @Option(
+      secure = true,
+      description =
+          "Directory for the output of the child processes."
+              + " If output is disabled, the child processes do not write output files either.")
+  @FileOption(FileOption.Type.OUTPUT_DIRECTORY)
+  private @Nullable Path outputDirectory = Path.of("portfolio");
+
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+  private final ProcessPortfolioAlgorithmStatistics stats =
+      new ProcessPortfolioAlgorithmStatistics();
+
+  private final ImmutableList<ChildProcess> children;
+
+  public ProcessPortfolioAlgorithm(
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      Specification pSpecification)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+
+    logger = checkNotNull(pLogger);
+    shutdownNotifier = checkNotNull(pShutdownNotifier);
+
+    int availableProcessors = Runtime.getRuntime().availableProcessors();
+    int processes = numberProcesses > 0 ? numberProcesses : availableProcessors;
+    processes = Math.min(processes, configFiles.size());
+    if (processes < 1) {
+      throw new InvalidConfigurationException("No configuration files for the portfolio given.");
+    }
+    if (configFiles.size() > processes) {
+      logger.logf(
+          Level.WARNING,
+          "Only the first %d of the %d configuration files of the portfolio are used.",
+          processes,
+          configFiles.size());
+    }
+
+    ImmutableList.Builder<String> jvmCommand = ImmutableList.builder();
+    if (pinToProcessors) {
+      jvmCommand.add(MPIPortfolioAlgorithm.getPathOrThrowError(TASKSET_BIN).toString());
+    }
+    jvmCommand.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    if (!isNullOrEmpty(heapSize)) {
+      jvmCommand.add("-Xmx" + heapSize);
+    } else if (Runtime.getRuntime().maxMemory() != Long.MAX_VALUE) {
+      long megabytes = Runtime.getRuntime().maxMemory() / processes / (1024 * 1024);
+      jvmCommand.add("-Xmx" + megabytes + "m");
+    }
+    jvmCommand.add("-classpath", System.getProperty("java.class.path"));
+
+    String timelimit = MPIPortfolioAlgorithm.computeTimelimitForSubanalyses(pConfig);
+    int processorsPerChild = Math.max(1, availableProcessors / processes);
+
+    ImmutableList.Builder<ChildProcess> childrenBuilder = ImmutableList.builder();
+    for (int i = 0; i < processes; i++) {
+      @Nullable String processors = null;
+      if (pinToProcessors) {
+        int first = (i * processorsPerChild) % availableProcessors;
+        processors = first + "-" + (first + processorsPerChild - 1);
+      }
+      childrenBuilder.add(
+          new ChildProcess(
+              i,
+              configFiles.get(i).getFileName().toString(),
+              buildCommandLine(
+                  i, jvmCommand.build(), processors, timelimit, pConfig, pSpecification)));
+    }
+    children = childrenBuilder.build();
+
+    stats.timelimit = timelimit;
+    stats.children = children;
+  }
+
+  /** Create a portfolio of the given commands, which need to behave like CPAchecker. */
+  @VisibleForTesting
+  ProcessPortfolioAlgorithm(
+      List<ImmutableList<String>> pCommandLines,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier) {
+    logger = checkNotNull(pLogger);
+    shutdownNotifier = checkNotNull(pShutdownNotifier);
+    ImmutableList.Builder<ChildProcess> childrenBuilder = ImmutableList.builder();
+    for (int i = 0; i < pCommandLines.size(); i++) {
+      childrenBuilder.add(new ChildProcess(i, "command", pCommandLines.get(i)));
+    }
+    children = childrenBuilder.build();
+    stats.timelimit = "none";
+    stats.children = children;
+  }
+
+  private ImmutableList<String> buildCommandLine(
+      int pIndex,
+      ImmutableList<String> pJvmCommand,
+      @Nullable String pProcessors,
+      String pTimelimit,
+      Configuration pGlobalConfig,
+      Specification pSpecification)
+      throws InvalidConfigurationException {
+    Path configPath = configFiles.get(pIndex);
+    @Nullable Path outputPath =
+        outputDirectory == null ? null : outputDirectory.resolve("analysis_" + pIndex);
+
+    // Keep all options of the main analysis except the ones for the portfolio itself,
+    // like MPIPortfolioAlgorithm does, and let the child print its statistics to stdout.
+    ConfigurationBuilder config =
+        Configuration.builder()
+            .copyFrom(pGlobalConfig)
+            .clearOption("analysis.algorithm.processPortfolio")
+            .clearOption("processPortfolio.configFiles")
+            .clearOption("processPortfolio.numberProcesses")
+            .clearOption("processPortfolio.heapSize")
+            .clearOption("processPortfolio.pinToProcessors")
+            .clearOption("processPortfolio.outputDirectory")
+            .clearOption("analysis.name")
+            .setOption("limits.time.cpu", pTimelimit)
+            .setOption("specification", Joiner.on(", ").join(pSpecification.getFiles()))
+            .setOption("statistics.print", "true")
+            .setOption("statistics.memory", "true");
+    if (outputPath != null) {
+      config.setOption("output.path", outputPath.toString());
+    } else {
+      config.setOption("output.disable", "true");
+    }
+
+    ImmutableList.Builder<String> cmdLine = ImmutableList.builder();
+    if (pProcessors != null) {
+      // the taskset binary is the first element of the JVM command
+      cmdLine.add(pJvmCommand.get(0), "-c", pProcessors);
+      cmdLine.addAll(pJvmCommand.subList(1, pJvmCommand.size()));
+    } else {
+      cmdLine.addAll(pJvmCommand);
+    }
+    cmdLine.add(MAIN_CLASS, "-config", configPath.toString());
+    String options = config.build().asPropertiesString();
+    for (String opt : Splitter.on('\n').omitEmptyStrings().split(options)) {
+      cmdLine.add("-setprop", opt);
+    }
+    return cmdLine.build();
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.add(stats);
+  }
+
+  @Override
+  public AlgorithmStatus run(ReachedSet pReachedSet) throws CPAException, InterruptedException {
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            children.size(),
+            new ThreadFactoryBuilder()
+                .setNameFormat("process-portfolio-output-%d")
+                .setDaemon(true)
+                .build());
+    CompletionService<ChildProcess> finishedChildren = new ExecutorCompletionService<>(executor);
+    ShutdownRequestListener killChildren = reason -> children.forEach(ChildProcess::kill);
+    shutdownNotifier.register(killChildren);
+
+    stats.totalTime.start();
+    try {
+      shutdownNotifier.shutdownIfNecessary();
+      for (ChildProcess child : children) {
+        child.start();
+        finishedChildren.submit(child::readOutput);
+      }
+      executor.shutdown();
+
+      for (int i = 0; i < children.size(); i++) {
+        ChildProcess child = finishedChildren.take().get();
+        shutdownNotifier.shutdownIfNecessary();
+
+        @Nullable CPAcheckerResult result = child.result;
+        if (result != null
+            && (result.getResult() == Result.TRUE || result.getResult() == Result.FALSE)) {
+          logger.logf(
+              Level.INFO, "Analysis %s finished first with result %s.", child, result.getResult());
+          stats.successfulChild = child;
+          pReachedSet.clear();
+          if (result.getResult() == Result.FALSE) {
+            // a reached set with one dummy target state reflects the violation in the main analysis
+            pReachedSet.add(
+                DummyTargetState.withSimpleTargetInformation(result.getTargetDescription()),
+                SingletonPrecision.getInstance());
+          }
+          return AlgorithmStatus.SOUND_AND_PRECISE;
+        }
+        logger.logf(Level.INFO, "Analysis %s finished without result.", child);
+      }
+
+      logger.log(Level.WARNING, "None of the analyses of the portfolio produced a result.");
+      return AlgorithmStatus.UNSOUND_AND_IMPRECISE;
+
+    } catch (IOException e) {
+      throw new CPAException("Running the analyses of the portfolio failed", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new CPAException("Reading the output of a child process failed", e.getCause());
+    } finally {
+      shutdownNotifier.unregister(killChildren);
+      children.forEach(ChildProcess::kill);
+      executor.shutdownNow();
+      stats.totalTime.stop();
+    }
+  }
+
+  private static @Nullable TimeSpan parseSeconds(String pValue) {
+    Matcher matcher = SECONDS_PATTERN.matcher(pValue);
+    if (!matcher.find()) {
+      return null;
+    }
+    BigDecimal seconds = new BigDecimal(matcher.group(1));
+    return TimeSpan.ofMillis(seconds.movePointRight(3).longValue());
+  }
+
+  /** One analysis of the portfolio and the child process that executes it. */
+  private class ChildProcess {
+
+    private final int index;
+    private final String name;
+    private final ImmutableList<String> cmdLine;
+
+    // The wall time is measured from the start of the process until the thread that reads its
+    // output sees it terminate or until it is killed, whichever happens first.
+    private volatile long startTime;
+    private volatile @Nullable TimeSpan wallTime = null;
+
+    private @Nullable Process process = null;
+
+    // The following fields are written by the thread that reads the output of the process
+    // or by the thread that kills it.
+    private volatile boolean killed = false;
+    private volatile @Nullable CPAcheckerResult result = null;
+    private volatile @Nullable TimeSpan cpuTime = null;
+    private volatile @Nullable String heapUsage = null;
+
+    ChildProcess(int pIndex, String pName, ImmutableList<String> pCmdLine) {
+      index = pIndex;
+      name = checkNotNull(pName);
+      cmdLine = checkNotNull(pCmdLine);
+    }
+
+    void start() throws IOException {
+      checkState(process == null);
+      logger.logf(Level.FINE, "Starting analysis %s: %s", this, cmdLine);
+      startTime = System.nanoTime();
+      process = new ProcessBuilder(cmdLine).redirectErrorStream(true).start();
+    }
+
+    /** Read the output of the process until it terminates. */
+    ChildProcess readOutput() throws IOException, InterruptedException {
+      Process p = checkNotNull(process);
+      try (BufferedReader output =
+          new BufferedReader(
+              new InputStreamReader(p.getInputStream(), Charset.defaultCharset()))) {
+        String line;
+        while ((line = output.readLine()) != null) {
+          handleOutput(line);
+        }
+      } catch (IOException e) {
+        if (!killed) {
+          throw e;
+        }
+        // the pipe was closed because we killed the process
+      }
+      int exitCode = p.waitFor();
+      recordWallTime();
+      logger.logf(Level.FINE, "Analysis %s terminated with exit code %d.", this, exitCode);
+      return this;
+    }
+
+    private void handleOutput(String pLine) {
+      logger.logf(Level.FINEST, "%s: %s", this, pLine);
+      if (pLine.startsWith(RESULT_PREFIX)) {
+        result = CPAcheckerResult.parseResultString(pLine).orElse(null);
+      } else if (pLine.startsWith(CPU_TIME_PREFIX)) {
+        cpuTime = parseSeconds(pLine.substring(CPU_TIME_PREFIX.length()));
+      } else if (pLine.startsWith(HEAP_PREFIX)) {
+        heapUsage = pLine.substring(HEAP_PREFIX.length()).strip();
+      }
+    }
+
+    /** Kill the process and all its descendants if it is still running. */
+    void kill() {
+      Process p = process;
+      if (p != null && p.isAlive()) {
+        killed = true;
+        recordWallTime();
+        // a killed process does not print its statistics, so we measure its CPU time here
+        p.info()
+            .totalCpuDuration()
+            .ifPresent(duration -> cpuTime = TimeSpan.ofNanos(duration.toNanos()));
+        p.descendants().forEach(ProcessHandle::destroyForcibly);
+        p.destroyForcibly();
+      }
+    }
+
+    private synchronized void recordWallTime() {
+      if (wallTime == null) {
+        wallTime = TimeSpan.ofNanos(System.nanoTime() - startTime);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d-%s", index, name);
+    }
+  }
+
+  private static class ProcessPortfolioAlgorithmStatistics implements Statistics {
+
+    private final Timer totalTime = new Timer();
+    private String timelimit;
+    private ImmutableList<ChildProcess> children = ImmutableList.of();
+    private @Nullable ChildProcess successfulChild = null;
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+      StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(pOut);
+      writer
+          .put("Number of child processes", children.size())
+          .put("Timelimit for the child processes", timelimit)
+          .put("Total time for the portfolio", totalTime);
+      if (successfulChild != null) {
+        writer.put("Successful analysis", successfulChild);
+      }
+
+      TimeSpan totalCpuTime = TimeSpan.ofNanos(0);
+      for (ChildProcess child : children) {
+        writer.put("Analysis " + child, child.killed ? "killed" : "finished").beginLevel();
+        @Nullable TimeSpan wallTime = child.wallTime;
+        if (wallTime != null) {
+          writer.put("Wall time", wallTime.formatAs(TimeUnit.SECONDS));
+        }
+        @Nullable TimeSpan cpuTime = child.cpuTime;
+        if (cpuTime != null) {
+          writer.put("CPU time", cpuTime.formatAs(TimeUnit.SECONDS));
+          totalCpuTime = TimeSpan.sum(totalCpuTime, cpuTime);
+        }
+        @Nullable String heapUsage = child.heapUsage;
+        if (heapUsage != null) {
+          writer.put("Used heap memory", heapUsage);
+        }
+        writer.endLevel();
+      }
+      writer.put("Total CPU time of the child processes", totalCpuTime.formatAs(TimeUnit.SECONDS));
+    }
+
+    @Override
+    public @Nullable String getName() {
+      return "Process Portfolio Algorithm";
+    }
+  }
+}
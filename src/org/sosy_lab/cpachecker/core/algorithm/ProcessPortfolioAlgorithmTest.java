@@ -0,0 +1,133 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.TruthJUnit.assume;
+
+import com.google.common.collect.ImmutableList;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.algorithm.Algorithm.AlgorithmStatus;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.alwaystop.AlwaysTopCPA;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Tests for {@link ProcessPortfolioAlgorithm} with shell commands that print results like
+ * CPAchecker instead of real analyses.
+ */
+public class ProcessPortfolioAlgorithmTest {
+
+  private static final String SHELL = "/bin/sh";
+
+  private static final String TRUE =
+      "echo 'Verification result: TRUE. No property violation found by chosen configuration.'";
+  private static final String FALSE =
+      "echo 'Verification result: FALSE. Property violation (unreach-call: reach_error();) found"
+          + " by chosen configuration.'";
+  private static final String UNKNOWN =
+      "echo 'Verification result: UNKNOWN, incomplete analysis.'";
+  private static final String HANG = "sleep 600";
+
+  private ReachedSet reached;
+
+  @Before
+  public void setUp() throws Exception {
+    assume().that(Files.isExecutable(Path.of(SHELL))).isTrue();
+    reached =
+        new ReachedSetFactory(
+                TestDataTools.configurationForTest().build(), LogManager.createTestLogManager())
+            .create(AlwaysTopCPA.INSTANCE);
+  }
+
+  private static ProcessPortfolioAlgorithm portfolio(String... pCommands) {
+    List<ImmutableList<String>> commandLines = new ArrayList<>();
+    for (String command : pCommands) {
+      commandLines.add(ImmutableList.of(SHELL, "-c", command));
+    }
+    return new ProcessPortfolioAlgorithm(
+        commandLines, LogManager.createTestLogManager(), ShutdownNotifier.createDummy());
+  }
+
+  private String statistics(ProcessPortfolioAlgorithm pAlgorithm) {
+    List<Statistics> stats = new ArrayList<>();
+    pAlgorithm.collectStatistics(stats);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(output, true, Charset.defaultCharset())) {
+      for (Statistics s : stats) {
+        s.printStatistics(out, Result.NOT_YET_STARTED, reached);
+      }
+    }
+    return output.toString(Charset.defaultCharset());
+  }
+
+  @Test(timeout = 60000)
+  public void testTrueResultKillsOtherChildren() throws Exception {
+    ProcessPortfolioAlgorithm algorithm = portfolio(HANG, TRUE, HANG);
+
+    AlgorithmStatus status = algorithm.run(reached);
+
+    assertThat(status).isEqualTo(AlgorithmStatus.SOUND_AND_PRECISE);
+    assertThat(reached.wasTargetReached()).isFalse();
+    String stats = statistics(algorithm);
+    assertThat(stats).containsMatch("Successful analysis:\\s+1-command");
+    assertThat(stats).containsMatch("Analysis 0-command:\\s+killed");
+    assertThat(stats).containsMatch("Analysis 1-command:\\s+finished");
+    assertThat(stats).containsMatch("Analysis 2-command:\\s+killed");
+  }
+
+  @Test(timeout = 60000)
+  public void testFalseResultIsReported() throws Exception {
+    ProcessPortfolioAlgorithm algorithm = portfolio(FALSE, HANG);
+
+    AlgorithmStatus status = algorithm.run(reached);
+
+    assertThat(status).isEqualTo(AlgorithmStatus.SOUND_AND_PRECISE);
+    assertThat(reached.wasTargetReached()).isTrue();
+    assertThat(AbstractStates.getTargetStates(reached)).hasSize(1);
+    assertThat(statistics(algorithm)).containsMatch("Analysis 1-command:\\s+killed");
+  }
+
+  @Test(timeout = 60000)
+  public void testUnknownResultsAreSkipped() throws Exception {
+    ProcessPortfolioAlgorithm algorithm = portfolio(UNKNOWN, "exit 1", "sleep 1; " + TRUE);
+
+    AlgorithmStatus status = algorithm.run(reached);
+
+    assertThat(status).isEqualTo(AlgorithmStatus.SOUND_AND_PRECISE);
+    assertThat(statistics(algorithm)).containsMatch("Successful analysis:\\s+2-command");
+  }
+
+  @Test(timeout = 60000)
+  public void testNoResult() throws Exception {
+    ProcessPortfolioAlgorithm algorithm = portfolio(UNKNOWN, "exit 1");
+
+    AlgorithmStatus status = algorithm.run(reached);
+
+    assertThat(status).isEqualTo(AlgorithmStatus.UNSOUND_AND_IMPRECISE);
+    assertThat(reached.wasTargetReached()).isFalse();
+    String stats = statistics(algorithm);
+    assertThat(stats).doesNotContain("Successful analysis");
+    assertThat(stats).doesNotContain("killed");
+  }
+}
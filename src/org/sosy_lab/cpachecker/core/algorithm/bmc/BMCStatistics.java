@@ -8,7 +8,13 @@
 
 package org.sosy_lab.cpachecker.core.algorithm.bmc;
 
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableList;
 import java.io.PrintStream;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
@@ -26,24 +32,48 @@ public class BMCStatistics implements Statistics {
 
   @Override
   public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
-    if (bmcPreparation.getNumberOfIntervals() > 0) {
-      out.println("Time for BMC formula creation:       " + bmcPreparation);
-    }
-    if (satCheck.getNumberOfIntervals() > 0) {
-      out.println("Time for final sat check:            " + satCheck);
-    }
-    if (errorPathCreation.getNumberOfIntervals() > 0) {
-      out.println("Time for error path creation:        " + errorPathCreation);
-    }
-    if (assertionsCheck.getNumberOfIntervals() > 0) {
-      out.println("Time for bounding assertions check:  " + assertionsCheck);
+    printStatistics(out, ImmutableList.of(this));
+  }
+
+  /**
+   * Print the statistics of several BMC algorithms, e.g., of algorithms that were run in parallel,
+   * as one section that contains the sum of their times.
+   */
+  public static void printStatistics(PrintStream out, Collection<BMCStatistics> pStatistics) {
+    printTimer(out, "Time for BMC formula creation:       ", pStatistics, s -> s.bmcPreparation);
+    printTimer(out, "Time for final sat check:            ", pStatistics, s -> s.satCheck);
+    printTimer(out, "Time for error path creation:        ", pStatistics, s -> s.errorPathCreation);
+    printTimer(out, "Time for bounding assertions check:  ", pStatistics, s -> s.assertionsCheck);
+    if (getNumberOfIntervals(pStatistics, s -> s.inductionCheck) > 0) {
+      out.println(
+          "Time for induction formula creation: "
+              + getSumTime(pStatistics, s -> s.inductionPreparation));
+      out.println(
+          "Time for induction check:            " + getSumTime(pStatistics, s -> s.inductionCheck));
     }
-    if (inductionCheck.getNumberOfIntervals() > 0) {
-      out.println("Time for induction formula creation: " + inductionPreparation);
-      out.println("Time for induction check:            " + inductionCheck);
+  }
+
+  private static void printTimer(
+      PrintStream out,
+      String pLabel,
+      Collection<BMCStatistics> pStatistics,
+      Function<BMCStatistics, Timer> pTimer) {
+    if (getNumberOfIntervals(pStatistics, pTimer) > 0) {
+      out.println(pLabel + getSumTime(pStatistics, pTimer));
     }
   }
 
+  private static int getNumberOfIntervals(
+      Collection<BMCStatistics> pStatistics, Function<BMCStatistics, Timer> pTimer) {
+    return pStatistics.stream().mapToInt(s -> pTimer.apply(s).getNumberOfIntervals()).sum();
+  }
+
+  private static String getSumTime(
+      Collection<BMCStatistics> pStatistics, Function<BMCStatistics, Timer> pTimer) {
+    return TimeSpan.sum(Collections2.transform(pStatistics, s -> pTimer.apply(s).getSumTime()))
+        .formatAs(TimeUnit.SECONDS);
+  }
+
   @Override
   public String getName() {
     return "BMC algorithm";
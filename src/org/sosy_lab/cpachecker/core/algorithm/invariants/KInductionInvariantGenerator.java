@@ -17,17 +17,21 @@ import com.google.common.base.Predicates;
 import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.PrintStream;
 import java.math.BigInteger;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -49,9 +53,12 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.LazyFutureTask;
 import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -93,6 +100,7 @@ import org.sosy_lab.cpachecker.core.algorithm.bmc.CandidateGenerator;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.StaticCandidateProvider;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.CandidateInvariant;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.EdgeFormulaNegation;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.ExpressionTreeCandidateInvariant;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.ExpressionTreeLocationInvariant;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.TargetLocationCandidateInvariant;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
@@ -113,10 +121,16 @@ import org.sosy_lab.cpachecker.util.ExpressionSubstitution.SubstitutionException
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.WitnessInvariantsExtractor;
 import org.sosy_lab.cpachecker.util.automaton.TargetLocationProvider;
+import org.sosy_lab.cpachecker.util.expressions.And;
+import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
+import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
+import org.sosy_lab.cpachecker.util.expressions.LeafExpression;
 import org.sosy_lab.cpachecker.util.resources.ResourceLimitChecker;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 import org.sosy_lab.cpachecker.util.variableclassification.Partition;
 import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.SolverException;
 
 /** Generate invariants using k-induction. */
@@ -152,6 +166,16 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
       description = "Check candidate invariants in a separate thread asynchronously."
     )
     private boolean async = true;
+
+    @Option(
+        secure = true,
+        description =
+            "Split the candidate invariants into independent groups according to the variable"
+                + " partitions of the variable classification and check up to this many groups"
+                + " concurrently, each with its own CPA and solver instance."
+                + " Invariants confirmed by one group are available immediately."
+                + " A value of 1 checks all candidates together.")
+    private int candidateGroupThreads = 1;
   }
 
   private static class KInductionInvariantGeneratorStatistics extends BMCStatistics {
@@ -162,6 +186,14 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
 
     private int numberOfConfirmedCandidates = 0;
 
+    private int numberOfCandidateGroups = 1;
+
+    /**
+     * The statistics of the BMC algorithms of the candidate groups if these are checked in
+     * parallel, which are printed as part of these statistics.
+     */
+    private final List<BMCStatistics> groupStatistics = new ArrayList<>();
+
     @Override
     public void printStatistics(PrintStream out, Result result, UnmodifiableReachedSet reached) {
       StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(out);
@@ -169,8 +201,17 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
       if (totalNumberOfCandidates != null) {
         writer.put("Total number of candidates", totalNumberOfCandidates);
       }
-      writer.put("Number of confirmed candidates", numberOfConfirmedCandidates);
-      super.printStatistics(out, result, reached);
+      synchronized (this) {
+        writer.put("Number of confirmed candidates", numberOfConfirmedCandidates);
+      }
+      if (numberOfCandidateGroups > 1) {
+        writer.put("Number of candidate groups checked in parallel", numberOfCandidateGroups);
+      }
+      if (groupStatistics.isEmpty()) {
+        super.printStatistics(out, result, reached);
+      } else {
+        BMCStatistics.printStatistics(out, groupStatistics);
+      }
     }
 
     @Override
@@ -181,8 +222,20 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
 
   private final KInductionInvariantGeneratorStatistics stats = new KInductionInvariantGeneratorStatistics();
 
-  private final BMCAlgorithmForInvariantGeneration algorithm;
-  private final ConfigurableProgramAnalysis cpa;
+  /**
+   * The algorithms that check the candidate invariants, one per group of candidates. Unless the
+   * candidates are checked in parallel groups, there is exactly one.
+   */
+  private final ImmutableList<BMCAlgorithmForInvariantGeneration> algorithms;
+
+  private final ImmutableList<ConfigurableProgramAnalysis> cpas;
+
+  /**
+   * The shutdown managers of the groups of candidates, which stop the remaining groups if one of
+   * them fails. Unless the candidates are checked in parallel groups, this is empty.
+   */
+  private final ImmutableList<ShutdownManager> groupShutdownManagers;
+
   private final ReachedSetFactory reachedSetFactory;
 
   private final LogManager logger;
@@ -226,6 +279,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
         specification,
         pReachedSetFactory,
         options.async,
+        options.candidateGroupThreads,
         getCandidateInvariants(
             options,
             pConfig,
@@ -256,6 +310,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
         specification,
         pReachedSetFactory,
         pAsync,
+        1,
         candidateGenerator,
         AggregatedReachedSets.empty());
   }
@@ -268,9 +323,14 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
       final Specification specification,
       final ReachedSetFactory pReachedSetFactory,
       final boolean pAsync,
+      final int pCandidateGroupThreads,
       final CandidateGenerator pCandidateGenerator,
       final AggregatedReachedSets pAggregatedReachedSets)
       throws InvalidConfigurationException, CPAException, InterruptedException {
+    if (pCandidateGroupThreads < 1) {
+      throw new InvalidConfigurationException(
+          "Number of threads for checking candidate groups needs to be positive.");
+    }
     logger = pLogger;
     shutdownManager = pShutdownNotifier;
 
@@ -285,80 +345,206 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
               .filter(Predicates.not(Predicates.instanceOf(TargetLocationCandidateInvariant.class)))
               .size();
     }
-    CandidateGenerator statisticsCandidateGenerator =
-        new CandidateGenerator() {
+    List<CandidateGenerator> candidateGenerators = ImmutableList.of(pCandidateGenerator);
+    // Subclasses of StaticCandidateProvider may track state across all candidates,
+    // so only plain providers are split.
+    if (pCandidateGroupThreads > 1
+        && pCandidateGenerator.getClass().equals(StaticCandidateProvider.class)
+        && cfa.getVarClassification().isPresent()) {
+      candidateGenerators =
+          FluentIterable.from(
+                  partitionCandidates(
+                      ((StaticCandidateProvider) pCandidateGenerator).getAllCandidates(),
+                      cfa.getVarClassification().orElseThrow(),
+                      pCandidateGroupThreads))
+              .<CandidateGenerator>transform(StaticCandidateProvider::new)
+              .toList();
+      stats.numberOfCandidateGroups = candidateGenerators.size();
+      logger.logf(
+          Level.FINE,
+          "Checking candidate invariants in %d groups in parallel.",
+          candidateGenerators.size());
+    }
 
-          private final Set<CandidateInvariant> confirmedCandidates = new HashSet<>();
+    ShutdownManager childShutdown = ShutdownManager.createWithParent(shutdownManager.getNotifier());
+    ResourceLimitChecker.fromConfiguration(config, logger, childShutdown).start();
 
-          @Override
-          public boolean produceMoreCandidates() {
-            return pCandidateGenerator.produceMoreCandidates();
-          }
+    ImmutableList.Builder<ConfigurableProgramAnalysis> cpasBuilder = ImmutableList.builder();
+    ImmutableList.Builder<BMCAlgorithmForInvariantGeneration> algorithmsBuilder =
+        ImmutableList.builder();
+    ImmutableList.Builder<ShutdownManager> groupShutdownManagersBuilder = ImmutableList.builder();
+    for (CandidateGenerator candidateGenerator : candidateGenerators) {
+      // Each group gets its own CPA and thus its own solver,
+      // because solver instances must not be shared between threads.
+      // Parallel groups also get their own shutdown manager and statistics.
+      ShutdownManager groupShutdown = shutdownManager;
+      ShutdownNotifier groupNotifier = childShutdown.getNotifier();
+      BMCStatistics bmcStats = stats;
+      if (candidateGenerators.size() > 1) {
+        groupShutdown = ShutdownManager.createWithParent(childShutdown.getNotifier());
+        groupNotifier = groupShutdown.getNotifier();
+        bmcStats = new BMCStatistics();
+        groupShutdownManagersBuilder.add(groupShutdown);
+        stats.groupStatistics.add(bmcStats);
+      }
+      ConfigurableProgramAnalysis cpa =
+          new CPABuilder(config, logger, groupNotifier, pReachedSetFactory)
+              .buildCPAs(cfa, specification, pAggregatedReachedSets);
+      Algorithm cpaAlgorithm = CPAAlgorithm.create(cpa, logger, config, groupNotifier);
+      cpasBuilder.add(cpa);
+      algorithmsBuilder.add(
+          new BMCAlgorithmForInvariantGeneration(
+              cpaAlgorithm,
+              cpa,
+              config,
+              logger,
+              pReachedSetFactory,
+              groupShutdown,
+              cfa,
+              specification,
+              bmcStats,
+              withStatistics(candidateGenerator),
+              pAggregatedReachedSets));
+    }
+    cpas = cpasBuilder.build();
+    algorithms = algorithmsBuilder.build();
+    groupShutdownManagers = groupShutdownManagersBuilder.build();
+  }
 
-          @Override
-          public Iterator<CandidateInvariant> iterator() {
-            final Iterator<CandidateInvariant> it = pCandidateGenerator.iterator();
-            return new Iterator<>() {
+  /** Wrap a candidate generator such that confirmed candidates are counted in the statistics. */
+  private CandidateGenerator withStatistics(final CandidateGenerator pCandidateGenerator) {
+    return new CandidateGenerator() {
 
-              @Override
-              public boolean hasNext() {
-                return it.hasNext();
-              }
+      private final Set<CandidateInvariant> confirmedCandidates = new HashSet<>();
 
-              @Override
-              public CandidateInvariant next() {
-                return it.next();
-              }
+      @Override
+      public boolean produceMoreCandidates() {
+        return pCandidateGenerator.produceMoreCandidates();
+      }
 
-              @Override
-              public void remove() {
-                it.remove();
-              }
-            };
-          }
+      @Override
+      public Iterator<CandidateInvariant> iterator() {
+        final Iterator<CandidateInvariant> it = pCandidateGenerator.iterator();
+        return new Iterator<>() {
 
           @Override
-          public boolean hasCandidatesAvailable() {
-            return pCandidateGenerator.hasCandidatesAvailable();
+          public boolean hasNext() {
+            return it.hasNext();
           }
 
           @Override
-          public Set<? extends CandidateInvariant> getConfirmedCandidates() {
-            return pCandidateGenerator.getConfirmedCandidates();
+          public CandidateInvariant next() {
+            return it.next();
           }
 
           @Override
-          public void confirmCandidates(Iterable<CandidateInvariant> pCandidates) {
-            pCandidateGenerator.confirmCandidates(pCandidates);
-            for (CandidateInvariant invariant : pCandidates) {
-              if (!(invariant instanceof TargetLocationCandidateInvariant)
-                  && confirmedCandidates.add(invariant)) {
-                ++stats.numberOfConfirmedCandidates;
-              }
-            }
+          public void remove() {
+            it.remove();
           }
         };
+      }
 
-    ShutdownManager childShutdown = ShutdownManager.createWithParent(shutdownManager.getNotifier());
-    ResourceLimitChecker.fromConfiguration(config, logger, childShutdown).start();
-    CPABuilder invGenBMCBuilder =
-        new CPABuilder(config, logger, childShutdown.getNotifier(), pReachedSetFactory);
-
-    cpa = invGenBMCBuilder.buildCPAs(cfa, specification, pAggregatedReachedSets);
-    Algorithm cpaAlgorithm = CPAAlgorithm.create(cpa, logger, config, childShutdown.getNotifier());
-    algorithm =
-        new BMCAlgorithmForInvariantGeneration(
-            cpaAlgorithm,
-            cpa,
-            config,
-            logger,
-            pReachedSetFactory,
-            shutdownManager,
-            cfa,
-            specification,
-            stats,
-            statisticsCandidateGenerator,
-            pAggregatedReachedSets);
+      @Override
+      public boolean hasCandidatesAvailable() {
+        return pCandidateGenerator.hasCandidatesAvailable();
+      }
+
+      @Override
+      public Set<? extends CandidateInvariant> getConfirmedCandidates() {
+        return pCandidateGenerator.getConfirmedCandidates();
+      }
+
+      @Override
+      public void confirmCandidates(Iterable<CandidateInvariant> pCandidates) {
+        pCandidateGenerator.confirmCandidates(pCandidates);
+        for (CandidateInvariant invariant : pCandidates) {
+          if (!(invariant instanceof TargetLocationCandidateInvariant)
+              && confirmedCandidates.add(invariant)) {
+            synchronized (stats) {
+              ++stats.numberOfConfirmedCandidates;
+            }
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * Split the given candidates into at most the given number of groups such that all candidates
+   * that refer to variables of the same partition of the variable classification are in the same
+   * group. Candidates that cannot be assigned to a single partition, e.g., because they refer to
+   * variables of several partitions or are no expression trees, are all put into the first group.
+   * The groups are balanced by their number of candidates.
+   */
+  static List<Set<CandidateInvariant>> partitionCandidates(
+      Iterable<CandidateInvariant> pCandidates,
+      VariableClassification pVarClassification,
+      int pMaxGroups) {
+    Map<String, Partition> partitionsOfVariables = new HashMap<>();
+    for (Partition partition : pVarClassification.getPartitions()) {
+      for (String variable : partition.getVars()) {
+        partitionsOfVariables.put(variable, partition);
+      }
+    }
+
+    Set<CandidateInvariant> unassigned = new LinkedHashSet<>();
+    Multimap<Partition, CandidateInvariant> candidatesByPartition = LinkedHashMultimap.create();
+    for (CandidateInvariant candidate : pCandidates) {
+      Partition partition = getPartition(candidate, partitionsOfVariables);
+      if (partition == null) {
+        unassigned.add(candidate);
+      } else {
+        candidatesByPartition.put(partition, candidate);
+      }
+    }
+
+    List<Set<CandidateInvariant>> groups = new ArrayList<>(pMaxGroups);
+    groups.add(unassigned);
+    for (int i = 1; i < pMaxGroups; i++) {
+      groups.add(new LinkedHashSet<>());
+    }
+    // Assign the largest partitions first, each to the currently smallest group.
+    List<Collection<CandidateInvariant>> partitionedCandidates =
+        new ArrayList<>(candidatesByPartition.asMap().values());
+    partitionedCandidates.sort(Comparator.comparingInt(Collection<?>::size).reversed());
+    for (Collection<CandidateInvariant> candidates : partitionedCandidates) {
+      Collections.min(groups, Comparator.comparingInt(Set::size)).addAll(candidates);
+    }
+    return FluentIterable.from(groups).filter(group -> !group.isEmpty()).toList();
+  }
+
+  /**
+   * Get the partition of all variables the given candidate refers to, or null if there is no
+   * unique such partition.
+   */
+  private static @Nullable Partition getPartition(
+      CandidateInvariant pCandidate, Map<String, Partition> pPartitionsOfVariables) {
+    if (!(pCandidate instanceof ExpressionTreeCandidateInvariant)) {
+      return null;
+    }
+    ExpressionTree<Object> expressionTree =
+        ((ExpressionTreeCandidateInvariant) pCandidate).asExpressionTree();
+    Partition result = null;
+    for (ExpressionTree<Object> tree : ExpressionTrees.traverseRecursively(expressionTree)) {
+      if (!(tree instanceof LeafExpression)) {
+        continue;
+      }
+      Object expression = ((LeafExpression<Object>) tree).getExpression();
+      if (!(expression instanceof AExpression)) {
+        return null;
+      }
+      for (AIdExpression idExpression :
+          CFAUtils.traverseRecursively((AExpression) expression).filter(AIdExpression.class)) {
+        ASimpleDeclaration decl = idExpression.getDeclaration();
+        Partition partition =
+            decl == null ? null : pPartitionsOfVariables.get(decl.getQualifiedName());
+        if (partition == null || (result != null && !result.equals(partition))) {
+          return null;
+        }
+        result = partition;
+      }
+    }
+    return result;
   }
 
   @Override
@@ -397,7 +583,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
 
     if ((async && !invariantGenerationFuture.isDone()) || cancelled.get()) {
       // grab intermediate result that is available so far
-      return algorithm.getCurrentInvariants();
+      return getCurrentInvariants();
 
     } else {
       try {
@@ -420,7 +606,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
 
     if ((async && !invariantGenerationFuture.isDone()) || cancelled.get()) {
       // grab intermediate result that is available so far
-      return algorithm.getCurrentInvariantsAsExpressionTree();
+      return getCurrentInvariantsAsExpressionTree();
 
     } else {
       try {
@@ -435,14 +621,53 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
     }
   }
 
+  /**
+   * Get the invariants confirmed so far by all groups of candidates. The returned supplier queries
+   * the groups on each request, so it also provides invariants that are confirmed later.
+   */
+  private InvariantSupplier getCurrentInvariants() {
+    if (algorithms.size() == 1) {
+      return algorithms.get(0).getCurrentInvariants();
+    }
+    return (pNode, pCallstackInformation, pFmgr, pPfmgr, pContext) -> {
+      BooleanFormulaManager bfmgr = pFmgr.getBooleanFormulaManager();
+      List<BooleanFormula> invariants = new ArrayList<>(algorithms.size());
+      for (BMCAlgorithmForInvariantGeneration algorithm : algorithms) {
+        invariants.add(
+            algorithm
+                .getCurrentInvariants()
+                .getInvariantFor(pNode, pCallstackInformation, pFmgr, pPfmgr, pContext));
+      }
+      return bfmgr.and(invariants);
+    };
+  }
+
+  /** Same as {@link #getCurrentInvariants()}, but for the invariants as expression trees. */
+  private ExpressionTreeSupplier getCurrentInvariantsAsExpressionTree() {
+    if (algorithms.size() == 1) {
+      return algorithms.get(0).getCurrentInvariantsAsExpressionTree();
+    }
+    return pNode -> {
+      List<ExpressionTree<Object>> invariants = new ArrayList<>(algorithms.size());
+      for (BMCAlgorithmForInvariantGeneration algorithm : algorithms) {
+        invariants.add(algorithm.getCurrentInvariantsAsExpressionTree().getInvariantFor(pNode));
+      }
+      return And.of(invariants);
+    };
+  }
+
   @Override
   public boolean isProgramSafe() {
-    return algorithm.isProgramSafe();
+    return algorithms.stream().anyMatch(BMCAlgorithmForInvariantGeneration::isProgramSafe);
   }
 
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
-    algorithm.collectStatistics(pStatsCollection);
+    for (BMCAlgorithmForInvariantGeneration algorithm : algorithms) {
+      algorithm.collectStatistics(pStatsCollection);
+    }
+    // the BMC statistics of parallel groups are printed aggregated as part of our statistics
+    pStatsCollection.removeIf(s -> stats.groupStatistics.stream().anyMatch(g -> g == s));
     pStatsCollection.add(stats);
   }
 
@@ -461,22 +686,81 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
       stats.invariantGeneration.start();
       shutdownManager.getNotifier().shutdownIfNecessary();
 
+      try {
+        if (algorithms.size() == 1) {
+          checkCandidates(0);
+        } else {
+          checkCandidatesInParallel();
+        }
+        return Pair.of(getCurrentInvariants(), getCurrentInvariantsAsExpressionTree());
+
+      } finally {
+        stats.invariantGeneration.stop();
+      }
+    }
+
+    /** Check the candidates of the group with the given index in the current thread. */
+    private void checkCandidates(int pGroup) throws InterruptedException, CPAException {
+      ConfigurableProgramAnalysis cpa = cpas.get(pGroup);
+      BMCAlgorithmForInvariantGeneration algorithm = algorithms.get(pGroup);
       try {
         ReachedSet reachedSet =
             reachedSetFactory.createAndInitialize(
                 cpa, initialLocation, StateSpacePartition.getDefaultPartition());
         algorithm.run(reachedSet);
-        return Pair.of(
-            algorithm.getCurrentInvariants(), algorithm.getCurrentInvariantsAsExpressionTree());
 
       } catch (SolverException e) {
         throw new CPAException("Solver Failure", e);
       } finally {
-        stats.invariantGeneration.stop();
         CPAs.closeCpaIfPossible(cpa, logger);
         CPAs.closeIfPossible(algorithm, logger);
       }
     }
+
+    /**
+     * Check all groups of candidates concurrently, each in its own thread. The invariants of a
+     * group are available from the suppliers as soon as they are confirmed, independently of the
+     * progress of the other groups.
+     */
+    private void checkCandidatesInParallel() throws InterruptedException, CPAException {
+      ExecutorService executor =
+          Executors.newFixedThreadPool(
+              algorithms.size(),
+              new ThreadFactoryBuilder()
+                  .setNameFormat("k-induction-invariant-generation-%d")
+                  .setDaemon(true)
+                  .build());
+      List<Future<?>> groupFutures = new ArrayList<>(algorithms.size());
+      for (int i = 0; i < algorithms.size(); i++) {
+        final int group = i;
+        groupFutures.add(
+            executor.submit(
+                () -> {
+                  checkCandidates(group);
+                  return null;
+                }));
+      }
+      executor.shutdown();
+
+      boolean finished = false;
+      try {
+        for (Future<?> groupFuture : groupFutures) {
+          groupFuture.get();
+        }
+        finished = true;
+      } catch (ExecutionException e) {
+        Throwables.propagateIfPossible(
+            e.getCause(), CPAException.class, InterruptedException.class);
+        throw new UnexpectedCheckedException("invariant generation", e.getCause());
+      } finally {
+        if (!finished) {
+          // stop the remaining groups if one of them failed or we were interrupted
+          for (ShutdownManager groupShutdown : groupShutdownManagers) {
+            groupShutdown.requestShutdown("Checking of another candidate group failed");
+          }
+        }
+      }
+    }
   }
 
   public static CandidateGenerator getCandidateInvariants(
@@ -598,12 +882,16 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
 
   @Override
   public void adjustmentSuccessful(ConfigurableProgramAnalysis pCpa) {
-    algorithm.adjustmentSuccessful(pCpa);
+    for (BMCAlgorithmForInvariantGeneration algorithm : algorithms) {
+      algorithm.adjustmentSuccessful(pCpa);
+    }
   }
 
   @Override
   public void adjustmentRefused(ConfigurableProgramAnalysis pCpa) {
-    algorithm.adjustmentRefused(pCpa);
+    for (BMCAlgorithmForInvariantGeneration algorithm : algorithms) {
+      algorithm.adjustmentRefused(pCpa);
+    }
   }
 
   private interface CfaCandidateInvariantExtractorFactory {
@@ -0,0 +1,130 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm.invariants;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.AExpression;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.CandidateInvariant;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.ExpressionTreeLocationInvariant;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.TargetLocationCandidateInvariant;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.expressions.And;
+import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
+import org.sosy_lab.cpachecker.util.expressions.LeafExpression;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
+
+public class KInductionInvariantGeneratorTest {
+
+  private CFA cfa;
+  private VariableClassification varClassification;
+  private final Map<String, CIdExpression> variables = new HashMap<>();
+
+  // a and b are in the same partition, c and d are in partitions of their own
+  private CandidateInvariant a;
+  private CandidateInvariant ab;
+  private CandidateInvariant c;
+  private CandidateInvariant d;
+  private CandidateInvariant ad;
+
+  @Before
+  public void setUp() throws Exception {
+    cfa =
+        TestDataTools.makeCFA(
+            "int main() {",
+            "  int a = 0; int b = 0; int c = 0; int d = 0;",
+            "  a = a + 1;",
+            "  b = a;",
+            "  c = c + 1;",
+            "  d = 2;",
+            "  return 0;",
+            "}");
+    varClassification = cfa.getVarClassification().orElseThrow();
+    for (CFANode node : cfa.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node).filter(CDeclarationEdge.class)) {
+        CDeclaration decl = ((CDeclarationEdge) edge).getDeclaration();
+        if (decl instanceof CVariableDeclaration) {
+          variables.put(decl.getName(), new CIdExpression(FileLocation.DUMMY, decl));
+        }
+      }
+    }
+
+    a = candidate(leaf("a"));
+    ab = candidate(And.of(leaf("a"), leaf("b")));
+    c = candidate(leaf("c"));
+    d = candidate(leaf("d"));
+    ad = candidate(And.of(leaf("a"), leaf("d")));
+  }
+
+  private ExpressionTree<AExpression> leaf(String pVariable) {
+    return LeafExpression.of(variables.get(pVariable));
+  }
+
+  private CandidateInvariant candidate(ExpressionTree<AExpression> pExpressionTree) {
+    return new ExpressionTreeLocationInvariant(
+        "group", cfa.getMainFunction(), pExpressionTree, new ConcurrentHashMap<>());
+  }
+
+  @Test
+  public void testPartitionsAreKeptTogether() {
+    List<CandidateInvariant> candidates =
+        ImmutableList.of(a, ab, c, d, ad, TargetLocationCandidateInvariant.INSTANCE);
+
+    List<Set<CandidateInvariant>> groups =
+        KInductionInvariantGenerator.partitionCandidates(candidates, varClassification, 2);
+
+    // candidates of several partitions and without partition are in the first group,
+    // the largest partition goes to the smallest group, and so on
+    assertThat(groups)
+        .containsExactly(
+            ImmutableSet.of(ad, TargetLocationCandidateInvariant.INSTANCE, c),
+            ImmutableSet.of(a, ab, d))
+        .inOrder();
+  }
+
+  @Test
+  public void testSingleGroup() {
+    List<CandidateInvariant> candidates =
+        ImmutableList.of(a, ab, c, d, ad, TargetLocationCandidateInvariant.INSTANCE);
+
+    List<Set<CandidateInvariant>> groups =
+        KInductionInvariantGenerator.partitionCandidates(candidates, varClassification, 1);
+
+    assertThat(groups).hasSize(1);
+    assertThat(groups.get(0)).containsExactlyElementsIn(candidates);
+  }
+
+  @Test
+  public void testEmptyGroupsAreDropped() {
+    List<Set<CandidateInvariant>> groups =
+        KInductionInvariantGenerator.partitionCandidates(
+            ImmutableList.of(a, ab, c, d), varClassification, 8);
+
+    assertThat(groups)
+        .containsExactly(ImmutableSet.of(a, ab), ImmutableSet.of(c), ImmutableSet.of(d));
+  }
+}
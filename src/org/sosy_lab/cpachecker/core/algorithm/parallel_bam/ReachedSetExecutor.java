@@ -50,7 +50,6 @@ import org.sosy_lab.cpachecker.cpa.bam.BAMCPAWithBreakOnMissingBlock;
 import org.sosy_lab.cpachecker.cpa.bam.BAMTransferRelation;
 import org.sosy_lab.cpachecker.cpa.bam.MissingBlockAbstractionState;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
-import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.UnsupportedCodeException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
@@ -482,33 +481,24 @@ class ReachedSetExecutor {
   /**
    * Get the reached-set for the missing block's analysis. If we already have a valid reached-set,
    * we return it. If the reached-set was missing when throwing the exception, we check the cache
-   * again. If the reached-set is missing, we create a new reached-set and the ReachedSetExecutor.
+   * again and create a new reached-set if it is still missing. The cache guarantees that only one
+   * reached-set is created even if several threads need the same block concurrently. Then we
+   * create the ReachedSetExecutor.
    *
    * @return a valid reached-set to be analyzed
    */
   private ReachedSetExecutor createAndRegisterNewReachedSet(MissingBlockAbstractionState pBsme) {
     ReachedSet newRs = pBsme.getReachedSet();
-    BAMDataManager data = bamcpa.getData();
-
-    synchronized (data) {
-      if (newRs == null) {
-        // We are only synchronized in the current method. Thus, we need to check
-        // the cache again, maybe another thread already created the needed reached-set.
-        final BAMCacheEntry entry =
-            data.getCache()
-                .get(pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
-        newRs = entry == null ? null : entry.getReachedSet();
-      }
 
-      // now we can be sure, whether the sub-reached-set exists or not.
-      if (newRs == null) {
-        // we have not even cached a partly computed reached-set,
-        // so we must compute the subgraph specification from scratch
-        BAMCacheEntry entry =
-            data.createAndRegisterNewReachedSet(
-                pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
-        newRs = entry.getReachedSet();
-      }
+    if (newRs == null) {
+      // Maybe another thread already created the needed reached-set in the meantime,
+      // otherwise we must compute the subgraph specification from scratch.
+      BAMCacheEntry entry =
+          bamcpa
+              .getData()
+              .getOrCreateReachedSet(
+                  pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
+      newRs = entry.getReachedSet();
     }
 
     // check whether we already have a matching RSE.
@@ -0,0 +1,407 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Striped;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.AbstractSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+
+/**
+ * Thread-safe implementation of a reached set that is partitioned like the {@link
+ * PartitionedReachedSet}, i.e., by the key from {@link Partitionable#getPartitionKey()}.
+ *
+ * <p>States, precisions, and partitions are stored in concurrent maps, such that lookups of
+ * precisions and calls to {@link #getReached(AbstractState)} never block. Adding and removing the
+ * same state is atomic, guarded by one of a fixed number of striped locks, so adding and removing
+ * different states blocks only if the states share a lock. A state is added to the map of
+ * precisions before it is added to its partition and to the waitlist, and removed from the map
+ * last, so every state taken from the waitlist or a partition has a precision. Each partition is
+ * kept sorted by the order of insertion in a lock-free skip list. Only the waitlist is guarded by a
+ * single lock, because the waitlist implementations are not thread-safe.
+ *
+ * <p>Iteration over the reached set and over the partitions returned by {@link
+ * #getReached(AbstractState)} preserves the order in which states were added and is weakly
+ * consistent, i.e., it never fails with a {@link java.util.ConcurrentModificationException} and
+ * reflects some of the modifications done after the iteration was started.
+ */
+public class ConcurrentPartitionedReachedSet implements ConcurrentReachedSet {
+
+  /** Replacement for partition key null, which is not allowed in concurrent maps. */
+  private static final Object NULL_KEY = new Object();
+
+  private static final int STATE_LOCK_STRIPES = 64;
+
+  /** Precision of a state and its position in the order of insertion. */
+  private static final class ReachedEntry {
+    private final Precision precision;
+    private final long index;
+
+    private ReachedEntry(Precision pPrecision, long pIndex) {
+      precision = pPrecision;
+      index = pIndex;
+    }
+  }
+
+  private final ConfigurableProgramAnalysis cpa;
+
+  private final ConcurrentMap<AbstractState, ReachedEntry> reached = new ConcurrentHashMap<>();
+  private final ConcurrentNavigableMap<Long, AbstractState> insertionOrder =
+      new ConcurrentSkipListMap<>();
+  private final AtomicLong nextIndex = new AtomicLong();
+  private final Set<AbstractState> unmodifiableReached = new ReachedView();
+
+  /** The partitions, each one contains its states sorted by their index of insertion. */
+  private final ConcurrentMap<Object, ConcurrentNavigableMap<Long, AbstractState>> partitions =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Locks that make add() and remove() atomic per state. Threads that add or remove different
+   * states block each other only if the states happen to map to the same lock.
+   */
+  private final Striped<Lock> stateLocks = Striped.lock(STATE_LOCK_STRIPES);
+
+  private final Waitlist waitlist;
+
+  private final AtomicReference<@Nullable AbstractState> firstState = new AtomicReference<>();
+  private volatile @Nullable AbstractState lastState = null;
+
+  public ConcurrentPartitionedReachedSet(
+      ConfigurableProgramAnalysis pCpa, WaitlistFactory pWaitlistFactory) {
+    cpa = checkNotNull(pCpa);
+    waitlist = pWaitlistFactory.createWaitlistInstance();
+  }
+
+  @Override
+  public Object getPartitionKey(AbstractState pState) {
+    checkNotNull(pState);
+    assert pState instanceof Partitionable
+        : "Partitionable states necessary for ConcurrentPartitionedReachedSet";
+    Object key = ((Partitionable) pState).getPartitionKey();
+    return key == null ? NULL_KEY : key;
+  }
+
+  @Override
+  public void add(AbstractState pState, Precision pPrecision) {
+    add(pState, pPrecision, /*updateWaitlist=*/ true);
+  }
+
+  @Override
+  public void addNoWaitlist(AbstractState pState, Precision pPrecision) {
+    add(pState, pPrecision, /*updateWaitlist=*/ false);
+  }
+
+  private void add(AbstractState pState, Precision pPrecision, boolean pUpdateWaitlist) {
+    checkNotNull(pState);
+    checkNotNull(pPrecision);
+
+    Lock lock = stateLocks.get(pState);
+    lock.lock();
+    try {
+      ReachedEntry previous = reached.get(pState);
+      if (previous != null) {
+        // State was already in the reached set, cf. DefaultReachedSet for the reasoning.
+        checkArgument(
+            pPrecision.equals(previous.precision),
+            "State added to reached set which is already contained, but with a different"
+                + " precision");
+        return;
+      }
+
+      // The state is put into the map first, such that every thread that finds it in the
+      // insertion order, in its partition, or in the waitlist can also get its precision.
+      long index = nextIndex.getAndIncrement();
+      reached.put(pState, new ReachedEntry(pPrecision, index));
+
+      if (insertionOrder.isEmpty()) {
+        firstState.compareAndSet(null, pState);
+      }
+      insertionOrder.put(index, pState);
+      getPartition(getPartitionKey(pState)).put(index, pState);
+      if (pUpdateWaitlist) {
+        synchronized (waitlist) {
+          waitlist.add(pState);
+        }
+      }
+      lastState = pState;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void addAll(Iterable<Pair<AbstractState, Precision>> pToAdd) {
+    for (Pair<AbstractState, Precision> pair : pToAdd) {
+      add(pair.getFirst(), pair.getSecond());
+    }
+  }
+
+  @Override
+  public void reAddToWaitlist(AbstractState pState) {
+    checkNotNull(pState);
+    checkArgument(reached.containsKey(pState), "State has to be in the reached set");
+
+    synchronized (waitlist) {
+      if (!waitlist.contains(pState)) {
+        waitlist.add(pState);
+      }
+    }
+  }
+
+  @Override
+  public void updatePrecision(AbstractState pState, Precision pNewPrecision) {
+    checkNotNull(pState);
+    checkNotNull(pNewPrecision);
+
+    ReachedEntry updated =
+        reached.computeIfPresent(
+            pState, (state, entry) -> new ReachedEntry(pNewPrecision, entry.index));
+    checkArgument(
+        updated != null,
+        "State needs to be in the reached set in order to change the precision.");
+  }
+
+  @Override
+  public void remove(AbstractState pState) {
+    checkNotNull(pState);
+
+    Lock lock = stateLocks.get(pState);
+    lock.lock();
+    try {
+      AbstractState first = firstState.get();
+      if (pState.equals(first)) {
+        firstState.compareAndSet(first, null);
+      }
+      if (pState.equals(lastState)) {
+        lastState = null;
+      }
+
+      // The reverse order of add(): the state is removed from the map last.
+      synchronized (waitlist) {
+        waitlist.remove(pState);
+      }
+      ReachedEntry entry = reached.get(pState);
+      if (entry != null) {
+        getPartition(getPartitionKey(pState)).remove(entry.index);
+        insertionOrder.remove(entry.index);
+        reached.remove(pState);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void removeAll(Iterable<? extends AbstractState> pToRemove) {
+    for (AbstractState state : pToRemove) {
+      remove(state);
+    }
+  }
+
+  @Override
+  public void removeOnlyFromWaitlist(AbstractState pState) {
+    checkNotNull(pState);
+    synchronized (waitlist) {
+      waitlist.remove(pState);
+    }
+  }
+
+  /** Clear the reached set. This method must not be called concurrently with other methods. */
+  @Override
+  public void clear() {
+    firstState.set(null);
+    lastState = null;
+    synchronized (waitlist) {
+      waitlist.clear();
+    }
+    reached.clear();
+    insertionOrder.clear();
+    partitions.clear();
+  }
+
+  @Override
+  public void clearWaitlist() {
+    synchronized (waitlist) {
+      waitlist.clear();
+    }
+  }
+
+  @Override
+  public AbstractState popFromWaitlist() {
+    synchronized (waitlist) {
+      return waitlist.pop();
+    }
+  }
+
+  @Override
+  public boolean hasWaitingState() {
+    synchronized (waitlist) {
+      return !waitlist.isEmpty();
+    }
+  }
+
+  @Override
+  public Collection<AbstractState> getWaitlist() {
+    synchronized (waitlist) {
+      return ImmutableList.copyOf(waitlist.iterator());
+    }
+  }
+
+  @Override
+  public Set<AbstractState> asCollection() {
+    return unmodifiableReached;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return unmodifiableReached.iterator();
+  }
+
+  @Override
+  public Stream<AbstractState> stream() {
+    return insertionOrder.values().stream();
+  }
+
+  @Override
+  public Collection<Precision> getPrecisions() {
+    ImmutableList.Builder<Precision> precisions = ImmutableList.builder();
+    forEach((state, precision) -> precisions.add(precision));
+    return precisions.build();
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(AbstractState pState) {
+    return Collections.unmodifiableCollection(getPartition(getPartitionKey(pState)).values());
+  }
+
+  private ConcurrentNavigableMap<Long, AbstractState> getPartition(Object pKey) {
+    return partitions.computeIfAbsent(pKey, k -> new ConcurrentSkipListMap<>());
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(CFANode pLocation) {
+    checkNotNull(pLocation);
+    return asCollection();
+  }
+
+  @Override
+  public @Nullable AbstractState getFirstState() {
+    return firstState.get();
+  }
+
+  @Override
+  public @Nullable AbstractState getLastState() {
+    return lastState;
+  }
+
+  @Override
+  public Precision getPrecision(AbstractState pState) {
+    checkNotNull(pState);
+    ReachedEntry entry = reached.get(pState);
+    checkArgument(entry != null, "State not in reached set:\n%s", pState);
+    return entry.precision;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super AbstractState, ? super Precision> pAction) {
+    checkNotNull(pAction);
+    for (AbstractState state : insertionOrder.values()) {
+      ReachedEntry entry = reached.get(state);
+      if (entry != null) {
+        pAction.accept(state, entry.precision);
+      }
+    }
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    checkNotNull(pState);
+    return reached.containsKey(pState);
+  }
+
+  @Override
+  public int size() {
+    return reached.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return reached.isEmpty();
+  }
+
+  public int getNumberOfPartitions() {
+    return partitions.size();
+  }
+
+  @Override
+  public String toString() {
+    return unmodifiableReached.toString();
+  }
+
+  @Override
+  public ImmutableMap<String, AbstractStatValue> getStatistics() {
+    synchronized (waitlist) {
+      if (waitlist instanceof AbstractSortedWaitlist) {
+        return ImmutableMap.copyOf(((AbstractSortedWaitlist<?>) waitlist).getDelegationCounts());
+      }
+    }
+    return ImmutableMap.of();
+  }
+
+  @Override
+  public ConfigurableProgramAnalysis getCPA() {
+    return cpa;
+  }
+
+  /** Weakly consistent, unmodifiable view of the reached states in insertion order. */
+  private final class ReachedView extends AbstractSet<AbstractState> {
+
+    @Override
+    public Iterator<AbstractState> iterator() {
+      return Collections.unmodifiableCollection(insertionOrder.values()).iterator();
+    }
+
+    @Override
+    public boolean contains(Object pObj) {
+      return pObj != null && reached.containsKey(pObj);
+    }
+
+    @Override
+    public int size() {
+      return reached.size();
+    }
+  }
+}
@@ -0,0 +1,300 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.cpa.alwaystop.AlwaysTopCPA;
+import org.sosy_lab.cpachecker.util.Pair;
+
+public class ConcurrentPartitionedReachedSetTest {
+
+  private static final int THREADS = 4;
+  private static final int PARTITIONS = 7;
+
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+  private static final Precision OTHER_PRECISION = new Precision() {};
+
+  private static class TestState implements AbstractState, Partitionable {
+
+    private final int partition;
+
+    TestState(int pPartition) {
+      partition = pPartition;
+    }
+
+    @Override
+    public Object getPartitionKey() {
+      return partition;
+    }
+
+    @Override
+    public String toString() {
+      return "TestState in partition " + partition;
+    }
+  }
+
+  private ConcurrentPartitionedReachedSet reached;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    reached = new ConcurrentPartitionedReachedSet(AlwaysTopCPA.INSTANCE, TraversalMethod.BFS);
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    executor.shutdownNow();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private static List<TestState> createStates(int pCount) {
+    List<TestState> states = new ArrayList<>(pCount);
+    for (int i = 0; i < pCount; i++) {
+      states.add(new TestState(i % PARTITIONS));
+    }
+    return states;
+  }
+
+  @Test
+  public void testAdd() {
+    List<TestState> states = createStates(20);
+    for (TestState state : states) {
+      reached.add(state, PRECISION);
+    }
+
+    assertThat(reached.size()).isEqualTo(states.size());
+    assertThat(reached.asCollection()).containsExactlyElementsIn(states).inOrder();
+    assertThat(reached.getWaitlist()).containsExactlyElementsIn(states).inOrder();
+    assertThat(reached.getFirstState()).isSameInstanceAs(states.get(0));
+    assertThat(reached.getLastState()).isSameInstanceAs(states.get(states.size() - 1));
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(PARTITIONS);
+    for (TestState state : states) {
+      assertThat(reached.contains(state)).isTrue();
+      assertThat(reached.getPrecision(state)).isSameInstanceAs(PRECISION);
+      assertThat(reached.getReached(state)).contains(state);
+    }
+    assertThat(reached.getReached(states.get(0)))
+        .containsExactly(states.get(0), states.get(PARTITIONS), states.get(2 * PARTITIONS))
+        .inOrder();
+  }
+
+  @Test
+  public void testAddTwice() {
+    TestState state = new TestState(0);
+    reached.add(state, PRECISION);
+    reached.add(state, PRECISION);
+    assertThat(reached.asCollection()).containsExactly(state);
+    assertThat(reached.getWaitlist()).containsExactly(state);
+
+    assertThrows(IllegalArgumentException.class, () -> reached.add(state, OTHER_PRECISION));
+    assertThat(reached.getPrecision(state)).isSameInstanceAs(PRECISION);
+  }
+
+  @Test
+  public void testAddNoWaitlist() {
+    TestState state = new TestState(0);
+    reached.addNoWaitlist(state, PRECISION);
+    assertThat(reached.contains(state)).isTrue();
+    assertThat(reached.hasWaitingState()).isFalse();
+
+    reached.reAddToWaitlist(state);
+    reached.reAddToWaitlist(state);
+    assertThat(reached.getWaitlist()).containsExactly(state);
+    assertThat(reached.popFromWaitlist()).isSameInstanceAs(state);
+    assertThat(reached.hasWaitingState()).isFalse();
+    assertThat(reached.contains(state)).isTrue();
+
+    assertThrows(IllegalArgumentException.class, () -> reached.reAddToWaitlist(new TestState(0)));
+  }
+
+  @Test
+  public void testUpdatePrecision() {
+    TestState state = new TestState(0);
+    reached.add(state, PRECISION);
+    reached.updatePrecision(state, OTHER_PRECISION);
+    assertThat(reached.getPrecision(state)).isSameInstanceAs(OTHER_PRECISION);
+    assertThat(reached.getPrecisions()).containsExactly(OTHER_PRECISION);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> reached.updatePrecision(new TestState(0), PRECISION));
+  }
+
+  @Test
+  public void testRemove() {
+    List<TestState> states = createStates(20);
+    List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
+    for (TestState state : states) {
+      toAdd.add(Pair.of(state, PRECISION));
+    }
+    reached.addAll(toAdd);
+    TestState first = states.get(0);
+    TestState last = states.get(states.size() - 1);
+    TestState middle = states.get(PARTITIONS);
+
+    reached.removeAll(ImmutableList.of(first, middle, last));
+
+    assertThat(reached.size()).isEqualTo(states.size() - 3);
+    assertThat(reached.getFirstState()).isNull();
+    assertThat(reached.getLastState()).isNull();
+    for (TestState removed : ImmutableList.of(first, middle, last)) {
+      assertThat(reached.contains(removed)).isFalse();
+      assertThat(reached.asCollection()).doesNotContain(removed);
+      assertThat(reached.getWaitlist()).doesNotContain(removed);
+      assertThat(reached.getReached(removed)).doesNotContain(removed);
+    }
+    assertThat(reached.getReached(first)).containsExactly(states.get(2 * PARTITIONS));
+
+    // removing a state that is not contained has no effect
+    reached.remove(first);
+    assertThat(reached.size()).isEqualTo(states.size() - 3);
+
+    reached.clear();
+    assertThat(reached.isEmpty()).isTrue();
+    assertThat(reached.hasWaitingState()).isFalse();
+    assertThat(reached.asCollection()).isEmpty();
+  }
+
+  @Test
+  public void testFirstStateAfterConcurrentAdd() throws Exception {
+    List<TestState> states = createStates(THREADS);
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+    for (TestState state : states) {
+      futures.add(
+          executor.submit(
+              () -> {
+                barrier.await();
+                reached.add(state, PRECISION);
+                return null;
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+
+    assertThat(reached.size()).isEqualTo(THREADS);
+    assertThat(states).contains(reached.getFirstState());
+  }
+
+  @Test
+  public void testConcurrentAddAndRemove() throws Exception {
+    List<TestState> states = createStates(10_000);
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      final int thread = t;
+      futures.add(
+          executor.submit(
+              () -> {
+                barrier.await();
+                // every thread adds all states and removes some of them, such that adding and
+                // removing the same state happens concurrently in different threads
+                for (int i = 0; i < states.size(); i++) {
+                  TestState state = states.get(i);
+                  reached.add(state, PRECISION);
+                  if (i % THREADS == thread) {
+                    reached.remove(state);
+                  }
+                }
+                return null;
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+
+    // whatever the interleaving was, all views of the reached set need to be consistent
+    Set<AbstractState> waitlist = ImmutableSet.copyOf(reached.getWaitlist());
+    List<AbstractState> contained = new ArrayList<>();
+    for (TestState state : states) {
+      boolean isContained = reached.contains(state);
+      assertThat(reached.getReached(state).contains(state)).isEqualTo(isContained);
+      assertThat(waitlist.contains(state)).isEqualTo(isContained);
+      if (isContained) {
+        contained.add(state);
+      }
+    }
+    assertThat(reached.size()).isEqualTo(contained.size());
+    assertThat(reached.asCollection()).containsExactlyElementsIn(contained);
+
+    int sizeOfPartitions = 0;
+    for (int p = 0; p < PARTITIONS; p++) {
+      sizeOfPartitions += reached.getReached(states.get(p)).size();
+    }
+    assertThat(sizeOfPartitions).isEqualTo(contained.size());
+  }
+
+  @Test
+  public void testConcurrentPopAndGetPrecision() throws Exception {
+    List<TestState> states = createStates(10_000);
+    AtomicInteger popped = new AtomicInteger();
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      final int thread = t;
+      futures.add(
+          executor.submit(
+              () -> {
+                barrier.await();
+                // half of the threads add states, the others take them from the waitlist
+                // as soon as they appear and need to find them in the reached set
+                if (thread % 2 == 0) {
+                  for (int i = thread / 2; i < states.size(); i += THREADS / 2) {
+                    reached.add(states.get(i), PRECISION);
+                  }
+                } else {
+                  while (popped.get() < states.size()) {
+                    AbstractState state;
+                    try {
+                      state = reached.popFromWaitlist();
+                    } catch (NoSuchElementException e) {
+                      continue;
+                    }
+                    popped.incrementAndGet();
+                    assertThat(reached.contains(state)).isTrue();
+                    assertThat(reached.getPrecision(state)).isSameInstanceAs(PRECISION);
+                    assertThat(reached.getReached(state)).contains(state);
+                  }
+                }
+                return null;
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+
+    assertThat(popped.get()).isEqualTo(states.size());
+    assertThat(reached.hasWaitingState()).isFalse();
+    assertThat(reached.asCollection()).containsExactlyElementsIn(states);
+  }
+}
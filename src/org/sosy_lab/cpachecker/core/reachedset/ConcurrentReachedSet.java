@@ -0,0 +1,33 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+/**
+ * Interface for reached sets that can be accessed and modified by several threads at the same
+ * time.
+ *
+ * <p>Each single operation is atomic. In contrast to the general contract of {@link
+ * UnmodifiableReachedSet}, collections returned by the methods of such a reached set may be
+ * snapshots and thus do not necessarily reflect later modifications.
+ *
+ * <p>The reached set is split into partitions, such that {@link #getReached(AbstractState)} never
+ * returns states from a partition different from the one of the given state. Algorithms that need
+ * to combine several operations (like merge and stop followed by add) thus only need to serialize
+ * these operations per partition.
+ */
+public interface ConcurrentReachedSet extends ReachedSet {
+
+  /**
+   * Return the key of the partition the given state belongs to. Two states for which {@link
+   * #getReached(AbstractState)} might return overlapping sets of states have equal keys.
+   */
+  Object getPartitionKey(AbstractState state);
+}
@@ -8,10 +8,12 @@
 
 package org.sosy_lab.cpachecker.core.reachedset;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -27,6 +29,7 @@ import org.sosy_lab.cpachecker.core.waitlist.BranchBasedWeightedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.CallstackSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.DepthBasedWeightedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.ExplicitSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.IndexedHeapWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopIterationSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopstackSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.PostorderSortedWaitlist;
@@ -36,15 +39,17 @@ import org.sosy_lab.cpachecker.core.waitlist.ThreadingSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
 import org.sosy_lab.cpachecker.core.waitlist.WeightedRandomWaitlist;
+import org.sosy_lab.cpachecker.cpa.arg.ARGCPA;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonVariableWaitlist;
 import org.sosy_lab.cpachecker.cpa.usage.UsageReachedSet;
 import org.sosy_lab.cpachecker.cpa.usage.storage.UsageConfiguration;
+import org.sosy_lab.cpachecker.util.CPAs;
 
 @Options(prefix="analysis")
 public class ReachedSetFactory {
 
   private enum ReachedSetType {
-    NORMAL, LOCATIONMAPPED, PARTITIONED, PSEUDOPARTITIONED, USAGE
+    NORMAL, LOCATIONMAPPED, PARTITIONED, PSEUDOPARTITIONED, CONCURRENTPARTITIONED, SPILLING, USAGE
   }
 
   @Option(
@@ -168,6 +173,17 @@ public class ReachedSetFactory {
   )
   private boolean useBlocks = false;
 
+  @Option(
+      secure = true,
+      name = "traversal.useIndexedHeap",
+      description =
+          "store the states of the waitlist in an indexed heap instead of nested sorted waitlists,"
+              + " which makes removing states faster."
+              + " Works only if all selected traversal strategies sort by integer keys"
+              + " (e.g., reverse postorder, callstack, loopstack)"
+              + " and 'analysis.traversal.order' is DFS or BFS.")
+  private boolean useIndexedHeap = false;
+
   @Option(
     secure = true,
     name = "reachedSet",
@@ -179,6 +195,10 @@ public class ReachedSetFactory {
             + "\nPARTITIONED: partitioning depending on CPAs (e.g Location, Callstack etc.)"
             + "\nPSEUDOPARTITIONED: based on PARTITIONED, uses additional info about the states' lattice "
             + "(maybe faster for some special analyses which use merge_sep and stop_sep"
+            + "\nCONCURRENTPARTITIONED: like PARTITIONED, but thread-safe with lock-free "
+            + "partitions (for analyses that access the reached set from several threads)"
+            + "\nSPILLING: like LOCATIONMAPPED, but rarely used partitions are written to disk "
+            + "if there are too many states (for memory-bounded analyses without ARG)"
   )
   private ReachedSetType reachedSet = ReachedSetType.PARTITIONED;
 
@@ -188,9 +208,19 @@ public class ReachedSetFactory {
       description = "track more statistics about the reachedset")
   private boolean withStatistics = false;
 
+  @Option(
+      secure = true,
+      name = "reachedSet.spilling.maxStatesInMemory",
+      description =
+          "maximum number of states that the SPILLING reached set keeps in memory,"
+              + " further states are written to disk")
+  @IntegerOption(min = 1)
+  private int maxStatesInMemory = 1_000_000;
+
   private @Nullable BlockConfiguration blockConfig;
   private @Nullable UsageConfiguration usageConfig;
   private WeightedRandomWaitlist.@Nullable WaitlistOptions weightedWaitlistOptions;
+  private final WaitlistFactory waitlistFactory;
   private final LogManager logger;
 
   public ReachedSetFactory(Configuration pConfig, LogManager pLogger)
@@ -213,15 +243,15 @@ public class ReachedSetFactory {
     } else {
       weightedWaitlistOptions = null;
     }
+
+    if (useIndexedHeap) {
+      waitlistFactory = IndexedHeapWaitlist.factory(createWaitlistFactory());
+    } else {
+      waitlistFactory = createWaitlistFactory();
+    }
   }
 
-  /**
-   * Creates an instance of a {@link ReachedSet}.
-   *
-   * @param cpa The CPA whose abstract states will be stored in this reached set.
-   */
-  public ReachedSet create(ConfigurableProgramAnalysis cpa) {
-    checkNotNull(cpa);
+  private WaitlistFactory createWaitlistFactory() {
     WaitlistFactory waitlistFactory = traversalMethod;
 
     if (useWeightedDepthOrder) {
@@ -274,6 +304,33 @@ public class ReachedSetFactory {
     if (useBlocks) {
       waitlistFactory = BlockWaitlist.factory(waitlistFactory, blockConfig, logger);
     }
+    return waitlistFactory;
+  }
+
+  /**
+   * Check whether the configured reached set can store the abstract states of the given CPA.
+   *
+   * @param cpa The CPA whose abstract states will be stored in reached sets of this factory.
+   * @throws InvalidConfigurationException If {@link #create} would fail for this CPA.
+   */
+  public void checkCompatibility(ConfigurableProgramAnalysis cpa)
+      throws InvalidConfigurationException {
+    checkNotNull(cpa);
+    if (reachedSet == ReachedSetType.SPILLING && CPAs.retrieveCPA(cpa, ARGCPA.class) != null) {
+      throw new InvalidConfigurationException(
+          "Reached set SPILLING cannot be used together with ARGCPA,"
+              + " because reloaded ARG states would not be connected to the rest of the ARG."
+              + " Please use a different value for option 'analysis.reachedSet'.");
+    }
+  }
+
+  /**
+   * Creates an instance of a {@link ReachedSet}.
+   *
+   * @param cpa The CPA whose abstract states will be stored in this reached set.
+   */
+  public ReachedSet create(ConfigurableProgramAnalysis cpa) {
+    checkNotNull(cpa);
 
     ReachedSet reached;
     switch (reachedSet) {
@@ -283,9 +340,18 @@ public class ReachedSetFactory {
     case PSEUDOPARTITIONED:
         reached = new PseudoPartitionedReachedSet(cpa, waitlistFactory);
         break;
+    case CONCURRENTPARTITIONED:
+        reached = new ConcurrentPartitionedReachedSet(cpa, waitlistFactory);
+        break;
     case LOCATIONMAPPED:
         reached = new LocationMappedReachedSet(cpa, waitlistFactory);
         break;
+    case SPILLING:
+        checkArgument(
+            CPAs.retrieveCPA(cpa, ARGCPA.class) == null,
+            "Reached set SPILLING cannot be used together with ARGCPA");
+        reached = new SpillingReachedSet(cpa, waitlistFactory, maxStatesInMemory, logger);
+        break;
     case USAGE:
         reached = new UsageReachedSet(cpa, waitlistFactory, usageConfig, logger);
         break;
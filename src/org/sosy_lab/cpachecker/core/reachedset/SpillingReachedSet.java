@@ -0,0 +1,672 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.io.TempFile;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+
+/**
+ * Reached set for memory-bounded analyses that groups states by location (like {@link
+ * LocationMappedReachedSet}) and keeps only a limited number of states in memory. If there are
+ * more states, the least-recently used partitions without states in the waitlist are serialized
+ * to a spill file and removed from memory. They are read back (via a memory-mapped buffer) as soon
+ * as they are accessed again, e.g., by {@link #getReached(AbstractState)} in the stop operator.
+ *
+ * <p>When a partition is reloaded, states that are still referenced elsewhere are taken from
+ * memory, such that their identity is preserved. Only states that were garbage collected in the
+ * meantime are replaced by their deserialized copies, which nobody else can compare with. Still,
+ * the copies do not share any objects with other states, so this reached set cannot be used
+ * together with the ARG, whose states reference each other ({@link ReachedSetFactory} rejects this
+ * configuration). All states need to be {@link java.io.Serializable}, otherwise spilling is
+ * disabled. Precisions are not serialized but kept in memory as long as spilled states use them.
+ * Spilled data of reloaded partitions is not reclaimed in the spill file.
+ */
+public class SpillingReachedSet implements ReachedSet {
+
+  /** The states of one location, which are either in memory or in the spill file. */
+  private static final class Partition {
+
+    /** The states and their precisions, or null if the partition is spilled. */
+    private @Nullable Map<AbstractState, Precision> states = new LinkedHashMap<>();
+
+    private int size = 0;
+
+    /** Number of states of this partition in the waitlist, only partitions with 0 are spilled. */
+    private int waiting = 0;
+
+    /** The spilled states, such that those which are still alive can be reused on reload. */
+    private @Nullable List<WeakReference<AbstractState>> spilledStates = null;
+
+    private long spillPosition = -1;
+    private int spillLength = 0;
+  }
+
+  /** A precision of spilled states, which is kept as long as spilled states reference it. */
+  private static final class SpilledPrecision {
+
+    private final Precision precision;
+    private final int index;
+
+    /** Number of spilled states with this precision. */
+    private int references = 0;
+
+    private SpilledPrecision(Precision pPrecision, int pIndex) {
+      precision = pPrecision;
+      index = pIndex;
+    }
+  }
+
+  private final ConfigurableProgramAnalysis cpa;
+  private final Waitlist waitlist;
+  private final LogManager logger;
+  private final int maxResidentStates;
+
+  /** All partitions, in order of creation. */
+  private final Map<CFANode, Partition> partitions = new LinkedHashMap<>();
+
+  /** All partitions in memory, in order of last access. */
+  private final Map<CFANode, Partition> residentPartitions = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Precisions are not serialized, spilled states reference them by their index. */
+  private final Map<Integer, SpilledPrecision> spilledPrecisions = new HashMap<>();
+
+  private final Map<Precision, SpilledPrecision> spilledPrecisionIndices = new IdentityHashMap<>();
+  private int nextPrecisionIndex = 0;
+
+  private int size = 0;
+  private int residentStates = 0;
+  private @Nullable AbstractState firstState = null;
+  private @Nullable AbstractState lastState = null;
+
+  private @Nullable FileChannel spillFile = null;
+  private boolean spillingPossible = true;
+
+  private final StatCounter spilledPartitions = new StatCounter("Number of spilled partitions");
+  private final StatCounter reloadedPartitions = new StatCounter("Number of reloaded partitions");
+  private final StatInt spilledStates = new StatInt(StatKind.SUM, "Number of spilled states");
+  private final StatInt reloadedStates = new StatInt(StatKind.SUM, "Number of reloaded states");
+  private final StatInt spillFileSize =
+      new StatInt(StatKind.MAX, "Size of reached-set spill file (KiB)");
+
+  SpillingReachedSet(
+      ConfigurableProgramAnalysis pCpa,
+      WaitlistFactory pWaitlistFactory,
+      int pMaxResidentStates,
+      LogManager pLogger) {
+    checkArgument(pMaxResidentStates > 0, "Number of states in memory must be positive");
+    cpa = checkNotNull(pCpa);
+    waitlist = pWaitlistFactory.createWaitlistInstance();
+    maxResidentStates = pMaxResidentStates;
+    logger = checkNotNull(pLogger);
+  }
+
+  private static CFANode getLocation(AbstractState pState) {
+    CFANode location = AbstractStates.extractLocation(pState);
+    checkNotNull(location, "Location information necessary for SpillingReachedSet");
+    return location;
+  }
+
+  /** Get the states of a partition, reloading it from the spill file if necessary. */
+  private Map<AbstractState, Precision> load(CFANode pLocation, Partition pPartition) {
+    residentPartitions.put(pLocation, pPartition); // marks partition as recently used
+    if (pPartition.states == null) {
+      reload(pPartition);
+      residentStates += pPartition.size;
+      spillIfNecessary(pLocation);
+    }
+    return pPartition.states;
+  }
+
+  private @Nullable Map<AbstractState, Precision> getStates(CFANode pLocation) {
+    Partition partition = partitions.get(pLocation);
+    return partition == null ? null : load(pLocation, partition);
+  }
+
+  @Override
+  public void add(AbstractState state, Precision precision) {
+    add(state, precision, /*updateWaitlist=*/ true);
+  }
+
+  @Override
+  public void addNoWaitlist(AbstractState state, Precision precision) {
+    add(state, precision, /*updateWaitlist=*/ false);
+  }
+
+  private void add(AbstractState state, Precision precision, boolean updateWaitlist) {
+    Preconditions.checkNotNull(state);
+    Preconditions.checkNotNull(precision);
+
+    CFANode location = getLocation(state);
+    Partition partition = partitions.computeIfAbsent(location, l -> new Partition());
+    Map<AbstractState, Precision> states = load(location, partition);
+
+    Precision previousPrecision = states.putIfAbsent(state, precision);
+    if (previousPrecision == null) {
+      if (size == 0) {
+        firstState = state;
+      }
+      size++;
+      partition.size++;
+      residentStates++;
+      if (updateWaitlist) {
+        waitlist.add(state);
+        partition.waiting++;
+      }
+      lastState = state;
+      spillIfNecessary(location);
+
+    } else if (!precision.equals(previousPrecision)) {
+      // cf. DefaultReachedSet
+      throw new IllegalArgumentException(
+          "State added to reached set which is already contained, but with a different precision");
+    }
+  }
+
+  @Override
+  public void addAll(Iterable<Pair<AbstractState, Precision>> toAdd) {
+    for (Pair<AbstractState, Precision> pair : toAdd) {
+      add(pair.getFirst(), pair.getSecond());
+    }
+  }
+
+  @Override
+  public void reAddToWaitlist(AbstractState s) {
+    Preconditions.checkNotNull(s);
+    Preconditions.checkArgument(contains(s), "State has to be in the reached set");
+
+    if (!waitlist.contains(s)) {
+      waitlist.add(s);
+      partitions.get(getLocation(s)).waiting++;
+    }
+  }
+
+  @Override
+  public void updatePrecision(AbstractState s, Precision newPrecision) {
+    Preconditions.checkNotNull(s);
+    Preconditions.checkNotNull(newPrecision);
+
+    Map<AbstractState, Precision> states = getStates(getLocation(s));
+    if (states == null || states.replace(s, newPrecision) == null) {
+      throw new IllegalArgumentException(
+          "State needs to be in the reached set in order to change the precision.");
+    }
+  }
+
+  @Override
+  public void remove(AbstractState state) {
+    Preconditions.checkNotNull(state);
+    if (state.equals(firstState)) {
+      firstState = null;
+    }
+    if (state.equals(lastState)) {
+      lastState = null;
+    }
+
+    CFANode location = getLocation(state);
+    Partition partition = partitions.get(location);
+    if (partition == null) {
+      return;
+    }
+    if (waitlist.remove(state)) {
+      partition.waiting--;
+    }
+    if (load(location, partition).remove(state) != null) {
+      size--;
+      partition.size--;
+      residentStates--;
+      if (partition.size == 0) {
+        partitions.remove(location);
+        residentPartitions.remove(location);
+      }
+    }
+  }
+
+  @Override
+  public void removeAll(Iterable<? extends AbstractState> toRemove) {
+    for (AbstractState state : toRemove) {
+      remove(state);
+    }
+  }
+
+  @Override
+  public void removeOnlyFromWaitlist(AbstractState state) {
+    checkNotNull(state);
+    if (waitlist.remove(state)) {
+      partitions.get(getLocation(state)).waiting--;
+    }
+  }
+
+  @Override
+  public void clear() {
+    firstState = null;
+    lastState = null;
+    waitlist.clear();
+    partitions.clear();
+    residentPartitions.clear();
+    spilledPrecisions.clear();
+    spilledPrecisionIndices.clear();
+    nextPrecisionIndex = 0;
+    size = 0;
+    residentStates = 0;
+    if (spillFile != null) {
+      try {
+        spillFile.truncate(0);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  @Override
+  public void clearWaitlist() {
+    waitlist.clear();
+    for (Partition partition : partitions.values()) {
+      partition.waiting = 0;
+    }
+  }
+
+  /**
+   * Iterate over all states and their precisions. Spilled partitions are reloaded one after the
+   * other, which may cause other partitions to be spilled.
+   */
+  private Iterator<Map.Entry<AbstractState, Precision>> entryIterator() {
+    Iterator<Map.Entry<CFANode, Partition>> partitionIterator =
+        new ArrayList<>(partitions.entrySet()).iterator();
+
+    return new AbstractIterator<>() {
+      private Iterator<Map.Entry<AbstractState, Precision>> current = Collections.emptyIterator();
+
+      @Override
+      protected Map.Entry<AbstractState, Precision> computeNext() {
+        while (!current.hasNext()) {
+          if (!partitionIterator.hasNext()) {
+            return endOfData();
+          }
+          Map.Entry<CFANode, Partition> partition = partitionIterator.next();
+          if (partition.getValue().size > 0) {
+            // copy, the partition might be spilled while iterating
+            current =
+                new ArrayList<>(load(partition.getKey(), partition.getValue()).entrySet())
+                    .iterator();
+          }
+        }
+        return current.next();
+      }
+    };
+  }
+
+  @Override
+  public Set<AbstractState> asCollection() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<AbstractState> iterator() {
+        return SpillingReachedSet.this.iterator();
+      }
+
+      @Override
+      public boolean contains(Object pObj) {
+        return pObj instanceof AbstractState
+            && SpillingReachedSet.this.contains((AbstractState) pObj);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return Iterators.transform(entryIterator(), Map.Entry::getKey);
+  }
+
+  @Override
+  public Stream<AbstractState> stream() {
+    return asCollection().stream();
+  }
+
+  @Override
+  public Collection<Precision> getPrecisions() {
+    return new AbstractCollection<>() {
+      @Override
+      public Iterator<Precision> iterator() {
+        return Iterators.transform(entryIterator(), Map.Entry::getValue);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(AbstractState state) {
+    return getReached(getLocation(state));
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(CFANode location) {
+    checkNotNull(location);
+    Map<AbstractState, Precision> states = getStates(location);
+    return states == null
+        ? Collections.emptySet()
+        : Collections.unmodifiableSet(states.keySet());
+  }
+
+  @Override
+  public @Nullable AbstractState getFirstState() {
+    return firstState;
+  }
+
+  @Override
+  public @Nullable AbstractState getLastState() {
+    return lastState;
+  }
+
+  @Override
+  public boolean hasWaitingState() {
+    return !waitlist.isEmpty();
+  }
+
+  @Override
+  public Collection<AbstractState> getWaitlist() {
+    return new AbstractCollection<>() {
+
+      @Override
+      public Iterator<AbstractState> iterator() {
+        return Iterators.unmodifiableIterator(waitlist.iterator());
+      }
+
+      @Override
+      public boolean contains(Object obj) {
+        return obj instanceof AbstractState && waitlist.contains((AbstractState) obj);
+      }
+
+      @Override
+      public boolean isEmpty() {
+        return waitlist.isEmpty();
+      }
+
+      @Override
+      public int size() {
+        return waitlist.size();
+      }
+
+      @Override
+      public String toString() {
+        return waitlist.toString();
+      }
+    };
+  }
+
+  @Override
+  public AbstractState popFromWaitlist() {
+    AbstractState state = waitlist.pop();
+    Partition partition = partitions.get(getLocation(state));
+    if (partition != null) {
+      partition.waiting--;
+    }
+    return state;
+  }
+
+  @Override
+  public Precision getPrecision(AbstractState state) {
+    Preconditions.checkNotNull(state);
+    Map<AbstractState, Precision> states = getStates(getLocation(state));
+    Precision prec = states == null ? null : states.get(state);
+    Preconditions.checkArgument(prec != null, "State not in reached set:\n%s", state);
+    return prec;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super AbstractState, ? super Precision> pAction) {
+    entryIterator().forEachRemaining(e -> pAction.accept(e.getKey(), e.getValue()));
+  }
+
+  @Override
+  public boolean contains(AbstractState state) {
+    Preconditions.checkNotNull(state);
+    Map<AbstractState, Precision> states = getStates(getLocation(state));
+    return states != null && states.containsKey(state);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "SpillingReachedSet with %d states (%d in memory) in %d partitions",
+        size, residentStates, partitions.size());
+  }
+
+  @Override
+  public ImmutableMap<String, AbstractStatValue> getStatistics() {
+    return ImmutableMap.of(
+        spilledPartitions.getTitle(), spilledPartitions,
+        reloadedPartitions.getTitle(), reloadedPartitions,
+        spilledStates.getTitle(), spilledStates,
+        reloadedStates.getTitle(), reloadedStates,
+        spillFileSize.getTitle(), spillFileSize);
+  }
+
+  @Override
+  public ConfigurableProgramAnalysis getCPA() {
+    return cpa;
+  }
+
+  /**
+   * Spill least-recently used partitions until the number of states in memory is well below the
+   * limit. Partitions with waiting states, with the first or last state, and the given partition
+   * that is currently accessed are kept in memory.
+   */
+  private void spillIfNecessary(CFANode pCurrentLocation) {
+    if (residentStates <= maxResidentStates || !spillingPossible) {
+      return;
+    }
+
+    CFANode firstLocation = firstState == null ? null : getLocation(firstState);
+    CFANode lastLocation = lastState == null ? null : getLocation(lastState);
+    int target = maxResidentStates - maxResidentStates / 4;
+
+    Iterator<Map.Entry<CFANode, Partition>> it = residentPartitions.entrySet().iterator();
+    while (residentStates > target && it.hasNext()) {
+      Map.Entry<CFANode, Partition> entry = it.next();
+      CFANode location = entry.getKey();
+      Partition partition = entry.getValue();
+      if (partition.waiting > 0
+          || location.equals(pCurrentLocation)
+          || location.equals(firstLocation)
+          || location.equals(lastLocation)) {
+        continue;
+      }
+
+      if (!spill(partition)) {
+        return;
+      }
+      it.remove();
+      residentStates -= partition.size;
+    }
+  }
+
+  /** Write the partition to the spill file and drop its states, return false on failure. */
+  private boolean spill(Partition pPartition) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    List<SpilledPrecision> usedPrecisions = new ArrayList<>(pPartition.states.size());
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeInt(pPartition.states.size());
+      for (Map.Entry<AbstractState, Precision> entry : pPartition.states.entrySet()) {
+        SpilledPrecision precision = getSpilledPrecision(entry.getValue());
+        usedPrecisions.add(precision);
+        out.writeObject(entry.getKey());
+        out.writeInt(precision.index);
+      }
+    } catch (NotSerializableException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Abstract states cannot be serialized, keeping all states in memory");
+      spillingPossible = false;
+      return false;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    try {
+      if (spillFile == null) {
+        spillFile =
+            FileChannel.open(
+                TempFile.builder().prefix("cpachecker-reached").suffix(".spill").create(),
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+      }
+      long position = spillFile.size();
+      ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+      while (buffer.hasRemaining()) {
+        spillFile.write(buffer, position + buffer.position());
+      }
+      pPartition.spillPosition = position;
+      pPartition.spillLength = bytes.size();
+      spillFileSize.setNextValue((int) (spillFile.size() >> 10));
+    } catch (IOException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Could not write reached-set spill file, keeping all states in memory");
+      spillingPossible = false;
+      return false;
+    }
+
+    List<WeakReference<AbstractState>> references = new ArrayList<>(pPartition.size);
+    for (AbstractState state : pPartition.states.keySet()) {
+      references.add(new WeakReference<>(state));
+    }
+    for (SpilledPrecision precision : usedPrecisions) {
+      precision.references++;
+    }
+
+    spilledPartitions.inc();
+    spilledStates.setNextValue(pPartition.size);
+    pPartition.spilledStates = references;
+    pPartition.states = null;
+    return true;
+  }
+
+  private void reload(Partition pPartition) {
+    assert pPartition.states == null && spillFile != null;
+    Map<AbstractState, Precision> states = new LinkedHashMap<>();
+    try {
+      MappedByteBuffer buffer =
+          spillFile.map(MapMode.READ_ONLY, pPartition.spillPosition, pPartition.spillLength);
+      byte[] bytes = new byte[pPartition.spillLength];
+      buffer.get(bytes);
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+          AbstractState copy = (AbstractState) in.readObject();
+          AbstractState original = pPartition.spilledStates.get(i).get();
+          states.put(original != null ? original : copy, releaseSpilledPrecision(in.readInt()));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read reached-set spill file", e);
+    } catch (ClassNotFoundException e) {
+      throw new AssertionError(e);
+    }
+    assert states.size() == pPartition.size;
+
+    pPartition.states = states;
+    pPartition.spilledStates = null;
+    pPartition.spillPosition = -1;
+    pPartition.spillLength = 0;
+    reloadedPartitions.inc();
+    reloadedStates.setNextValue(pPartition.size);
+  }
+
+  private SpilledPrecision getSpilledPrecision(Precision pPrecision) {
+    return spilledPrecisionIndices.computeIfAbsent(
+        pPrecision,
+        p -> {
+          SpilledPrecision precision = new SpilledPrecision(p, nextPrecisionIndex++);
+          spilledPrecisions.put(precision.index, precision);
+          return precision;
+        });
+  }
+
+  /** Get the precision of a reloaded state and forget it if no spilled state uses it anymore. */
+  private Precision releaseSpilledPrecision(int pIndex) {
+    SpilledPrecision precision = spilledPrecisions.get(pIndex);
+    assert precision != null && precision.references > 0;
+    if (--precision.references == 0) {
+      spilledPrecisions.remove(pIndex);
+      spilledPrecisionIndices.remove(precision.precision);
+    }
+    return precision.precision;
+  }
+
+  @VisibleForTesting
+  int getNumberOfSpilledPrecisions() {
+    return spilledPrecisions.size();
+  }
+}
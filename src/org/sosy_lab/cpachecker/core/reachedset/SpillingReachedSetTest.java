@@ -0,0 +1,257 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocation;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.cpa.alwaystop.AlwaysTopCPA;
+import org.sosy_lab.cpachecker.cpa.arg.ARGCPA;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+
+public class SpillingReachedSetTest {
+
+  private static final int LOCATIONS = 20;
+  private static final CFANode[] NODES = new CFANode[LOCATIONS];
+
+  static {
+    for (int i = 0; i < LOCATIONS; i++) {
+      NODES[i] = CFANode.newDummyCFANode("test");
+    }
+  }
+
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+
+  /** State with structural equality that can be serialized without a CFA. */
+  private static class TestState implements AbstractStateWithLocation, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int location;
+    private final int value;
+
+    TestState(int pLocation, int pValue) {
+      location = pLocation;
+      value = pValue;
+    }
+
+    @Override
+    public CFANode getLocationNode() {
+      return NODES[location];
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof TestState
+          && ((TestState) pObj).location == location
+          && ((TestState) pObj).value == value;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(location, value);
+    }
+  }
+
+  /** State that can only be compared by identity. */
+  private static class IdentityState implements AbstractStateWithLocation, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int location;
+
+    IdentityState(int pLocation) {
+      location = pLocation;
+    }
+
+    @Override
+    public CFANode getLocationNode() {
+      return NODES[location];
+    }
+  }
+
+  private static class NonSerializableState extends TestState {
+
+    private static final long serialVersionUID = 1L;
+
+    final Object notSerializable = new Object();
+
+    NonSerializableState(int pLocation, int pValue) {
+      super(pLocation, pValue);
+    }
+  }
+
+  private static SpillingReachedSet createReachedSet(int pMaxStatesInMemory) {
+    return new SpillingReachedSet(
+        AlwaysTopCPA.INSTANCE,
+        TraversalMethod.BFS,
+        pMaxStatesInMemory,
+        LogManager.createTestLogManager());
+  }
+
+  private static long getCounter(ReachedSet pReached, String pTitle) {
+    return ((StatCounter) pReached.getStatistics().get(pTitle)).getValue();
+  }
+
+  @Test
+  public void testSpillAndReload() {
+    SpillingReachedSet reached = createReachedSet(10);
+    List<TestState> states = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      TestState state = new TestState(i % LOCATIONS, i);
+      states.add(state);
+      reached.addNoWaitlist(state, PRECISION);
+    }
+
+    assertThat(getCounter(reached, "Number of spilled partitions")).isGreaterThan(0);
+    assertThat(reached.size()).isEqualTo(100);
+
+    for (int l = 0; l < LOCATIONS; l++) {
+      List<TestState> expected = new ArrayList<>();
+      for (TestState state : states) {
+        if (state.location == l) {
+          expected.add(state);
+        }
+      }
+      assertThat(reached.getReached(NODES[l])).containsExactlyElementsIn(expected).inOrder();
+    }
+    assertThat(getCounter(reached, "Number of reloaded partitions")).isGreaterThan(0);
+
+    assertThat(reached.asCollection()).containsExactlyElementsIn(states);
+    for (TestState state : states) {
+      assertThat(reached.contains(state)).isTrue();
+      assertThat(reached.getPrecision(state)).isSameInstanceAs(PRECISION);
+    }
+  }
+
+  @Test
+  public void testWaitingStatesStayInMemory() {
+    SpillingReachedSet reached = createReachedSet(10);
+    List<TestState> states = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      TestState state = new TestState(i % LOCATIONS, i);
+      states.add(state);
+      reached.add(state, PRECISION);
+    }
+
+    // all partitions have waiting states
+    assertThat(getCounter(reached, "Number of spilled partitions")).isEqualTo(0);
+
+    List<TestState> popped = new ArrayList<>();
+    while (reached.hasWaitingState()) {
+      popped.add((TestState) reached.popFromWaitlist());
+      reached.add(new TestState(0, popped.size() + 1000), PRECISION);
+      reached.removeOnlyFromWaitlist(new TestState(0, popped.size() + 1000));
+    }
+    assertThat(popped).containsExactlyElementsIn(states).inOrder();
+    assertThat(getCounter(reached, "Number of spilled partitions")).isGreaterThan(0);
+    assertThat(reached.size()).isEqualTo(200);
+  }
+
+  @Test
+  public void testRemoveFromSpilledPartition() {
+    SpillingReachedSet reached = createReachedSet(10);
+    for (int i = 0; i < 100; i++) {
+      reached.addNoWaitlist(new TestState(i % LOCATIONS, i), PRECISION);
+    }
+
+    reached.remove(new TestState(1, 1));
+    reached.remove(new TestState(1, 21));
+
+    assertThat(reached.size()).isEqualTo(98);
+    assertThat(reached.contains(new TestState(1, 1))).isFalse();
+    assertThat(reached.getReached(NODES[1])).hasSize(3);
+  }
+
+  @Test
+  public void testNonSerializableStates() {
+    SpillingReachedSet reached = createReachedSet(10);
+    for (int i = 0; i < 100; i++) {
+      reached.addNoWaitlist(new NonSerializableState(i % LOCATIONS, i), PRECISION);
+    }
+
+    assertThat(getCounter(reached, "Number of spilled partitions")).isEqualTo(0);
+    assertThat(reached.size()).isEqualTo(100);
+    assertThat(reached.getReached(NODES[3])).hasSize(5);
+  }
+
+  @Test
+  public void testIdentityOfReloadedStates() {
+    SpillingReachedSet reached = createReachedSet(10);
+    List<IdentityState> states = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      IdentityState state = new IdentityState(i % LOCATIONS);
+      states.add(state);
+      reached.addNoWaitlist(state, PRECISION);
+    }
+    assertThat(getCounter(reached, "Number of spilled partitions")).isGreaterThan(0);
+
+    // the states are still referenced here, so reloading must not replace them by copies
+    for (IdentityState state : states) {
+      assertThat(reached.contains(state)).isTrue();
+      assertThat(reached.getReached(state)).contains(state);
+    }
+    assertThat(getCounter(reached, "Number of reloaded partitions")).isGreaterThan(0);
+
+    reached.removeAll(states);
+    assertThat(reached.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testSpilledPrecisionsArePruned() {
+    SpillingReachedSet reached = createReachedSet(10);
+    List<TestState> states = new ArrayList<>();
+    List<Precision> precisions = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      TestState state = new TestState(i % LOCATIONS, i);
+      Precision precision = new Precision() {};
+      states.add(state);
+      precisions.add(precision);
+      reached.addNoWaitlist(state, precision);
+    }
+    assertThat(reached.getNumberOfSpilledPrecisions()).isGreaterThan(0);
+
+    for (int i = 0; i < states.size(); i++) {
+      assertThat(reached.getPrecision(states.get(i))).isSameInstanceAs(precisions.get(i));
+    }
+
+    reached.removeAll(states);
+    assertThat(reached.isEmpty()).isTrue();
+    assertThat(reached.getNumberOfSpilledPrecisions()).isEqualTo(0);
+  }
+
+  @Test
+  public void testSpillingWithARGIsRejected() throws InvalidConfigurationException {
+    ReachedSetFactory factory =
+        new ReachedSetFactory(
+            Configuration.builder().setOption("analysis.reachedSet", "SPILLING").build(),
+            LogManager.createTestLogManager());
+    ARGCPA argCpa = mock(ARGCPA.class);
+
+    assertThrows(InvalidConfigurationException.class, () -> factory.checkCompatibility(argCpa));
+    assertThrows(IllegalArgumentException.class, () -> factory.create(argCpa));
+
+    factory.checkCompatibility(AlwaysTopCPA.INSTANCE);
+    assertThat(factory.create(AlwaysTopCPA.INSTANCE)).isInstanceOf(SpillingReachedSet.class);
+  }
+}
@@ -0,0 +1,215 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+
+/**
+ * Thread-safe wrapper around an arbitrary reached set. All operations are forwarded to the
+ * delegate while holding one global lock. All collections returned by this class are immutable
+ * snapshots of the delegate at the time of the call.
+ *
+ * <p>If the delegate is a {@link PartitionedReachedSet}, its partitions are used for {@link
+ * #getPartitionKey(AbstractState)}, otherwise all states belong to a single partition.
+ */
+public class SynchronizedReachedSet implements ConcurrentReachedSet, StatisticsProvider {
+
+  private static final Object SINGLE_PARTITION = new Object();
+
+  private final ReachedSet delegate;
+
+  public SynchronizedReachedSet(ReachedSet pDelegate) {
+    delegate = checkNotNull(pDelegate);
+  }
+
+  @Override
+  public Object getPartitionKey(AbstractState pState) {
+    checkNotNull(pState);
+    ReachedSet inner = delegate;
+    while (inner instanceof ForwardingReachedSet) {
+      inner = ((ForwardingReachedSet) inner).getDelegate();
+    }
+    if (inner instanceof PartitionedReachedSet) {
+      // computing the key does not access the content of the reached set, no locking necessary
+      return ((PartitionedReachedSet) inner).getPartitionKey(pState);
+    }
+    return SINGLE_PARTITION;
+  }
+
+  @Override
+  public synchronized Set<AbstractState> asCollection() {
+    return ImmutableSet.copyOf(delegate.asCollection());
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return asCollection().iterator();
+  }
+
+  @Override
+  public Stream<AbstractState> stream() {
+    return asCollection().stream();
+  }
+
+  @Override
+  public synchronized Collection<Precision> getPrecisions() {
+    return ImmutableList.copyOf(delegate.getPrecisions());
+  }
+
+  @Override
+  public synchronized Collection<AbstractState> getReached(AbstractState pState) {
+    return ImmutableList.copyOf(delegate.getReached(checkNotNull(pState)));
+  }
+
+  @Override
+  public synchronized Collection<AbstractState> getReached(CFANode pLocation) {
+    return ImmutableList.copyOf(delegate.getReached(checkNotNull(pLocation)));
+  }
+
+  @Override
+  public synchronized @Nullable AbstractState getFirstState() {
+    return delegate.getFirstState();
+  }
+
+  @Override
+  public synchronized @Nullable AbstractState getLastState() {
+    return delegate.getLastState();
+  }
+
+  @Override
+  public synchronized boolean hasWaitingState() {
+    return delegate.hasWaitingState();
+  }
+
+  @Override
+  public synchronized Collection<AbstractState> getWaitlist() {
+    return ImmutableList.copyOf(delegate.getWaitlist());
+  }
+
+  @Override
+  public synchronized Precision getPrecision(AbstractState pState) {
+    return delegate.getPrecision(checkNotNull(pState));
+  }
+
+  @Override
+  public synchronized void forEach(BiConsumer<? super AbstractState, ? super Precision> pAction) {
+    delegate.forEach(checkNotNull(pAction));
+  }
+
+  @Override
+  public synchronized boolean contains(AbstractState pState) {
+    return delegate.contains(checkNotNull(pState));
+  }
+
+  @Override
+  public synchronized boolean isEmpty() {
+    return delegate.isEmpty();
+  }
+
+  @Override
+  public synchronized int size() {
+    return delegate.size();
+  }
+
+  @Override
+  public synchronized void add(AbstractState pState, Precision pPrecision) {
+    delegate.add(checkNotNull(pState), checkNotNull(pPrecision));
+  }
+
+  @Override
+  public synchronized void addNoWaitlist(AbstractState pState, Precision pPrecision) {
+    delegate.addNoWaitlist(checkNotNull(pState), checkNotNull(pPrecision));
+  }
+
+  @Override
+  public synchronized void addAll(Iterable<Pair<AbstractState, Precision>> pToAdd) {
+    delegate.addAll(checkNotNull(pToAdd));
+  }
+
+  @Override
+  public synchronized void reAddToWaitlist(AbstractState pState) {
+    delegate.reAddToWaitlist(checkNotNull(pState));
+  }
+
+  @Override
+  public synchronized void updatePrecision(AbstractState pState, Precision pNewPrecision) {
+    delegate.updatePrecision(checkNotNull(pState), checkNotNull(pNewPrecision));
+  }
+
+  @Override
+  public synchronized void remove(AbstractState pState) {
+    delegate.remove(checkNotNull(pState));
+  }
+
+  @Override
+  public synchronized void removeAll(Iterable<? extends AbstractState> pToRemove) {
+    delegate.removeAll(checkNotNull(pToRemove));
+  }
+
+  @Override
+  public synchronized void removeOnlyFromWaitlist(AbstractState pState) {
+    delegate.removeOnlyFromWaitlist(checkNotNull(pState));
+  }
+
+  @Override
+  public synchronized void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public synchronized void clearWaitlist() {
+    delegate.clearWaitlist();
+  }
+
+  @Override
+  public synchronized AbstractState popFromWaitlist() {
+    return delegate.popFromWaitlist();
+  }
+
+  @Override
+  public synchronized ImmutableMap<String, AbstractStatValue> getStatistics() {
+    return delegate.getStatistics();
+  }
+
+  @Override
+  public ConfigurableProgramAnalysis getCPA() {
+    return delegate.getCPA();
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    checkNotNull(pStatsCollection);
+    if (delegate instanceof StatisticsProvider) {
+      ((StatisticsProvider) delegate).collectStatistics(pStatsCollection);
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return delegate.toString();
+  }
+}
@@ -10,6 +10,7 @@ package org.sosy_lab.cpachecker.core.waitlist;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import com.google.common.reflect.TypeToken;
 import com.google.errorprone.annotations.ForOverride;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -17,6 +18,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
@@ -69,6 +72,26 @@ public abstract class AbstractSortedWaitlist<K extends Comparable<K>> implements
   @ForOverride
   protected abstract K getSortKey(AbstractState pState);
 
+  /**
+   * Return a function that computes the sorting key of a state, if the keys of this waitlist are
+   * integers, otherwise return null. This allows {@link IndexedHeapWaitlist} to use the same order.
+   */
+  final @Nullable ToIntFunction<AbstractState> getIntegerSortKeyFunction() {
+    Class<?> keyType =
+        TypeToken.of(getClass())
+            .resolveType(AbstractSortedWaitlist.class.getTypeParameters()[0])
+            .getRawType();
+    if (!keyType.equals(Integer.class)) {
+      return null;
+    }
+    return state -> (Integer) getSortKey(state);
+  }
+
+  /** Return the factory for the waitlists that store states with the same sorting key. */
+  final WaitlistFactory getSecondaryStrategy() {
+    return wrappedWaitlist;
+  }
+
   @Override
   public void add(AbstractState pState) {
     K key = getSortKey(pState);
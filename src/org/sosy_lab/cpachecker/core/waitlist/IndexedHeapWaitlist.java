@@ -0,0 +1,305 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+/**
+ * Waitlist implementation that sorts the abstract states by a sequence of integer keys, which are
+ * compared lexicographically. States with the largest keys are considered first, states with equal
+ * keys are handled in DFS or BFS order.
+ *
+ * <p>In contrast to {@link AbstractSortedWaitlist}, all states are kept in a single indexed d-ary
+ * heap with the keys stored in a primitive array, and an index from states to heap positions is
+ * maintained. Thus {@link #add(AbstractState)}, {@link #pop()}, and {@link #remove(AbstractState)}
+ * need O(log n) time and no allocation per state apart from the index entry, and the priority of a
+ * state that is already in the waitlist can be updated in place with {@link
+ * #updatePriority(AbstractState)}.
+ *
+ * <p>Each state is contained at most once. Adding a state that is already contained updates its
+ * priority. The iterators created by this class are unmodifiable and do not return the states in
+ * any particular order.
+ */
+public class IndexedHeapWaitlist implements Waitlist {
+
+  private static final int ARITY = 4;
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final ImmutableList<ToIntFunction<AbstractState>> keyFunctions;
+  private final int keyCount;
+  private final boolean newestFirst;
+
+  // heap of states, ordered by keys (lexicographically) and sequence numbers
+  private AbstractState[] states = new AbstractState[INITIAL_CAPACITY];
+  // keys of states[i] are stored in keys[i * keyCount] ... keys[(i + 1) * keyCount - 1]
+  private int[] keys;
+  // the order in which the states were added, used for breaking ties
+  private long[] sequenceNumbers = new long[INITIAL_CAPACITY];
+
+  private final Map<AbstractState, Integer> positions = new HashMap<>();
+  private int size = 0;
+  private long nextSequenceNumber = 0;
+
+  /**
+   * Create a waitlist.
+   *
+   * @param pKeyFunctions The functions that compute the keys of a state, the first one is the most
+   *     significant. States with larger keys are considered first.
+   * @param pSecondaryStrategy How to handle states with the same keys, needs to be either {@link
+   *     TraversalMethod#DFS} or {@link TraversalMethod#BFS}.
+   */
+  protected IndexedHeapWaitlist(
+      List<ToIntFunction<AbstractState>> pKeyFunctions, TraversalMethod pSecondaryStrategy) {
+    checkArgument(
+        pSecondaryStrategy == TraversalMethod.DFS || pSecondaryStrategy == TraversalMethod.BFS);
+    keyFunctions = ImmutableList.copyOf(pKeyFunctions);
+    keyCount = keyFunctions.size();
+    newestFirst = pSecondaryStrategy == TraversalMethod.DFS;
+    keys = new int[INITIAL_CAPACITY * keyCount];
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    checkNotNull(pState);
+    if (updatePriority(pState)) {
+      return;
+    }
+    if (size == states.length) {
+      int newCapacity = states.length * 2;
+      states = Arrays.copyOf(states, newCapacity);
+      keys = Arrays.copyOf(keys, newCapacity * keyCount);
+      sequenceNumbers = Arrays.copyOf(sequenceNumbers, newCapacity);
+    }
+    int pos = size++;
+    states[pos] = pState;
+    computeKeys(pState, pos);
+    sequenceNumbers[pos] = nextSequenceNumber++;
+    positions.put(pState, pos);
+    siftUp(pos);
+  }
+
+  /**
+   * Recompute the priority of a state that is already contained in the waitlist, for example
+   * because information the keys are based on has changed, and move it to its new place.
+   *
+   * @return whether the state is contained in the waitlist
+   */
+  public boolean updatePriority(AbstractState pState) {
+    Integer pos = positions.get(pState);
+    if (pos == null) {
+      return false;
+    }
+    computeKeys(pState, pos);
+    if (!siftUp(pos)) {
+      siftDown(pos);
+    }
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(states, 0, size, null);
+    positions.clear();
+    size = 0;
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    return positions.containsKey(pState);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return Iterators.limit(Iterators.forArray(states), size);
+  }
+
+  @Override
+  public AbstractState pop() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    AbstractState result = states[0];
+    removeAt(0);
+    return result;
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    Integer pos = positions.get(pState);
+    if (pos == null) {
+      return false;
+    }
+    removeAt(pos);
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private void computeKeys(AbstractState pState, int pPos) {
+    int offset = pPos * keyCount;
+    for (int k = 0; k < keyCount; k++) {
+      keys[offset + k] = keyFunctions.get(k).applyAsInt(pState);
+    }
+  }
+
+  private void removeAt(int pPos) {
+    positions.remove(states[pPos]);
+    int last = --size;
+    if (pPos != last) {
+      moveTo(last, pPos);
+    }
+    states[last] = null;
+    if (pPos != last && !siftUp(pPos)) {
+      siftDown(pPos);
+    }
+  }
+
+  /** Move the element at position pFrom to position pTo, overwriting the latter. */
+  private void moveTo(int pFrom, int pTo) {
+    states[pTo] = states[pFrom];
+    System.arraycopy(keys, pFrom * keyCount, keys, pTo * keyCount, keyCount);
+    sequenceNumbers[pTo] = sequenceNumbers[pFrom];
+    positions.put(states[pTo], pTo);
+  }
+
+  private void swap(int pPos1, int pPos2) {
+    AbstractState state = states[pPos1];
+    states[pPos1] = states[pPos2];
+    states[pPos2] = state;
+    int offset1 = pPos1 * keyCount;
+    int offset2 = pPos2 * keyCount;
+    for (int k = 0; k < keyCount; k++) {
+      int key = keys[offset1 + k];
+      keys[offset1 + k] = keys[offset2 + k];
+      keys[offset2 + k] = key;
+    }
+    long sequenceNumber = sequenceNumbers[pPos1];
+    sequenceNumbers[pPos1] = sequenceNumbers[pPos2];
+    sequenceNumbers[pPos2] = sequenceNumber;
+    positions.put(states[pPos1], pPos1);
+    positions.put(states[pPos2], pPos2);
+  }
+
+  /** Whether the element at position pPos1 should be popped before the one at position pPos2. */
+  private boolean precedes(int pPos1, int pPos2) {
+    int offset1 = pPos1 * keyCount;
+    int offset2 = pPos2 * keyCount;
+    for (int k = 0; k < keyCount; k++) {
+      int key1 = keys[offset1 + k];
+      int key2 = keys[offset2 + k];
+      if (key1 != key2) {
+        return key1 > key2;
+      }
+    }
+    return newestFirst
+        ? sequenceNumbers[pPos1] > sequenceNumbers[pPos2]
+        : sequenceNumbers[pPos1] < sequenceNumbers[pPos2];
+  }
+
+  /** Move the element at the given position up, and return whether it was moved. */
+  private boolean siftUp(int pPos) {
+    int pos = pPos;
+    while (pos > 0) {
+      int parent = (pos - 1) / ARITY;
+      if (!precedes(pos, parent)) {
+        break;
+      }
+      swap(pos, parent);
+      pos = parent;
+    }
+    return pos != pPos;
+  }
+
+  private void siftDown(int pPos) {
+    int pos = pPos;
+    while (true) {
+      int firstChild = pos * ARITY + 1;
+      if (firstChild >= size) {
+        break;
+      }
+      int best = firstChild;
+      int lastChild = Math.min(firstChild + ARITY, size);
+      for (int child = firstChild + 1; child < lastChild; child++) {
+        if (precedes(child, best)) {
+          best = child;
+        }
+      }
+      if (!precedes(best, pos)) {
+        break;
+      }
+      swap(pos, best);
+      pos = best;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(states, size));
+  }
+
+  /**
+   * Create a factory for waitlists with the same order as the waitlists of the given factory, which
+   * needs to create a chain of {@link AbstractSortedWaitlist}s with integer keys (e.g., {@link
+   * ReversePostorderSortedWaitlist} or {@link CallstackSortedWaitlist}) that ends with a DFS or BFS
+   * waitlist. The outermost sorted waitlist provides the most significant key.
+   *
+   * @throws InvalidConfigurationException if the waitlists of the given factory cannot be
+   *     represented by this class
+   */
+  public static WaitlistFactory factory(final WaitlistFactory pSortedStrategy)
+      throws InvalidConfigurationException {
+    ImmutableList.Builder<ToIntFunction<AbstractState>> keyFunctions = ImmutableList.builder();
+    WaitlistFactory strategy = pSortedStrategy;
+    Waitlist waitlist = strategy.createWaitlistInstance();
+    while (waitlist instanceof AbstractSortedWaitlist) {
+      AbstractSortedWaitlist<?> sortedWaitlist = (AbstractSortedWaitlist<?>) waitlist;
+      ToIntFunction<AbstractState> keyFunction = sortedWaitlist.getIntegerSortKeyFunction();
+      if (keyFunction == null) {
+        throw new InvalidConfigurationException(
+            "Waitlist "
+                + sortedWaitlist.getClass().getSimpleName()
+                + " does not sort by integer keys and cannot be used with an indexed heap.");
+      }
+      keyFunctions.add(keyFunction);
+      strategy = sortedWaitlist.getSecondaryStrategy();
+      waitlist = strategy.createWaitlistInstance();
+    }
+    if (strategy != TraversalMethod.DFS && strategy != TraversalMethod.BFS) {
+      throw new InvalidConfigurationException(
+          "An indexed heap waitlist can only be combined with sorted waitlists"
+              + " and DFS or BFS order, not with "
+              + waitlist.getClass().getSimpleName()
+              + ".");
+    }
+    final ImmutableList<ToIntFunction<AbstractState>> finalKeyFunctions = keyFunctions.build();
+    final TraversalMethod secondaryStrategy = (TraversalMethod) strategy;
+    return () -> new IndexedHeapWaitlist(finalKeyFunctions, secondaryStrategy);
+  }
+}
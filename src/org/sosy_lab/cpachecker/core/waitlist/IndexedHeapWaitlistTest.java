@@ -0,0 +1,133 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocation;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+
+public class IndexedHeapWaitlistTest {
+
+  private static final int LOCATIONS = 10;
+  private static final CFANode[] NODES = new CFANode[LOCATIONS];
+
+  static {
+    for (int i = 0; i < LOCATIONS; i++) {
+      NODES[i] = CFANode.newDummyCFANode("test");
+      NODES[i].setReversePostorderId(i);
+    }
+  }
+
+  private static class TestState implements AbstractStateWithLocation {
+
+    private final int location;
+    private int priority;
+
+    TestState(int pLocation, int pPriority) {
+      location = pLocation;
+      priority = pPriority;
+    }
+
+    @Override
+    public CFANode getLocationNode() {
+      return NODES[location];
+    }
+  }
+
+  private static List<TestState> createStates(int pCount) {
+    Random random = new Random(0);
+    List<TestState> states = new ArrayList<>(pCount);
+    for (int i = 0; i < pCount; i++) {
+      states.add(new TestState(random.nextInt(LOCATIONS), 0));
+    }
+    return states;
+  }
+
+  private static List<AbstractState> popAll(Waitlist pWaitlist) {
+    List<AbstractState> result = new ArrayList<>();
+    while (!pWaitlist.isEmpty()) {
+      result.add(pWaitlist.pop());
+    }
+    return result;
+  }
+
+  /** Add and remove the same states from both waitlists and check that they pop the same. */
+  private static void checkSameOrder(WaitlistFactory pSortedStrategy)
+      throws InvalidConfigurationException {
+    Waitlist expected = pSortedStrategy.createWaitlistInstance();
+    Waitlist heap = IndexedHeapWaitlist.factory(pSortedStrategy).createWaitlistInstance();
+    List<TestState> states = createStates(200);
+    for (TestState state : states) {
+      expected.add(state);
+      heap.add(state);
+    }
+    for (int i = 0; i < states.size(); i += 3) {
+      assertThat(heap.remove(states.get(i))).isEqualTo(expected.remove(states.get(i)));
+    }
+    assertThat(heap.size()).isEqualTo(expected.size());
+    assertThat(heap).containsExactlyElementsIn(expected);
+
+    assertThat(popAll(heap)).containsExactlyElementsIn(popAll(expected)).inOrder();
+  }
+
+  @Test
+  public void testSameOrderAsSortedWaitlistDFS() throws InvalidConfigurationException {
+    checkSameOrder(ReversePostorderSortedWaitlist.factory(TraversalMethod.DFS));
+  }
+
+  @Test
+  public void testSameOrderAsSortedWaitlistBFS() throws InvalidConfigurationException {
+    checkSameOrder(ReversePostorderSortedWaitlist.factory(TraversalMethod.BFS));
+  }
+
+  @Test
+  public void testSameOrderAsSimpleWaitlist() throws InvalidConfigurationException {
+    checkSameOrder(TraversalMethod.DFS);
+    checkSameOrder(TraversalMethod.BFS);
+  }
+
+  @Test
+  public void testUpdatePriority() {
+    IndexedHeapWaitlist waitlist =
+        new IndexedHeapWaitlist(
+            ImmutableList.of(state -> ((TestState) state).priority), TraversalMethod.DFS);
+    List<TestState> states = createStates(50);
+    for (int i = 0; i < states.size(); i++) {
+      states.get(i).priority = i;
+      waitlist.add(states.get(i));
+    }
+    TestState first = states.get(10);
+    first.priority = 100;
+    assertThat(waitlist.updatePriority(first)).isTrue();
+    TestState last = states.get(40);
+    last.priority = -1;
+    waitlist.add(last);
+
+    assertThat(waitlist.size()).isEqualTo(states.size());
+    List<AbstractState> popped = popAll(waitlist);
+    assertThat(popped.get(0)).isSameInstanceAs(first);
+    assertThat(popped.get(popped.size() - 1)).isSameInstanceAs(last);
+    assertThat(waitlist.updatePriority(first)).isFalse();
+  }
+
+  @Test(expected = InvalidConfigurationException.class)
+  public void testUnsupportedSecondaryStrategy() throws InvalidConfigurationException {
+    IndexedHeapWaitlist.factory(ReversePostorderSortedWaitlist.factory(TraversalMethod.RAND));
+  }
+}
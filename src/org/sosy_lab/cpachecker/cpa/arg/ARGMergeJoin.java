@@ -57,13 +57,16 @@ public class ARGMergeJoin implements MergeOperator {
     AbstractState retElement = wrappedMerge.merge(wrappedState1, wrappedState2, pPrecision);
 
     boolean continueMerge = !retElement.equals(wrappedState2);
-    if (mergeOnWrappedSubsumption) {
-      Set<ARGState> parents1 = ImmutableSet.copyOf(argElement1.getParents());
-      Set<ARGState> parents2 = ImmutableSet.copyOf(argElement2.getParents());
+    if (mergeOnWrappedSubsumption && !continueMerge) {
+      Set<ARGState> parents1;
+      Set<ARGState> parents2;
+      synchronized (ARGState.LINK_LOCK) {
+        parents1 = ImmutableSet.copyOf(argElement1.getParents());
+        parents2 = ImmutableSet.copyOf(argElement2.getParents());
+      }
       continueMerge =
-          continueMerge
-              || (!parents2.containsAll(parents1)
-                  && wrappedDomain.isLessOrEqual(wrappedState1, wrappedState2));
+          !parents2.containsAll(parents1)
+              && wrappedDomain.isLessOrEqual(wrappedState1, wrappedState2);
     }
     if (!continueMerge) {
       return pElement2;
@@ -71,12 +74,14 @@ public class ARGMergeJoin implements MergeOperator {
 
     ARGState mergedElement = new ARGState(retElement, null);
 
-    // now replace argElement2 by mergedElement in ARG
-    argElement2.replaceInARGWith(mergedElement);
+    synchronized (ARGState.LINK_LOCK) {
+      // now replace argElement2 by mergedElement in ARG
+      argElement2.replaceInARGWith(mergedElement);
 
-    // and also replace argElement1 with it
-    for (ARGState parentOfElement1 : argElement1.getParents()) {
-      mergedElement.addParent(parentOfElement1);
+      // and also replace argElement1 with it
+      for (ARGState parentOfElement1 : argElement1.getParents()) {
+        mergedElement.addParent(parentOfElement1);
+      }
     }
 
     // argElement1 is the current successor, it does not have any children yet and covered nodes yet
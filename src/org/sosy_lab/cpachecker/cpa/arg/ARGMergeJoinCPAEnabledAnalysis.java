@@ -63,13 +63,15 @@ public class ARGMergeJoinCPAEnabledAnalysis implements MergeOperator {
 
     ARGState mergedElement = new ARGState(retElement, null);
 
-    if (deleteSubgraphAfterMerge) {
-      // now replace argElement2 by mergedElement in ARG
-      // deleteChildren(argElement2);
-      deleteChildren2(argElement2);
-    }
+    synchronized (ARGState.LINK_LOCK) {
+      if (deleteSubgraphAfterMerge) {
+        // now replace argElement2 by mergedElement in ARG
+        // deleteChildren(argElement2);
+        deleteChildren2(argElement2);
+      }
 
-    argElement2.replaceInARGWith(mergedElement);
+      argElement2.replaceInARGWith(mergedElement);
+    }
 
 
     argElement1.setMergedWith(mergedElement);
@@ -293,8 +295,10 @@ public class ARGMergeJoinCPAEnabledAnalysis implements MergeOperator {
   }
 
   public void cleanUp(ReachedSet pReachedSet) {
-    pReachedSet.removeAll(toDeleteFromReached);
-    toDeleteFromReached.clear();
+    synchronized (ARGState.LINK_LOCK) {
+      pReachedSet.removeAll(toDeleteFromReached);
+      toDeleteFromReached.clear();
+    }
   }
 
 }
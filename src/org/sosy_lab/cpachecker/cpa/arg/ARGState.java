@@ -18,12 +18,17 @@ import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.collect.UnmodifiableIterator;
 import com.google.common.graph.Traverser;
-import java.util.ArrayList;
+import java.util.AbstractCollection;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -42,14 +47,31 @@ import org.sosy_lab.cpachecker.util.AbstractStates;
 public class ARGState extends AbstractSerializableSingleWrapperState
     implements Comparable<ARGState>, Graphable, Splitable {
 
-  private static final long serialVersionUID = 2608287648397165040L;
+  private static final long serialVersionUID = -3106547265170423868L;
 
-  // We use a List here although we would like to have a Set
-  // because ArrayList is much more memory efficient than e.g. LinkedHashSet.
+  private static final ARGState[] NO_LINKS = new ARGState[0];
+
+  /**
+   * Lock for the changes of parents and children done by the merge and stop operators of ARGCPA.
+   * The parallel CPA algorithm calls these operators concurrently for states of different
+   * partitions, but the parents and children of a state may belong to other partitions.
+   */
+  static final Object LINK_LOCK = new Object();
+
+  // Parents and children are stored together in a single array, because for large ARGs
+  // two separate collections per state (each with its own backing array) dominate the heap.
+  // The parents are at indices [0, numParents), the children at the following numChildren
+  // indices, and the remaining slots are free capacity.
+  // We use an array although we would like to have a Set
+  // because it is much more memory efficient than e.g. LinkedHashSet.
   // Also these collections are small and so a slow contains() method won't hurt.
-  // To enforce set semantics, do not add elements except through addparent()!
-  private final Collection<ARGState> children = new ArrayList<>(1);
-  private final Collection<ARGState> parents = new ArrayList<>(1);
+  // To enforce set semantics, do not add elements except through addParent()!
+  private ARGState[] links = NO_LINKS;
+  private int numParents = 0;
+  private int numChildren = 0;
+  // number of structural changes of the parents and children, for fail-fast iterators
+  private transient int parentsModCount = 0;
+  private transient int childrenModCount = 0;
 
   private ARGState mCoveredBy = null;
   private Set<ARGState> mCoveredByThis = null; // lazy initialization because rarely needed
@@ -84,7 +106,7 @@ public class ARGState extends AbstractSerializableSingleWrapperState
    * @return A unmodifiable collection of ARGStates without duplicates.
    */
   public Collection<ARGState> getParents() {
-    return Collections.unmodifiableCollection(parents);
+    return new LinkView(/*pParents=*/ true);
   }
 
   public void addParent(ARGState pOtherParent) {
@@ -92,12 +114,12 @@ public class ARGState extends AbstractSerializableSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (!parents.contains(pOtherParent)) {
-      assert !pOtherParent.children.contains(this);
-      parents.add(pOtherParent);
-      pOtherParent.children.add(this);
+    if (!hasParent(pOtherParent)) {
+      assert !pOtherParent.hasChild(this);
+      insertParent(pOtherParent);
+      pOtherParent.insertChild(this);
     } else {
-      assert pOtherParent.children.contains(this);
+      assert pOtherParent.hasChild(this);
     }
   }
 
@@ -107,7 +129,7 @@ public class ARGState extends AbstractSerializableSingleWrapperState
    */
   public Collection<ARGState> getChildren() {
     assert !destroyed : "Don't use destroyed ARGState " + this;
-    return Collections.unmodifiableCollection(children);
+    return new LinkView(/*pParents=*/ false);
   }
 
   /**
@@ -292,10 +314,10 @@ public class ARGState extends AbstractSerializableSingleWrapperState
   }
 
   void deleteChild(ARGState child) {
-    assert children.contains(child);
-    assert child.parents.contains(this);
-    children.remove(child);
-    child.parents.remove(this);
+    assert hasChild(child);
+    assert child.hasParent(this);
+    removeChildLink(child);
+    child.removeParentLink(this);
   }
 
   // counterexample
@@ -383,9 +405,9 @@ public class ARGState extends AbstractSerializableSingleWrapperState
     sb.append(stateId);
     if (!destroyed) {
       sb.append(", Parents: ");
-      sb.append(stateIdsOf(parents));
+      sb.append(stateIdsOf(getParents()));
       sb.append(", Children: ");
-      sb.append(stateIdsOf(children));
+      sb.append(stateIdsOf(getChildren()));
 
       if (mCoveredBy != null) {
         sb.append(", Covered by: ");
@@ -469,19 +491,21 @@ public class ARGState extends AbstractSerializableSingleWrapperState
   void detachFromARG() {
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
+    ImmutableList<ARGState> oldParents = ImmutableList.copyOf(getParents());
+    ImmutableList<ARGState> oldChildren = ImmutableList.copyOf(getChildren());
+    clearLinks();
+
     // clear children
-    for (ARGState child : children) {
-      assert child.parents.contains(this);
-      child.parents.remove(this);
+    for (ARGState child : oldChildren) {
+      assert child.hasParent(this);
+      child.removeParentLink(this);
     }
-    children.clear();
 
     // clear parents
-    for (ARGState parent : parents) {
-      assert parent.children.contains(this);
-      parent.children.remove(this);
+    for (ARGState parent : oldParents) {
+      assert parent.hasChild(this);
+      parent.removeChildLink(this);
     }
-    parents.clear();
   }
 
   /**
@@ -500,20 +524,22 @@ public class ARGState extends AbstractSerializableSingleWrapperState
     assert !replacement.isCovered() : "Cannot replace with covered element " + replacement;
     assert !this.equals(replacement) : "Don't replace ARGState " + this + " with itself";
 
+    ImmutableList<ARGState> oldParents = ImmutableList.copyOf(getParents());
+    ImmutableList<ARGState> oldChildren = ImmutableList.copyOf(getChildren());
+    clearLinks();
+
     // copy children
-    for (ARGState child : children) {
-      assert child.parents.contains(this) : "Inconsistent ARG at " + this;
-      child.parents.remove(this);
+    for (ARGState child : oldChildren) {
+      assert child.hasParent(this) : "Inconsistent ARG at " + this;
+      child.removeParentLink(this);
       child.addParent(replacement);
     }
-    children.clear();
 
-    for (ARGState parent : parents) {
-      assert parent.children.contains(this) : "Inconsistent ARG at " + this;
-      parent.children.remove(this);
+    for (ARGState parent : oldParents) {
+      assert parent.hasChild(this) : "Inconsistent ARG at " + this;
+      parent.removeChildLink(this);
       replacement.addParent(parent);
     }
-    parents.clear();
 
     if (mCoveredByThis != null) {
       if (replacement.mCoveredByThis == null) {
@@ -567,12 +593,144 @@ public class ARGState extends AbstractSerializableSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (parents.contains(pOtherParent)) {
-      assert pOtherParent.children.contains(this);
-      parents.remove(pOtherParent);
-      pOtherParent.children.remove(this);
+    if (hasParent(pOtherParent)) {
+      assert pOtherParent.hasChild(this);
+      removeParentLink(pOtherParent);
+      pOtherParent.removeChildLink(this);
     } else {
-      assert !pOtherParent.children.contains(this) : "Problem detected!";
+      assert !pOtherParent.hasChild(this) : "Problem detected!";
+    }
+  }
+
+  // low-level access to the array of parents and children
+
+  private int indexOfLink(ARGState pState, int pFrom, int pTo) {
+    for (int i = pFrom; i < pTo; i++) {
+      if (links[i] == pState) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private boolean hasParent(ARGState pParent) {
+    return indexOfLink(pParent, 0, numParents) >= 0;
+  }
+
+  private boolean hasChild(ARGState pChild) {
+    return indexOfLink(pChild, numParents, numParents + numChildren) >= 0;
+  }
+
+  private void ensureFreeLink() {
+    int size = numParents + numChildren;
+    if (size == links.length) {
+      // grow by 50% like ArrayList, but start small because most states have few neighbors
+      links = Arrays.copyOf(links, Math.max(2, size + (size >> 1)));
+    }
+  }
+
+  private void insertParent(ARGState pParent) {
+    ensureFreeLink();
+    // move children one slot to the back to keep parents in front
+    System.arraycopy(links, numParents, links, numParents + 1, numChildren);
+    links[numParents] = pParent;
+    numParents++;
+    parentsModCount++;
+  }
+
+  private void insertChild(ARGState pChild) {
+    ensureFreeLink();
+    links[numParents + numChildren] = pChild;
+    numChildren++;
+    childrenModCount++;
+  }
+
+  private void removeLinkAt(int pIndex) {
+    int size = numParents + numChildren;
+    System.arraycopy(links, pIndex + 1, links, pIndex, size - pIndex - 1);
+    links[size - 1] = null;
+  }
+
+  private void removeParentLink(ARGState pParent) {
+    int index = indexOfLink(pParent, 0, numParents);
+    assert index >= 0 : "Inconsistent ARG at " + this;
+    removeLinkAt(index);
+    numParents--;
+    parentsModCount++;
+  }
+
+  private void removeChildLink(ARGState pChild) {
+    int index = indexOfLink(pChild, numParents, numParents + numChildren);
+    assert index >= 0 : "Inconsistent ARG at " + this;
+    removeLinkAt(index);
+    numChildren--;
+    childrenModCount++;
+  }
+
+  private void clearLinks() {
+    links = NO_LINKS;
+    numParents = 0;
+    numChildren = 0;
+    parentsModCount++;
+    childrenModCount++;
+  }
+
+  /**
+   * Unmodifiable view on either the parents or the children of this state. The view reflects later
+   * changes. Like the iterators of the JDK collections, its iterator fails with a {@link
+   * ConcurrentModificationException} if the viewed parents or children are changed during
+   * iteration.
+   */
+  private final class LinkView extends AbstractCollection<ARGState> {
+
+    private final boolean parents;
+
+    private LinkView(boolean pParents) {
+      parents = pParents;
+    }
+
+    private int start() {
+      return parents ? 0 : numParents;
+    }
+
+    private int modCount() {
+      return parents ? parentsModCount : childrenModCount;
+    }
+
+    @Override
+    public int size() {
+      return parents ? numParents : numChildren;
+    }
+
+    @Override
+    public boolean contains(Object pObj) {
+      return pObj instanceof ARGState
+          && indexOfLink((ARGState) pObj, start(), start() + size()) >= 0;
+    }
+
+    @Override
+    public Iterator<ARGState> iterator() {
+      return new UnmodifiableIterator<>() {
+        // relative to start(), because changing the parents moves the children
+        private int next = 0;
+        private final int expectedModCount = modCount();
+
+        @Override
+        public boolean hasNext() {
+          return next < size();
+        }
+
+        @Override
+        public ARGState next() {
+          if (modCount() != expectedModCount) {
+            throw new ConcurrentModificationException();
+          }
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return links[start() + next++];
+        }
+      };
     }
   }
 }
@@ -0,0 +1,131 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+
+public class ARGStateTest {
+
+  @Test
+  public void testParentsAndChildren() {
+    ARGState root = new ARGState(null, null);
+    ARGState child1 = new ARGState(null, root);
+    ARGState child2 = new ARGState(null, root);
+    ARGState grandChild = new ARGState(null, child1);
+    grandChild.addParent(child2);
+    grandChild.addParent(child2); // set semantics
+
+    assertThat(root.getParents()).isEmpty();
+    assertThat(root.getChildren()).containsExactly(child1, child2).inOrder();
+    assertThat(child1.getParents()).containsExactly(root);
+    assertThat(child1.getChildren()).containsExactly(grandChild);
+    assertThat(grandChild.getParents()).containsExactly(child1, child2).inOrder();
+    assertThat(grandChild.getChildren()).isEmpty();
+  }
+
+  @Test
+  public void testManyChildren() {
+    ARGState root = new ARGState(null, null);
+    List<ARGState> children = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      children.add(new ARGState(null, root));
+    }
+    ARGState parent = new ARGState(null, null);
+    root.addParent(parent);
+
+    assertThat(root.getChildren()).containsExactlyElementsIn(children).inOrder();
+    assertThat(root.getParents()).containsExactly(parent);
+
+    root.deleteChild(children.get(50));
+    children.remove(50);
+    assertThat(root.getChildren()).containsExactlyElementsIn(children).inOrder();
+    assertThat(root.getParents()).containsExactly(parent);
+  }
+
+  @Test
+  public void testRemoveFromARG() {
+    ARGState root = new ARGState(null, null);
+    ARGState middle = new ARGState(null, root);
+    ARGState leaf = new ARGState(null, middle);
+
+    middle.removeFromARG();
+
+    assertThat(middle.isDestroyed()).isTrue();
+    assertThat(root.getChildren()).isEmpty();
+    assertThat(leaf.getParents()).isEmpty();
+  }
+
+  @Test
+  public void testRemoveParent() {
+    ARGState parent1 = new ARGState(null, null);
+    ARGState parent2 = new ARGState(null, null);
+    ARGState child = new ARGState(null, parent1);
+    child.addParent(parent2);
+
+    child.removeParent(parent1);
+
+    assertThat(child.getParents()).containsExactly(parent2);
+    assertThat(parent1.getChildren()).isEmpty();
+    assertThat(parent2.getChildren()).containsExactly(child);
+  }
+
+  @Test
+  public void testReplaceInARG() {
+    ARGState root = new ARGState(null, null);
+    ARGState old = new ARGState(null, root);
+    ARGState leaf = new ARGState(null, old);
+    ARGState replacement = new ARGState(null, null);
+
+    old.replaceInARGWith(replacement);
+
+    assertThat(old.isDestroyed()).isTrue();
+    assertThat(root.getChildren()).containsExactly(replacement);
+    assertThat(replacement.getParents()).containsExactly(root);
+    assertThat(replacement.getChildren()).containsExactly(leaf);
+    assertThat(leaf.getParents()).containsExactly(replacement);
+  }
+
+  @Test
+  public void testIteratorFailsOnModification() {
+    ARGState root = new ARGState(null, null);
+    new ARGState(null, root);
+    new ARGState(null, root);
+
+    Iterator<ARGState> children = root.getChildren().iterator();
+    children.next();
+    new ARGState(null, root);
+    assertThrows(ConcurrentModificationException.class, children::next);
+  }
+
+  @Test
+  public void testChildIteratorSurvivesNewParent() {
+    ARGState parent = new ARGState(null, null);
+    ARGState state = new ARGState(null, parent);
+    ARGState child1 = new ARGState(null, state);
+    ARGState child2 = new ARGState(null, state);
+
+    // adding a parent moves the children in the array, but does not change them
+    List<ARGState> children = new ArrayList<>();
+    for (ARGState child : state.getChildren()) {
+      children.add(child);
+      if (children.size() == 1) {
+        state.addParent(new ARGState(null, null));
+      }
+    }
+    assertThat(children).containsExactly(child1, child2).inOrder();
+    assertThat(state.getParents()).hasSize(2);
+  }
+}
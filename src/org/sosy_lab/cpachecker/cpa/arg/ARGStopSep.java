@@ -65,7 +65,9 @@ public class ARGStopSep implements StopOperator, ForcedCoveringStopOperator {
           if (inCPAEnabledAnalysis) {
             argElement.setCovered(mergedWith);
           } else {
-            argElement.removeFromARG();
+            synchronized (ARGState.LINK_LOCK) {
+              argElement.removeFromARG();
+            }
           }
           logger.log(Level.FINEST, "Element is covered by the element it was merged into");
 
@@ -93,23 +95,26 @@ public class ARGStopSep implements StopOperator, ForcedCoveringStopOperator {
 
     // Check if the argElement has only one parent and remember it for later:
     ARGState parent = null;
-    if (argElement.getParents().size() == 1) {
-      parent = Iterables.get(argElement.getParents(), 0);
+    synchronized (ARGState.LINK_LOCK) {
+      if (argElement.getParents().size() == 1) {
+        parent = Iterables.get(argElement.getParents(), 0);
+      }
     }
 
     for (AbstractState reachedState : pReached) {
       ARGState argReachedState = (ARGState)reachedState;
       if (stop(argElement, argReachedState, pPrecision)) {
-        if (parent != null && argReachedState.getParents().contains(parent)) {
-          // if the covering state has the same parent as the covered state
-          // and if the covered state has no other parents,
-          // it should always be safe to remove the covered state:
-          argElement.removeFromARG();
-          return true;
-        } else {
-          // if this option is true, we always return false here on purpose
-          return !keepCoveredStatesInReached;
+        synchronized (ARGState.LINK_LOCK) {
+          if (parent != null && argReachedState.getParents().contains(parent)) {
+            // if the covering state has the same parent as the covered state
+            // and if the covered state has no other parents,
+            // it should always be safe to remove the covered state:
+            argElement.removeFromARG();
+            return true;
+          }
         }
+        // if this option is true, we always return false here on purpose
+        return !keepCoveredStatesInReached;
       }
     }
     return false;
@@ -84,6 +84,14 @@ public class WitnessOptions {
               + "This may be unsound in some situations, so be careful when using this option.")
   private boolean produceInvariantWitnesses = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Verification witness: Write GraphML witnesses directly to the output while traversing"
+              + " the witness graph instead of building an XML document of the whole witness first."
+              + " This reduces the memory needed for exporting large witnesses.")
+  private boolean streamingGraphMLExport = false;
+
   boolean exportFunctionCallsAndReturns() {
     return exportFunctionCallsAndReturns;
   }
@@ -135,4 +143,8 @@ public class WitnessOptions {
   public boolean produceInvariantWitnesses() {
     return produceInvariantWitnesses;
   }
+
+  public boolean streamingGraphMLExport() {
+    return streamingGraphMLExport;
+  }
 }
@@ -12,8 +12,12 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.util.logging.Level.WARNING;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.MoreFiles;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.Collection;
@@ -31,7 +35,9 @@ import org.sosy_lab.cpachecker.core.counterexample.ReportGenerator;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.arg.witnessexport.formatter.WitnessToDotFormatter;
 import org.sosy_lab.cpachecker.cpa.arg.witnessexport.formatter.WitnessToGraphMLFormatter;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.formatter.WitnessToStreamingGraphMLFormatter;
 import org.sosy_lab.cpachecker.cpa.slab.SLARGToDotWriter;
+import org.sosy_lab.cpachecker.util.BackgroundGZIPOutputStream;
 import org.sosy_lab.cpachecker.util.NumericIdProvider;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
@@ -39,13 +45,24 @@ import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
 
 public class WitnessToOutputFormatsUtils {
 
-  /** utility method */
+  /**
+   * utility method
+   *
+   * <p>If the file is compressed, the compression runs in a separate thread while the content is
+   * generated, such that it does not add to the time needed for writing the witness.
+   */
   public static void writeWitness(
       Path filename, boolean compressFile, Appender content, LogManager logger) {
     try {
       if (compressFile) {
         Path file = filename.resolveSibling(filename.getFileName() + ".gz");
-        IO.writeGZIPFile(file, Charset.defaultCharset(), content);
+        MoreFiles.createParentDirectories(file);
+        try (Writer out =
+            new OutputStreamWriter(
+                new BackgroundGZIPOutputStream(Files.newOutputStream(file)),
+                Charset.defaultCharset())) {
+          content.appendTo(out);
+        }
       } else {
         IO.writeFile(filename, Charset.defaultCharset(), content);
       }
@@ -61,7 +78,11 @@ public class WitnessToOutputFormatsUtils {
    * @param pTarget where to append the GraphML
    */
   public static void writeToGraphMl(Witness witness, Appendable pTarget) throws IOException {
-    new WitnessToGraphMLFormatter(witness).appendTo(pTarget);
+    if (witness.getWitnessOptions().streamingGraphMLExport()) {
+      new WitnessToStreamingGraphMLFormatter(witness).appendTo(pTarget);
+    } else {
+      new WitnessToGraphMLFormatter(witness).appendTo(pTarget);
+    }
   }
 
   /** Appends the witness as Dot/Graphviz to the supplied {@link Appendable}. */
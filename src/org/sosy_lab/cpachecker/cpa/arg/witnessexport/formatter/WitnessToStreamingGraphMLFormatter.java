@@ -0,0 +1,299 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.arg.witnessexport.formatter;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.io.CharStreams;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.core.interfaces.Targetable.TargetInformation;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Edge;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Witness;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.ElementType;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
+import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
+import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
+
+/**
+ * Writes the same GraphML as {@link WitnessToGraphMLFormatter}, but directly to the target while
+ * traversing the witness graph instead of building a DOM of the whole witness first. Apart from
+ * the witness itself, only the node that was created last is kept in memory (because invariants
+ * are added to a node after its creation).
+ *
+ * <p>GraphML requires all key definitions before the graph, so the keys that are used are
+ * collected from the witness before writing. The data that edges contribute to their target nodes
+ * is taken from the entering edges of a node when it is written, which is why the data of a node
+ * may be ordered differently than in the output of {@link WitnessToGraphMLFormatter}.
+ */
+public class WitnessToStreamingGraphMLFormatter extends WitnessToOutputFormatter<String> {
+
+  private XMLStreamWriter writer;
+
+  /** Id of the node that was created last and was not written yet. */
+  private @Nullable String pendingNode = null;
+
+  private final List<Pair<KeyDef, String>> pendingNodeData = new ArrayList<>();
+
+  public WitnessToStreamingGraphMLFormatter(Witness pWitness) {
+    super(pWitness);
+  }
+
+  @Override
+  protected void initialize(Appendable pTarget) throws IOException {
+    ImmutableListMultimap<KeyDef, String> graphData =
+        GraphMlBuilder.getGraphData(
+            witness.getWitnessType(), witness.getCfa(), witness.getMetaData());
+    pTarget.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+    try {
+      writer = XMLOutputFactory.newFactory().createXMLStreamWriter(CharStreams.asWriter(pTarget));
+      writer.writeStartElement("graphml");
+      writer.writeDefaultNamespace("http://graphml.graphdrawing.org/xmlns");
+      writer.writeNamespace("xsi", "http://www.w3.org/2001/XMLSchema-instance");
+
+      for (KeyDef keyDef : collectUsedKeys(graphData.keySet())) {
+        writeKeyDefinition(keyDef);
+      }
+
+      indent(1);
+      writer.writeStartElement(GraphMLTag.GRAPH.toString());
+      writer.writeAttribute("edgedefault", "directed");
+      for (Map.Entry<KeyDef, String> data : graphData.entries()) {
+        writeData(2, data.getKey(), data.getValue());
+      }
+    } catch (XMLStreamException e) {
+      throw asIOException(e);
+    }
+  }
+
+  /** Determine all keys that are used in the witness, in the order of their definition. */
+  private Set<KeyDef> collectUsedKeys(Set<KeyDef> pGraphKeys) {
+    Set<KeyDef> keys = EnumSet.of(KeyDef.ORIGINFILE);
+    for (KeyDef keyDef : KeyDef.values()) {
+      if (keyDef.keyFor == ElementType.GRAPH) {
+        keys.add(keyDef);
+      }
+    }
+    keys.addAll(pGraphKeys);
+
+    if (witness.getWitnessOptions().exportNodeLabel()) {
+      keys.add(KeyDef.LABEL);
+    }
+    for (NodeFlag flag : witness.getNodeFlags().values()) {
+      keys.add(flag.key);
+    }
+    if (!witness.getViolatedProperties().isEmpty()) {
+      keys.add(KeyDef.VIOLATEDPROPERTY);
+    }
+    for (String state : witness.getInvariantExportStates()) {
+      ExpressionTree<Object> tree = witness.getStateInvariant(state);
+      if (!tree.equals(ExpressionTrees.getTrue())) {
+        keys.add(KeyDef.INVARIANT);
+        if (!isNullOrEmpty(witness.getStateScopes().get(state))
+            && !tree.equals(ExpressionTrees.getFalse())) {
+          keys.add(KeyDef.INVARIANTSCOPE);
+        }
+      }
+    }
+    for (String node :
+        Iterables.concat(
+            witness.getLeavingEdges().keySet(),
+            witness.getEnteringEdges().keySet(),
+            ImmutableSet.of(witness.getEntryStateNodeId()))) {
+      if (witness.hasQuasiInvariant(node)) {
+        keys.add(KeyDef.INVARIANT);
+        break;
+      }
+    }
+    for (Edge edge : witness.getLeavingEdges().values()) {
+      keys.addAll(edge.getLabel().getMapping().keySet());
+    }
+    return keys;
+  }
+
+  private void writeKeyDefinition(KeyDef pKeyDef) throws XMLStreamException {
+    String defaultValue =
+        pKeyDef == KeyDef.ORIGINFILE ? witness.getOriginFile() : pKeyDef.defaultValue;
+    indent(1);
+    if (defaultValue == null) {
+      writer.writeEmptyElement(GraphMLTag.KEY.toString());
+    } else {
+      writer.writeStartElement(GraphMLTag.KEY.toString());
+    }
+    writer.writeAttribute("attr.name", pKeyDef.attrName);
+    writer.writeAttribute("attr.type", pKeyDef.attrType);
+    writer.writeAttribute("for", pKeyDef.keyFor.toString());
+    writer.writeAttribute("id", pKeyDef.id);
+    if (defaultValue != null) {
+      indent(2);
+      writer.writeStartElement(GraphMLTag.DEFAULT.toString());
+      writer.writeCharacters(defaultValue);
+      writer.writeEndElement();
+      indent(1);
+      writer.writeEndElement();
+    }
+  }
+
+  @Override
+  protected void finish(Appendable pTarget) throws IOException {
+    try {
+      writePendingNode();
+      indent(1);
+      writer.writeEndElement(); // graph
+      indent(0);
+      writer.writeEndElement(); // graphml
+      writer.writeCharacters("\n");
+      writer.writeEndDocument();
+      writer.flush();
+      writer.close(); // does not close the target
+    } catch (XMLStreamException e) {
+      throw asIOException(e);
+    }
+  }
+
+  @Override
+  protected String createNewNode(String pNodeId, Appendable pTarget) throws IOException {
+    try {
+      writePendingNode();
+    } catch (XMLStreamException e) {
+      throw asIOException(e);
+    }
+    pendingNode = pNodeId;
+    if (witness.getWitnessOptions().exportNodeLabel()) {
+      // add a printable label that for example is shown in yEd
+      pendingNodeData.add(Pair.of(KeyDef.LABEL, pNodeId));
+    }
+    for (NodeFlag f : witness.getNodeFlags().get(pNodeId)) {
+      pendingNodeData.add(Pair.of(f.key, "true"));
+    }
+    for (TargetInformation violation : witness.getViolatedProperties().get(pNodeId)) {
+      pendingNodeData.add(Pair.of(KeyDef.VIOLATEDPROPERTY, violation.toString()));
+    }
+    if (witness.hasQuasiInvariant(pNodeId)) {
+      ExpressionTree<Object> tree = witness.getQuasiInvariant(pNodeId);
+      pendingNodeData.add(Pair.of(KeyDef.INVARIANT, tree.toString()));
+    }
+    return pNodeId;
+  }
+
+  @Override
+  protected void addInvariantsData(
+      String pNode, ExpressionTree<Object> pTree, @Nullable String pScope, Appendable pTarget) {
+    checkState(pNode.equals(pendingNode), "invariants can only be added to the newest node");
+    pendingNodeData.add(Pair.of(KeyDef.INVARIANT, pTree.toString()));
+    if (!isNullOrEmpty(pScope) && !pTree.equals(ExpressionTrees.getFalse())) {
+      pendingNodeData.add(Pair.of(KeyDef.INVARIANTSCOPE, pScope));
+    }
+  }
+
+  @Override
+  protected void createNewEdge(
+      Edge pEdge, String pSourceNode, String pTargetNode, Appendable pTarget) throws IOException {
+    try {
+      writePendingNode();
+      List<Pair<KeyDef, String>> data = new ArrayList<>();
+      for (Map.Entry<KeyDef, String> entry : pEdge.getLabel().getMapping().entrySet()) {
+        if (entry.getKey().keyFor.equals(ElementType.EDGE)) {
+          data.add(Pair.of(entry.getKey(), entry.getValue()));
+        }
+      }
+      writeElement(GraphMLTag.EDGE, data, "source", pEdge.getSource(), "target", pEdge.getTarget());
+    } catch (XMLStreamException e) {
+      throw asIOException(e);
+    }
+  }
+
+  private void writePendingNode() throws XMLStreamException {
+    if (pendingNode == null) {
+      return;
+    }
+    // Add the data that the entering edges define for their target, like the DOM-based formatter
+    // does when it creates these edges. Edges from nodes that are not expanded are not exported.
+    for (Edge edge : witness.getEnteringEdges().get(pendingNode)) {
+      if (isExpanded(edge.getSource())) {
+        for (Map.Entry<KeyDef, String> entry : edge.getLabel().getMapping().entrySet()) {
+          if (entry.getKey().keyFor.equals(ElementType.NODE)) {
+            pendingNodeData.add(Pair.of(entry.getKey(), entry.getValue()));
+          }
+        }
+      }
+    }
+    writeElement(GraphMLTag.NODE, pendingNodeData, "id", pendingNode);
+    pendingNode = null;
+    pendingNodeData.clear();
+  }
+
+  /** Whether the traversal of the witness graph continues at the given node. */
+  private boolean isExpanded(String pNodeId) {
+    return pNodeId.equals(witness.getEntryStateNodeId())
+        || !witness.getInvariantExportStates().contains(pNodeId)
+        || !ExpressionTrees.getFalse().equals(witness.getStateInvariant(pNodeId));
+  }
+
+  /** Write a node or edge element, the attributes are given as alternating names and values. */
+  private void writeElement(
+      GraphMLTag pTag, List<Pair<KeyDef, String>> pData, String... pAttributes)
+      throws XMLStreamException {
+    indent(2);
+    if (pData.isEmpty()) {
+      writer.writeEmptyElement(pTag.toString());
+    } else {
+      writer.writeStartElement(pTag.toString());
+    }
+    for (int i = 0; i < pAttributes.length; i += 2) {
+      writer.writeAttribute(pAttributes[i], pAttributes[i + 1]);
+    }
+    if (!pData.isEmpty()) {
+      for (Pair<KeyDef, String> data : pData) {
+        writeData(3, data.getFirst(), data.getSecond());
+      }
+      indent(2);
+      writer.writeEndElement();
+    }
+  }
+
+  private void writeData(int pDepth, KeyDef pKey, String pValue) throws XMLStreamException {
+    indent(pDepth);
+    writer.writeStartElement(GraphMLTag.DATA.toString());
+    writer.writeAttribute("key", pKey.id);
+    writer.writeCharacters(pValue);
+    writer.writeEndElement();
+  }
+
+  /** Start a new line with the same indentation as the DOM-based formatter. */
+  private void indent(int pDepth) throws XMLStreamException {
+    writer.writeCharacters("\n");
+    for (int i = 0; i < pDepth; i++) {
+      writer.writeCharacters(" ");
+    }
+  }
+
+  private static IOException asIOException(XMLStreamException pException) {
+    if (pException.getNestedException() instanceof IOException) {
+      return (IOException) pException.getNestedException();
+    }
+    return new IOException(pException);
+  }
+}
@@ -0,0 +1,188 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.arg.witnessexport.formatter;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Predicates;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multiset;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult;
+import org.sosy_lab.cpachecker.core.specification.Specification;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Witness;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.WitnessExporter;
+import org.sosy_lab.cpachecker.util.BiPredicates;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+/**
+ * Tests that {@link WitnessToStreamingGraphMLFormatter} produces the same GraphML as {@link
+ * WitnessToGraphMLFormatter}. The data of nodes is compared without its order, which is allowed to
+ * differ.
+ */
+public class WitnessToStreamingGraphMLFormatterTest {
+
+  private static final String TEST_DIR_PATH = "test/programs/witnessValidation/";
+
+  private static Configuration getConfig() throws Exception {
+    return TestDataTools.configurationForTest()
+        .loadFromResource(WitnessExporter.class, "witnessGeneration-valueAnalysis.properties")
+        .setOption("specification", "config/specification/default.spc")
+        .build();
+  }
+
+  private static CPAcheckerResult analyze(String pProgram) throws Exception {
+    return CPATestRunner.run(getConfig(), TEST_DIR_PATH + pProgram).getCheckerResult();
+  }
+
+  private static WitnessExporter createExporter(CPAcheckerResult pResult) throws Exception {
+    return new WitnessExporter(
+        getConfig(),
+        LogManager.createTestLogManager(),
+        Specification.alwaysSatisfied(),
+        pResult.getCfa());
+  }
+
+  @Test(timeout = 90000)
+  public void testCorrectnessWitness() throws Exception {
+    CPAcheckerResult result = analyze("max.c");
+    WitnessExporter exporter = createExporter(result);
+    Witness witness =
+        exporter.generateProofWitness(
+            (ARGState) result.getReached().getFirstState(),
+            Predicates.alwaysTrue(),
+            BiPredicates.alwaysTrue(),
+            exporter.getProofInvariantProvider());
+
+    assertSameGraphML(witness);
+  }
+
+  @Test(timeout = 90000)
+  public void testViolationWitness() throws Exception {
+    CPAcheckerResult result = analyze("rule60_list2.i");
+    Witness witness =
+        createExporter(result)
+            .generateErrorWitness(
+                (ARGState) result.getReached().getFirstState(),
+                Predicates.alwaysTrue(),
+                BiPredicates.alwaysTrue(),
+                null);
+
+    assertSameGraphML(witness);
+  }
+
+  private static void assertSameGraphML(Witness pWitness) throws Exception {
+    StringBuilder dom = new StringBuilder();
+    new WitnessToGraphMLFormatter(pWitness).appendTo(dom);
+    StringBuilder streaming = new StringBuilder();
+    new WitnessToStreamingGraphMLFormatter(pWitness).appendTo(streaming);
+
+    Element expected = parse(dom);
+    Element actual = parse(streaming);
+
+    assertThat(getKeys(actual)).containsExactlyElementsIn(getKeys(expected)).inOrder();
+
+    Element expectedGraph = getChildren(expected, GraphMLTag.GRAPH).get(0);
+    Element actualGraph = getChildren(actual, GraphMLTag.GRAPH).get(0);
+    assertThat(getData(actualGraph)).containsExactlyElementsIn(getData(expectedGraph)).inOrder();
+
+    Map<String, Multiset<String>> expectedNodes = getNodes(expectedGraph);
+    assertThat(expectedNodes).isNotEmpty();
+    assertThat(getNodes(actualGraph)).containsExactlyEntriesIn(expectedNodes).inOrder();
+
+    List<String> expectedEdges = getEdges(expectedGraph);
+    assertThat(expectedEdges).isNotEmpty();
+    assertThat(getEdges(actualGraph)).containsExactlyElementsIn(expectedEdges).inOrder();
+  }
+
+  private static Element parse(CharSequence pGraphML) throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    Document document =
+        factory.newDocumentBuilder().parse(new InputSource(new StringReader(pGraphML.toString())));
+    return document.getDocumentElement();
+  }
+
+  private static List<Element> getChildren(Element pParent, GraphMLTag pTag) {
+    List<Element> result = new ArrayList<>();
+    NodeList children = pParent.getChildNodes();
+    for (int i = 0; i < children.getLength(); i++) {
+      Node child = children.item(i);
+      if (child instanceof Element && ((Element) child).getTagName().equals(pTag.toString())) {
+        result.add((Element) child);
+      }
+    }
+    return result;
+  }
+
+  /** The key definitions with all their attributes and default values. */
+  private static List<String> getKeys(Element pGraphML) {
+    List<String> result = new ArrayList<>();
+    for (Element key : getChildren(pGraphML, GraphMLTag.KEY)) {
+      List<Element> defaults = getChildren(key, GraphMLTag.DEFAULT);
+      result.add(
+          String.join(
+              " ",
+              key.getAttribute("id"),
+              key.getAttribute("for"),
+              key.getAttribute("attr.name"),
+              key.getAttribute("attr.type"),
+              defaults.isEmpty() ? "<no default>" : defaults.get(0).getTextContent()));
+    }
+    return result;
+  }
+
+  /** The data of an element as "key=value" entries, in order. */
+  private static List<String> getData(Element pElement) {
+    List<String> result = new ArrayList<>();
+    for (Element data : getChildren(pElement, GraphMLTag.DATA)) {
+      result.add(data.getAttribute("key") + "=" + data.getTextContent());
+    }
+    return result;
+  }
+
+  /** The nodes of the graph in order, with their data (in any order). */
+  private static Map<String, Multiset<String>> getNodes(Element pGraph) {
+    Map<String, Multiset<String>> result = new LinkedHashMap<>();
+    for (Element node : getChildren(pGraph, GraphMLTag.NODE)) {
+      assertThat(result.put(node.getAttribute("id"), HashMultiset.create(getData(node)))).isNull();
+    }
+    return result;
+  }
+
+  /** The edges of the graph in order, with their source, target and data. */
+  private static List<String> getEdges(Element pGraph) {
+    List<String> result = new ArrayList<>();
+    for (Element edge : getChildren(pGraph, GraphMLTag.EDGE)) {
+      result.add(
+          ImmutableList.<String>builder()
+              .add(edge.getAttribute("source") + " -> " + edge.getAttribute("target"))
+              .addAll(getData(edge))
+              .build()
+              .toString());
+    }
+    return result;
+  }
+}
@@ -8,16 +8,18 @@
 
 package org.sosy_lab.cpachecker.cpa.automaton;
 
+import static com.google.common.base.Verify.verify;
+
 import com.google.common.base.Joiner;
-import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
 import com.google.common.base.Strings;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.io.ByteSource;
 import com.google.common.io.MoreFiles;
@@ -36,12 +38,10 @@ import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
@@ -50,8 +50,6 @@ import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
@@ -81,6 +79,7 @@ import org.sosy_lab.cpachecker.core.specification.Property;
 import org.sosy_lab.cpachecker.core.specification.Property.CommonVerificationProperty;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonExpression.StringExpression;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonVariable.AutomatonIntVariable;
+import org.sosy_lab.cpachecker.cpa.automaton.GraphMLReader.ElementHandler;
 import org.sosy_lab.cpachecker.cpa.automaton.GraphMLTransition.GraphMLThread;
 import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.LineMatcher;
 import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.OffsetMatcher;
@@ -92,9 +91,7 @@ import org.sosy_lab.cpachecker.util.CParserUtils.ParserTools;
 import org.sosy_lab.cpachecker.util.NumericIdProvider;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.AssumeCase;
-import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
-import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.WitnessType;
 import org.sosy_lab.cpachecker.util.expressions.And;
 import org.sosy_lab.cpachecker.util.expressions.DefaultExpressionTreeVisitor;
@@ -102,11 +99,6 @@ import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
 import org.sosy_lab.cpachecker.util.expressions.LeafExpression;
 import org.sosy_lab.cpachecker.util.expressions.ToCExpressionVisitor;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -123,9 +115,6 @@ public class AutomatonGraphmlParser {
 
   private static final String THREAD_ID_VAR_NAME = KeyDef.THREADID.toString().toUpperCase();
 
-  private static final String TOO_MANY_GRAPHS_ERROR_MESSAGE =
-      "The witness file must describe exactly one witness automaton.";
-
 
 
   private static final String INVALID_AUTOMATON_ERROR_MESSAGE =
@@ -186,6 +175,13 @@ public class AutomatonGraphmlParser {
       description = "This option can be used to ensure that no violation witnesses are checked.")
   private boolean noViolationValidation = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Read the witness with a streaming XML parser instead of building a DOM of the whole"
+              + " witness first. This needs considerably less memory and time for large witnesses.")
+  private boolean streamingParser = true;
+
   @Option(secure=true, description="File for exporting the witness automaton in DOT format.")
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path automatonDumpFile = null;
@@ -1030,41 +1026,85 @@ public class AutomatonGraphmlParser {
   private AutomatonGraphmlParserState setupGraphMLParser(InputStream pInputStream)
       throws IOException, WitnessParseException {
 
-    GraphMLDocumentData docDat = parseXML(pInputStream);
+    // States are created as soon as their node is read, and transitions as soon as their edge is
+    // read and both states are known, such that the edge can be dropped immediately. Only edges
+    // that refer to states defined later in the file are kept until these states are read.
+    // Thread ids are numbered and transitions are ordered as the edges appear in the file.
+    Map<String, GraphMLState> nodeStates = new LinkedHashMap<>();
+    List<@Nullable GraphMLTransition> transitions = new ArrayList<>();
+    ListMultimap<String, PendingEdge> edgesWaitingForState = ArrayListMultimap.create();
+    NumericIdProvider numericIdProvider = NumericIdProvider.create();
+
+    ElementHandler handler =
+        new ElementHandler() {
+          @Override
+          public void handleNode(GraphMLElement pNode) throws WitnessParseException {
+            String stateId = pNode.getRequiredAttribute("id", "Every state needs an ID!");
+            if (nodeStates.put(stateId, parseState(stateId, pNode)) != null) {
+              throw new WitnessParseException(
+                  String.format("The state with id <%s> is defined twice.", stateId));
+            }
+            for (PendingEdge edge : edgesWaitingForState.removeAll(stateId)) {
+              handlePendingEdge(edge);
+            }
+          }
+
+          @Override
+          public void handleEdge(GraphMLElement pEdge) throws WitnessParseException {
+            Optional<GraphMLThread> thread = getThread(pEdge, numericIdProvider);
+            transitions.add(null);
+            handlePendingEdge(new PendingEdge(transitions.size() - 1, pEdge, thread));
+          }
+
+          private void handlePendingEdge(PendingEdge pEdge) throws WitnessParseException {
+            String source =
+                pEdge.edge.getRequiredAttribute("source", "Every transition needs a source!");
+            String target =
+                pEdge.edge.getRequiredAttribute("target", "Every transition needs a target!");
+            if (!nodeStates.containsKey(source)) {
+              edgesWaitingForState.put(source, pEdge);
+            } else if (!nodeStates.containsKey(target)) {
+              edgesWaitingForState.put(target, pEdge);
+            } else {
+              transitions.set(pEdge.index, collectEdgeData(nodeStates, pEdge.thread, pEdge.edge));
+            }
+          }
+        };
+
+    GraphMLElement graph =
+        streamingParser
+            ? GraphMLReader.readStreaming(pInputStream, handler)
+            : GraphMLReader.readDocument(pInputStream, handler);
+    for (PendingEdge edge : edgesWaitingForState.values()) {
+      // fails because the state does not exist
+      collectEdgeData(nodeStates, edge.thread, edge.edge);
+    }
+    verify(!transitions.contains(null), "Transitions missing for some edges");
 
-    checkFields(docDat.getGraph());
+    checkFields(graph);
 
-    WitnessType graphType = getWitnessType(docDat.getGraph());
-    Set<Property> specType = getSpecAsProperties(docDat.getGraph());
+    WitnessType graphType = getWitnessType(graph);
+    Set<Property> specType = getSpecAsProperties(graph);
 
     // Extract the information on the automaton ----
-    Node nameAttribute = docDat.getGraph().getAttributes().getNamedItem("name");
+    String nameAttribute = graph.getAttribute("name");
     String automatonName = WITNESS_AUTOMATON_NAME;
     if (nameAttribute != null) {
-      automatonName += "_" + nameAttribute.getTextContent();
+      automatonName += "_" + nameAttribute;
     }
 
+    // States are ordered by their first occurrence in a transition
     Map<String, GraphMLState> states = new LinkedHashMap<>();
     Multimap<GraphMLState, GraphMLTransition> enteringTransitions = LinkedHashMultimap.create();
     Multimap<GraphMLState, GraphMLTransition> leavingTransitions = LinkedHashMultimap.create();
-    NumericIdProvider numericIdProvider = NumericIdProvider.create();
-    Set<GraphMLState> entryStates = new LinkedHashSet<>();
-    for (Node transition : docDat.getTransitions()) {
-      collectEdgeData(
-          docDat,
-          states,
-          entryStates,
-          leavingTransitions,
-          enteringTransitions,
-          numericIdProvider,
-          transition);
-    }
-    if (states.size() < docDat.idToNodeMap.size()) {
-      for (String stateId : docDat.idToNodeMap.keySet()) {
-        if (!states.containsKey(stateId)) {
-          states.put(stateId, parseState(docDat, states, stateId, Optional.empty()));
-        }
-      }
+    for (GraphMLTransition transition : transitions) {
+      states.putIfAbsent(transition.getSource().getId(), transition.getSource());
+      states.putIfAbsent(transition.getTarget().getId(), transition.getTarget());
+      leavingTransitions.put(transition.getSource(), transition);
+      enteringTransitions.put(transition.getTarget(), transition);
+    }
+    for (GraphMLState state : nodeStates.values()) {
+      states.putIfAbsent(state.getId(), state);
     }
 
     AutomatonGraphmlParserState state =
@@ -1103,27 +1143,10 @@ public class AutomatonGraphmlParser {
     return state;
   }
 
-  private GraphMLDocumentData parseXML(InputStream pInputStream)
-      throws WitnessParseException, IOException {
-
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
-    }
-
-    return new GraphMLDocumentData(doc);
-  }
-
-  private void checkFields(Node graphNode) throws IOException, WitnessParseException {
+  private void checkFields(GraphMLElement graphNode) throws IOException, WitnessParseException {
 
-    checkHashSum(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.PROGRAMHASH));
-    checkArchitecture(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.ARCHITECTURE));
+    checkHashSum(graphNode.getData(KeyDef.PROGRAMHASH));
+    checkArchitecture(graphNode.getData(KeyDef.ARCHITECTURE));
 
     if (strictChecking) {
       checkRequiredField(graphNode, KeyDef.WITNESS_TYPE);
@@ -1158,9 +1181,9 @@ public class AutomatonGraphmlParser {
     return functionExitMatcher;
   }
 
-  private static boolean entersLoopHead(Node pTransition) throws WitnessParseException {
+  private static boolean entersLoopHead(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> loopHeadFlags =
-        GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENTERLOOPHEAD);
+        pTransition.getData(KeyDef.ENTERLOOPHEAD);
     if (!loopHeadFlags.isEmpty()) {
       Set<Boolean> loopHeadFlagValues =
           Collections3.transformedImmutableSetCopy(loopHeadFlags, Boolean::parseBoolean);
@@ -1202,18 +1225,18 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which line numbers to assume.
    * @return a predicate to match file locations based on the line numbers specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(Node pTransition)
-      throws WitnessParseException {
-    Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
+  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(
+      GraphMLElement pTransition) throws WitnessParseException {
+    Set<String> originFileTags = pTransition.getData(KeyDef.ORIGINFILE);
     checkParsable(
         originFileTags.size() < 2,
         "At most one origin-file data tag must be provided for an edge.");
 
-    Set<String> startLineTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.STARTLINE);
+    Set<String> startLineTags = pTransition.getData(KeyDef.STARTLINE);
     checkParsable(
         startLineTags.size() < 2,
         "At most one startline data tag must be provided for each edge.");
-    Set<String> endLineTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENDLINE);
+    Set<String> endLineTags = pTransition.getData(KeyDef.ENDLINE);
     checkParsable(
         endLineTags.size() < 2, "At most one endline data tag must be provided for each edge.");
 
@@ -1256,16 +1279,17 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which character offset to assume.
    * @return a predicate to match file locations based on the offsets specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(Node pTransition) throws WitnessParseException {
-    Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
+  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(
+      GraphMLElement pTransition) throws WitnessParseException {
+    Set<String> originFileTags = pTransition.getData(KeyDef.ORIGINFILE);
     checkParsable(
         originFileTags.size() < 2,
         "At most one origin-file data tag must be provided for an edge.");
 
-    Set<String> offsetTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.OFFSET);
+    Set<String> offsetTags = pTransition.getData(KeyDef.OFFSET);
     checkParsable(
         offsetTags.size() < 2, "At most one offset data tag must be provided for each edge.");
-    Set<String> endoffsetTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENDOFFSET);
+    Set<String> endoffsetTags = pTransition.getData(KeyDef.ENDOFFSET);
     checkParsable(
         endoffsetTags.size() < 2, "At most one endoffset data tag must be provided for each edge.");
 
@@ -1310,8 +1334,9 @@ public class AutomatonGraphmlParser {
    * @return an automaton-transition condition for specific branches of an assumption corresponding
    *     to the control case specified by the given transition.
    */
-  private static AutomatonBoolExpr getAssumeCaseMatcher(Node pTransition) throws WitnessParseException {
-    Set<String> assumeCaseTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.CONTROLCASE);
+  private static AutomatonBoolExpr getAssumeCaseMatcher(GraphMLElement pTransition)
+      throws WitnessParseException {
+    Set<String> assumeCaseTags = pTransition.getData(KeyDef.CONTROLCASE);
 
     if (!assumeCaseTags.isEmpty()) {
       checkParsable(
@@ -1341,7 +1366,8 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> getThread(
-      Node pTransition, NumericIdProvider pNumericIdProvider) throws WitnessParseException {
+      GraphMLElement pTransition, NumericIdProvider pNumericIdProvider)
+      throws WitnessParseException {
     return parseThreadId(
         pTransition,
         pNumericIdProvider,
@@ -1361,9 +1387,12 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> parseThreadId(
-      Node pTransition, NumericIdProvider pNumericIdProvider, KeyDef pKey, String pErrorMessage)
+      GraphMLElement pTransition,
+      NumericIdProvider pNumericIdProvider,
+      KeyDef pKey,
+      String pErrorMessage)
       throws WitnessParseException {
-    Set<String> threadIdTags = GraphMLDocumentData.getDataOnNode(pTransition, pKey);
+    Set<String> threadIdTags = pTransition.getData(pKey);
 
     if (!threadIdTags.isEmpty()) {
       checkParsable(
@@ -1386,38 +1415,43 @@ public class AutomatonGraphmlParser {
     return new AutomatonAction.Assignment(THREAD_ID_VAR_NAME, expr);
   }
 
+  /** An edge whose transition is not created yet, because a state is not known yet. */
+  private static final class PendingEdge {
+
+    /** The position of the edge in the file, among all edges. */
+    private final int index;
+
+    private final GraphMLElement edge;
+    private final Optional<GraphMLThread> thread;
+
+    private PendingEdge(int pIndex, GraphMLElement pEdge, Optional<GraphMLThread> pThread) {
+      index = pIndex;
+      edge = pEdge;
+      thread = pThread;
+    }
+  }
+
   /**
-   * Reads an automaton edge from the graphml file and inserts it into the automaton.
+   * Reads an automaton edge from the graphml file and creates the corresponding transition.
    *
-   * @param pDocDat the GraphML-document-data helper.
    * @param pStates the map from state identifiers to parsed states.
-   * @param pEntryStates the set of entry states.
-   * @param pLeavingEdges the map from predecessor states to transitions leaving these states that
-   *     the given transition will be entered into.
-   * @param pEnteringEdges the map from successor states to transitions entering these states that
-   *     the given transition will be entered into.
-   * @param pNumericThreadIdProvider a numeric id provider to map textual thread ids to numeric
-   *     ones.
+   * @param pThread the thread of the transition, which needs to be parsed in the order of the
+   *     edges in the file, cf. {@link #getThread}.
    * @param pTransition the transition to be analyzed, represented as a GraphML edge.
+   * @return the transition represented by the given edge.
    */
-  private void collectEdgeData(
-      GraphMLDocumentData pDocDat,
+  private GraphMLTransition collectEdgeData(
       Map<String, GraphMLState> pStates,
-      Set<GraphMLState> pEntryStates,
-      Multimap<GraphMLState, GraphMLTransition> pLeavingEdges,
-      Multimap<GraphMLState, GraphMLTransition> pEnteringEdges,
-      NumericIdProvider pNumericThreadIdProvider,
-      Node pTransition)
+      Optional<GraphMLThread> pThread,
+      GraphMLElement pTransition)
       throws WitnessParseException {
     String sourceStateId =
-        GraphMLDocumentData.getAttributeValue(
-            pTransition, "source", "Every transition needs a source!");
-    GraphMLState source = parseState(pDocDat, pStates, sourceStateId, Optional.of(pTransition));
+        pTransition.getRequiredAttribute("source", "Every transition needs a source!");
+    GraphMLState source = getState(pStates, sourceStateId, pTransition);
 
     String targetStateId =
-        GraphMLDocumentData.getAttributeValue(
-            pTransition, "target", "Every transition needs a target!");
-    GraphMLState target = parseState(pDocDat, pStates, targetStateId, Optional.of(pTransition));
+        pTransition.getRequiredAttribute("target", "Every transition needs a target!");
+    GraphMLState target = getState(pStates, targetStateId, pTransition);
 
     Optional<String> functionEntry = parseSingleDataValue(pTransition, KeyDef.FUNCTIONENTRY,
         "At most one function can be entered by one transition.");
@@ -1430,10 +1464,9 @@ public class AutomatonGraphmlParser {
         parseSingleDataValue(pTransition, KeyDef.ASSUMPTIONRESULTFUNCTION,
             "At most one result function must be provided for a transition.");
 
-    Optional<GraphMLTransition.GraphMLThread> thread = getThread(pTransition, pNumericThreadIdProvider);
     Optional<AutomatonAction> threadIdAssignment =
-        thread.isPresent()
-            ? Optional.of(getThreadIdAssignment(thread.orElseThrow().getId()))
+        pThread.isPresent()
+            ? Optional.of(getThreadIdAssignment(pThread.orElseThrow().getId()))
             : Optional.empty();
 
     GraphMLTransition transition =
@@ -1445,37 +1478,19 @@ public class AutomatonGraphmlParser {
             getOffsetMatcherPredicate(pTransition),
             getOriginLineMatcherPredicate(pTransition),
             getAssumeCaseMatcher(pTransition),
-            thread.orElse(DEFAULT_THREAD),
+            pThread.orElse(DEFAULT_THREAD),
             threadIdAssignment,
-            GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ASSUMPTION),
+            pTransition.getData(KeyDef.ASSUMPTION),
             explicitAssumptionScope,
             assumptionResultFunction,
             entersLoopHead(pTransition));
 
-    pLeavingEdges.put(source, transition);
-    pEnteringEdges.put(target, transition);
-
-    Element sourceStateNode = pDocDat.getNodeWithId(sourceStateId);
-    if (sourceStateNode == null) {
-      throw new WitnessParseException(
-          String.format(
-              "Source %s of transition %s does not exist.",
-              sourceStateId, transitionToString(pTransition)));
-    }
-    Element targetStateNode = pDocDat.getNodeWithId(targetStateId);
-    if (targetStateNode == null) {
-      throw new WitnessParseException(
-          String.format(
-              "Target %s of transition %s does not exist.",
-              targetStateId, transitionToString(pTransition)));
-    }
-
     if (source.isViolationState()) {
       logger.log(
           Level.WARNING,
           String.format(
               "Source %s of transition %s is a violation state. No outgoing edges expected.",
-              sourceStateId, transitionToString(pTransition)));
+              sourceStateId, pTransition));
     }
 
     if (source.isSinkState()) {
@@ -1483,62 +1498,38 @@ public class AutomatonGraphmlParser {
           Level.WARNING,
           String.format(
               "Source %s of transition %s is a sink state. No outgoing edges expected.",
-              sourceStateId, transitionToString(pTransition)));
+              sourceStateId, pTransition));
     }
 
-    if (source.isEntryState()) {
-      pEntryStates.add(source);
-    }
-    if (target.isEntryState()) {
-      pEntryStates.add(target);
-    }
+    return transition;
   }
 
-  private GraphMLState parseState(
-      GraphMLDocumentData pDocDat,
-      Map<String, GraphMLState> pStates,
-      String pStateId,
-      Optional<Node> pReference)
+  private static GraphMLState getState(
+      Map<String, GraphMLState> pStates, String pStateId, GraphMLElement pReference)
       throws WitnessParseException {
     GraphMLState result = pStates.get(pStateId);
-    if (result != null) {
-      return result;
-    }
-
-    Element stateNode = pDocDat.getNodeWithId(pStateId);
-    if (stateNode == null) {
-      final String message;
-      if (pReference.isPresent()) {
-        message =
-            String.format(
-                "The state with id <%s> does not exist, but is referenced in the transition <%s>",
-                pStateId, transitionToString(pReference.orElseThrow()));
-      } else {
-        message = String.format("The state with if <%s> does not exist.", pStateId);
-      }
-      throw new WitnessParseException(message);
+    if (result == null) {
+      throw new WitnessParseException(
+          String.format(
+              "The state with id <%s> does not exist, but is referenced in the transition <%s>",
+              pStateId, pReference));
     }
+    return result;
+  }
 
-    Set<String> candidates = GraphMLDocumentData.getDataOnNode(stateNode, KeyDef.INVARIANT);
-    Optional<String> candidateScope = parseSingleDataValue(stateNode, KeyDef.INVARIANTSCOPE,
+  private static GraphMLState parseState(String pStateId, GraphMLElement pStateNode)
+      throws WitnessParseException {
+    Set<String> candidates = pStateNode.getData(KeyDef.INVARIANT);
+    Optional<String> candidateScope = parseSingleDataValue(pStateNode, KeyDef.INVARIANTSCOPE,
         "At most one explicit invariant scope must be provided for a state.");
 
-    result = new GraphMLState(
-        pStateId,
-        candidates,
-        candidateScope,
-        pDocDat.getNodeFlags(stateNode));
-
-    pStates.put(pStateId, result);
-
-    return result;
+    return new GraphMLState(pStateId, candidates, candidateScope, pStateNode.getNodeFlags());
   }
 
-  private static Optional<String> parseSingleDataValue(Node pEdge,
+  private static Optional<String> parseSingleDataValue(GraphMLElement pEdge,
       KeyDef pKey,
       String pErrorMessage) throws WitnessParseException {
-    Set<String> values =
-        GraphMLDocumentData.getDataOnNode(pEdge, pKey);
+    Set<String> values = pEdge.getData(pKey);
     checkParsable(values.size() <= 1, pErrorMessage);
     String value = Iterables.getOnlyElement(values, null);
     return Optional.ofNullable(value);
@@ -1550,9 +1541,9 @@ public class AutomatonGraphmlParser {
    * @param pAutomaton the GraphML graph node representing the witness automaton.
    * @return the witness-automaton type of an automaton represented as a GraphML graph.
    */
-  private WitnessType getWitnessType(Node pAutomaton) throws WitnessParseException {
+  private WitnessType getWitnessType(GraphMLElement pAutomaton) throws WitnessParseException {
     Set<String> witnessTypeText =
-        GraphMLDocumentData.getDataOnNode(pAutomaton, KeyDef.WITNESS_TYPE);
+        pAutomaton.getData(KeyDef.WITNESS_TYPE);
     final WitnessType witnessType;
     if (witnessTypeText.isEmpty()) {
       witnessType = WitnessType.VIOLATION_WITNESS;
@@ -1574,8 +1565,8 @@ public class AutomatonGraphmlParser {
     return witnessType;
   }
 
-  private Set<Property> getSpecAsProperties(final Node pAutomaton) {
-    Set<String> specText = GraphMLDocumentData.getDataOnNode(pAutomaton, KeyDef.SPECIFICATION);
+  private Set<Property> getSpecAsProperties(final GraphMLElement pAutomaton) {
+    Set<String> specText = pAutomaton.getData(KeyDef.SPECIFICATION);
     if (specText.isEmpty()) {
       return ImmutableSet.of(CommonVerificationProperty.REACHABILITY);
     } else {
@@ -1613,28 +1604,15 @@ public class AutomatonGraphmlParser {
     return CommonVerificationProperty.valueOf(prop.trim());
   }
 
-  private static String transitionToString(Node pTransition) {
-    if (pTransition == null) {
-      return "null";
-    }
-    NamedNodeMap attributes = pTransition.getAttributes();
-    if (attributes != null) {
-      Node id = attributes.getNamedItem("id");
-      if (id != null) {
-        return id.getNodeValue();
-      }
-    }
-    return pTransition.toString();
-  }
-
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey)
+  private static void checkRequiredField(GraphMLElement pGraphNode, KeyDef pKey)
       throws WitnessParseException {
     checkRequiredField(pGraphNode, pKey, false);
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
+  private static void checkRequiredField(
+      GraphMLElement pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
       throws WitnessParseException {
-    Iterable<String> data = GraphMLDocumentData.getDataOnNode(pGraphNode, pKey);
+    Iterable<String> data = pGraphNode.getData(pKey);
     if (Iterables.isEmpty(data)) {
       throw new WitnessParseException(
           String.format("The witness does not contain the required field '%s'", pKey.id));
@@ -1980,117 +1958,6 @@ public class AutomatonGraphmlParser {
 
   }
 
-  private static class GraphMLDocumentData {
-
-    private final Node graph;
-
-    private final ImmutableMap<String, Element> idToNodeMap;
-
-    private final Iterable<Node> transitions;
-
-    public GraphMLDocumentData(Document pDocument) throws WitnessParseException {
-
-      NodeList graphs = pDocument.getElementsByTagName(GraphMLTag.GRAPH.toString());
-      checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-      graph = Objects.requireNonNull(graphs.item(0));
-
-      ImmutableMap.Builder<String, Element> idToNodeMapBuilder = ImmutableMap.builder();
-      NodeList nodes = pDocument.getElementsByTagName(GraphMLTag.NODE.toString());
-      for (Node stateNode : asIterable(nodes)) {
-        String stateId = getAttributeValue(stateNode, "id", "Every state needs an ID!");
-        idToNodeMapBuilder.put(stateId, (Element) stateNode);
-      }
-      idToNodeMap = idToNodeMapBuilder.build();
-
-      transitions = asIterable(pDocument.getElementsByTagName(GraphMLTag.EDGE.toString()));
-    }
-
-    public Node getGraph() {
-      return graph;
-    }
-
-    public Iterable<Node> getTransitions() {
-      return transitions;
-    }
-
-    public EnumSet<NodeFlag> getNodeFlags(Element pStateNode) {
-      EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
-
-      NodeList dataChilds = pStateNode.getElementsByTagName(GraphMLTag.DATA.toString());
-
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String key = attribute.getTextContent();
-        NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
-        if (flag != null) {
-          result.add(flag);
-        }
-      }
-
-      return result;
-    }
-
-    private static String getAttributeValue(Node of, String attributeName, String exceptionMessage)
-        throws WitnessParseException {
-      Node attribute = of.getAttributes().getNamedItem(attributeName);
-      if (attribute == null) {
-        throw new WitnessParseException(exceptionMessage);
-      }
-      return attribute.getTextContent();
-    }
-
-    private @Nullable Element getNodeWithId(String nodeId) {
-      Element result = idToNodeMap.get(nodeId);
-      if (result == null
-          || !result.getTagName().equals(GraphMLTag.NODE.toString())) {
-        return null;
-      }
-      return result;
-    }
-
-    private static Set<String> getDataOnNode(Node node, final KeyDef dataKey) {
-      Preconditions.checkNotNull(node);
-      Preconditions.checkArgument(node.getNodeType() == Node.ELEMENT_NODE);
-
-      Set<Node> dataNodes = findKeyedDataNode((Element) node, dataKey);
-
-      Set<String> result = new LinkedHashSet<>();
-      for (Node n: dataNodes) {
-        result.add(n.getTextContent());
-      }
-      return result;
-    }
-
-    private static Set<Node> findKeyedDataNode(Element of, final KeyDef dataKey) {
-      Set<Node> result = new LinkedHashSet<>();
-      Set<Node> alternative = null;
-      NodeList dataChilds = of.getElementsByTagName(GraphMLTag.DATA.toString());
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String nodeKey = attribute.getTextContent();
-        if (nodeKey.equals(dataKey.id)) {
-          result.add(dataChild);
-          alternative = null;
-        }
-        // Backwards-compatibility: type/graph-type
-        if (alternative == null
-            && result.isEmpty()
-            && dataKey.equals(KeyDef.WITNESS_TYPE)
-            && nodeKey.equals("type")) {
-          alternative = new LinkedHashSet<>();
-          alternative.add(dataChild);
-        }
-      }
-      if (result.isEmpty() && alternative != null) {
-        return alternative;
-      }
-      return result;
-    }
-
-  }
-
   public static boolean isGraphmlAutomatonFromConfiguration(Path pPath)
       throws InvalidConfigurationException {
     try {
@@ -2139,24 +2006,13 @@ public class AutomatonGraphmlParser {
 
   private static AutomatonGraphmlCommon.WitnessType getWitnessType(InputStream pInputStream)
       throws InvalidConfigurationException, IOException {
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
-    }
-
-    // (The one) root node of the graph ----
-    NodeList graphs = doc.getElementsByTagName(GraphMLTag.GRAPH.toString());
-    checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-    Node graphNode = graphs.item(0);
+    // (The one) root node of the graph, nodes and edges are not needed ----
+    GraphMLElement graphNode =
+        GraphMLReader.readStreaming(pInputStream, GraphMLReader.IGNORE_ELEMENTS);
 
     checkRequiredField(graphNode, KeyDef.WITNESS_TYPE);
 
-    Set<String> graphTypeText = GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.WITNESS_TYPE);
+    Set<String> graphTypeText = graphNode.getData(KeyDef.WITNESS_TYPE);
     final WitnessType graphType;
     if (graphTypeText.isEmpty()) {
       graphType = WitnessType.VIOLATION_WITNESS;
@@ -2264,34 +2120,4 @@ public class AutomatonGraphmlParser {
       throw pExceptionHandler.apply(e);
     }
   }
-
-
-  /** return a nice {@link Iterable} wrapping the interface {@link NodeList}. */
-  private static Iterable<Node> asIterable(final NodeList pNodeList) {
-    return new Iterable<>() {
-
-      private Integer length = null;
-
-      @Override
-      public Iterator<Node> iterator() {
-        return new Iterator<>() {
-
-          private int index = 0;
-
-          @Override
-          public boolean hasNext() {
-            if (length == null) {
-              length = pNodeList.getLength();
-            }
-            return index < length;
-          }
-
-          @Override
-          public Node next() {
-            return pNodeList.item(index++);
-          }
-        };
-      }
-    };
-  }
 }
@@ -0,0 +1,96 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.WitnessParseException;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
+
+/**
+ * A graph, node, or edge of a GraphML witness, together with the values of the data elements that
+ * are its direct children. This is all the information the {@link AutomatonGraphmlParser} needs
+ * from the XML document, so it is much smaller than the corresponding DOM subtree.
+ */
+final class GraphMLElement {
+
+  private final GraphMLTag tag;
+
+  private final ImmutableMap<String, String> attributes;
+
+  /** Text contents of the data children, by their key and in document order. */
+  private final ImmutableListMultimap<String, String> data;
+
+  GraphMLElement(
+      GraphMLTag pTag,
+      ImmutableMap<String, String> pAttributes,
+      ImmutableListMultimap<String, String> pData) {
+    tag = Objects.requireNonNull(pTag);
+    attributes = Objects.requireNonNull(pAttributes);
+    data = Objects.requireNonNull(pData);
+  }
+
+  GraphMLTag getTag() {
+    return tag;
+  }
+
+  @Nullable String getAttribute(String pName) {
+    return attributes.get(pName);
+  }
+
+  String getRequiredAttribute(String pName, String pExceptionMessage)
+      throws WitnessParseException {
+    String value = attributes.get(pName);
+    if (value == null) {
+      throw new WitnessParseException(pExceptionMessage);
+    }
+    return value;
+  }
+
+  /**
+   * Get the distinct values of all data children with the given key. For backwards compatibility,
+   * the key "type" is accepted instead of {@link KeyDef#WITNESS_TYPE}.
+   */
+  Set<String> getData(KeyDef pKey) {
+    Set<String> result = ImmutableSet.copyOf(data.get(pKey.id));
+    if (result.isEmpty() && pKey.equals(KeyDef.WITNESS_TYPE)) {
+      String alternative = Iterables.getFirst(data.get("type"), null);
+      if (alternative != null) {
+        return ImmutableSet.of(alternative);
+      }
+    }
+    return result;
+  }
+
+  /** Get the flags of a node, which are set if a data child with the respective key exists. */
+  EnumSet<NodeFlag> getNodeFlags() {
+    EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
+    for (String key : data.keySet()) {
+      NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
+      if (flag != null) {
+        result.add(flag);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    String id = attributes.get("id");
+    return id != null ? id : tag + " " + attributes;
+  }
+}
@@ -0,0 +1,247 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.WitnessParseException;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Readers for GraphML witnesses that pass each node and edge as {@link GraphMLElement} to a
+ * handler in document order.
+ *
+ * <p>{@link #readStreaming(InputStream, ElementHandler)} uses StAX and keeps only the element that
+ * is currently read in memory, such that the memory consumption is independent of the size of the
+ * witness (apart from what the handler keeps). {@link #readDocument(InputStream, ElementHandler)}
+ * builds a DOM of the whole witness first and is kept for comparison.
+ */
+final class GraphMLReader {
+
+  static final String TOO_MANY_GRAPHS_ERROR_MESSAGE =
+      "The witness file must describe exactly one witness automaton.";
+
+  private static final String MISSING_KEY_ERROR_MESSAGE =
+      "Every data element must have a key attribute!";
+
+  /** Receives the nodes and edges of a witness in the order in which they occur in the file. */
+  interface ElementHandler {
+
+    void handleNode(GraphMLElement pNode) throws WitnessParseException;
+
+    void handleEdge(GraphMLElement pEdge) throws WitnessParseException;
+  }
+
+  /** A handler that ignores all nodes and edges, e.g., if only the graph data is of interest. */
+  static final ElementHandler IGNORE_ELEMENTS =
+      new ElementHandler() {
+        @Override
+        public void handleNode(GraphMLElement pNode) {}
+
+        @Override
+        public void handleEdge(GraphMLElement pEdge) {}
+      };
+
+  private GraphMLReader() {}
+
+  /**
+   * Read a witness with a StAX parser in a single pass.
+   *
+   * @return the graph element with its data (but without nodes and edges).
+   */
+  static GraphMLElement readStreaming(InputStream pInput, ElementHandler pHandler)
+      throws WitnessParseException, IOException {
+    XMLInputFactory factory = XMLInputFactory.newFactory();
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    // witnesses do not need DTDs, and external entities should never be resolved
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+    try {
+      XMLStreamReader reader = factory.createXMLStreamReader(pInput);
+      try {
+        return readStreaming(reader, pHandler);
+      } finally {
+        reader.close();
+      }
+    } catch (XMLStreamException e) {
+      if (e.getNestedException() instanceof IOException) {
+        throw (IOException) e.getNestedException();
+      }
+      throw new WitnessParseException(e);
+    }
+  }
+
+  private static GraphMLElement readStreaming(XMLStreamReader pReader, ElementHandler pHandler)
+      throws XMLStreamException, WitnessParseException {
+    // The same keys occur on almost every element, so share their strings.
+    Map<String, String> keys = new HashMap<>();
+
+    ElementBuilder graph = null;
+    GraphMLElement finishedGraph = null;
+    ElementBuilder current = null; // the node or edge that is currently read
+
+    while (pReader.hasNext()) {
+      int event = pReader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        GraphMLTag tag = getTag(pReader.getLocalName());
+        if (tag == null) {
+          continue;
+        }
+        switch (tag) {
+          case GRAPH:
+            if (graph != null) {
+              throw new WitnessParseException(TOO_MANY_GRAPHS_ERROR_MESSAGE);
+            }
+            graph = new ElementBuilder(tag, pReader);
+            break;
+          case NODE:
+          case EDGE:
+            if (current == null) {
+              current = new ElementBuilder(tag, pReader);
+            }
+            break;
+          case DATA:
+            ElementBuilder owner = current != null ? current : graph;
+            if (owner != null) {
+              String key = pReader.getAttributeValue(null, "key");
+              if (key == null) {
+                throw new WitnessParseException(MISSING_KEY_ERROR_MESSAGE);
+              }
+              owner.data.put(keys.computeIfAbsent(key, k -> k), pReader.getElementText());
+            }
+            break;
+          default:
+            break;
+        }
+
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        GraphMLTag tag = getTag(pReader.getLocalName());
+        if (current != null && tag == current.tag) {
+          GraphMLElement element = current.build();
+          current = null;
+          if (tag == GraphMLTag.NODE) {
+            pHandler.handleNode(element);
+          } else {
+            pHandler.handleEdge(element);
+          }
+        } else if (tag == GraphMLTag.GRAPH && graph != null) {
+          finishedGraph = graph.build();
+        }
+      }
+    }
+
+    if (finishedGraph == null) {
+      throw new WitnessParseException(TOO_MANY_GRAPHS_ERROR_MESSAGE);
+    }
+    return finishedGraph;
+  }
+
+  private static @Nullable GraphMLTag getTag(String pName) {
+    for (GraphMLTag tag : GraphMLTag.values()) {
+      if (tag.text.equals(pName)) {
+        return tag;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Read a witness by parsing it into a DOM first.
+   *
+   * @return the graph element with its data (but without nodes and edges).
+   */
+  static GraphMLElement readDocument(InputStream pInput, ElementHandler pHandler)
+      throws WitnessParseException, IOException {
+    Document doc;
+    try {
+      doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(pInput);
+    } catch (ParserConfigurationException | SAXException e) {
+      throw new WitnessParseException(e);
+    }
+
+    NodeList graphs = doc.getElementsByTagName(GraphMLTag.GRAPH.toString());
+    if (graphs.getLength() != 1) {
+      throw new WitnessParseException(TOO_MANY_GRAPHS_ERROR_MESSAGE);
+    }
+
+    NodeList nodes = doc.getElementsByTagName(GraphMLTag.NODE.toString());
+    for (int i = 0; i < nodes.getLength(); i++) {
+      pHandler.handleNode(convert(GraphMLTag.NODE, (Element) nodes.item(i)));
+    }
+    NodeList edges = doc.getElementsByTagName(GraphMLTag.EDGE.toString());
+    for (int i = 0; i < edges.getLength(); i++) {
+      pHandler.handleEdge(convert(GraphMLTag.EDGE, (Element) edges.item(i)));
+    }
+    return convert(GraphMLTag.GRAPH, (Element) graphs.item(0));
+  }
+
+  private static GraphMLElement convert(GraphMLTag pTag, Element pElement)
+      throws WitnessParseException {
+    ImmutableMap.Builder<String, String> attributes = ImmutableMap.builder();
+    NamedNodeMap attributeNodes = pElement.getAttributes();
+    for (int i = 0; i < attributeNodes.getLength(); i++) {
+      Node attribute = attributeNodes.item(i);
+      attributes.put(attribute.getNodeName(), attribute.getNodeValue());
+    }
+
+    ImmutableListMultimap.Builder<String, String> data = ImmutableListMultimap.builder();
+    for (Node child = pElement.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() == Node.ELEMENT_NODE
+          && child.getNodeName().equals(GraphMLTag.DATA.toString())) {
+        Node key = child.getAttributes().getNamedItem("key");
+        if (key == null) {
+          throw new WitnessParseException(MISSING_KEY_ERROR_MESSAGE);
+        }
+        data.put(key.getTextContent(), child.getTextContent());
+      }
+    }
+    return new GraphMLElement(pTag, attributes.build(), data.build());
+  }
+
+  /** Collects the attributes and data of an element while it is read. */
+  private static final class ElementBuilder {
+
+    private final GraphMLTag tag;
+    private final ImmutableMap<String, String> attributes;
+    private final ImmutableListMultimap.Builder<String, String> data =
+        ImmutableListMultimap.builder();
+
+    private ElementBuilder(GraphMLTag pTag, XMLStreamReader pReader) {
+      tag = pTag;
+      ImmutableMap.Builder<String, String> builder =
+          ImmutableMap.builderWithExpectedSize(pReader.getAttributeCount());
+      for (int i = 0; i < pReader.getAttributeCount(); i++) {
+        builder.put(pReader.getAttributeLocalName(i), pReader.getAttributeValue(i));
+      }
+      attributes = builder.build();
+    }
+
+    private GraphMLElement build() {
+      return new GraphMLElement(tag, attributes, data.build());
+    }
+  }
+}
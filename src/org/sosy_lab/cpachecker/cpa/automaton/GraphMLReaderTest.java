@@ -0,0 +1,139 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.WitnessParseException;
+import org.sosy_lab.cpachecker.cpa.automaton.GraphMLReader.ElementHandler;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
+
+public class GraphMLReaderTest {
+
+  private static final String WITNESS =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n"
+          + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n"
+          + "<key attr.name=\"isEntryNode\" attr.type=\"boolean\" for=\"node\" id=\"entry\">\n"
+          + "<default>false</default>\n"
+          + "</key>\n"
+          + "<graph edgedefault=\"directed\" name=\"test\">\n"
+          + "<data key=\"type\">violation_witness</data>\n"
+          + "<data key=\"programhash\">abc</data>\n"
+          + "<node id=\"N1\"><data key=\"entry\">true</data></node>\n"
+          + "<edge id=\"E1\" source=\"N1\" target=\"N2\">\n"
+          + "<data key=\"startline\">5</data>\n"
+          + "<data key=\"assumption\">x == 1;</data>\n"
+          + "<data key=\"assumption\">y == 2;</data>\n"
+          + "<data key=\"assumption\">x == 1;</data>\n"
+          + "</edge>\n"
+          + "<node id=\"N2\"><data key=\"violation\">true</data></node>\n"
+          + "</graph>\n"
+          + "</graphml>\n";
+
+  /** Records all elements in the order in which the reader passes them. */
+  private static class RecordingHandler implements ElementHandler {
+
+    private final List<GraphMLElement> elements = new ArrayList<>();
+
+    @Override
+    public void handleNode(GraphMLElement pNode) {
+      elements.add(pNode);
+    }
+
+    @Override
+    public void handleEdge(GraphMLElement pEdge) {
+      elements.add(pEdge);
+    }
+  }
+
+  private static GraphMLElement read(String pWitness, boolean pStreaming, ElementHandler pHandler)
+      throws IOException, WitnessParseException {
+    ByteArrayInputStream input = new ByteArrayInputStream(pWitness.getBytes(UTF_8));
+    return pStreaming
+        ? GraphMLReader.readStreaming(input, pHandler)
+        : GraphMLReader.readDocument(input, pHandler);
+  }
+
+  private static void checkWitness(boolean pStreaming) throws Exception {
+    RecordingHandler handler = new RecordingHandler();
+    GraphMLElement graph = read(WITNESS, pStreaming, handler);
+
+    assertThat(graph.getTag()).isEqualTo(GraphMLTag.GRAPH);
+    assertThat(graph.getAttribute("name")).isEqualTo("test");
+    assertThat(graph.getData(KeyDef.WITNESS_TYPE)).containsExactly("violation_witness");
+    assertThat(graph.getData(KeyDef.PROGRAMHASH)).containsExactly("abc");
+    // data of nodes and edges does not belong to the graph
+    assertThat(graph.getData(KeyDef.STARTLINE)).isEmpty();
+
+    assertThat(handler.elements).hasSize(3);
+    GraphMLElement entry = handler.elements.get(0);
+    GraphMLElement edge = handler.elements.get(1);
+    GraphMLElement violation = handler.elements.get(2);
+
+    assertThat(entry.getTag()).isEqualTo(GraphMLTag.NODE);
+    assertThat(entry.getNodeFlags()).containsExactly(NodeFlag.ISENTRY);
+    assertThat(violation.getNodeFlags()).containsExactly(NodeFlag.ISVIOLATION);
+
+    assertThat(edge.getTag()).isEqualTo(GraphMLTag.EDGE);
+    assertThat(edge.toString()).isEqualTo("E1");
+    assertThat(edge.getRequiredAttribute("source", "")).isEqualTo("N1");
+    assertThat(edge.getRequiredAttribute("target", "")).isEqualTo("N2");
+    assertThat(edge.getData(KeyDef.STARTLINE)).containsExactly("5");
+    assertThat(edge.getData(KeyDef.ASSUMPTION)).containsExactly("x == 1;", "y == 2;").inOrder();
+    assertThat(edge.getNodeFlags()).isEmpty();
+  }
+
+  @Test
+  public void testStreaming() throws Exception {
+    checkWitness(true);
+  }
+
+  @Test
+  public void testDocument() throws Exception {
+    checkWitness(false);
+  }
+
+  @Test
+  public void testMissingAttribute() throws Exception {
+    RecordingHandler handler = new RecordingHandler();
+    read(WITNESS, true, handler);
+    assertThrows(
+        WitnessParseException.class,
+        () -> handler.elements.get(1).getRequiredAttribute("id2", "missing"));
+  }
+
+  @Test
+  public void testNoGraph() {
+    String witness = "<graphml><key id=\"k\"/></graphml>";
+    assertThrows(WitnessParseException.class, () -> read(witness, true, new RecordingHandler()));
+    assertThrows(WitnessParseException.class, () -> read(witness, false, new RecordingHandler()));
+  }
+
+  @Test
+  public void testTwoGraphs() {
+    String witness = "<graphml><graph/><graph/></graphml>";
+    assertThrows(WitnessParseException.class, () -> read(witness, true, new RecordingHandler()));
+    assertThrows(WitnessParseException.class, () -> read(witness, false, new RecordingHandler()));
+  }
+
+  @Test
+  public void testMalformed() {
+    String witness = "<graphml><graph><node id=\"N1\"></graph></graphml>";
+    assertThrows(WitnessParseException.class, () -> read(witness, true, new RecordingHandler()));
+  }
+}
@@ -23,6 +23,7 @@ import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.core.specification.Specification;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheConcurrent;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheSynchronized;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManagerSynchronized;
@@ -41,6 +42,14 @@ public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
   )
   private boolean breakForMissingBlock = true;
 
+  @Option(
+    secure = true,
+    description =
+        "use a concurrent cache for block summaries instead of a globally synchronized one, "
+            + "such that threads only wait for each other when they need the same block summary"
+  )
+  private boolean useConcurrentCache = false;
+
   private final BAMCache cache;
   private final BAMDataManager data;
 
@@ -56,7 +65,11 @@ public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
     super(pCpa, pConfig, pLogger, pShutdownNotifier, pSpecification, pCfa);
     pConfig.inject(this);
 
-    cache = new BAMCacheSynchronized(pConfig, getReducer(), pLogger);
+    if (useConcurrentCache) {
+      cache = new BAMCacheConcurrent(getReducer(), pLogger);
+    } else {
+      cache = new BAMCacheSynchronized(pConfig, getReducer(), pLogger);
+    }
     data = new BAMDataManagerSynchronized(this, cache, reachedsetFactory, pLogger);
   }
 
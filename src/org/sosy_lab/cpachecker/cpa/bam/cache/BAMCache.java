@@ -13,6 +13,7 @@ import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterables;
 import java.util.Collection;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.cfa.blocks.Block;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
@@ -45,6 +46,23 @@ public interface BAMCache extends Statistics {
    */
   BAMCacheEntry get(AbstractState stateKey, Precision precisionKey, Block context);
 
+  /**
+   * Return the entry for the given key. If there is a cache miss, a new entry is created with the
+   * reached-set from the given supplier. Implementations for concurrent use have to do this
+   * atomically, such that all callers for the same key get the same entry.
+   */
+  default BAMCacheEntry computeIfAbsent(
+      AbstractState stateKey,
+      Precision precisionKey,
+      Block context,
+      Supplier<ReachedSet> reachedSetSupplier) {
+    BAMCacheEntry entry = get(stateKey, precisionKey, context);
+    if (entry == null) {
+      entry = put(stateKey, precisionKey, context, reachedSetSupplier.get());
+    }
+    return entry;
+  }
+
   /** Return the root-state of the last analyzed block, based on the last cache-access. */
   @Deprecated // reason: last block is not deterministic in parallel context
   ARGState getLastAnalyzedBlock();
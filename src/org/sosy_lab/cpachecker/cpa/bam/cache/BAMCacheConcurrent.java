@@ -0,0 +1,218 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableList;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+
+/**
+ * Thread-safe BAM cache without a global lock, intended as replacement for {@link
+ * BAMCacheSynchronized} in the parallel BAM analysis.
+ *
+ * <p>The entries are stored in a {@link ConcurrentHashMap}, which locks only single bins of the
+ * map on updates and allows reads without any locking. If several threads request the same missing
+ * entry via {@link #computeIfAbsent(AbstractState, Precision, Block, Supplier)}, only one of them
+ * creates the entry, such that no duplicate reached-sets are created. Note that this covers only
+ * the creation of the entry with its initial reached-set: the analysis of the block is not part of
+ * it, so other threads may get the entry before its exit states are known, as for a partial cache
+ * hit.
+ *
+ * <p>In contrast to {@link BAMCacheImpl}, the order of entries is not deterministic and no analysis
+ * of cache misses is supported.
+ */
+public class BAMCacheConcurrent implements BAMCache {
+
+  private final ConcurrentMap<CacheKey, BAMCacheEntry> preciseReachedCache =
+      new ConcurrentHashMap<>();
+
+  private final Reducer reducer;
+  private final LogManager logger;
+
+  private volatile @Nullable BAMCacheEntry lastAnalyzedEntry = null;
+
+  private final LongAdder cacheMisses = new LongAdder();
+  private final LongAdder partialCacheHits = new LongAdder();
+  private final LongAdder fullCacheHits = new LongAdder();
+  private final LongAdder createdEntries = new LongAdder();
+
+  public BAMCacheConcurrent(Reducer pReducer, LogManager pLogger) {
+    reducer = checkNotNull(pReducer);
+    logger = checkNotNull(pLogger);
+  }
+
+  private CacheKey getKey(AbstractState stateKey, Precision precisionKey, Block context) {
+    return new CacheKey(reducer.getHashCodeForState(stateKey, precisionKey), context);
+  }
+
+  @Override
+  public BAMCacheEntry put(
+      AbstractState stateKey, Precision precisionKey, Block context, ReachedSet rs) {
+    BAMCacheEntry entry = new BAMCacheEntry(rs);
+    preciseReachedCache.put(getKey(stateKey, precisionKey, context), entry);
+    createdEntries.increment();
+    return entry;
+  }
+
+  @Override
+  public BAMCacheEntry get(AbstractState stateKey, Precision precisionKey, Block context) {
+    BAMCacheEntry entry = preciseReachedCache.get(getKey(stateKey, precisionKey, context));
+    if (entry == null) {
+      logger.log(Level.FINEST, "CACHE_ACCESS: entry not available");
+      cacheMisses.increment();
+      lastAnalyzedEntry = null;
+      return null;
+    }
+
+    logger.log(Level.FINEST, "CACHE_ACCESS: precise entry");
+    countHit(entry);
+    lastAnalyzedEntry = entry;
+    return entry;
+  }
+
+  @Override
+  public BAMCacheEntry computeIfAbsent(
+      AbstractState stateKey,
+      Precision precisionKey,
+      Block context,
+      Supplier<ReachedSet> reachedSetSupplier) {
+    CacheKey key = getKey(stateKey, precisionKey, context);
+    BAMCacheEntry entry = preciseReachedCache.get(key);
+    if (entry == null) {
+      // the supplier only creates the initial reached-set, so the map is locked only shortly
+      BAMCacheEntry[] created = new BAMCacheEntry[1];
+      entry =
+          preciseReachedCache.computeIfAbsent(
+              key, k -> created[0] = new BAMCacheEntry(reachedSetSupplier.get()));
+      if (entry == created[0]) {
+        cacheMisses.increment();
+        createdEntries.increment();
+        lastAnalyzedEntry = entry;
+        return entry;
+      }
+      // another thread was faster
+    }
+
+    countHit(entry);
+    lastAnalyzedEntry = entry;
+    return entry;
+  }
+
+  private void countHit(BAMCacheEntry pEntry) {
+    if (pEntry.getExitStates() == null) {
+      // we have cached a partly computed reached-set
+      partialCacheHits.increment();
+    } else {
+      fullCacheHits.increment();
+    }
+  }
+
+  @Override
+  @Deprecated
+  public ARGState getLastAnalyzedBlock() {
+    // read the field only once, another thread might reset it concurrently
+    BAMCacheEntry entry = lastAnalyzedEntry;
+    return entry == null ? null : entry.getRootOfBlock();
+  }
+
+  @Override
+  public boolean containsPreciseKey(AbstractState stateKey, Precision precisionKey, Block context) {
+    return preciseReachedCache.containsKey(getKey(stateKey, precisionKey, context));
+  }
+
+  /** Return a snapshot of all cached reached-sets. */
+  @Override
+  public Collection<ReachedSet> getAllCachedReachedStates() {
+    return ImmutableList.copyOf(
+        Collections2.transform(preciseReachedCache.values(), BAMCacheEntry::getReachedSet));
+  }
+
+  @Override
+  public void clear() {
+    preciseReachedCache.clear();
+    lastAnalyzedEntry = null;
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+    long misses = cacheMisses.sum();
+    long partialHits = partialCacheHits.sum();
+    long fullHits = fullCacheHits.sum();
+    long sumCalls = misses + partialHits + fullHits;
+
+    out.println("Number of cached reached-sets:                       " + preciseReachedCache.size());
+    out.println("Total number of cache accesses:                      " + sumCalls);
+    out.println("  Number of cache misses:                            " + misses + " (" + toPercent(misses, sumCalls) + " of all calls)");
+    out.println("  Number of partial cache hits:                      " + partialHits + " (" + toPercent(partialHits, sumCalls) + " of all calls)");
+    out.println("  Number of full cache hits:                         " + fullHits + " (" + toPercent(fullHits, sumCalls) + " of all calls)");
+    out.println("Number of created cache entries:                     " + createdEntries.sum());
+  }
+
+  @Override
+  public String getName() {
+    return "BAMCache (concurrent)";
+  }
+
+  /** Key of the cache, without the timers of {@link BAMCacheImpl}, which are not thread-safe. */
+  private static final class CacheKey {
+
+    private final Object wrappedHash;
+    private final Block context;
+    private final int hashCode;
+
+    private CacheKey(Object pWrappedHash, Block pContext) {
+      wrappedHash = checkNotNull(pWrappedHash);
+      context = checkNotNull(pContext);
+      hashCode = wrappedHash.hashCode() * 17 + context.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (pObj == this) {
+        return true;
+      }
+      if (!(pObj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) pObj;
+      return hashCode == other.hashCode
+          && context.equals(other.context)
+          && wrappedHash.equals(other.wrappedHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return "CacheKey [wrappedHash=" + wrappedHash + ", context=" + context + "]";
+    }
+  }
+}
@@ -0,0 +1,199 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+import org.sosy_lab.cpachecker.util.Pair;
+
+public class BAMCacheConcurrentTest {
+
+  private static final int THREADS = 4;
+
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+
+  private final Block block =
+      new Block(ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of());
+  private final Block otherBlock =
+      new Block(ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of());
+
+  private BAMCacheConcurrent cache;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    Reducer reducer = mock(Reducer.class);
+    when(reducer.getHashCodeForState(any(), any()))
+        .thenAnswer(invocation -> Pair.of(invocation.getArgument(0), invocation.getArgument(1)));
+    cache = new BAMCacheConcurrent(reducer, LogManager.createTestLogManager());
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    executor.shutdownNow();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private static AbstractState newState() {
+    return new AbstractState() {};
+  }
+
+  @Test
+  public void testPutAndGet() {
+    AbstractState state = newState();
+    ReachedSet reached = mock(ReachedSet.class);
+
+    assertThat(cache.containsPreciseKey(state, PRECISION, block)).isFalse();
+    assertThat(cache.get(state, PRECISION, block)).isNull();
+
+    BAMCacheEntry entry = cache.put(state, PRECISION, block, reached);
+    assertThat(entry.getReachedSet()).isSameInstanceAs(reached);
+    assertThat(cache.containsPreciseKey(state, PRECISION, block)).isTrue();
+    assertThat(cache.get(state, PRECISION, block)).isSameInstanceAs(entry);
+
+    // other keys are not affected
+    assertThat(cache.containsPreciseKey(state, PRECISION, otherBlock)).isFalse();
+    assertThat(cache.containsPreciseKey(newState(), PRECISION, block)).isFalse();
+    assertThat(cache.getAllCachedReachedStates()).containsExactly(reached);
+
+    cache.clear();
+    assertThat(cache.containsPreciseKey(state, PRECISION, block)).isFalse();
+    assertThat(cache.getAllCachedReachedStates()).isEmpty();
+  }
+
+  @Test
+  @SuppressWarnings("deprecation") // tests getLastAnalyzedBlock
+  public void testLastAnalyzedBlock() {
+    assertThat(cache.getLastAnalyzedBlock()).isNull();
+
+    AbstractState state = newState();
+    ARGState root = new ARGState(null, null);
+    BAMCacheEntry entry = cache.put(state, PRECISION, block, mock(ReachedSet.class));
+    entry.setRootOfBlock(root);
+    cache.get(state, PRECISION, block);
+    assertThat(cache.getLastAnalyzedBlock()).isSameInstanceAs(root);
+
+    // a cache miss resets the last analyzed block
+    cache.get(newState(), PRECISION, block);
+    assertThat(cache.getLastAnalyzedBlock()).isNull();
+  }
+
+  @Test
+  public void testComputeIfAbsent() {
+    AbstractState state = newState();
+    ReachedSet reached = mock(ReachedSet.class);
+
+    BAMCacheEntry entry = cache.computeIfAbsent(state, PRECISION, block, () -> reached);
+    assertThat(entry.getReachedSet()).isSameInstanceAs(reached);
+    assertThat(
+            cache.computeIfAbsent(
+                state,
+                PRECISION,
+                block,
+                () -> {
+                  throw new AssertionError("entry should be cached");
+                }))
+        .isSameInstanceAs(entry);
+  }
+
+  @Test
+  public void testComputeIfAbsentFailure() {
+    AbstractState state = newState();
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.computeIfAbsent(
+                state,
+                PRECISION,
+                block,
+                () -> {
+                  throw new IllegalStateException();
+                }));
+
+    // the failed entry is not cached
+    assertThat(cache.containsPreciseKey(state, PRECISION, block)).isFalse();
+    ReachedSet reached = mock(ReachedSet.class);
+    assertThat(cache.computeIfAbsent(state, PRECISION, block, () -> reached).getReachedSet())
+        .isSameInstanceAs(reached);
+  }
+
+  @Test
+  @SuppressWarnings("deprecation") // getLastAnalyzedBlock must not fail concurrently
+  public void testConcurrentComputeIfAbsent() throws Exception {
+    List<AbstractState> states = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      states.add(newState());
+    }
+    AtomicInteger createdReachedSets = new AtomicInteger();
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+
+    List<Future<List<BAMCacheEntry>>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                barrier.await();
+                List<BAMCacheEntry> entries = new ArrayList<>();
+                for (AbstractState state : states) {
+                  entries.add(
+                      cache.computeIfAbsent(
+                          state,
+                          PRECISION,
+                          block,
+                          () -> {
+                            createdReachedSets.incrementAndGet();
+                            return mock(ReachedSet.class);
+                          }));
+                  assertThat(cache.containsPreciseKey(state, PRECISION, block)).isTrue();
+                  cache.getLastAnalyzedBlock();
+                }
+                return entries;
+              }));
+    }
+
+    List<BAMCacheEntry> expected = futures.get(0).get();
+    for (Future<List<BAMCacheEntry>> future : futures) {
+      List<BAMCacheEntry> entries = future.get();
+      // all threads see the same entry for each key
+      for (int i = 0; i < states.size(); i++) {
+        assertThat(entries.get(i)).isSameInstanceAs(expected.get(i));
+        assertThat(cache.get(states.get(i), PRECISION, block)).isSameInstanceAs(expected.get(i));
+      }
+    }
+    // and every entry was created exactly once
+    assertThat(createdReachedSets.get()).isEqualTo(states.size());
+    assertThat(cache.getAllCachedReachedStates()).hasSize(states.size());
+  }
+}
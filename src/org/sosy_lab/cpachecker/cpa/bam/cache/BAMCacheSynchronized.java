@@ -10,6 +10,7 @@ package org.sosy_lab.cpachecker.cpa.bam.cache;
 
 import java.io.PrintStream;
 import java.util.Collection;
+import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -81,6 +82,22 @@ public class BAMCacheSynchronized implements BAMCache {
     }
   }
 
+  @Override
+  public BAMCacheEntry computeIfAbsent(
+      AbstractState pStateKey,
+      Precision pPrecisionKey,
+      Block pContext,
+      Supplier<ReachedSet> pReachedSetSupplier) {
+    synchronized (this) {
+      try {
+        timer.start();
+        return cache.computeIfAbsent(pStateKey, pPrecisionKey, pContext, pReachedSetSupplier);
+      } finally {
+        timer.stop();
+      }
+    }
+  }
+
   @Override
   @Deprecated
   public ARGState getLastAnalyzedBlock() {
@@ -35,6 +35,14 @@ public interface BAMDataManager {
   BAMCacheEntry createAndRegisterNewReachedSet(
       AbstractState initialState, Precision initialPrecision, Block context);
 
+  /**
+   * Return the cache entry for the given key, or create a new reached-set with the given state as
+   * root and register it in the cache if there is none. This is done atomically if the cache
+   * supports concurrent access, such that the reached-set is created only once.
+   */
+  BAMCacheEntry getOrCreateReachedSet(
+      AbstractState initialState, Precision initialPrecision, Block context);
+
   ReachedSetFactory getReachedSetFactory();
 
   /**
@@ -127,9 +127,24 @@ public class BAMDataManagerImpl implements BAMDataManager {
   @Override
   public BAMCacheEntry createAndRegisterNewReachedSet(
       AbstractState initialState, Precision initialPrecision, Block context) {
+    return bamCache.put(
+        initialState, initialPrecision, context, createReachedSet(initialState, initialPrecision));
+  }
+
+  @Override
+  public BAMCacheEntry getOrCreateReachedSet(
+      AbstractState initialState, Precision initialPrecision, Block context) {
+    return bamCache.computeIfAbsent(
+        initialState,
+        initialPrecision,
+        context,
+        () -> createReachedSet(initialState, initialPrecision));
+  }
+
+  private ReachedSet createReachedSet(AbstractState initialState, Precision initialPrecision) {
     final ReachedSet reached = reachedSetFactory.create(bamCpa);
     reached.add(initialState, initialPrecision);
-    return bamCache.put(initialState, initialPrecision, context, reached);
+    return reached;
   }
 
   @Override
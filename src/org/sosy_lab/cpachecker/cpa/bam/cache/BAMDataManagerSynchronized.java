@@ -49,6 +49,13 @@ public class BAMDataManagerSynchronized implements BAMDataManager {
     }
   }
 
+  @Override
+  public BAMCacheEntry getOrCreateReachedSet(
+      AbstractState pInitialState, Precision pInitialPrecision, Block pContext) {
+    // no lock needed, the cache itself guarantees atomicity
+    return manager.getOrCreateReachedSet(pInitialState, pInitialPrecision, pContext);
+  }
+
   @Override
   public ReachedSetFactory getReachedSetFactory() {
     synchronized (this) {
@@ -35,6 +35,7 @@ import java.util.Set;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.MoreStrings;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -86,6 +87,7 @@ import org.sosy_lab.cpachecker.cpa.predicate.PredicateAbstractionStatistics;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA;
 import org.sosy_lab.cpachecker.cpa.predicate.SlicingAbstractionsUtils;
 import org.sosy_lab.cpachecker.cpa.predicate.SlicingAbstractionsUtils.AbstractionPosition;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.PersistentAbstractionCache;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.PredicateParsingFailedException;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
@@ -135,6 +137,7 @@ public class DCARefiner implements Refiner, StatisticsProvider, AutoCloseable {
   private final InterpolationManager interpolationManager;
   private final InterpolationAutomatonBuilder itpAutomatonBuilder;
   private final PredicateAbstractionManager predicateAbstractionManager;
+  private final @Nullable PersistentAbstractionCache persistentAbstractionCache;
   private final PathChecker pathChecker;
 
   private int curRefinementIteration = 0;
@@ -262,6 +265,11 @@ public class DCARefiner implements Refiner, StatisticsProvider, AutoCloseable {
     } catch (PredicateParsingFailedException e) {
       throw new InvalidConfigurationException(e.getMessage(), e);
     }
+    // If a PredicateCPA uses the same file, it holds the lock and this instance only reads it.
+    persistentAbstractionCache =
+        abstractionOptions.getPersistentCacheFile() != null
+            ? new PersistentAbstractionCache(abstractionOptions.getPersistentCacheFile(), pLogger)
+            : null;
     predicateAbstractionManager =
         new PredicateAbstractionManager(
             abstractionManager,
@@ -270,6 +278,7 @@ public class DCARefiner implements Refiner, StatisticsProvider, AutoCloseable {
             abstractionOptions,
             new WeakeningOptions(pConfig),
             abstractionStorage,
+            persistentAbstractionCache,
             pLogger,
             pNotifier,
             new PredicateAbstractionStatistics(),
@@ -752,6 +761,9 @@ public class DCARefiner implements Refiner, StatisticsProvider, AutoCloseable {
 
   @Override
   public void close() {
+    if (persistentAbstractionCache != null) {
+      persistentAbstractionCache.close();
+    }
     lassoAnalysis.close();
   }
 }
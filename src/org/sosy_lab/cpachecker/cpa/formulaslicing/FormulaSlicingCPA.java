@@ -76,8 +76,8 @@ public class FormulaSlicingCPA extends SingleEdgeTransferRelation
         formulaManager, pConfiguration, pLogger, pShutdownNotifier, cfa,
         AnalysisDirection.FORWARD);
 
-    CachingPathFormulaManager pathFormulaManager = new CachingPathFormulaManager
-        (origPathFormulaManager);
+    CachingPathFormulaManager pathFormulaManager =
+        new CachingPathFormulaManager(origPathFormulaManager, pConfiguration);
 
     inductiveWeakeningManager =
         new InductiveWeakeningManager(
@@ -0,0 +1,423 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.interval;
+
+import com.google.common.collect.ImmutableSortedMap;
+import java.io.Serializable;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Immutable map from variables to intervals and reference counts, where the variables are
+ * identified by their index in a {@link VariableIndex} and the bounds are stored in primitive
+ * arrays.
+ *
+ * <p>The arrays are split into chunks of a fixed number of variables. Modifications copy only the
+ * affected chunk and the (small) array of chunks, all other chunks are shared with the original
+ * instance. Operations on two instances, like {@link #join(IndexedIntervals)} and {@link
+ * #isLessOrEqual(IndexedIntervals)}, are loops over the arrays that skip shared chunks where
+ * possible. The result of a join shares all chunks that do not change with the reached instance.
+ *
+ * <p>Untracked variables are stored with the bounds of {@link Interval#UNBOUND} (which is never
+ * tracked explicitly), empty intervals are stored with a lower bound that is larger than the upper
+ * bound.
+ */
+final class IndexedIntervals implements Serializable {
+
+  private static final long serialVersionUID = -3870315530124609781L;
+
+  private static final int CHUNK_BITS = 5;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private static final long UNTRACKED_LOW = Long.MIN_VALUE;
+  private static final long UNTRACKED_HIGH = Long.MAX_VALUE;
+  private static final long EMPTY_LOW = Long.MAX_VALUE;
+  private static final long EMPTY_HIGH = Long.MIN_VALUE;
+
+  private static final long[] UNTRACKED_CHUNK = createUntrackedChunk();
+
+  private final VariableIndex variableIndex;
+
+  // bounds[c][2 * i] and bounds[c][2 * i + 1] are the bounds of the variable c * CHUNK_SIZE + i,
+  // chunks may be null if all their variables are untracked
+  private final long[][] bounds;
+
+  // referenceCounts[c][i] is the reference count of the variable c * CHUNK_SIZE + i,
+  // chunks may be null if all their reference counts are zero
+  private final int[][] referenceCounts;
+
+  // the number of tracked variables
+  private final int size;
+
+  private IndexedIntervals(
+      VariableIndex pVariableIndex, long[][] pBounds, int[][] pReferenceCounts, int pSize) {
+    variableIndex = pVariableIndex;
+    bounds = pBounds;
+    referenceCounts = pReferenceCounts;
+    size = pSize;
+  }
+
+  static IndexedIntervals empty(VariableIndex pVariableIndex) {
+    return new IndexedIntervals(pVariableIndex, new long[0][], new int[0][], 0);
+  }
+
+  private static long[] createUntrackedChunk() {
+    long[] chunk = new long[2 * CHUNK_SIZE];
+    for (int i = 0; i < CHUNK_SIZE; i++) {
+      chunk[2 * i] = UNTRACKED_LOW;
+      chunk[2 * i + 1] = UNTRACKED_HIGH;
+    }
+    return chunk;
+  }
+
+  private static long @Nullable [] boundsChunk(long[][] pBounds, int pChunk) {
+    return pChunk < pBounds.length ? pBounds[pChunk] : null;
+  }
+
+  private static int @Nullable [] referenceCountsChunk(int[][] pReferenceCounts, int pChunk) {
+    return pChunk < pReferenceCounts.length ? pReferenceCounts[pChunk] : null;
+  }
+
+  private static long low(long @Nullable [] pChunk, int pOffset) {
+    return pChunk == null ? UNTRACKED_LOW : pChunk[2 * pOffset];
+  }
+
+  private static long high(long @Nullable [] pChunk, int pOffset) {
+    return pChunk == null ? UNTRACKED_HIGH : pChunk[2 * pOffset + 1];
+  }
+
+  private static int referenceCount(int @Nullable [] pChunk, int pOffset) {
+    return pChunk == null ? 0 : pChunk[pOffset];
+  }
+
+  private static boolean isTracked(long pLow, long pHigh) {
+    return pLow != UNTRACKED_LOW || pHigh != UNTRACKED_HIGH;
+  }
+
+  private static boolean isEmpty(long pLow, long pHigh) {
+    return pLow > pHigh;
+  }
+
+  private static Interval toInterval(long pLow, long pHigh) {
+    if (isEmpty(pLow, pHigh)) {
+      return new Interval(null, null);
+    }
+    return new Interval(pLow, pHigh);
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean contains(String pVariable) {
+    int index = variableIndex.getIndex(pVariable);
+    if (index < 0) {
+      return false;
+    }
+    long[] chunk = boundsChunk(bounds, index >>> CHUNK_BITS);
+    int offset = index & CHUNK_MASK;
+    return isTracked(low(chunk, offset), high(chunk, offset));
+  }
+
+  /** Return the interval of a variable, or {@link Interval#UNBOUND} if it is not tracked. */
+  Interval getInterval(String pVariable) {
+    int index = variableIndex.getIndex(pVariable);
+    if (index < 0) {
+      return Interval.UNBOUND;
+    }
+    long[] chunk = boundsChunk(bounds, index >>> CHUNK_BITS);
+    int offset = index & CHUNK_MASK;
+    long low = low(chunk, offset);
+    long high = high(chunk, offset);
+    return isTracked(low, high) ? toInterval(low, high) : Interval.UNBOUND;
+  }
+
+  int getReferenceCount(String pVariable) {
+    int index = variableIndex.getIndex(pVariable);
+    if (index < 0) {
+      return 0;
+    }
+    int[] chunk = referenceCountsChunk(referenceCounts, index >>> CHUNK_BITS);
+    return referenceCount(chunk, index & CHUNK_MASK);
+  }
+
+  /**
+   * Return a copy of this instance where the given variable has the given interval and reference
+   * count. The interval must not be unbound.
+   */
+  IndexedIntervals putAndCopy(String pVariable, Interval pInterval, int pReferenceCount) {
+    assert !pInterval.isUnbound();
+    int index = variableIndex.getOrCreateIndex(pVariable);
+    int chunkIndex = index >>> CHUNK_BITS;
+    int offset = index & CHUNK_MASK;
+
+    long[][] newBounds = Arrays.copyOf(bounds, Math.max(bounds.length, chunkIndex + 1));
+    long[] oldChunk = newBounds[chunkIndex];
+    long[] newChunk = (oldChunk == null ? UNTRACKED_CHUNK : oldChunk).clone();
+    boolean wasTracked = isTracked(newChunk[2 * offset], newChunk[2 * offset + 1]);
+    newChunk[2 * offset] = pInterval.isEmpty() ? EMPTY_LOW : pInterval.getLow();
+    newChunk[2 * offset + 1] = pInterval.isEmpty() ? EMPTY_HIGH : pInterval.getHigh();
+    newBounds[chunkIndex] = newChunk;
+
+    int[][] newReferenceCounts =
+        Arrays.copyOf(referenceCounts, Math.max(referenceCounts.length, chunkIndex + 1));
+    int[] oldReferenceCountsChunk = newReferenceCounts[chunkIndex];
+    int[] newReferenceCountsChunk =
+        oldReferenceCountsChunk == null ? new int[CHUNK_SIZE] : oldReferenceCountsChunk.clone();
+    newReferenceCountsChunk[offset] = pReferenceCount;
+    newReferenceCounts[chunkIndex] = newReferenceCountsChunk;
+
+    return new IndexedIntervals(
+        variableIndex, newBounds, newReferenceCounts, wasTracked ? size : size + 1);
+  }
+
+  /**
+   * Return a copy of this instance where the given variable is not tracked. The reference count of
+   * the variable is kept.
+   */
+  IndexedIntervals removeAndCopy(String pVariable) {
+    if (!contains(pVariable)) {
+      return this;
+    }
+    int index = variableIndex.getIndex(pVariable);
+    int chunkIndex = index >>> CHUNK_BITS;
+    int offset = index & CHUNK_MASK;
+
+    long[][] newBounds = bounds.clone();
+    long[] newChunk = newBounds[chunkIndex].clone();
+    newChunk[2 * offset] = UNTRACKED_LOW;
+    newChunk[2 * offset + 1] = UNTRACKED_HIGH;
+    newBounds[chunkIndex] = newChunk;
+    return new IndexedIntervals(variableIndex, newBounds, referenceCounts, size - 1);
+  }
+
+  /**
+   * Join this instance with the reached instance. This has the same semantics as {@link
+   * IntervalAnalysisState#join(IntervalAnalysisState)}: variables are tracked if they are tracked
+   * by both instances and their joined interval is not unbound, and the reference counts are taken
+   * from the reached instance unless the interval of a variable grows and this instance has a
+   * larger reference count.
+   *
+   * @return the reached instance if the join does not differ from it
+   */
+  IndexedIntervals join(IndexedIntervals pReached) {
+    int chunkCount = Math.max(bounds.length, pReached.bounds.length);
+    long[][] newBounds = new long[chunkCount][];
+    int[][] newReferenceCounts = new int[chunkCount][];
+    boolean changed = false;
+    int newSize = 0;
+
+    for (int c = 0; c < chunkCount; c++) {
+      long[] thisChunk = boundsChunk(bounds, c);
+      long[] reachedChunk = boundsChunk(pReached.bounds, c);
+      int[] thisReferenceCounts = referenceCountsChunk(referenceCounts, c);
+      int[] reachedReferenceCounts = referenceCountsChunk(pReached.referenceCounts, c);
+
+      if (thisChunk == reachedChunk && thisReferenceCounts == reachedReferenceCounts) {
+        // shared chunk: the join is the same as the reached chunk
+        newBounds[c] = reachedChunk;
+        newReferenceCounts[c] = reachedReferenceCounts;
+        if (reachedChunk != null) {
+          for (int i = 0; i < CHUNK_SIZE; i++) {
+            if (isTracked(reachedChunk[2 * i], reachedChunk[2 * i + 1])) {
+              newSize++;
+            }
+          }
+        }
+        continue;
+      }
+
+      // the chunks of the result are only allocated if they differ from the reached chunks
+      long[] newChunk = null;
+      int[] newReferenceCountsChunk = null;
+      for (int i = 0; i < CHUNK_SIZE; i++) {
+        long reachedLow = low(reachedChunk, i);
+        long reachedHigh = high(reachedChunk, i);
+        int reachedReferenceCount = referenceCount(reachedReferenceCounts, i);
+        long newLow = UNTRACKED_LOW;
+        long newHigh = UNTRACKED_HIGH;
+        int newReferenceCount;
+
+        if (isTracked(reachedLow, reachedHigh)) {
+          long thisLow = low(thisChunk, i);
+          long thisHigh = high(thisChunk, i);
+          newReferenceCount = reachedReferenceCount;
+          if (isTracked(thisLow, thisHigh)) {
+            long mergedLow;
+            long mergedHigh;
+            if (isEmpty(thisLow, thisHigh) || isEmpty(reachedLow, reachedHigh)) {
+              mergedLow = EMPTY_LOW;
+              mergedHigh = EMPTY_HIGH;
+            } else {
+              mergedLow = Math.min(thisLow, reachedLow);
+              mergedHigh = Math.max(thisHigh, reachedHigh);
+            }
+            boolean grown = mergedLow != reachedLow || mergedHigh != reachedHigh;
+            if (grown) {
+              changed = true;
+              newReferenceCount =
+                  Math.max(referenceCount(thisReferenceCounts, i), reachedReferenceCount);
+            }
+            if (isTracked(mergedLow, mergedHigh)) {
+              newLow = mergedLow;
+              newHigh = mergedHigh;
+            }
+          } else {
+            changed = true;
+          }
+        } else {
+          newReferenceCount = referenceCount(thisReferenceCounts, i);
+        }
+
+        if (isTracked(newLow, newHigh)) {
+          newSize++;
+        }
+        if (newLow != reachedLow || newHigh != reachedHigh) {
+          if (newChunk == null) {
+            newChunk = (reachedChunk == null ? UNTRACKED_CHUNK : reachedChunk).clone();
+          }
+          newChunk[2 * i] = newLow;
+          newChunk[2 * i + 1] = newHigh;
+        }
+        if (newReferenceCount != reachedReferenceCount) {
+          if (newReferenceCountsChunk == null) {
+            newReferenceCountsChunk =
+                reachedReferenceCounts == null
+                    ? new int[CHUNK_SIZE]
+                    : reachedReferenceCounts.clone();
+          }
+          newReferenceCountsChunk[i] = newReferenceCount;
+        }
+      }
+      newBounds[c] = newChunk == null ? reachedChunk : newChunk;
+      newReferenceCounts[c] =
+          newReferenceCountsChunk == null ? reachedReferenceCounts : newReferenceCountsChunk;
+    }
+
+    if (!changed) {
+      return pReached;
+    }
+    return new IndexedIntervals(variableIndex, newBounds, newReferenceCounts, newSize);
+  }
+
+  /**
+   * Check whether every variable that is tracked by the reached instance is also tracked by this
+   * instance, with an interval that is contained in the interval of the reached instance. This has
+   * the same semantics as {@link IntervalAnalysisState#isLessOrEqual(IntervalAnalysisState)}.
+   */
+  boolean isLessOrEqual(IndexedIntervals pReached) {
+    if (equals(pReached)) {
+      return true;
+    }
+    if (size < pReached.size) {
+      return false;
+    }
+    for (int c = 0; c < pReached.bounds.length; c++) {
+      long[] reachedChunk = pReached.bounds[c];
+      if (reachedChunk == null) {
+        continue;
+      }
+      long[] thisChunk = boundsChunk(bounds, c);
+      for (int i = 0; i < CHUNK_SIZE; i++) {
+        long reachedLow = reachedChunk[2 * i];
+        long reachedHigh = reachedChunk[2 * i + 1];
+        if (!isTracked(reachedLow, reachedHigh)) {
+          continue;
+        }
+        long thisLow = low(thisChunk, i);
+        long thisHigh = high(thisChunk, i);
+        if (!isTracked(thisLow, thisHigh)
+            || isEmpty(thisLow, thisHigh)
+            || isEmpty(reachedLow, reachedHigh)
+            || reachedLow > thisLow
+            || thisHigh > reachedHigh) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /** Return the tracked variables and their intervals, sorted by variable name. */
+  ImmutableSortedMap<String, Interval> asMap() {
+    ImmutableSortedMap.Builder<String, Interval> result = ImmutableSortedMap.naturalOrder();
+    for (int c = 0; c < bounds.length; c++) {
+      long[] chunk = bounds[c];
+      if (chunk == null) {
+        continue;
+      }
+      for (int i = 0; i < CHUNK_SIZE; i++) {
+        long low = chunk[2 * i];
+        long high = chunk[2 * i + 1];
+        if (isTracked(low, high)) {
+          result.put(variableIndex.getName(c * CHUNK_SIZE + i), toInterval(low, high));
+        }
+      }
+    }
+    return result.build();
+  }
+
+  /** Compare the tracked intervals (but not the reference counts). */
+  @Override
+  public boolean equals(Object pOther) {
+    if (this == pOther) {
+      return true;
+    }
+    if (!(pOther instanceof IndexedIntervals)) {
+      return false;
+    }
+    IndexedIntervals other = (IndexedIntervals) pOther;
+    if (size != other.size) {
+      return false;
+    }
+    int chunkCount = Math.max(bounds.length, other.bounds.length);
+    for (int c = 0; c < chunkCount; c++) {
+      long[] thisChunk = boundsChunk(bounds, c);
+      long[] otherChunk = boundsChunk(other.bounds, c);
+      if (thisChunk == otherChunk) {
+        continue;
+      }
+      for (int i = 0; i < CHUNK_SIZE; i++) {
+        if (low(thisChunk, i) != low(otherChunk, i) || high(thisChunk, i) != high(otherChunk, i)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /** Compatible with the hash code of {@link #asMap()}. */
+  @Override
+  public int hashCode() {
+    int result = 0;
+    for (int c = 0; c < bounds.length; c++) {
+      long[] chunk = bounds[c];
+      if (chunk == null) {
+        continue;
+      }
+      for (int i = 0; i < CHUNK_SIZE; i++) {
+        long low = chunk[2 * i];
+        long high = chunk[2 * i + 1];
+        if (isTracked(low, high)) {
+          // same as Interval.hashCode(), which is Objects.hash(low, high)
+          int intervalHash =
+              isEmpty(low, high) ? 31 * 31 : 31 * (31 + Long.hashCode(low)) + Long.hashCode(high);
+          result += variableIndex.getName(c * CHUNK_SIZE + i).hashCode() ^ intervalHash;
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return asMap().toString();
+  }
+}
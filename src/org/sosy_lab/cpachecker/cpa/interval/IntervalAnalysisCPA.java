@@ -9,6 +9,7 @@
 package org.sosy_lab.cpachecker.cpa.interval;
 
 import java.util.Collection;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -68,8 +69,18 @@ public class IntervalAnalysisCPA extends AbstractCPA
   )
   private int threshold = -1;
 
+  @Option(
+      secure = true,
+      description =
+          "store the intervals of each state in arrays indexed by variable instead of in maps"
+              + " from variable names, which makes join and the coverage check faster"
+              + " if many variables are tracked. The variables are numbered based on the"
+              + " variable classification.")
+  private boolean useVariableIndex = false;
+
   private final StateToFormulaWriter writer;
   private final LogManager logger;
+  private final @Nullable VariableIndex variableIndex;
 
   /**
    * This method acts as the constructor of the interval analysis CPA.
@@ -83,6 +94,10 @@ public class IntervalAnalysisCPA extends AbstractCPA
     config.inject(this);
     writer = new StateToFormulaWriter(config, pLogger, shutdownNotifier, cfa);
     logger = pLogger;
+    variableIndex =
+        useVariableIndex
+            ? VariableIndex.fromVariableClassification(cfa.getVarClassification())
+            : null;
   }
 
   @Override
@@ -97,6 +112,9 @@ public class IntervalAnalysisCPA extends AbstractCPA
 
   @Override
   public AbstractState getInitialState(CFANode pNode, StateSpacePartition pPartition) {
+    if (variableIndex != null) {
+      return IntervalAnalysisState.createIndexedState(variableIndex);
+    }
     return new IntervalAnalysisState();
   }
 
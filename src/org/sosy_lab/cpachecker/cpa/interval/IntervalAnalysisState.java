@@ -18,6 +18,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
@@ -55,12 +56,19 @@ public class IntervalAnalysisState
    */
   private final PersistentMap<String, Integer> referenceCounts;
 
+  /**
+   * the intervals and reference counts of the element in an array-based representation, if this
+   * is used then the two maps above are empty and not used
+   */
+  private final @Nullable IndexedIntervals indexedIntervals;
+
   /**
    *  This method acts as the default constructor, which initializes the intervals and reference counts to empty maps and the previous element to null.
    */
   public IntervalAnalysisState() {
     intervals = PathCopyingPersistentTreeMap.of();
     referenceCounts = PathCopyingPersistentTreeMap.of();
+    indexedIntervals = null;
   }
 
   /**
@@ -72,6 +80,22 @@ public class IntervalAnalysisState
   public IntervalAnalysisState(PersistentMap<String, Interval> intervals, PersistentMap<String, Integer> referencesMap) {
     this.intervals        = intervals;
     this.referenceCounts  = referencesMap;
+    this.indexedIntervals = null;
+  }
+
+  private IntervalAnalysisState(IndexedIntervals pIndexedIntervals) {
+    intervals = PathCopyingPersistentTreeMap.of();
+    referenceCounts = PathCopyingPersistentTreeMap.of();
+    indexedIntervals = pIndexedIntervals;
+  }
+
+  /**
+   * Create an empty state that stores its intervals in arrays, with the positions of the variables
+   * given by the variable index. All states created from this one use the same representation. It
+   * should not be mixed with states that were created by the other constructors.
+   */
+  static IntervalAnalysisState createIndexedState(VariableIndex pVariableIndex) {
+    return new IntervalAnalysisState(IndexedIntervals.empty(pVariableIndex));
   }
 
   /**
@@ -82,6 +106,9 @@ public class IntervalAnalysisState
    */
   // see ExplicitState::getValueFor
   public Interval getInterval(String variableName) {
+    if (indexedIntervals != null) {
+      return indexedIntervals.getInterval(variableName);
+    }
     return intervals.getOrDefault(variableName, Interval.UNBOUND);
   }
 
@@ -92,6 +119,9 @@ public class IntervalAnalysisState
    * @return the reference count of the variable, or 0 if the the variable is not yet referenced
    */
   private Integer getReferenceCount(String variableName) {
+    if (indexedIntervals != null) {
+      return indexedIntervals.getReferenceCount(variableName);
+    }
     return referenceCounts.getOrDefault(variableName, 0);
   }
 
@@ -102,6 +132,9 @@ public class IntervalAnalysisState
    * @return true, if this element contains an interval for the given variable
    */
   public boolean contains(String variableName) {
+    if (indexedIntervals != null) {
+      return indexedIntervals.contains(variableName);
+    }
     return intervals.containsKey(variableName);
   }
 
@@ -119,10 +152,14 @@ public class IntervalAnalysisState
       return removeInterval(variableName);
     }
     // only add the interval if it is not already present
-    if (!intervals.containsKey(variableName) || !intervals.get(variableName).equals(interval)) {
+    if (!contains(variableName) || !getInterval(variableName).equals(interval)) {
       int referenceCount = getReferenceCount(variableName);
 
       if (pThreshold == -1 || referenceCount < pThreshold) {
+        if (indexedIntervals != null) {
+          return new IntervalAnalysisState(
+              indexedIntervals.putAndCopy(variableName, interval, referenceCount + 1));
+        }
         return new IntervalAnalysisState(
             intervals.putAndCopy(variableName, interval),
             referenceCounts.putAndCopy(variableName, referenceCount + 1));
@@ -141,6 +178,10 @@ public class IntervalAnalysisState
    */
   // see ExplicitState::forget
   public IntervalAnalysisState removeInterval(String variableName) {
+    if (indexedIntervals != null) {
+      IndexedIntervals newIntervals = indexedIntervals.removeAndCopy(variableName);
+      return newIntervals == indexedIntervals ? this : new IntervalAnalysisState(newIntervals);
+    }
     if (intervals.containsKey(variableName)) {
       return new IntervalAnalysisState(intervals.removeAndCopy(variableName), referenceCounts);
     }
@@ -150,7 +191,7 @@ public class IntervalAnalysisState
 
   public IntervalAnalysisState dropFrame(String pCalledFunctionName) {
     IntervalAnalysisState tmp = this;
-    for (String variableName : intervals.keySet()) {
+    for (String variableName : getIntervalMap().keySet()) {
       if (variableName.startsWith(pCalledFunctionName+"::")) {
         tmp = tmp.removeInterval(variableName);
       }
@@ -166,6 +207,14 @@ public class IntervalAnalysisState
    */
   @Override
   public IntervalAnalysisState join(IntervalAnalysisState reachedState) {
+    if (indexedIntervals != null) {
+      checkArgument(reachedState.indexedIntervals != null, "cannot mix state representations");
+      IndexedIntervals joined = indexedIntervals.join(reachedState.indexedIntervals);
+      return joined == reachedState.indexedIntervals
+          ? reachedState
+          : new IntervalAnalysisState(joined);
+    }
+
     boolean changed = false;
     PersistentMap<String, Interval> newIntervals = PathCopyingPersistentTreeMap.of();
     PersistentMap<String, Integer> newReferences = referenceCounts;
@@ -214,6 +263,10 @@ public class IntervalAnalysisState
    */
   @Override
   public boolean isLessOrEqual(IntervalAnalysisState reachedState) {
+    if (indexedIntervals != null) {
+      checkArgument(reachedState.indexedIntervals != null, "cannot mix state representations");
+      return indexedIntervals.isLessOrEqual(reachedState.indexedIntervals);
+    }
     if (intervals.equals(reachedState.intervals)) { return true; }
     // this element is not less or equal than the reached state, if it contains less intervals
     if (intervals.size() < reachedState.intervals.size()) {
@@ -234,6 +287,9 @@ public class IntervalAnalysisState
 
   /** Returns the set of tracked variables by this state. */
   public Map<String, Interval> getIntervalMap() {
+    if (indexedIntervals != null) {
+      return indexedIntervals.asMap();
+    }
     return intervals;
   }
 
@@ -251,14 +307,14 @@ public class IntervalAnalysisState
     IntervalAnalysisState rebuildState = callState;
 
     // first forget all global information
-    for (final String trackedVar : callState.intervals.keySet()) {
+    for (final String trackedVar : callState.getIntervalMap().keySet()) {
       if (!trackedVar.contains("::")) { // global -> delete
         rebuildState = rebuildState.removeInterval(trackedVar);
       }
     }
 
     // second: learn new information
-    for (final String trackedVar : this.intervals.keySet()) {
+    for (final String trackedVar : getIntervalMap().keySet()) {
 
       if (!trackedVar.contains("::")) { // global -> override deleted value
         rebuildState = rebuildState.addInterval(trackedVar, this.getInterval(trackedVar), -1);
@@ -285,14 +341,18 @@ public class IntervalAnalysisState
 
     if (other instanceof IntervalAnalysisState) {
       IntervalAnalysisState otherElement = (IntervalAnalysisState) other;
-      return intervals.equals(otherElement.intervals);
+      if (indexedIntervals != null && otherElement.indexedIntervals != null) {
+        return indexedIntervals.equals(otherElement.indexedIntervals);
+      }
+      return getIntervalMap().equals(otherElement.getIntervalMap());
     }
     return false;
   }
 
   @Override
   public int hashCode() {
-    return intervals.hashCode();
+    // consistent with equals(), because IndexedIntervals has the same hash code as its map
+    return indexedIntervals != null ? indexedIntervals.hashCode() : intervals.hashCode();
   }
 
   @Override
@@ -300,12 +360,13 @@ public class IntervalAnalysisState
     StringBuilder sb = new StringBuilder();
     sb.append("[\n");
 
-    for (Map.Entry<String, Interval> entry: intervals.entrySet()) {
+    Map<String, Interval> intervalMap = getIntervalMap();
+    for (Map.Entry<String, Interval> entry: intervalMap.entrySet()) {
       sb.append(String.format("  < %s = %s :: %s >%n",
           entry.getKey(), entry.getValue(), getReferenceCount(entry.getKey())));
     }
 
-    return sb.append("] size -> ").append(intervals.size()).toString();
+    return sb.append("] size -> ").append(intervalMap.size()).toString();
   }
 
   @Override
@@ -359,7 +420,7 @@ public class IntervalAnalysisState
 
     sb.append("{");
     // create a string like: x =  [low; high] (refCount)
-    for (Entry<String, Interval> entry : intervals.entrySet()) {
+    for (Entry<String, Interval> entry : getIntervalMap().entrySet()) {
       sb.append(String.format("%s = %s (%s), ",
           entry.getKey(), entry.getValue(), getReferenceCount(entry.getKey())));
     }
@@ -377,7 +438,7 @@ public class IntervalAnalysisState
   public BooleanFormula getFormulaApproximation(FormulaManagerView pMgr) {
     IntegerFormulaManager nfmgr = pMgr.getIntegerFormulaManager();
     List<BooleanFormula> result = new ArrayList<>();
-    for (Entry<String, Interval> entry : intervals.entrySet()) {
+    for (Entry<String, Interval> entry : getIntervalMap().entrySet()) {
       Interval interval = entry.getValue();
       if (interval.isEmpty()) {
         // one invalid interval disqualifies the whole state
@@ -408,14 +469,15 @@ public class IntervalAnalysisState
     // -> if the distance is "greater", we are "greater" than the other state.
     // We negate the absolute distance to match the "lessEquals"-specifiction.
     // Be aware of overflows! -> we use BigInteger, and zero should be a sound value.
+    Map<String, Interval> intervalMap = getIntervalMap();
     BigInteger absDistance = BigInteger.ZERO;
-    for (Interval i : intervals.values()) {
+    for (Interval i : intervalMap.values()) {
       long high = i.getHigh() == null ? 0 : i.getHigh();
       long low = i.getLow() == null ? 0 : i.getLow();
       checkArgument(low <= high, "LOW greater than HIGH: %s", i);
       absDistance = absDistance.add(BigInteger.valueOf(high).subtract(BigInteger.valueOf(low)));
     }
-    return new IntervalPseudoPartitionKey(intervals.size(), absDistance.negate());
+    return new IntervalPseudoPartitionKey(intervalMap.size(), absDistance.negate());
   }
 
   @Override
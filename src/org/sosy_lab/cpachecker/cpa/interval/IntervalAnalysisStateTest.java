@@ -10,6 +10,8 @@ package org.sosy_lab.cpachecker.cpa.interval;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import java.util.Optional;
+import java.util.Random;
 import org.junit.Test;
 
 @SuppressWarnings({"unchecked", "rawtypes"})
@@ -55,6 +57,47 @@ public class IntervalAnalysisStateTest {
     checkLess(csa1b23, csa1b3);
   }
 
+  @Test
+  public void indexedStateBehavesLikeMapState() {
+    VariableIndex variableIndex = VariableIndex.fromVariableClassification(Optional.empty());
+    Random random = new Random(0);
+    IntervalAnalysisState[] mapStates = new IntervalAnalysisState[20];
+    IntervalAnalysisState[] indexedStates = new IntervalAnalysisState[mapStates.length];
+    for (int s = 0; s < mapStates.length; s++) {
+      IntervalAnalysisState mapState = new IntervalAnalysisState();
+      IntervalAnalysisState indexedState = IntervalAnalysisState.createIndexedState(variableIndex);
+      // more variables than fit into one chunk of the indexed representation
+      for (int v = 0; v < 100; v++) {
+        String variable = "main::v" + random.nextInt(80);
+        if (random.nextInt(8) == 0) {
+          mapState = mapState.removeInterval(variable);
+          indexedState = indexedState.removeInterval(variable);
+        } else {
+          long low = random.nextInt(10);
+          Interval interval = new Interval(low, low + random.nextInt(3));
+          mapState = mapState.addInterval(variable, interval, 4);
+          indexedState = indexedState.addInterval(variable, interval, 4);
+        }
+      }
+      assertThat(indexedState.getIntervalMap()).isEqualTo(mapState.getIntervalMap());
+      assertThat(indexedState.hashCode()).isEqualTo(mapState.hashCode());
+      mapStates[s] = mapState;
+      indexedStates[s] = indexedState;
+    }
+
+    for (int i = 0; i < mapStates.length; i++) {
+      for (int j = 0; j < mapStates.length; j++) {
+        IntervalAnalysisState mapJoin = mapStates[i].join(mapStates[j]);
+        IntervalAnalysisState indexedJoin = indexedStates[i].join(indexedStates[j]);
+        assertThat(indexedJoin.getIntervalMap()).isEqualTo(mapJoin.getIntervalMap());
+        assertThat(indexedStates[i].isLessOrEqual(indexedStates[j]))
+            .isEqualTo(mapStates[i].isLessOrEqual(mapStates[j]));
+        assertThat(indexedStates[i].isLessOrEqual(indexedJoin)).isTrue();
+        assertThat(indexedStates[j].isLessOrEqual(indexedJoin)).isTrue();
+      }
+    }
+  }
+
   private void checkLess(Comparable c1, Comparable c2) {
     assertThat(c1.compareTo(c2) < 0).isTrue();
     assertThat(c2.compareTo(c1) > 0).isTrue();
@@ -0,0 +1,90 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.interval;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import org.sosy_lab.cpachecker.util.variableclassification.Partition;
+import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
+
+/**
+ * Assignment of dense indices to the qualified names of program variables, which is shared by all
+ * abstract states of an analysis and allows to store per-variable information in arrays.
+ *
+ * <p>The index is filled with all variables known to the {@link VariableClassification} when the
+ * CPA is created, variables that are encountered later (e.g., temporary variables of the CFA that
+ * the classification does not know) get the next free index. This class is thread-safe.
+ */
+final class VariableIndex implements Serializable {
+
+  private static final long serialVersionUID = 7823451026537862901L;
+
+  private final Map<String, Integer> indices = new ConcurrentHashMap<>();
+
+  // Entries of names are written only while holding the lock of this object and before the index
+  // is published in indices, so every reader that got an index from indices can read its name.
+  private volatile String[] names = new String[16];
+  private int count = 0;
+
+  private VariableIndex(Iterable<String> pVariables) {
+    for (String variable : pVariables) {
+      addVariable(variable);
+    }
+  }
+
+  /** Create an index for all variables of the given classification (if present). */
+  static VariableIndex fromVariableClassification(
+      Optional<VariableClassification> pVariableClassification) {
+    // sorted, such that variables of the same function get consecutive indices
+    TreeSet<String> variables = new TreeSet<>();
+    if (pVariableClassification.isPresent()) {
+      for (Partition partition : pVariableClassification.orElseThrow().getPartitions()) {
+        variables.addAll(partition.getVars());
+      }
+    }
+    return new VariableIndex(variables);
+  }
+
+  /** Return the index of a variable, and assign a new index if it is not yet known. */
+  int getOrCreateIndex(String pVariable) {
+    Integer index = indices.get(pVariable);
+    if (index != null) {
+      return index;
+    }
+    return addVariable(pVariable);
+  }
+
+  /** Return the index of a variable, or -1 if it is not known. */
+  int getIndex(String pVariable) {
+    Integer index = indices.get(pVariable);
+    return index == null ? -1 : index;
+  }
+
+  String getName(int pIndex) {
+    return names[pIndex];
+  }
+
+  private synchronized int addVariable(String pVariable) {
+    Integer index = indices.get(pVariable);
+    if (index != null) {
+      return index;
+    }
+    if (count == names.length) {
+      names = Arrays.copyOf(names, count * 2);
+    }
+    int newIndex = count++;
+    names[newIndex] = pVariable;
+    indices.put(pVariable, newIndex);
+    return newIndex;
+  }
+}
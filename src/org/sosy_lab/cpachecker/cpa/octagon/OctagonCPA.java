@@ -31,6 +31,7 @@ import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.octagon.OctagonFloatManager;
 import org.sosy_lab.cpachecker.util.octagon.OctagonIntManager;
+import org.sosy_lab.cpachecker.util.octagon.OctagonJavaManager;
 import org.sosy_lab.cpachecker.util.octagon.OctagonManager;
 
 @Options(prefix="cpa.octagon")
@@ -40,9 +41,11 @@ public final class OctagonCPA implements ConfigurableProgramAnalysis {
     return AutomaticCPAFactory.forType(OctagonCPA.class);
   }
 
-  @Option(secure=true, name="octagonLibrary", toUppercase=true, values={"INT", "FLOAT"},
+  @Option(secure=true, name="octagonLibrary", toUppercase=true,
+      values={"INT", "FLOAT", "JAVA_INT", "JAVA_FLOAT"},
       description="with this option the number representation in the"
-          + " library will be changed between floats and ints.")
+          + " library will be changed between floats and ints."
+          + " The JAVA variants use an implementation in Java instead of the native library.")
   private String octagonLibrary = "INT";
 
   @Option(secure=true, name="initialPrecisionType", toUppercase=true, values={"STATIC_FULL", "REFINEABLE_EMPTY"},
@@ -70,10 +73,18 @@ public final class OctagonCPA implements ConfigurableProgramAnalysis {
     logger = log;
     OctagonDomain octagonDomain = new OctagonDomain(logger);
 
-    if (octagonLibrary.equals("FLOAT")) {
-      octagonManager = new OctagonFloatManager();
-    } else {
-      octagonManager = new OctagonIntManager();
+    switch (octagonLibrary) {
+      case "FLOAT":
+        octagonManager = new OctagonFloatManager();
+        break;
+      case "JAVA_INT":
+        octagonManager = new OctagonJavaManager(true);
+        break;
+      case "JAVA_FLOAT":
+        octagonManager = new OctagonJavaManager(false);
+        break;
+      default:
+        octagonManager = new OctagonIntManager();
     }
 
     this.transferRelation =
@@ -10,14 +10,18 @@ package org.sosy_lab.cpachecker.cpa.predicate;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Predicates.equalTo;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.Charset;
@@ -48,6 +52,7 @@ import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier.TrivialInvariantSupplier;
 import org.sosy_lab.cpachecker.cpa.callstack.CallstackStateEqualsWrapper;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.PersistentAbstractionCache;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage.AbstractionNode;
 import org.sosy_lab.cpachecker.util.Pair;
@@ -114,6 +119,12 @@ public class PredicateAbstractionManager {
   // 1: predicate is true
   private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
 
+  // cache for abstraction results that is shared across runs, may be null
+  private final @Nullable PersistentAbstractionCache persistentCache;
+
+  // SMT-LIB2 representation of the instantiated predicates for the keys of the persistent cache
+  private final Map<BooleanFormula, String> dumpedPredicates = new HashMap<>();
+
   // Statistics
   private final TimerWrapper trivialPredicatesTimer;
   private final TimerWrapper quantifierEliminationTimer;
@@ -132,6 +143,7 @@ public class PredicateAbstractionManager {
       PredicateAbstractionManagerOptions pOptions,
       WeakeningOptions weakeningOptions,
       PredicateAbstractionsStorage pAbstractionStorage,
+      @Nullable PersistentAbstractionCache pPersistentCache,
       LogManager pLogger,
       ShutdownNotifier pShutdownNotifier,
       PredicateAbstractionStatistics pAbstractionStats,
@@ -177,6 +189,7 @@ public class PredicateAbstractionManager {
     }
 
     abstractionStorage = pAbstractionStorage;
+    persistentCache = options.isUseCache() ? pPersistentCache : null;
 
     trivialPredicatesTimer = stats.trivialPredicatesTime.getNewTimer();
     quantifierEliminationTimer = stats.quantifierEliminationTime.getNewTimer();
@@ -348,6 +361,34 @@ public class PredicateAbstractionManager {
       }
     }
 
+    // Invariants are not part of the key, so results with invariants must not be persisted.
+    HashCode persistentKey = null;
+    if (persistentCache != null
+        && invariantSupplier == TrivialInvariantSupplier.INSTANCE
+        && (persistentCache.getNumberOfLoadedEntries() > 0 || persistentCache.isWritable())) {
+      persistentKey = getPersistentCacheKey(f, absKey.getSecond());
+      // results of the current run are also in the abstraction cache,
+      // so a lookup is only useful if there are results of previous runs
+      String cachedResult = null;
+      if (persistentCache.getNumberOfLoadedEntries() > 0) {
+        cachedResult = persistentCache.get(persistentKey);
+      }
+
+      if (cachedResult != null) {
+        Region abs = amgr.convertFormulaToRegion(fmgr.parse(cachedResult));
+        AbstractionFormula result = makeAbstractionFormula(abs, ssa, pathFormula);
+        abstractionCache.put(absKey, result);
+        if (result.isFalse()) {
+          unsatisfiabilityCache.add(f);
+        }
+        logger.log(Level.FINEST, "Abstraction", currentAbstractionId, "was cached persistently");
+        logger.log(Level.ALL, "Abstraction result is", result.asFormula());
+        stats.numCallsAbstractionCached.incrementAndGet();
+        stats.numCallsAbstractionPersistentlyCached.incrementAndGet();
+        return result;
+      }
+    }
+
 
     // Compute result for those predicates
     // where we can trivially identify their truthness in the result
@@ -400,6 +441,9 @@ public class PredicateAbstractionManager {
         unsatisfiabilityCache.add(f);
       }
     }
+    if (persistentKey != null) {
+      persistentCache.put(persistentKey, fmgr.dumpFormula(result.asFormula()).toString());
+    }
 
     long abstractionTime =
         TimeSpan.sum(
@@ -466,6 +510,41 @@ public class PredicateAbstractionManager {
     return symbolicAbs;
   }
 
+  /**
+   * Compute the key for the persistent cache. It is a hash over the SMT-LIB2 representation of the
+   * (instantiated) formula and predicates, which does not depend on the current solver instance.
+   * The predicates are sorted such that the key is independent of their order.
+   *
+   * <p>Note that this representation is not canonical: it contains the SSA indices of the
+   * variables, and it depends on how the solver names and prints terms. Thus equivalent queries
+   * with different SSA indices (e.g., after a change of the program before the current location)
+   * or from a different solver (version) get different keys and are cache misses.
+   */
+  private HashCode getPersistentCacheKey(
+      BooleanFormula pF, Collection<BooleanFormula> pInstantiatedPredicates) {
+    Hasher hasher = PersistentAbstractionCache.getHashFunction().newHasher();
+    hasher.putString(options.getAbstractionType().name(), UTF_8);
+    putDelimitedString(hasher, fmgr.dumpFormula(pF).toString());
+    ImmutableList<String> predicates =
+        pInstantiatedPredicates.stream()
+            .map(this::dumpPredicate)
+            .sorted()
+            .collect(ImmutableList.toImmutableList());
+    for (String predicate : predicates) {
+      putDelimitedString(hasher, predicate);
+    }
+    return hasher.hash();
+  }
+
+  /** Predicates are part of many keys, so their representation is computed only once. */
+  private String dumpPredicate(BooleanFormula pPredicate) {
+    return dumpedPredicates.computeIfAbsent(pPredicate, p -> fmgr.dumpFormula(p).toString());
+  }
+
+  private static void putDelimitedString(Hasher pHasher, String pString) {
+    pHasher.putInt(pString.length()).putString(pString, UTF_8);
+  }
+
   private BooleanFormula getFormulaFromPathFormula(PathFormula pathFormula) {
     BooleanFormula symbFormula = pathFormula.getFormula();
 
@@ -9,6 +9,7 @@
 package org.sosy_lab.cpachecker.cpa.predicate;
 
 import java.nio.file.Path;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -53,6 +54,19 @@ public class PredicateAbstractionManagerOptions {
   @Option(secure = true, name = "abs.useCache", description = "use caching of abstractions")
   private boolean useCache = true;
 
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  @Option(
+      name = "abs.persistentCacheFile",
+      description =
+          "File in which the results of abstraction computations are stored persistently, such"
+              + " that later runs (e.g., on a slightly modified program) can reuse them instead of"
+              + " querying the solver. The file is read at startup and updated during the"
+              + " analysis. If another analysis uses the file at the same time, it is only read."
+              + " Results are only reused for queries with exactly the same SMT-LIB2"
+              + " representation, which includes SSA indices and depends on the solver."
+              + " Only used if abs.useCache is enabled.")
+  private @Nullable Path persistentCacheFile = null;
+
   @Option(
       secure = true,
       name = "refinement.splitItpAtoms",
@@ -110,6 +124,10 @@ public class PredicateAbstractionManagerOptions {
     return useCache;
   }
 
+  public @Nullable Path getPersistentCacheFile() {
+    return useCache ? persistentCacheFile : null;
+  }
+
   boolean isSplitItpAtoms() {
     return splitItpAtoms;
   }
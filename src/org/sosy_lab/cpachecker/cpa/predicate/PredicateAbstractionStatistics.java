@@ -26,6 +26,9 @@ public class PredicateAbstractionStatistics {
   // result was cached, no computation
   final AtomicInteger numCallsAbstractionCached = new AtomicInteger(0);
 
+  // result was found in the persistent cache (included in numCallsAbstractionCached)
+  final AtomicInteger numCallsAbstractionPersistentlyCached = new AtomicInteger(0);
+
   // loop was cached, no new computation
   final AtomicInteger numInductivePathFormulaCacheUsed = new AtomicInteger(0);
 
@@ -13,6 +13,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.configuration.Configuration;
@@ -41,6 +42,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
 import org.sosy_lab.cpachecker.core.specification.Specification;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.PersistentAbstractionCache;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
@@ -121,6 +123,7 @@ public class PredicateCPA
   private final PredicateCPAStatistics stats;
   private final PredicatePrecisionBootstrapper precisionBootstraper;
   private final CFA cfa;
+  private final RegionManager regionManager;
   private final AbstractionManager abstractionManager;
   private final PredicateCPAInvariantsManager invariantsManager;
   private final BlockOperator blk;
@@ -131,6 +134,7 @@ public class PredicateCPA
   private final PredicateAbstractionManagerOptions abstractionOptions;
   private final WeakeningOptions weakeningOptions;
   private final PredicateAbstractionsStorage abstractionStorage;
+  private final @Nullable PersistentAbstractionCache persistentAbstractionCache;
   private final PredicateAbstractionStatistics abstractionStats =
       new PredicateAbstractionStatistics();
 
@@ -167,11 +171,10 @@ public class PredicateCPA
 
     PathFormulaManager pfMgr = new PathFormulaManagerImpl(formulaManager, config, logger, shutdownNotifier, cfa, direction);
     if (useCache) {
-      pfMgr = new CachingPathFormulaManager(pfMgr);
+      pfMgr = new CachingPathFormulaManager(pfMgr, config);
     }
     pathFormulaManager = pfMgr;
 
-    RegionManager regionManager;
     if (abstractionType.equals("FORMULA") || blk.alwaysReturnsFalse()) {
       // No need to load BDD library if we never abstract (might use lots of memory)
       regionManager = new SymbolicRegionManager(solver);
@@ -195,6 +198,10 @@ public class PredicateCPA
             logger,
             solver.getFormulaManager(),
             null);
+    persistentAbstractionCache =
+        abstractionOptions.getPersistentCacheFile() != null
+            ? new PersistentAbstractionCache(abstractionOptions.getPersistentCacheFile(), logger)
+            : null;
     weakeningOptions = new WeakeningOptions(config);
 
     statistics = new PredicateStatistics();
@@ -282,6 +289,7 @@ public class PredicateCPA
         abstractionOptions,
         weakeningOptions,
         abstractionStorage,
+        persistentAbstractionCache,
         logger,
         shutdownNotifier,
         abstractionStats,
@@ -345,6 +353,10 @@ public class PredicateCPA
 
   @Override
   public void close() {
+    if (persistentAbstractionCache != null) {
+      persistentAbstractionCache.close();
+    }
+    regionManager.release();
     solver.close();
   }
 
@@ -54,6 +54,8 @@ public class PredicateCPARefinerFactory {
   private final PredicateCPA predicateCpa;
 
   private @Nullable BlockFormulaStrategy blockFormulaStrategy = null;
+  private @Nullable Solver solver = null;
+  private @Nullable PathFormulaManager pfmgr = null;
 
   /**
    * Create a factory instance.
@@ -98,6 +100,22 @@ public class PredicateCPARefinerFactory {
     return this;
   }
 
+  /**
+   * Let the refiners created by this factory instance check counterexamples with the given {@link
+   * Solver} and {@link PathFormulaManager} instead of the ones of the PredicateCPA. The block
+   * formulas need to be created with the given {@link PathFormulaManager}, and the refinement
+   * strategy gets interpolants of the given solver. May be called only once, but does not need to
+   * be called.
+   *
+   * @return this
+   */
+  public PredicateCPARefinerFactory setSolver(Solver pSolver, PathFormulaManager pPfmgr) {
+    checkState(solver == null);
+    solver = checkNotNull(pSolver);
+    pfmgr = checkNotNull(pPfmgr);
+    return this;
+  }
+
   /**
    * Create a {@link PredicateCPARefiner}.
    * This factory can be reused afterwards.
@@ -111,8 +129,9 @@ public class PredicateCPARefinerFactory {
     Configuration config = predicateCpa.getConfiguration();
     LogManager logger = predicateCpa.getLogger();
     ShutdownNotifier shutdownNotifier = predicateCpa.getShutdownNotifier();
-    Solver solver = predicateCpa.getSolver();
-    PathFormulaManager pfmgr = predicateCpa.getPathFormulaManager();
+    Solver solver = this.solver == null ? predicateCpa.getSolver() : this.solver;
+    PathFormulaManager pfmgr =
+        this.pfmgr == null ? predicateCpa.getPathFormulaManager() : this.pfmgr;
 
     CFA cfa = predicateCpa.getCfa();
     MachineModel machineModel = cfa.getMachineModel();
@@ -168,6 +187,12 @@ public class PredicateCPARefinerFactory {
             pRefinementStrategy);
 
     if (performInitialStaticRefinement) {
+      if (this.solver != null) {
+        // the static refiner creates predicates with the solver of the PredicateCPA
+        throw new InvalidConfigurationException(
+            "Static refinement is not supported with a separate solver for refinement, "
+                + "please turn cpa.predicate.refinement.performInitialStaticRefinement off.");
+      }
       refiner =
           new PredicateStaticRefiner(
               config,
@@ -0,0 +1,261 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.predicate.persistence;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.log.LogManager;
+
+/**
+ * Cache for results of predicate abstraction that is stored in a file and can thus be reused
+ * across several runs of CPAchecker, e.g., for verifying slightly modified versions of the same
+ * program.
+ *
+ * <p>The keys are hashes of a representation of the abstraction query (cf. {@link
+ * #getHashFunction()}), the values are the uninstantiated abstraction results in SMT-LIB2 format.
+ * The representation is computed by the user of the cache and need not be canonical, so
+ * equivalent queries might get different keys, which only leads to cache misses.
+ * The file is read as a memory-mapped file when the cache is created, and every new entry is
+ * appended immediately, such that the results are not lost even if the analysis is killed. A
+ * truncated last entry (e.g., from a killed process) is removed when the file is loaded.
+ *
+ * <p>The file is kept open and exclusively locked until {@link #close()} is called. If the file
+ * is already locked by another instance (e.g., a concurrently running CPAchecker process), its
+ * entries are read but new results are not stored. Instances in the same JVM do not open the file
+ * again but copy the entries of the instance that holds the lock, because on some systems closing
+ * any channel for a file releases all locks of the process on it.
+ *
+ * <p>File format: a header consisting of {@link #MAGIC} and {@link #VERSION}, followed by a
+ * sequence of entries, each consisting of the key bytes, the length of the value, and the value
+ * bytes in UTF-8.
+ */
+public final class PersistentAbstractionCache implements AutoCloseable {
+
+  private static final int MAGIC = 0x43504143; // "CPAC"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+  private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+  private static final int KEY_SIZE = HASH_FUNCTION.bits() / Byte.SIZE;
+
+  private final Path file;
+  private final LogManager logger;
+
+  /** The writable instances of this JVM, by their normalized absolute path. */
+  @GuardedBy("openCaches")
+  private static final Map<Path, PersistentAbstractionCache> openCaches = new HashMap<>();
+
+  private final Map<HashCode, String> entries = new ConcurrentHashMap<>();
+
+  /** Channel for appending new entries, null if the cache is not writable (anymore). */
+  private @Nullable FileChannel channel = null;
+
+  private final int loadedEntries;
+  private int storedEntries = 0;
+
+  public PersistentAbstractionCache(Path pFile, LogManager pLogger) {
+    file = pFile.toAbsolutePath().normalize();
+    logger = checkNotNull(pLogger);
+
+    synchronized (openCaches) {
+      PersistentAbstractionCache owner = openCaches.get(file);
+      if (owner != null) {
+        logInUse();
+        entries.putAll(owner.entries);
+      } else {
+        try {
+          openForWriting();
+        } catch (IOException e) {
+          logger.logUserException(
+              Level.WARNING, e, "Could not open persistent abstraction cache, ignoring it");
+          entries.clear();
+          closeChannel();
+        }
+      }
+    }
+    loadedEntries = entries.size();
+  }
+
+  /** The hash function that should be used to compute the keys for this cache. */
+  public static HashFunction getHashFunction() {
+    return HASH_FUNCTION;
+  }
+
+  @GuardedBy("openCaches")
+  private void openForWriting() throws IOException {
+    channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      lock = null; // locked by other code in this JVM
+    }
+
+    if (lock == null) {
+      logInUse();
+      try {
+        load(channel);
+      } finally {
+        closeChannel();
+      }
+      return;
+    }
+
+    long validLength = load(channel);
+    if (validLength < channel.size()) {
+      channel.truncate(validLength);
+    }
+    if (validLength == 0) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC).putInt(VERSION);
+      header.flip();
+      writeFully(channel, header);
+    }
+    channel.position(channel.size());
+    openCaches.put(file, this);
+  }
+
+  private void logInUse() {
+    logger.log(
+        Level.INFO,
+        "Persistent abstraction cache",
+        file,
+        "is in use by another analysis, new abstractions will not be stored.");
+  }
+
+  /**
+   * Read all complete entries from the file.
+   *
+   * @return the length of the valid prefix of the file, or 0 if the file has no valid header.
+   */
+  private long load(FileChannel pChannel) throws IOException {
+    long size = pChannel.size();
+    if (size < HEADER_SIZE) {
+      return 0;
+    }
+    MappedByteBuffer buffer = pChannel.map(MapMode.READ_ONLY, 0, size);
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      logger.log(
+          Level.WARNING,
+          "File",
+          file,
+          "is not a persistent abstraction cache of a compatible version, it will be replaced.");
+      return 0;
+    }
+    long validLength = HEADER_SIZE;
+
+    byte[] key = new byte[KEY_SIZE];
+    while (buffer.remaining() >= KEY_SIZE + Integer.BYTES) {
+      buffer.get(key);
+      int valueLength = buffer.getInt();
+      if (valueLength < 0 || valueLength > buffer.remaining()) {
+        break; // truncated entry
+      }
+      byte[] value = new byte[valueLength];
+      buffer.get(value);
+      entries.put(HashCode.fromBytes(key), new String(value, UTF_8));
+      validLength = buffer.position();
+    }
+    if (validLength < size) {
+      logger.log(
+          Level.INFO, "Ignoring incomplete last entry of persistent abstraction cache", file);
+    }
+    return validLength;
+  }
+
+  private static void writeFully(FileChannel pChannel, ByteBuffer pBuffer) throws IOException {
+    while (pBuffer.hasRemaining()) {
+      pChannel.write(pBuffer);
+    }
+  }
+
+  /** Return the cached result for a key, or null if it is not known. */
+  public @Nullable String get(HashCode pKey) {
+    return entries.get(checkNotNull(pKey));
+  }
+
+  /** Add a result to the cache and append it to the file. */
+  public synchronized void put(HashCode pKey, String pValue) {
+    checkNotNull(pKey);
+    checkNotNull(pValue);
+    if (entries.putIfAbsent(pKey, pValue) != null || channel == null) {
+      return;
+    }
+
+    byte[] value = pValue.getBytes(UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocate(KEY_SIZE + Integer.BYTES + value.length);
+    buffer.put(pKey.asBytes()).putInt(value.length).put(value);
+    buffer.flip();
+
+    try {
+      writeFully(channel, buffer);
+      storedEntries++;
+    } catch (IOException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Could not write persistent abstraction cache, disabling it");
+      closeChannel();
+    }
+  }
+
+  /** Number of entries that were read from the file. */
+  public int getNumberOfLoadedEntries() {
+    return loadedEntries;
+  }
+
+  /** Number of entries that were added to the file by this instance. */
+  public synchronized int getNumberOfStoredEntries() {
+    return storedEntries;
+  }
+
+  /** Whether new results are stored in the file. */
+  public synchronized boolean isWritable() {
+    return channel != null;
+  }
+
+  /** Close the file and release its lock. Later results are not stored anymore. */
+  @Override
+  public synchronized void close() {
+    closeChannel();
+  }
+
+  private void closeChannel() {
+    if (channel != null) {
+      synchronized (openCaches) {
+        openCaches.remove(file, this);
+      }
+      try {
+        channel.close();
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not close persistent abstraction cache");
+      }
+      channel = null;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.predicate.persistence;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.HashCode;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.log.LogManager;
+
+public class PersistentAbstractionCacheTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final LogManager logger = LogManager.createTestLogManager();
+
+  private Path file;
+
+  private static HashCode key(String pQuery) {
+    return PersistentAbstractionCache.getHashFunction().hashString(pQuery, UTF_8);
+  }
+
+  @Before
+  public void setUp() {
+    file = tempFolder.getRoot().toPath().resolve("abstractions.cache");
+  }
+
+  @Test
+  public void testRoundTrip() {
+    try (PersistentAbstractionCache cache = new PersistentAbstractionCache(file, logger)) {
+      assertThat(cache.getNumberOfLoadedEntries()).isEqualTo(0);
+      assertThat(cache.isWritable()).isTrue();
+      cache.put(key("a"), "(assert true)");
+      cache.put(key("b"), "(assert false)");
+      cache.put(key("a"), "(assert true)");
+      assertThat(cache.getNumberOfStoredEntries()).isEqualTo(2);
+    }
+
+    try (PersistentAbstractionCache reloaded = new PersistentAbstractionCache(file, logger)) {
+      assertThat(reloaded.getNumberOfLoadedEntries()).isEqualTo(2);
+      assertThat(reloaded.get(key("a"))).isEqualTo("(assert true)");
+      assertThat(reloaded.get(key("b"))).isEqualTo("(assert false)");
+      assertThat(reloaded.get(key("c"))).isNull();
+    }
+  }
+
+  @Test
+  public void testTruncatedEntryIsRemoved() throws IOException {
+    try (PersistentAbstractionCache cache = new PersistentAbstractionCache(file, logger)) {
+      cache.put(key("a"), "(assert true)");
+      cache.put(key("b"), "(assert false)");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+
+    try (PersistentAbstractionCache reloaded = new PersistentAbstractionCache(file, logger)) {
+      assertThat(reloaded.getNumberOfLoadedEntries()).isEqualTo(1);
+      reloaded.put(key("c"), "(assert (= x 1))");
+      reloaded.put(key("d"), "(assert (= x 2))");
+    }
+
+    try (PersistentAbstractionCache third = new PersistentAbstractionCache(file, logger)) {
+      assertThat(third.getNumberOfLoadedEntries()).isEqualTo(3);
+      assertThat(third.get(key("a"))).isEqualTo("(assert true)");
+      assertThat(third.get(key("c"))).isEqualTo("(assert (= x 1))");
+      assertThat(third.get(key("d"))).isEqualTo("(assert (= x 2))");
+    }
+  }
+
+  @Test
+  public void testIncompatibleFileIsReplaced() throws IOException {
+    Files.write(file, "some other content".getBytes(UTF_8));
+
+    try (PersistentAbstractionCache cache = new PersistentAbstractionCache(file, logger)) {
+      assertThat(cache.getNumberOfLoadedEntries()).isEqualTo(0);
+      cache.put(key("a"), "(assert true)");
+    }
+
+    try (PersistentAbstractionCache reloaded = new PersistentAbstractionCache(file, logger)) {
+      assertThat(reloaded.getNumberOfLoadedEntries()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void testLockedFileIsOnlyRead() {
+    try (PersistentAbstractionCache cache = new PersistentAbstractionCache(file, logger)) {
+      cache.put(key("a"), "(assert true)");
+
+      try (PersistentAbstractionCache second = new PersistentAbstractionCache(file, logger)) {
+        assertThat(second.isWritable()).isFalse();
+        assertThat(second.get(key("a"))).isEqualTo("(assert true)");
+        second.put(key("b"), "(assert false)");
+        assertThat(second.get(key("b"))).isEqualTo("(assert false)");
+        assertThat(second.getNumberOfStoredEntries()).isEqualTo(0);
+      }
+
+      // the first instance can still write after the second one was closed
+      cache.put(key("c"), "(assert (= x 1))");
+      assertThat(cache.getNumberOfStoredEntries()).isEqualTo(2);
+    }
+
+    try (PersistentAbstractionCache reloaded = new PersistentAbstractionCache(file, logger)) {
+      assertThat(reloaded.isWritable()).isTrue();
+      assertThat(reloaded.getNumberOfLoadedEntries()).isEqualTo(2);
+      assertThat(reloaded.get(key("b"))).isNull();
+    }
+  }
+}
@@ -9,11 +9,10 @@
 package org.sosy_lab.cpachecker.cpa.smg2;
 
 import com.google.common.collect.FluentIterable;
-import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
@@ -23,7 +22,6 @@ import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cpa.smg.util.PersistentBiMap;
 import org.sosy_lab.cpachecker.cpa.smg.util.PersistentSet;
 import org.sosy_lab.cpachecker.cpa.smg.util.PersistentStack;
-import org.sosy_lab.cpachecker.cpa.smg2.util.SMGObjectsAndValues;
 import org.sosy_lab.cpachecker.cpa.smg2.util.value.CValue;
 import org.sosy_lab.cpachecker.util.smg.SMG;
 import org.sosy_lab.cpachecker.util.smg.SMGProveNequality;
@@ -227,20 +225,17 @@ public class SymbolicProgramConfiguration {
 
   public SymbolicProgramConfiguration
       copyAndPruneUnreachable(Collection<SMGObject> pUnreachableObjects) {
-    Collection<SMGObject> visibleObjects =
+    Set<SMGObject> visibleObjects =
         FluentIterable
             .concat(
                 getGolbalVariableToSmgObjectMap().values(),
                 FluentIterable.from(stackVariableMapping)
                     .transformAndConcat(stackFrame -> stackFrame.getAllObjects()))
             .toSet();
-    SMGObjectsAndValues reachable = smg.collectReachableObjectsAndValues(visibleObjects);
-    Set<SMGObject> unreachableObjects =
-        new HashSet<>(Sets.difference(smg.getObjects(), reachable.getObjects()));
-    Set<SMGValue> unreachableValues =
-        new HashSet<>(Sets.difference(smg.getValues(), reachable.getValues()));
-    SMG newSmg =
-        smg.copyAndRemoveObjects(unreachableObjects).copyAndRemoveValues(unreachableValues);
+    // the SMG keeps track of the objects that may have become unreachable since the last pruning,
+    // so this only inspects the part of the heap that changed
+    Collection<SMGObject> unreachableObjects = new ArrayList<>();
+    SMG newSmg = smg.copyAndPruneUnreachable(visibleObjects, unreachableObjects);
     // copy into return collection
     pUnreachableObjects.addAll(unreachableObjects);
     PersistentSet<SMGObject> newHeapObjects = heapObjects;
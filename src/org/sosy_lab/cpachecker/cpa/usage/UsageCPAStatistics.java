@@ -26,6 +26,8 @@ import org.sosy_lab.cpachecker.cpa.bam.BAMMultipleCEXSubgraphComputer;
 import org.sosy_lab.cpachecker.cpa.lock.LockTransferRelation;
 import org.sosy_lab.cpachecker.util.statistics.StatTimer;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
 @Options(prefix = "cpa.usage")
 public class UsageCPAStatistics implements Statistics {
@@ -70,6 +72,10 @@ public class UsageCPAStatistics implements Statistics {
   final StatTimer extractStatesTimer = new StatTimer("Time for state extraction");
   private final StatTimer printStatisticsTimer = new StatTimer("Time for printing statistics");
   private final StatTimer printUnsafesTimer = new StatTimer("Time for unsafes printing");
+  // identifiers may be refined by several threads in parallel
+  @SuppressWarnings("deprecation")
+  private final ThreadSafeTimerContainer identifierRefinementTimer =
+      new ThreadSafeTimerContainer("Time for refinement of single identifiers");
   // public final StatCounter numberOfStatesCounter = new StatCounter("Number of states");
 
   public UsageCPAStatistics(
@@ -91,7 +97,11 @@ public class UsageCPAStatistics implements Statistics {
     writer.put(transferRelationTimer)
           .put(usagePreparationTimer)
           .put(innerAnalysisTimer)
-        .put(extractStatesTimer);
+        .put(extractStatesTimer)
+        .putIf(
+            identifierRefinementTimer.getNumberOfIntervals() > 0,
+            identifierRefinementTimer.getTitle(),
+            identifierRefinementTimer.prettyFormat());
 
     if (printUnsafesInCaseOfUnknown || result != Result.UNKNOWN) {
       printUnsafesTimer.start();
@@ -125,6 +135,14 @@ public class UsageCPAStatistics implements Statistics {
     writer.put(printStatisticsTimer);
   }
 
+  /**
+   * Returns a timer for measuring the refinement of single identifiers. The timer must be used only
+   * by the current thread.
+   */
+  public TimerWrapper getNewIdentifierRefinementTimer() {
+    return identifierRefinementTimer.getNewTimer();
+  }
+
   public void setBAMCPA(BAMCPA pBamCpa) {
     computer = pBamCpa.createBAMMultipleSubgraphComputer(ARGState::getStateId);
   }
@@ -11,15 +11,29 @@ package org.sosy_lab.cpachecker.cpa.usage.refinement;
 import static com.google.common.collect.FluentIterable.from;
 
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
@@ -34,6 +48,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.Refiner;
 import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.WrapperCPA;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
@@ -43,6 +58,7 @@ import org.sosy_lab.cpachecker.cpa.predicate.BAMPredicateCPA;
 import org.sosy_lab.cpachecker.cpa.predicate.BAMPredicateRefiner;
 import org.sosy_lab.cpachecker.cpa.predicate.PredicatePrecision;
 import org.sosy_lab.cpachecker.cpa.usage.UsageCPA;
+import org.sosy_lab.cpachecker.cpa.usage.UsageCPAStatistics;
 import org.sosy_lab.cpachecker.cpa.usage.UsageReachedSet;
 import org.sosy_lab.cpachecker.cpa.usage.storage.UsageContainer;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
@@ -50,7 +66,9 @@ import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.Precisions;
 import org.sosy_lab.cpachecker.util.identifiers.SingleIdentifier;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
 
 @Options(prefix="cpa.usage")
@@ -58,10 +76,31 @@ public class IdentifierIterator extends WrappedConfigurableRefinementBlock<Reach
 
   private class Stats implements Statistics {
 
+    // the statistics of the blocks of each thread, if there are several threads
+    private final ImmutableList<Collection<Statistics>> workerStatistics;
+
+    private Stats(ImmutableList<Collection<Statistics>> pWorkerStatistics) {
+      workerStatistics = pWorkerStatistics;
+    }
+
     @Override
     public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
-      StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(pOut);
-      IdentifierIterator.this.printStatistics(writer);
+      if (workerStatistics.isEmpty()) {
+        StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(pOut);
+        IdentifierIterator.this.printStatistics(writer);
+        return;
+      }
+      // every thread has its own blocks, so each thread gets its own section
+      for (int thread = 0; thread < workers.size(); thread++) {
+        pOut.println();
+        String title = "Statistics for refinement thread " + (thread + 1);
+        pOut.println(title);
+        pOut.println("=".repeat(title.length()));
+        workers.get(thread).printStatistics(StatisticsWriter.writingStatisticsTo(pOut));
+        for (Statistics s : workerStatistics.get(thread)) {
+          StatisticsUtils.printStatistics(s, pOut, logger, pResult, pReached);
+        }
+      }
     }
 
     @Override
@@ -93,6 +132,12 @@ public class IdentifierIterator extends WrappedConfigurableRefinementBlock<Reach
   private boolean hideFilteredUnsafes = false;
 
   private final BAMTransferRelation transfer;
+  private final UsageCPAStatistics usageStats;
+
+  // Independent copies of the rest of the refinement chain, one for each thread
+  private final ImmutableList<ConfigurableRefinementBlock<SingleIdentifier>> workers;
+  // created on demand, and shut down at the end of each refinement iteration
+  private @Nullable ExecutorService executor = null;
 
   int i = 0;
   int lastFalseUnsafeSize = -1;
@@ -102,13 +147,28 @@ public class IdentifierIterator extends WrappedConfigurableRefinementBlock<Reach
 
   public IdentifierIterator(ConfigurableRefinementBlock<SingleIdentifier> pWrapper, Configuration config,
       ConfigurableProgramAnalysis pCpa, BAMTransferRelation pTransfer) throws InvalidConfigurationException {
-    super(pWrapper);
+    this(ImmutableList.of(pWrapper), config, pCpa, pTransfer);
+  }
+
+  /**
+   * Create an iterator that refines the identifiers in parallel, one thread for each of the given
+   * wrapped blocks. The blocks must not share any state.
+   */
+  public IdentifierIterator(
+      ImmutableList<ConfigurableRefinementBlock<SingleIdentifier>> pWorkers,
+      Configuration config,
+      ConfigurableProgramAnalysis pCpa,
+      BAMTransferRelation pTransfer)
+      throws InvalidConfigurationException {
+    super(pWorkers.get(0));
     config.inject(this);
     cpa = pCpa;
     UsageCPA uCpa = CPAs.retrieveCPA(pCpa, UsageCPA.class);
-    uCpa.getStats().setBAMCPA((BAMCPA) cpa);
+    usageStats = uCpa.getStats();
+    usageStats.setBAMCPA((BAMCPA) cpa);
     logger = uCpa.getLogger();
     transfer = pTransfer;
+    workers = pWorkers;
   }
 
   public static Refiner create(ConfigurableProgramAnalysis pCpa) throws InvalidConfigurationException {
@@ -142,15 +202,18 @@ public class IdentifierIterator extends WrappedConfigurableRefinementBlock<Reach
     sendUpdateSignal(PredicateRefinerAdapter.class, pReached);
     sendUpdateSignal(PointIterator.class, container);
 
-    Iterator<SingleIdentifier> iterator = container.getUnrefinedUnsafeIterator();
+    List<SingleIdentifier> unrefinedIds = new ArrayList<>();
+    container.getUnrefinedUnsafeIterator().forEachRemaining(unrefinedIds::add);
+    // The container is updated only after all identifiers are refined,
+    // because it must not be modified while other threads read it.
+    Map<SingleIdentifier, RefinementResult> results = refineIdentifiers(unrefinedIds);
+
     boolean isPrecisionChanged = false;
     AbstractState firstState = pReached.getFirstState();
     AdjustablePrecision finalPrecision = (AdjustablePrecision) pReached.getPrecision(firstState);
 
-    while (iterator.hasNext()) {
-      SingleIdentifier currentId = iterator.next();
-
-      RefinementResult result = wrappedRefiner.performBlockRefinement(currentId);
+    for (SingleIdentifier currentId : unrefinedIds) {
+      RefinementResult result = results.get(currentId);
       newPrecisionFound |= result.isFalse();
 
       AdjustablePrecision info = result.getPrecision();
@@ -228,15 +291,137 @@ public class IdentifierIterator extends WrappedConfigurableRefinementBlock<Reach
     }
   }
 
+  /**
+   * Refine the given identifiers with all wrapped blocks. The identifiers are taken from a shared
+   * queue, such that a thread that has finished an identifier continues with the next one.
+   */
+  private Map<SingleIdentifier, RefinementResult> refineIdentifiers(
+      Collection<SingleIdentifier> pIds) throws CPAException, InterruptedException {
+    Queue<SingleIdentifier> remainingIds = new ConcurrentLinkedQueue<>(pIds);
+    Map<SingleIdentifier, RefinementResult> results = new ConcurrentHashMap<>();
+    List<Future<?>> futures = new ArrayList<>(workers.size() - 1);
+    if (workers.size() > 1 && executor == null) {
+      executor =
+          Executors.newFixedThreadPool(
+              workers.size() - 1,
+              new ThreadFactoryBuilder().setNameFormat("usage-refinement-%d").build());
+    }
+    boolean success = false;
+    try {
+      for (ConfigurableRefinementBlock<SingleIdentifier> worker :
+          workers.subList(1, workers.size())) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  refineRemainingIdentifiers(worker, remainingIds, results);
+                  return null;
+                }));
+      }
+      refineRemainingIdentifiers(workers.get(0), remainingIds, results);
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      success = true;
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      Throwables.propagateIfPossible(cause, CPAException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel refinement of identifiers", cause);
+
+    } finally {
+      if (!success) {
+        // Stop the other threads before returning, because their blocks must not be used by
+        // two threads at the same time if this method is called again.
+        remainingIds.clear();
+        for (Future<?> future : futures) {
+          try {
+            Uninterruptibles.getUninterruptibly(future);
+          } catch (ExecutionException e) {
+            logger.logDebugException(e, "Parallel refinement of identifier failed");
+          }
+        }
+      }
+    }
+    return results;
+  }
+
+  private void refineRemainingIdentifiers(
+      ConfigurableRefinementBlock<SingleIdentifier> pWorker,
+      Queue<SingleIdentifier> pRemainingIds,
+      Map<SingleIdentifier, RefinementResult> pResults)
+      throws CPAException, InterruptedException {
+    TimerWrapper timer = usageStats.getNewIdentifierRefinementTimer();
+    SingleIdentifier id;
+    while ((id = pRemainingIds.poll()) != null) {
+      timer.start();
+      try {
+        pResults.put(id, pWorker.performBlockRefinement(id));
+      } finally {
+        timer.stop();
+      }
+    }
+  }
+
+  @Override
+  protected void sendFinishSignal() throws CPAException, InterruptedException {
+    shutdownExecutor();
+    for (ConfigurableRefinementBlock<SingleIdentifier> worker : workers) {
+      worker.finish(getClass());
+    }
+  }
+
+  private void shutdownExecutor() {
+    if (executor != null) {
+      // all tasks are finished at this point
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  @Override
+  public void close() {
+    shutdownExecutor();
+    for (ConfigurableRefinementBlock<SingleIdentifier> worker : workers) {
+      CPAs.closeIfPossible(worker, logger);
+    }
+  }
+
+  @Override
+  protected void sendUpdateSignal(Class<? extends RefinementInterface> dstClass, Object data) {
+    for (ConfigurableRefinementBlock<SingleIdentifier> worker : workers) {
+      worker.update(getClass(), dstClass, data);
+    }
+  }
+
   @Override
   public void printStatistics(StatisticsWriter pOut) {
-    wrappedRefiner.printStatistics(pOut);
+    for (int thread = 0; thread < workers.size(); thread++) {
+      StatisticsWriter writer = pOut;
+      if (workers.size() > 1) {
+        writer = pOut.spacer().put("Refinement thread", thread + 1).beginLevel();
+      }
+      workers.get(thread).printStatistics(writer);
+    }
   }
 
   @Override
   public void collectStatistics(Collection<Statistics> statsCollection) {
-    statsCollection.add(new Stats());
-    super.collectStatistics(statsCollection);
+    if (workers.size() == 1) {
+      statsCollection.add(new Stats(ImmutableList.of()));
+      super.collectStatistics(statsCollection);
+      return;
+    }
+    // The blocks of all threads have the same statistics, so they are not added to the collection
+    // directly, but are printed separately for each thread.
+    ImmutableList.Builder<Collection<Statistics>> workerStatistics = ImmutableList.builder();
+    for (ConfigurableRefinementBlock<SingleIdentifier> worker : workers) {
+      Collection<Statistics> stats = new ArrayList<>();
+      if (worker instanceof StatisticsProvider) {
+        ((StatisticsProvider) worker).collectStatistics(stats);
+      }
+      workerStatistics.add(stats);
+    }
+    statsCollection.add(new Stats(workerStatistics.build()));
   }
 
   @Override
@@ -0,0 +1,91 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.usage.refinement;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Iterator;
+import java.util.Set;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.usage.UsageReachedSet;
+import org.sosy_lab.cpachecker.util.identifiers.SingleIdentifier;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Checks that refining the identifiers in parallel finds the same unsafes as refining them
+ * sequentially, on the programs of the integration test set of CPAlockator.
+ */
+public class IdentifierIteratorTest {
+
+  private static final String PROGRAMS = "test/programs/cpalockator/simple/";
+
+  private static final ImmutableSet<String> TASKS =
+      ImmutableSet.of(
+          "simple-1-safe.c",
+          "simple-1-unsafe.c",
+          "simple-2-safe.c",
+          "simple-2-unsafe.c",
+          "simple-3-safe.c",
+          "simple-3-unsafe.c",
+          "simple-4-safe.c",
+          "simple-4-unsafe.c",
+          "simple-5-safe.c",
+          "simple-5-unsafe.c");
+
+  private static CPAcheckerResult run(String pTask, int pThreads) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .loadFromFile("config/includes/lockator/lockStatistics-linux.properties")
+            .setOption(
+                "CompositeCPA.cpas",
+                "cpa.location.LocationCPA,cpa.callstack.CallstackCPA,cpa.lock.LockCPA,"
+                    + "cpa.predicate.BAMPredicateCPA")
+            .setOption("cpa.usage.unsafedetector.ignoreEmptyLockset", "false")
+            .setOption("cpa.callstack.skipRecursion", "true")
+            .setOption("cpa.usage.refinementThreads", Integer.toString(pThreads))
+            .build();
+    return CPATestRunner.run(config, PROGRAMS + pTask).getCheckerResult();
+  }
+
+  private static Set<String> unsafes(CPAcheckerResult pResult) {
+    UnmodifiableReachedSet reached = pResult.getReached();
+    assertThat(reached).isInstanceOf(UsageReachedSet.class);
+    ImmutableSet.Builder<String> unsafes = ImmutableSet.builder();
+    Iterator<SingleIdentifier> it =
+        ((UsageReachedSet) reached).getUsageContainer().getUnsafeIterator();
+    while (it.hasNext()) {
+      unsafes.add(it.next().toString());
+    }
+    return unsafes.build();
+  }
+
+  @Test(timeout = 300000)
+  public void testSameUnsafesAsSequential() throws Exception {
+    for (String task : TASKS) {
+      CPAcheckerResult sequential = run(task, 1);
+      CPAcheckerResult parallel = run(task, 2);
+
+      assertWithMessage("result for %s", task)
+          .that(parallel.getResult())
+          .isEqualTo(sequential.getResult());
+      assertWithMessage("unsafes for %s", task)
+          .that(unsafes(parallel))
+          .isEqualTo(unsafes(sequential));
+      if (task.endsWith("-unsafe.c")) {
+        assertWithMessage("unsafes for %s", task).that(unsafes(sequential)).isNotEmpty();
+      }
+    }
+  }
+}
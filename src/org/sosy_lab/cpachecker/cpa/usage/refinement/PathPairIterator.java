@@ -87,7 +87,9 @@ public class PathPairIterator extends
     firstPath = null;
     // subgraph computer need partitioning, which is not built at creation.
     // Thus, we move the creation of subgraphcomputer here
-    subgraphComputer = bamCpa.createBAMMultipleSubgraphComputer(idExtractor);
+    synchronized (bamCpa) {
+      subgraphComputer = bamCpa.createBAMMultipleSubgraphComputer(idExtractor);
+    }
   }
 
   @Override
@@ -248,7 +250,11 @@ public class PathPairIterator extends
       pathIterator = subgraphComputer.iterator(target);
       targetToPathIterator.put(info, pathIterator);
     }
-    currentPath = pathIterator.nextPath(refinedStates);
+    // The BAM data and the BAM cache are shared by all refinement threads and are not thread-safe,
+    // the computation may even remove cached blocks if it finds a missing block.
+    synchronized (bamCpa) {
+      currentPath = pathIterator.nextPath(refinedStates);
+    }
     computingPath.stop();
 
     if (currentPath == null) {
@@ -8,6 +8,8 @@
 
 package org.sosy_lab.cpachecker.cpa.usage.refinement;
 
+import static org.sosy_lab.common.collect.Collections3.transformedImmutableListCopy;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -16,10 +18,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
 import org.sosy_lab.cpachecker.core.counterexample.CounterexampleInfo;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
@@ -42,13 +46,18 @@ import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.Precisions;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManagerImpl;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.java_smt.api.BooleanFormula;
 
 public class PredicateRefinerAdapter extends GenericSinglePathRefiner {
   ARGBasedRefiner refiner;
   LogManager logger;
+  // a solver that is used only by this instance, if identifiers are refined in parallel
+  private final @Nullable Solver ownSolver;
 
   private final UsageStatisticsRefinementStrategy strategy;
   private ARGReachedSet ARGReached;
@@ -65,8 +74,16 @@ public class PredicateRefinerAdapter extends GenericSinglePathRefiner {
   private StatCounter numberOfrefinedPaths = new StatCounter("Number of refined paths");
   private StatCounter numberOfBAMupdates = new StatCounter("Number of BAM updates");
 
-  public PredicateRefinerAdapter(ConfigurableRefinementBlock<Pair<ExtendedARGPath, ExtendedARGPath>> wrapper,
-      ConfigurableProgramAnalysis pCpa, LogManager pLogger) throws InvalidConfigurationException {
+  /**
+   * @param pUseOwnSolver whether this instance checks counterexamples with its own solver, which is
+   *     necessary if several instances refine in parallel
+   */
+  public PredicateRefinerAdapter(
+      ConfigurableRefinementBlock<Pair<ExtendedARGPath, ExtendedARGPath>> wrapper,
+      ConfigurableProgramAnalysis pCpa,
+      LogManager pLogger,
+      boolean pUseOwnSolver)
+      throws InvalidConfigurationException {
     super(wrapper);
 
     if (!(pCpa instanceof WrapperCPA)) {
@@ -80,20 +97,42 @@ public class PredicateRefinerAdapter extends GenericSinglePathRefiner {
     }
 
     logger = pLogger;
-    PathFormulaManager pfmgr = predicateCpa.getPathFormulaManager();
+    PathFormulaManager pfmgr;
+    if (pUseOwnSolver) {
+      // The BAM block formulas are built from the edges of the path,
+      // so they can be created directly in the context of the own solver.
+      Configuration config = predicateCpa.getConfiguration();
+      ownSolver = Solver.create(config, logger, predicateCpa.getShutdownNotifier());
+      pfmgr =
+          new PathFormulaManagerImpl(
+              ownSolver.getFormulaManager(),
+              config,
+              logger,
+              predicateCpa.getShutdownNotifier(),
+              predicateCpa.getCfa(),
+              AnalysisDirection.FORWARD);
+    } else {
+      ownSolver = null;
+      pfmgr = predicateCpa.getPathFormulaManager();
+    }
 
     BlockFormulaStrategy blockFormulaStrategy = new BAMBlockFormulaStrategy(pfmgr);
 
+    // new predicates are always created with the solver of the PredicateCPA
     strategy =
         new UsageStatisticsRefinementStrategy(
             predicateCpa.getConfiguration(),
             logger,
             predicateCpa.getSolver(),
-            predicateCpa.getPredicateManager());
+            predicateCpa.getPredicateManager(),
+            ownSolver == null ? null : ownSolver.getFormulaManager());
 
-    refiner = new PredicateCPARefinerFactory(pCpa)
-        .setBlockFormulaStrategy(blockFormulaStrategy)
-        .create(strategy);
+    PredicateCPARefinerFactory factory =
+        new PredicateCPARefinerFactory(pCpa).setBlockFormulaStrategy(blockFormulaStrategy);
+    if (ownSolver != null) {
+      factory.setSolver(ownSolver, pfmgr);
+    }
+    refiner = factory.create(strategy);
   }
 
   @Override
@@ -224,6 +263,14 @@ public class PredicateRefinerAdapter extends GenericSinglePathRefiner {
     super.collectStatistics(pStats);
   }
 
+  @Override
+  public void close() {
+    if (ownSolver != null) {
+      ownSolver.close();
+    }
+    super.close();
+  }
+
   private List<ARGState> getLastAffectedStates() {
     return strategy.lastAffectedStates;
   }
@@ -245,10 +292,43 @@ public class PredicateRefinerAdapter extends GenericSinglePathRefiner {
     private List<ARGState> lastAffectedStates = new ArrayList<>();
     private PredicatePrecision lastAddedPrecision;
 
-    public UsageStatisticsRefinementStrategy(final Configuration config, final LogManager logger,
+    private final Solver solver;
+    // the formula manager of the interpolants, if it differs from the one of the solver
+    private final @Nullable FormulaManagerView interpolantFmgr;
+
+    public UsageStatisticsRefinementStrategy(
+        final Configuration config,
+        final LogManager logger,
         final Solver pSolver,
-        final PredicateAbstractionManager pPredAbsMgr) throws InvalidConfigurationException {
+        final PredicateAbstractionManager pPredAbsMgr,
+        final @Nullable FormulaManagerView pInterpolantFmgr)
+        throws InvalidConfigurationException {
       super(config, logger, pSolver, pPredAbsMgr);
+      solver = pSolver;
+      interpolantFmgr = pInterpolantFmgr;
+    }
+
+    @Override
+    public boolean performRefinement(
+        ARGReachedSet pReached,
+        List<ARGState> pAbstractionStatesTrace,
+        List<BooleanFormula> pInterpolants,
+        boolean pRepeatedCounterexample)
+        throws CPAException, InterruptedException {
+      FormulaManagerView itpFmgr = interpolantFmgr;
+      if (itpFmgr == null) {
+        return super.performRefinement(
+            pReached, pAbstractionStatesTrace, pInterpolants, pRepeatedCounterexample);
+      }
+      // The solver of the PredicateCPA is shared by all refinement threads,
+      // only creating the predicates needs it.
+      FormulaManagerView fmgr = solver.getFormulaManager();
+      synchronized (solver) {
+        List<BooleanFormula> interpolants =
+            transformedImmutableListCopy(pInterpolants, itp -> fmgr.translateFrom(itp, itpFmgr));
+        return super.performRefinement(
+            pReached, pAbstractionStatesTrace, interpolants, pRepeatedCounterexample);
+      }
     }
 
     @Override
@@ -8,10 +8,12 @@
 
 package org.sosy_lab.cpachecker.cpa.usage.refinement;
 
+import com.google.common.collect.ImmutableList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -72,6 +74,15 @@ public class RefinementBlockFactory {
   @Option(name = "pathEquality", description = "The way how to identify two paths as equal")
   PathEquation pathEquation = PathEquation.CFANodeId;
 
+  @Option(
+      name = "refinementThreads",
+      description =
+          "The number of threads that refine the unsafe identifiers in parallel."
+              + " Each thread uses its own refinement blocks and its own solver.",
+      secure = true)
+  @IntegerOption(min = 1)
+  private int refinementThreads = 1;
+
   public RefinementBlockFactory(ConfigurableProgramAnalysis pCpa, Configuration pConfig) throws InvalidConfigurationException {
     cpa = pCpa;
     config = pConfig;
@@ -80,6 +91,38 @@ public class RefinementBlockFactory {
 
   @SuppressWarnings("unchecked")
   public Refiner create() throws InvalidConfigurationException {
+    if (refinementThreads > 1) {
+      if (RefinementChain.isEmpty()
+          || RefinementChain.get(0) != RefinementBlockTypes.IdentifierIterator) {
+        throw new InvalidConfigurationException(
+            "Parallel refinement requires the IdentifierIterator as first refinement block");
+      }
+      // Every thread gets its own blocks, as they are stateful (caches, prover environments)
+      ImmutableList.Builder<ConfigurableRefinementBlock<SingleIdentifier>> workers =
+          ImmutableList.builder();
+      for (int i = 0; i < refinementThreads; i++) {
+        workers.add(
+            (ConfigurableRefinementBlock<SingleIdentifier>)
+                createChain(1, currentInnerBlockType.SingleIdentifier));
+      }
+      BAMCPA bamCpa = CPAs.retrieveCPA(cpa, BAMCPA.class);
+      return new IdentifierIterator(workers.build(), config, cpa, bamCpa.getTransferRelation());
+    }
+
+    RefinementInterface currentBlock = createChain(0, currentInnerBlockType.ReachedSet);
+    assert currentBlock instanceof Refiner;
+    return (Refiner) currentBlock;
+  }
+
+  /**
+   * Create the blocks of the refinement chain starting with the given position.
+   *
+   * @param pFirst the position of the first block to create
+   * @param pExpectedType the type of the input of the first block
+   */
+  @SuppressWarnings("unchecked")
+  private RefinementInterface createChain(int pFirst, currentInnerBlockType pExpectedType)
+      throws InvalidConfigurationException {
     BAMCPA bamCpa = CPAs.retrieveCPA(cpa, BAMCPA.class);
     UsageCPA usCPA = CPAs.retrieveCPA(cpa, UsageCPA.class);
     LogManager logger = usCPA.getLogger();
@@ -88,7 +131,7 @@ public class RefinementBlockFactory {
     RefinementInterface currentBlock = new RefinementPairStub();
     currentInnerBlockType currentBlockType = currentInnerBlockType.ExtendedARGPath;
 
-    for (int i = RefinementChain.size() - 1; i >= 0; i--) {
+    for (int i = RefinementChain.size() - 1; i >= pFirst; i--) {
 
       RefinementBlockTypes currentType = RefinementChain.get(i);
       if (currentBlockType == currentType.innerType) {
@@ -125,8 +168,13 @@ public class RefinementBlockFactory {
             break;
 
           case PredicateRefiner:
-            currentBlock = new PredicateRefinerAdapter((ConfigurableRefinementBlock<Pair<ExtendedARGPath, ExtendedARGPath>>) currentBlock,
-                cpa, logger);
+            currentBlock =
+                new PredicateRefinerAdapter(
+                    (ConfigurableRefinementBlock<Pair<ExtendedARGPath, ExtendedARGPath>>)
+                        currentBlock,
+                    cpa,
+                    logger,
+                    refinementThreads > 1);
             break;
 
           case CallstackFilter:
@@ -155,11 +203,11 @@ public class RefinementBlockFactory {
         throw new InvalidConfigurationException(currentType + " can not precede the " + currentBlock.getClass().getSimpleName());
       }
     }
-    if (currentBlockType == currentInnerBlockType.ReachedSet) {
-      assert currentBlock instanceof Refiner;
-      return (Refiner) currentBlock;
+    if (currentBlockType == pExpectedType) {
+      return currentBlock;
     } else {
-      throw new InvalidConfigurationException("The first block is not take a reached set as parameter");
+      throw new InvalidConfigurationException(
+          "The first block is not take a " + pExpectedType + " as parameter");
     }
   }
 }
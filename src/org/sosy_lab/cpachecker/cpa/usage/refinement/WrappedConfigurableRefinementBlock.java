@@ -14,7 +14,8 @@ import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
-public abstract class WrappedConfigurableRefinementBlock<I, O> implements ConfigurableRefinementBlock<I>, StatisticsProvider {
+public abstract class WrappedConfigurableRefinementBlock<I, O>
+    implements ConfigurableRefinementBlock<I>, StatisticsProvider, AutoCloseable {
   protected ConfigurableRefinementBlock<O> wrappedRefiner;
 
   @ForOverride
@@ -72,6 +73,14 @@ public abstract class WrappedConfigurableRefinementBlock<I, O> implements Config
     wrappedRefiner.finish(callerClass);
   }
 
+  /** Release the resources of this block and of the blocks it wraps. */
+  @Override
+  public void close() {
+    if (wrappedRefiner instanceof WrappedConfigurableRefinementBlock) {
+      ((WrappedConfigurableRefinementBlock<?, ?>) wrappedRefiner).close();
+    }
+  }
+
   @Override
   public void collectStatistics(Collection<Statistics> statsCollection) {
     if (wrappedRefiner instanceof StatisticsProvider) {
@@ -106,6 +106,14 @@ public class ValueAnalysisCPA extends AbstractCPA
       description = "Tells the value analysis how to handle unknown values.")
   private UnknownValueStrategy unknownValueStrategy = UnknownValueStrategy.DISCARD;
 
+  @Option(
+      secure = true,
+      description =
+          "Replace each new abstract state by a canonical instance of all equal states"
+              + " (hash consing), which deduplicates memory and makes equality checks cheap"
+              + " if the same states are reached often along different paths.")
+  private boolean internStates = false;
+
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ValueAnalysisCPA.class);
   }
@@ -289,10 +297,15 @@ public class ValueAnalysisCPA extends AbstractCPA
           cfa,
           precisionAdjustmentOptions,
           precisionAdjustmentStatistics,
-          Preconditions.checkNotNull(symbolicStats));
+          Preconditions.checkNotNull(symbolicStats),
+          internStates);
     } else {
       return new ValueAnalysisPrecisionAdjustment(
-          statistics, cfa, precisionAdjustmentOptions, precisionAdjustmentStatistics);
+          statistics,
+          cfa,
+          precisionAdjustmentOptions,
+          precisionAdjustmentStatistics,
+          internStates);
     }
   }
 
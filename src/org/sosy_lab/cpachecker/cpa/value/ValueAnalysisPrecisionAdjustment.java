@@ -142,6 +142,9 @@ public class ValueAnalysisPrecisionAdjustment implements PrecisionAdjustment {
   public static class PrecAdjustmentStatistics implements Statistics {
 
     final StatCounter abstractions = new StatCounter("Number of abstraction computations");
+    private final StatCounter internedStates = new StatCounter("Number of interned states");
+    private final StatCounter deduplicatedStates =
+        new StatCounter("Number of states replaced by equal canonical state");
     private final ThreadSafeTimerContainer totalLivenessTimer =
         new ThreadSafeTimerContainer("Total time for liveness abstraction");
     private final ThreadSafeTimerContainer totalAbstractionTimer =
@@ -153,6 +156,10 @@ public class ValueAnalysisPrecisionAdjustment implements PrecisionAdjustment {
     public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
       StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(pOut);
       writer.put(abstractions);
+      if (internedStates.getValue() > 0) {
+        writer.put(internedStates);
+        writer.put(deduplicatedStates);
+      }
       writer.put(totalLivenessTimer);
       writer.put(totalAbstractionTimer);
       writer.put(totalEnforcePathTimer);
@@ -167,9 +174,12 @@ public class ValueAnalysisPrecisionAdjustment implements PrecisionAdjustment {
   private final ValueAnalysisCPAStatistics stats;
   private final PrecAdjustmentOptions options;
   private final Optional<LiveVariables> liveVariables;
+  private final boolean internStates;
 
   // for statistics
   private final StatCounter abstractions;
+  private final StatCounter internedStates;
+  private final StatCounter deduplicatedStates;
   private final TimerWrapper totalLiveness;
   private final TimerWrapper totalAbstraction;
   private final TimerWrapper totalEnforcePath;
@@ -181,13 +191,17 @@ public class ValueAnalysisPrecisionAdjustment implements PrecisionAdjustment {
       final ValueAnalysisCPAStatistics pStats,
       final CFA pCfa,
       final PrecAdjustmentOptions pOptions,
-      final PrecAdjustmentStatistics pStatistics) {
+      final PrecAdjustmentStatistics pStatistics,
+      final boolean pInternStates) {
 
     options = pOptions;
     stats = pStats;
     liveVariables = pCfa.getLiveVariables();
+    internStates = pInternStates;
 
     abstractions = pStatistics.abstractions;
+    internedStates = pStatistics.internedStates;
+    deduplicatedStates = pStatistics.deduplicatedStates;
     totalLiveness = pStatistics.totalLivenessTimer.getNewTimer();
     totalAbstraction = pStatistics.totalAbstractionTimer.getNewTimer();
     totalEnforcePath = pStatistics.totalEnforcePathTimer.getNewTimer();
@@ -233,6 +247,15 @@ public class ValueAnalysisPrecisionAdjustment implements PrecisionAdjustment {
 
     resultState = resultState.equals(pState) ? pState : resultState;
 
+    if (internStates && !resultState.isCanonical()) {
+      ValueAnalysisState canonicalState = resultState.intern();
+      internedStates.inc();
+      if (canonicalState != resultState) {
+        deduplicatedStates.inc();
+      }
+      resultState = canonicalState;
+    }
+
     return Optional.of(PrecisionAdjustmentResult.create(resultState, pPrecision, Action.CONTINUE));
   }
 
@@ -9,10 +9,14 @@
 package org.sosy_lab.cpachecker.cpa.value;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -95,6 +99,13 @@ public final class ValueAnalysisState
     blacklist.add(checkNotNull(var));
   }
 
+  /** Canonical instances of states and their entries, cf. {@link #intern()}. */
+  private static final Interner<ValueAnalysisState> stateInterner = Interners.newWeakInterner();
+
+  private static final Interner<MemoryLocation> memoryLocationInterner =
+      Interners.newWeakInterner();
+  private static final Interner<ValueAndType> valueAndTypeInterner = Interners.newWeakInterner();
+
   /**
    * the map that keeps the name of variables and their constant values (concrete and symbolic ones)
    */
@@ -110,10 +121,26 @@ public final class ValueAnalysisState
 
   private final @Nullable MachineModel machineModel;
 
+  /**
+   * Whether this state is the canonical instance for its content, cf. {@link #intern()}. Canonical
+   * states must not be modified anymore.
+   */
+  private transient boolean canonical = false;
+
+  /**
+   * The memory locations that were assigned since this state was copied from a state whose entries
+   * are all canonical, or null if it is unknown which entries are canonical. {@link #intern()} only
+   * needs to replace the entries for these locations, such that interning the successors of a
+   * canonical state does not need to look at all entries.
+   */
+  private transient @Nullable Set<MemoryLocation> assignedSinceCopy = null;
+
   public ValueAnalysisState(MachineModel pMachineModel) {
     this(
         checkNotNull(pMachineModel),
         PathCopyingPersistentTreeMap.of());
+    // the empty map has no entries that would need to be interned
+    assignedSinceCopy = ImmutableSet.of();
   }
 
   public ValueAnalysisState(
@@ -135,12 +162,87 @@ public final class ValueAnalysisState
     constantsMap = checkNotNull(state.constantsMap);
     hashCode = state.hashCode;
     assert hashCode == constantsMap.hashCode();
+    if (state.canonical) {
+      assignedSinceCopy = ImmutableSet.of();
+    } else if (state.assignedSinceCopy != null && !state.assignedSinceCopy.isEmpty()) {
+      assignedSinceCopy = new HashSet<>(state.assignedSinceCopy);
+    } else {
+      assignedSinceCopy = state.assignedSinceCopy;
+    }
   }
 
   public static ValueAnalysisState copyOf(ValueAnalysisState state) {
     return new ValueAnalysisState(state);
   }
 
+  /**
+   * Return the canonical instance of all states that are equal to this state. The memory locations
+   * and values of the state are replaced by canonical instances, too, such that equal states and
+   * entries reached along different paths share their memory, and {@link #equals(Object)} for two
+   * canonical states is a reference comparison.
+   *
+   * <p>Neither this state nor the returned state may be modified afterwards, so this method should
+   * only be called for completely computed states, e.g., before they are added to the reached set.
+   * The canonical instances are referenced weakly and do not prevent garbage collection.
+   *
+   * <p>For a copy of a canonical state, only the entries that were assigned since the copy are
+   * replaced, otherwise all entries are.
+   */
+  public ValueAnalysisState intern() {
+    if (canonical) {
+      return this;
+    }
+
+    PersistentMap<MemoryLocation, ValueAndType> newConstantsMap = constantsMap;
+    if (assignedSinceCopy == null) {
+      for (Entry<MemoryLocation, ValueAndType> entry : constantsMap.entrySet()) {
+        MemoryLocation memLoc = memoryLocationInterner.intern(entry.getKey());
+        ValueAndType valueAndType = valueAndTypeInterner.intern(entry.getValue());
+        if (memLoc != entry.getKey()) {
+          newConstantsMap =
+              newConstantsMap.removeAndCopy(entry.getKey()).putAndCopy(memLoc, valueAndType);
+        } else if (valueAndType != entry.getValue()) {
+          newConstantsMap = newConstantsMap.putAndCopy(memLoc, valueAndType);
+        }
+      }
+    } else {
+      for (MemoryLocation memLoc : assignedSinceCopy) {
+        ValueAndType valueAndType = constantsMap.get(memLoc);
+        if (valueAndType != null) { // null if the location was forgotten after the assignment
+          // remove the entry first, such that the key of the map is replaced, too
+          newConstantsMap =
+              newConstantsMap
+                  .removeAndCopy(memLoc)
+                  .putAndCopy(
+                      memoryLocationInterner.intern(memLoc),
+                      valueAndTypeInterner.intern(valueAndType));
+        }
+      }
+    }
+    // all entries are replaced by equal ones, so hashCode stays the same
+    constantsMap = newConstantsMap;
+    assignedSinceCopy = ImmutableSet.of();
+
+    ValueAnalysisState result = stateInterner.intern(this);
+    if (result == this) {
+      canonical = true;
+    }
+    return result;
+  }
+
+  /** Whether this state is the canonical instance for its content, cf. {@link #intern()}. */
+  public boolean isCanonical() {
+    return canonical;
+  }
+
+  /**
+   * Canonical states are shared between all paths that reach them, and changing them would also
+   * corrupt the interner, so all mutators have to call this method first.
+   */
+  private void checkNotCanonical() {
+    checkState(!canonical, "canonical state must not be modified, use copyOf() to modify it");
+  }
+
   /**
    * This method assigns a value to the variable and puts it in the map.
    *
@@ -159,6 +261,7 @@ public final class ValueAnalysisState
       return;
     }
 
+    checkNotCanonical();
     Value valueToAdd = pValue;
 
     if (valueToAdd instanceof SymbolicValue) {
@@ -172,6 +275,14 @@ public final class ValueAnalysisState
     }
     constantsMap = constantsMap.putAndCopy(pMemLoc, valueAndType);
     hashCode += (pMemLoc.hashCode() ^ valueAndType.hashCode());
+
+    if (assignedSinceCopy != null) {
+      if (assignedSinceCopy.isEmpty()) {
+        // replace the shared immutable set
+        assignedSinceCopy = new HashSet<>();
+      }
+      assignedSinceCopy.add(pMemLoc);
+    }
   }
 
   /**
@@ -238,6 +349,7 @@ public final class ValueAnalysisState
       return ValueAnalysisInformation.EMPTY;
     }
 
+    checkNotCanonical();
     ValueAndType value = constantsMap.get(pMemoryLocation);
     constantsMap = constantsMap.removeAndCopy(pMemoryLocation);
     hashCode -= (pMemoryLocation.hashCode() ^ value.hashCode());
@@ -392,6 +504,9 @@ public final class ValueAnalysisState
    */
   @Override
   public boolean isLessOrEqual(ValueAnalysisState other) {
+    if (this == other) {
+      return true;
+    }
 
     // also, this element is not less or equal than the other element, if it contains less elements
     if (constantsMap.size() < other.constantsMap.size()) {
@@ -435,6 +550,10 @@ public final class ValueAnalysisState
     }
 
     ValueAnalysisState otherElement = (ValueAnalysisState) other;
+    if (canonical && otherElement.canonical) {
+      // there is only one canonical instance for each content, and it is not this one
+      return false;
+    }
     // hashCode is used as optimization: about 20% speedup when using many SingletonSets
     return otherElement.hashCode == hashCode && otherElement.constantsMap.equals(constantsMap);
   }
@@ -863,6 +982,7 @@ public final class ValueAnalysisState
     private static final long serialVersionUID = 1L;
     private final Value value;
     private final Type type;
+    private transient int hashCode = 0; // lazily computed, as values might be compared often
 
     public ValueAndType(Value pValue, Type pType) {
       value = checkNotNull(pValue);
@@ -887,12 +1007,16 @@ public final class ValueAnalysisState
       }
 
       ValueAndType other = (ValueAndType) o;
-      return Objects.equals(value, other.value) && Objects.equals(type, other.type);
+      return hashCode() == other.hashCode()
+          && Objects.equals(value, other.value) && Objects.equals(type, other.type);
     }
 
     @Override
     public int hashCode() {
-      return Objects.hash(value, type);
+      if (hashCode == 0) {
+        hashCode = Objects.hash(value, type);
+      }
+      return hashCode;
     }
 
     @Override
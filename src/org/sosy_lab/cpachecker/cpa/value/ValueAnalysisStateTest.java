@@ -0,0 +1,120 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.value;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+public class ValueAnalysisStateTest {
+
+  private static ValueAnalysisState createState(int... pValues) {
+    ValueAnalysisState state = new ValueAnalysisState(MachineModel.LINUX32);
+    for (int i = 0; i < pValues.length; i++) {
+      state.assignConstant(
+          MemoryLocation.forLocalVariable("main", "x" + i),
+          new NumericValue(pValues[i]),
+          CNumericTypes.INT);
+    }
+    return state;
+  }
+
+  @Test
+  public void testInternEqualStates() {
+    ValueAnalysisState state1 = createState(1, 2, 3);
+    ValueAnalysisState state2 = createState(1, 2, 3);
+    assertThat(state1).isNotSameInstanceAs(state2);
+
+    ValueAnalysisState canonical1 = state1.intern();
+    ValueAnalysisState canonical2 = state2.intern();
+
+    assertThat(canonical1).isSameInstanceAs(canonical2);
+    assertThat(canonical1.isCanonical()).isTrue();
+    assertThat(canonical1.intern()).isSameInstanceAs(canonical1);
+    assertThat(canonical1).isEqualTo(state2);
+    assertThat(canonical1.hashCode()).isEqualTo(state2.hashCode());
+  }
+
+  @Test
+  public void testInternDifferentStates() {
+    ValueAnalysisState canonical1 = createState(1, 2, 3).intern();
+    ValueAnalysisState canonical2 = createState(1, 2, 4).intern();
+
+    assertThat(canonical1).isNotEqualTo(canonical2);
+    assertThat(canonical1).isEqualTo(createState(1, 2, 3));
+    assertThat(canonical1.isLessOrEqual(canonical1)).isTrue();
+    assertThat(canonical1.isLessOrEqual(canonical2)).isFalse();
+  }
+
+  @Test
+  public void testCopyOfCanonicalStateIsModifiable() {
+    ValueAnalysisState canonical = createState(1, 2).intern();
+    ValueAnalysisState copy = ValueAnalysisState.copyOf(canonical);
+    assertThat(copy.isCanonical()).isFalse();
+
+    copy.assignConstant(
+        MemoryLocation.forLocalVariable("main", "x0"), new NumericValue(5), CNumericTypes.INT);
+
+    assertThat(copy).isNotEqualTo(canonical);
+    assertThat(canonical).isEqualTo(createState(1, 2));
+  }
+
+  @Test
+  public void testCanonicalStateIsNotModifiable() {
+    ValueAnalysisState canonical = createState(1, 2).intern();
+    MemoryLocation x0 = MemoryLocation.forLocalVariable("main", "x0");
+
+    assertThrows(
+        IllegalStateException.class,
+        () -> canonical.assignConstant(x0, new NumericValue(5), CNumericTypes.INT));
+    assertThrows(IllegalStateException.class, () -> canonical.forget(x0));
+    assertThat(canonical).isEqualTo(createState(1, 2));
+  }
+
+  @Test
+  public void testInternCopyOfCanonicalState() {
+    MemoryLocation x0 = MemoryLocation.forLocalVariable("main", "x0");
+    MemoryLocation x1 = MemoryLocation.forLocalVariable("main", "x1");
+    ValueAnalysisState parent = createState(1, 2).intern();
+    ValueAnalysisState child = ValueAnalysisState.copyOf(parent);
+    child.assignConstant(x1, new NumericValue(3), CNumericTypes.INT);
+
+    ValueAnalysisState canonicalChild = child.intern();
+    assertThat(canonicalChild).isSameInstanceAs(createState(1, 3).intern());
+    // the assigned entry is replaced by the canonical one, the others are shared with the parent
+    assertThat(canonicalChild.getValueAndTypeFor(x1))
+        .isSameInstanceAs(createState(5, 3).intern().getValueAndTypeFor(x1));
+    assertThat(canonicalChild.getValueAndTypeFor(x0))
+        .isSameInstanceAs(parent.getValueAndTypeFor(x0));
+  }
+
+  @Test
+  public void testInternedStateIsNotModifiedByCopies() {
+    MemoryLocation x0 = MemoryLocation.forLocalVariable("main", "x0");
+    ValueAnalysisState canonical = createState(1, 2).intern();
+    int hashCode = canonical.hashCode();
+
+    ValueAnalysisState copy = ValueAnalysisState.copyOf(canonical);
+    copy.assignConstant(x0, new NumericValue(5), CNumericTypes.INT);
+    copy.intern();
+    ValueAnalysisState copy2 = ValueAnalysisState.copyOf(canonical);
+    copy2.forget(x0);
+    copy2.intern();
+
+    assertThat(canonical.isCanonical()).isTrue();
+    assertThat(canonical).isEqualTo(createState(1, 2));
+    assertThat(canonical.hashCode()).isEqualTo(hashCode);
+    assertThat(canonical.getValueFor(x0)).isEqualTo(new NumericValue(1));
+  }
+}
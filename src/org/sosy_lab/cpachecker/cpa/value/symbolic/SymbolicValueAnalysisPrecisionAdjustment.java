@@ -48,8 +48,10 @@ public class SymbolicValueAnalysisPrecisionAdjustment implements PrecisionAdjust
       final CFA pCfa,
       final PrecAdjustmentOptions pOptions,
       final PrecAdjustmentStatistics pStatistics,
-      final SymbolicStatistics pSymbolicStats) {
-    delegate = new ValueAnalysisPrecisionAdjustment(pStats, pCfa, pOptions, pStatistics);
+      final SymbolicStatistics pSymbolicStats,
+      final boolean pInternStates) {
+    delegate =
+        new ValueAnalysisPrecisionAdjustment(pStats, pCfa, pOptions, pStatistics, pInternStates);
     symbolicStats = pSymbolicStats;
   }
 
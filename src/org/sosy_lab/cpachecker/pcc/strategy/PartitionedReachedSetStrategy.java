@@ -54,7 +54,7 @@ public class PartitionedReachedSetStrategy extends AbstractStrategy {
       throws InvalidConfigurationException {
     super(pConfig, pLogger, pProofFile);
 
-    ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier);
+    ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier, pProofFile);
     cpa = pCpa;
     shutdownNotifier = pShutdownNotifier;
     addPCCStatistic(ioHelper.getPartitioningStatistc());
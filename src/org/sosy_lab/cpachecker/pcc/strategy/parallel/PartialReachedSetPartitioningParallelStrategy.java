@@ -59,7 +59,7 @@ public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrat
     super(pConfig, pLogger, pProofFile);
     shutdownNotifier = pShutdownNotifier;
     cpa = pCpa;
-    ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier);
+    ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier, pProofFile);
     addPCCStatistic(ioHelper.getPartitioningStatistc());
   }
 
@@ -0,0 +1,203 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import com.google.common.io.CountingOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.Pair;
+
+/**
+ * Binary file that stores the partitions of a partitioned certificate independently of each other,
+ * such that single partitions can be read without reading the rest of the certificate.
+ *
+ * <p>The file starts with a header consisting of a magic number, the number n of partitions, and
+ * an index of n+1 offsets (as longs), where partition i is stored between the offsets i and i+1.
+ * Each partition consists of the Java serialization of its nodes and of its adjacent nodes outside
+ * the partition. For reading, the whole file is memory-mapped and partitions are deserialized
+ * directly from the mapped memory. Instances of this class are thread-safe.
+ */
+final class MappedCertificateFile {
+
+  private static final int MAGIC = 0x50434331; // "PCC1"
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+  private final MappedByteBuffer buffer;
+  private final long[] offsets;
+
+  private MappedCertificateFile(MappedByteBuffer pBuffer, long[] pOffsets) {
+    buffer = pBuffer;
+    offsets = pOffsets;
+  }
+
+  /**
+   * Write the given partitions to a file. Each partition is written to the file directly after it
+   * was serialized, so only the serialization of a single partition is buffered in memory. The
+   * space for the index is reserved first and filled in at the end, when all offsets are known.
+   *
+   * @return the size of the written file in bytes
+   */
+  static long write(Path pFile, List<Pair<AbstractState[], AbstractState[]>> pPartitions)
+      throws IOException {
+    int numPartitions = pPartitions.size();
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + (numPartitions + 1) * Long.BYTES);
+    header.putInt(MAGIC);
+    header.putInt(numPartitions);
+    long offset = header.capacity();
+    header.putLong(offset);
+
+    try (FileChannel channel =
+        FileChannel.open(
+            pFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      channel.position(header.capacity());
+      @SuppressWarnings("resource") // closed together with the channel, only needs flushing
+      CountingOutputStream file =
+          new CountingOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+      for (Pair<AbstractState[], AbstractState[]> partition : pPartitions) {
+        // every partition has its own serialization stream, such that it can be read on its own
+        try (ObjectOutputStream out = new ObjectOutputStream(new PartitionOutputStream(file))) {
+          out.writeObject(partition.getFirst());
+          out.writeObject(partition.getSecond());
+        }
+        header.putLong(offset + file.getCount());
+      }
+      file.flush();
+      offset += file.getCount();
+
+      header.flip();
+      long position = 0;
+      while (header.hasRemaining()) {
+        position += channel.write(header, position);
+      }
+    }
+    return offset;
+  }
+
+  /** Memory-map the given file and read its index, but none of its partitions. */
+  static MappedCertificateFile open(Path pFile) throws IOException {
+    long size = Files.size(pFile);
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Certificate file " + pFile + " is too large to be mapped.");
+    }
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(pFile, StandardOpenOption.READ)) {
+      // the mapping stays valid after the channel is closed
+      buffer = channel.map(MapMode.READ_ONLY, 0, size);
+    }
+
+    if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException("File " + pFile + " is not a partitioned certificate.");
+    }
+    int numPartitions = buffer.getInt(Integer.BYTES);
+    if (numPartitions < 0 || HEADER_SIZE + (numPartitions + 1L) * Long.BYTES > size) {
+      throw new IOException("Index of certificate file " + pFile + " is corrupted.");
+    }
+    long[] offsets = new long[numPartitions + 1];
+    for (int i = 0; i <= numPartitions; i++) {
+      offsets[i] = buffer.getLong(HEADER_SIZE + i * Long.BYTES);
+      if (offsets[i] > size || (i > 0 && offsets[i] < offsets[i - 1])) {
+        throw new IOException("Index of certificate file " + pFile + " is corrupted.");
+      }
+    }
+    return new MappedCertificateFile(buffer, offsets);
+  }
+
+  int getNumPartitions() {
+    return offsets.length - 1;
+  }
+
+  long getSize() {
+    return buffer.capacity();
+  }
+
+  /** Deserialize a single partition, this may be called concurrently for different partitions. */
+  Pair<AbstractState[], AbstractState[]> readPartition(int pIndex)
+      throws IOException, ClassNotFoundException {
+    checkElementIndex(pIndex, getNumPartitions());
+    // each reader gets its own view on the shared mapping
+    ByteBuffer content = buffer.duplicate();
+    content.limit((int) offsets[pIndex + 1]);
+    content.position((int) offsets[pIndex]);
+    try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(content))) {
+      return Pair.of((AbstractState[]) in.readObject(), (AbstractState[]) in.readObject());
+    }
+  }
+
+  /** Stream for writing a single partition, which does not close the stream of the whole file. */
+  private static final class PartitionOutputStream extends FilterOutputStream {
+
+    PartitionOutputStream(OutputStream pFile) {
+      super(pFile);
+    }
+
+    @Override
+    public void write(byte[] pBytes, int pOffset, int pLength) throws IOException {
+      // FilterOutputStream would write each byte separately
+      out.write(pBytes, pOffset, pLength);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+
+  /** Stream that reads directly from a buffer without copying its content first. */
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer source;
+
+    ByteBufferInputStream(ByteBuffer pSource) {
+      source = pSource;
+    }
+
+    @Override
+    public int read() {
+      return source.hasRemaining() ? (source.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] pBytes, int pOffset, int pLength) {
+      if (pLength == 0) {
+        return 0;
+      }
+      if (!source.hasRemaining()) {
+        return -1;
+      }
+      int length = Math.min(pLength, source.remaining());
+      source.get(pBytes, pOffset, length);
+      return length;
+    }
+
+    @Override
+    public int available() {
+      return source.remaining();
+    }
+  }
+}
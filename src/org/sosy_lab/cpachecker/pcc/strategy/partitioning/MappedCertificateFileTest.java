@@ -0,0 +1,105 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.Pair;
+
+public class MappedCertificateFileTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path file;
+
+  private static final class TestState implements AbstractState, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int id;
+
+    TestState(int pId) {
+      id = pId;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof TestState && ((TestState) pObj).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+  }
+
+  private static AbstractState[] states(int... pIds) {
+    AbstractState[] result = new AbstractState[pIds.length];
+    for (int i = 0; i < pIds.length; i++) {
+      result[i] = new TestState(pIds[i]);
+    }
+    return result;
+  }
+
+  @Before
+  public void setUp() {
+    file = tempFolder.getRoot().toPath().resolve("proof.partitions");
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException, ClassNotFoundException {
+    List<Pair<AbstractState[], AbstractState[]>> partitions =
+        ImmutableList.of(
+            Pair.of(states(1, 2, 3), states(4)),
+            Pair.of(states(), states()),
+            Pair.of(states(4, 5), states(1, 2)));
+    long size = MappedCertificateFile.write(file, partitions);
+    assertThat(size).isEqualTo(Files.size(file));
+
+    MappedCertificateFile certificate = MappedCertificateFile.open(file);
+    assertThat(certificate.getNumPartitions()).isEqualTo(partitions.size());
+    // read in arbitrary order and repeatedly
+    for (int i : new int[] {2, 0, 1, 2}) {
+      Pair<AbstractState[], AbstractState[]> partition = certificate.readPartition(i);
+      assertThat(partition.getFirst()).isEqualTo(partitions.get(i).getFirst());
+      assertThat(partition.getSecond()).isEqualTo(partitions.get(i).getSecond());
+    }
+  }
+
+  @Test
+  public void testOverwriteWithSmallerCertificate() throws IOException, ClassNotFoundException {
+    MappedCertificateFile.write(
+        file,
+        ImmutableList.of(
+            Pair.of(states(1, 2, 3, 4, 5, 6), states(7)), Pair.of(states(8), states())));
+    long size = MappedCertificateFile.write(file, ImmutableList.of(Pair.of(states(9), states())));
+    assertThat(size).isEqualTo(Files.size(file));
+
+    MappedCertificateFile certificate = MappedCertificateFile.open(file);
+    assertThat(certificate.getNumPartitions()).isEqualTo(1);
+    assertThat(certificate.readPartition(0).getFirst()).isEqualTo(states(9));
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidFile() throws IOException {
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    MappedCertificateFile.open(file);
+  }
+}
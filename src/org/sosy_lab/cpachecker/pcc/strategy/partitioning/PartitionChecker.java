@@ -8,7 +8,6 @@
 
 package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
 
-import com.google.common.base.Preconditions;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import java.util.ArrayList;
@@ -62,7 +61,11 @@ public class PartitionChecker {
   public void checkPartition(int pIndex){
     Multimap<CFANode, AbstractState> statesPerLocation = HashMultimap.create();
     Pair<AbstractState[], AbstractState[]> partition = ioHelper.getPartition(pIndex);
-    Preconditions.checkNotNull(partition);
+    if (partition == null) {
+      logger.log(Level.SEVERE, "Partition", pIndex, "is not available, stop checking.");
+      partitionHelper.abortCheckingPreparation();
+      return;
+    }
 
     // add nodes of partition
     for (AbstractState internalNode : partition.getFirst()) {
@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -26,6 +27,7 @@ import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
@@ -40,6 +42,7 @@ import org.sosy_lab.cpachecker.pcc.strategy.partialcertificate.PartialReachedSet
 import org.sosy_lab.cpachecker.pcc.strategy.partitioning.GraphPartitionerFactory.PartitioningHeuristics;
 import org.sosy_lab.cpachecker.pcc.util.ProofStatesInfoCollector;
 import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatConcurrentTimer;
 
 @Options(prefix = "pcc.partitioning")
 public class PartitioningIOHelper {
@@ -53,6 +56,18 @@ public class PartitioningIOHelper {
   @Option(secure=true, description = "Heuristic for computing partitioning of proof (partial reached set).")
   private PartitioningHeuristics partitioningStrategy = PartitioningHeuristics.RANDOM;
 
+  @Option(
+      secure = true,
+      description =
+          "Write the partitions of the certificate into a separate binary file next to the proof"
+              + " file, which contains an index of the partition offsets. For checking, this file"
+              + " is memory-mapped and each partition is only deserialized when it is checked."
+              + " Only supported by the strategies PartitionedReachedSetStrategy and"
+              + " PartialReachedSetPartitioningParallelStrategy.")
+  private boolean useMappedCertificate = false;
+
+  private static final String MAPPED_CERTIFICATE_SUFFIX = ".partitions";
+
   private final LogManager logger;
   private final PartialReachedConstructionAlgorithm partialConstructor;
   private final BalancedGraphPartitioner partitioner;
@@ -62,16 +77,60 @@ public class PartitioningIOHelper {
   private Statistics currentGraphStatistics;
   private ProofStatesInfoCollector infoCollector;
 
+  private final @Nullable Path mappedCertificatePath;
+  private @Nullable MappedCertificateFile mappedCertificate = null;
+
+  private final Timer writeTimer = new Timer();
+  private final Timer readTimer = new Timer();
+  private final StatConcurrentTimer partitionReadTimer =
+      new StatConcurrentTimer("Time for deserializing single partitions");
+  private long certificateFileSize = -1;
+
   public PartitioningIOHelper(final Configuration pConfig, final LogManager pLogger,
       final ShutdownNotifier pShutdownNotifier) throws InvalidConfigurationException {
-    this(pConfig, pLogger, pShutdownNotifier, false);
+    this(pConfig, pLogger, pShutdownNotifier, null, false);
+  }
+
+  /**
+   * Create a helper that supports the memory-mapped certificate format, which is stored in a file
+   * next to the given proof file.
+   */
+  public PartitioningIOHelper(
+      final Configuration pConfig,
+      final LogManager pLogger,
+      final ShutdownNotifier pShutdownNotifier,
+      final Path pProofFile)
+      throws InvalidConfigurationException {
+    this(pConfig, pLogger, pShutdownNotifier, pProofFile, false);
   }
 
   protected PartitioningIOHelper(final Configuration pConfig, final LogManager pLogger,
       final ShutdownNotifier pShutdownNotifier, final boolean withCMC) throws InvalidConfigurationException {
+    this(pConfig, pLogger, pShutdownNotifier, null, withCMC);
+  }
+
+  private PartitioningIOHelper(
+      final Configuration pConfig,
+      final LogManager pLogger,
+      final ShutdownNotifier pShutdownNotifier,
+      final @Nullable Path pProofFile,
+      final boolean withCMC)
+      throws InvalidConfigurationException {
     pConfig.inject(this, PartitioningIOHelper.class);
     logger = pLogger;
 
+    if (useMappedCertificate) {
+      if (pProofFile == null) {
+        throw new InvalidConfigurationException(
+            "The chosen PCC strategy does not support memory-mapped certificates,"
+                + " please disable option pcc.partitioning.useMappedCertificate.");
+      }
+      mappedCertificatePath =
+          pProofFile.resolveSibling(pProofFile.getFileName() + MAPPED_CERTIFICATE_SUFFIX);
+    } else {
+      mappedCertificatePath = null;
+    }
+
     partialConstructor = new PartialCertificateTypeProvider(pConfig, false, withCMC).getCertificateConstructor();
     partitioner = GraphPartitionerFactory.createPartitioner(logger, partitioningStrategy, pShutdownNotifier, pConfig);
   }
@@ -84,13 +143,40 @@ public class PartitioningIOHelper {
     return numPartitions;
   }
 
+  /**
+   * Return the partition with the given index, or null if it does not exist or cannot be read.
+   *
+   * <p>If the partitions were read from a memory-mapped certificate, the partition is deserialized
+   * on every call, so callers should request each partition only once. This method may be called
+   * concurrently.
+   */
   public @Nullable Pair<AbstractState[], AbstractState[]> getPartition(int pIndex) {
+    MappedCertificateFile certificate = mappedCertificate;
+    if (certificate != null) {
+      if (0 <= pIndex && pIndex < numPartitions) {
+        return readMappedPartition(certificate, pIndex);
+      }
+      return null;
+    }
     if (0<=pIndex && pIndex<numPartitions && pIndex<partitions.size()) {
       return partitions.get(pIndex);
     }
     return null;
   }
 
+  private @Nullable Pair<AbstractState[], AbstractState[]> readMappedPartition(
+      final MappedCertificateFile pCertificate, int pIndex) {
+    long start = partitionReadTimer.start();
+    try {
+      return pCertificate.readPartition(pIndex);
+    } catch (IOException | ClassNotFoundException e) {
+      logger.logUserException(Level.SEVERE, e, "Reading partition " + pIndex + " failed.");
+      return null;
+    } finally {
+      partitionReadTimer.stop(start);
+    }
+  }
+
   public void constructInternalProofRepresentation(
       final UnmodifiableReachedSet pReached, final ConfigurableProgramAnalysis pCpa)
       throws InvalidConfigurationException, InterruptedException {
@@ -177,9 +263,30 @@ public class PartitioningIOHelper {
 
   public void readProof(final ObjectInputStream pIn, final PCStrategyStatistics pStats) throws IOException,
       ClassNotFoundException {
-    readMetadata(pIn, true);
-    for (int i = 0; i < numPartitions; i++) {
-      readPartition(pIn, pStats);
+    readTimer.start();
+    try {
+      readMetadata(pIn, true);
+      if (mappedCertificatePath != null) {
+        // partitions are deserialized lazily in getPartition
+        mappedCertificate = MappedCertificateFile.open(mappedCertificatePath);
+        certificateFileSize = mappedCertificate.getSize();
+        if (mappedCertificate.getNumPartitions() != numPartitions) {
+          throw new IOException(
+              "Certificate file "
+                  + mappedCertificatePath
+                  + " does not match proof, it contains "
+                  + mappedCertificate.getNumPartitions()
+                  + " instead of "
+                  + numPartitions
+                  + " partitions.");
+        }
+      } else {
+        for (int i = 0; i < numPartitions; i++) {
+          readPartition(pIn, pStats);
+        }
+      }
+    } finally {
+      readTimer.stop();
     }
   }
 
@@ -220,12 +327,38 @@ public class PartitioningIOHelper {
     Pair<PartialReachedSetDirectedGraph, List<Set<Integer>>> partitionDescription =
         computePartialReachedSetAndPartition(pReached, pCpa);
 
-    writeMetadata(pOut, pReached.size(), partitionDescription.getSecond().size());
-    for (Set<Integer> partition : partitionDescription.getSecond()) {
-      writePartition(pOut, partition, partitionDescription.getFirst());
+    writeTimer.start();
+    try {
+      writeMetadata(pOut, pReached.size(), partitionDescription.getSecond().size());
+      if (mappedCertificatePath != null) {
+        writeMappedCertificate(partitionDescription);
+      } else {
+        for (Set<Integer> partition : partitionDescription.getSecond()) {
+          writePartition(pOut, partition, partitionDescription.getFirst());
+        }
+      }
+    } finally {
+      writeTimer.stop();
     }
   }
 
+  private void writeMappedCertificate(
+      final Pair<PartialReachedSetDirectedGraph, List<Set<Integer>>> pPartitionDescription)
+      throws IOException {
+    logger.log(Level.FINER, "Write partitions to", mappedCertificatePath);
+    PartialReachedSetDirectedGraph graph = pPartitionDescription.getFirst();
+    List<Pair<AbstractState[], AbstractState[]>> content =
+        new ArrayList<>(pPartitionDescription.getSecond().size());
+    for (Set<Integer> partition : pPartitionDescription.getSecond()) {
+      AbstractState[] partitionNodes = graph.getSetNodes(partition, false);
+      if (infoCollector != null) {
+        infoCollector.addInfoForStates(partitionNodes);
+      }
+      content.add(Pair.of(partitionNodes, graph.getSuccessorNodesOutsideSet(partition, false)));
+    }
+    certificateFileSize = MappedCertificateFile.write(mappedCertificatePath, content);
+  }
+
   public void setProofInfoCollector(final ProofStatesInfoCollector pInfoCollector) {
     infoCollector = pInfoCollector;
   }
@@ -256,12 +389,25 @@ public class PartitioningIOHelper {
 
     @Override
     public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
-      if (numPartitions > 0 && partitions != null) {
+      if (numPartitions > 0 && partitions != null && !partitions.isEmpty()) {
         pOut.printf("Number of partitions: %d%n", numPartitions);
         pOut.printf("The following numbers are given in number of states.%n");
         computeAndPrintDetailedPartitioningStats(pOut);
       }
 
+      if (writeTimer.getNumberOfIntervals() > 0) {
+        pOut.println("Time for writing certificate:        " + writeTimer);
+      }
+      if (readTimer.getNumberOfIntervals() > 0) {
+        pOut.println("Time for reading certificate:        " + readTimer);
+      }
+      if (partitionReadTimer.getUpdateCount() > 0) {
+        pOut.println("Time for deserializing partitions:   " + partitionReadTimer.prettyFormat());
+      }
+      if (certificateFileSize >= 0) {
+        pOut.println("Mapped certificate file size (bytes): " + certificateFileSize);
+      }
+
       if(currentGraphStatistics!= null) {
         pOut.println("\nStatistics for partial reached set directed graph used in proof construction");
         currentGraphStatistics.printStatistics(pOut, pResult, pReached);
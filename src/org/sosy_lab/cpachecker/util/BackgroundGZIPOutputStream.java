@@ -0,0 +1,158 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An output stream that compresses its content with gzip in a separate thread, such that the
+ * compression runs in parallel to the code that produces the content instead of after it. The
+ * result is a regular single-member gzip file.
+ *
+ * <p>The content is handed to the compression thread in chunks via a queue of bounded size, so at
+ * most a constant amount of uncompressed data is kept in memory. If the compression thread fails,
+ * the exception is thrown from the next call to {@link #write(byte[], int, int)} or from {@link
+ * #close()}.
+ *
+ * <p>This class is not thread-safe, the content needs to be written by a single thread.
+ */
+public final class BackgroundGZIPOutputStream extends OutputStream {
+
+  private static final int CHUNK_SIZE = 1 << 16;
+  private static final int MAX_QUEUED_CHUNKS = 16;
+
+  /** Marks the end of the content in the queue. */
+  private static final byte[] END = new byte[0];
+
+  private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(MAX_QUEUED_CHUNKS);
+  private final Future<?> compression;
+
+  private byte[] chunk = new byte[CHUNK_SIZE];
+  private int chunkLength = 0;
+  private boolean closed = false;
+
+  /**
+   * Create a stream that writes the compressed content to the given stream, which will be closed
+   * when this stream is closed.
+   */
+  public BackgroundGZIPOutputStream(OutputStream pOut) {
+    ExecutorService executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("gzip-%d").setDaemon(true).build());
+    compression = executor.submit(() -> compress(pOut));
+    executor.shutdown();
+  }
+
+  private Void compress(OutputStream pOut) throws IOException, InterruptedException {
+    try (OutputStream target = pOut;
+        OutputStream out = new GZIPOutputStream(target, CHUNK_SIZE)) {
+      for (byte[] data = queue.take(); data != END; data = queue.take()) {
+        out.write(data);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void write(int pByte) throws IOException {
+    checkState(!closed, "stream is closed");
+    chunk[chunkLength++] = (byte) pByte;
+    if (chunkLength == CHUNK_SIZE) {
+      handOver();
+    }
+  }
+
+  @Override
+  public void write(byte[] pBytes, int pOffset, int pLength) throws IOException {
+    checkState(!closed, "stream is closed");
+    checkPositionIndexes(pOffset, pOffset + pLength, pBytes.length);
+    int offset = pOffset;
+    int remaining = pLength;
+    while (remaining > 0) {
+      int length = Math.min(remaining, CHUNK_SIZE - chunkLength);
+      System.arraycopy(pBytes, offset, chunk, chunkLength, length);
+      chunkLength += length;
+      offset += length;
+      remaining -= length;
+      if (chunkLength == CHUNK_SIZE) {
+        handOver();
+      }
+    }
+  }
+
+  /** Pass the current chunk to the compression thread and start a new one. */
+  private void handOver() throws IOException {
+    if (chunkLength > 0) {
+      enqueue(chunkLength == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, chunkLength));
+      chunk = new byte[CHUNK_SIZE];
+      chunkLength = 0;
+    }
+  }
+
+  private void enqueue(byte[] pData) throws IOException {
+    try {
+      // Do not block forever if the compression thread died and does not take chunks anymore.
+      while (!queue.offer(pData, 100, TimeUnit.MILLISECONDS)) {
+        if (compression.isDone()) {
+          waitForCompression();
+          throw new IOException("Compression of output stopped unexpectedly");
+        }
+      }
+    } catch (InterruptedException e) {
+      compression.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+  }
+
+  private void waitForCompression() throws IOException {
+    try {
+      compression.get();
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw new IOException(e.getCause());
+    } catch (InterruptedException e) {
+      compression.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+  }
+
+  /** Does nothing, the content is only guaranteed to be written after {@link #close()}. */
+  @Override
+  public void flush() {}
+
+  /** Write the remaining content and wait until the compression thread has finished. */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    handOver();
+    enqueue(END);
+    waitForCompression();
+  }
+}
@@ -0,0 +1,79 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.junit.Test;
+
+public class BackgroundGZIPOutputStreamTest {
+
+  private static byte[] compressAndDecompress(byte[] pContent, int pWriteSize)
+      throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (OutputStream out = new BackgroundGZIPOutputStream(compressed)) {
+      for (int i = 0; i < pContent.length; i += pWriteSize) {
+        int length = Math.min(pWriteSize, pContent.length - i);
+        if (length == 1) {
+          out.write(pContent[i]);
+        } else {
+          out.write(pContent, i, length);
+        }
+      }
+    }
+    try (GZIPInputStream in =
+        new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    assertThat(compressAndDecompress(new byte[0], 1)).isEmpty();
+  }
+
+  @Test
+  public void testLargeContent() throws IOException {
+    // several chunks and a partial chunk, written with different granularities
+    byte[] content = new byte[(1 << 20) + 12345];
+    new Random(0).nextBytes(content);
+    assertThat(compressAndDecompress(content, 1)).isEqualTo(content);
+    assertThat(compressAndDecompress(content, 1000)).isEqualTo(content);
+    assertThat(compressAndDecompress(content, content.length)).isEqualTo(content);
+  }
+
+  @Test
+  public void testFailingOutput() {
+    OutputStream failing =
+        new OutputStream() {
+          @Override
+          public void write(int pByte) throws IOException {
+            throw new IOException("disk full");
+          }
+        };
+    byte[] content = new byte[1 << 22];
+    IOException e =
+        assertThrows(
+            IOException.class,
+            () -> {
+              try (OutputStream out = new BackgroundGZIPOutputStream(failing)) {
+                out.write(content);
+              }
+            });
+    assertThat(e).hasMessageThat().isEqualTo("disk full");
+  }
+}
@@ -12,6 +12,7 @@ import static org.sosy_lab.common.collect.Collections3.transformedImmutableListC
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
@@ -366,46 +367,55 @@ public class AutomatonGraphmlCommon {
       graph = doc.createElement("graph");
       root.appendChild(graph);
       graph.setAttribute("edgedefault", "directed");
-      graph.appendChild(createDataElement(KeyDef.WITNESS_TYPE, pGraphType.toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.PRODUCER, pVerificationTaskMetaData.getProducerString()));
+      for (Map.Entry<KeyDef, String> data :
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData).entries()) {
+        graph.appendChild(createDataElement(data.getKey(), data.getValue()));
+      }
+    }
+
+    /**
+     * Compute the data of the graph element of a witness, i.e., the witness type, the producer, the
+     * specification, the program, etc., in the order in which it is written.
+     */
+    public static ImmutableListMultimap<KeyDef, String> getGraphData(
+        WitnessType pGraphType, CFA pCfa, VerificationTaskMetaData pVerificationTaskMetaData)
+        throws IOException {
+      ImmutableListMultimap.Builder<KeyDef, String> graphData = ImmutableListMultimap.builder();
+      graphData.put(KeyDef.WITNESS_TYPE, pGraphType.toString());
+      graphData.put(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString());
+      graphData.put(KeyDef.PRODUCER, pVerificationTaskMetaData.getProducerString());
 
       int nSpecs = 0;
       for (Property property : pVerificationTaskMetaData.getProperties()) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, property.toFullString(pCfa)));
+        graphData.put(KeyDef.SPECIFICATION, property.toFullString(pCfa));
         ++nSpecs;
       }
 
       for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
-        graph.appendChild(
-            createDataElement(
-                KeyDef.SPECIFICATION, Files.readString(specFile, StandardCharsets.UTF_8).trim()));
+        graphData.put(
+            KeyDef.SPECIFICATION, Files.readString(specFile, StandardCharsets.UTF_8).trim());
         ++nSpecs;
       }
 
       if (nSpecs == 0) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, "TRUE"));
+        graphData.put(KeyDef.SPECIFICATION, "TRUE");
       }
 
       for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
-        graph.appendChild(createDataElement(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
+        graphData.put(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness));
       }
 
       for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMFILE, programFile.toString()));
+        graphData.put(KeyDef.PROGRAMFILE, programFile.toString());
       }
       for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMHASH, computeHash(programFile)));
+        graphData.put(KeyDef.PROGRAMHASH, computeHash(programFile));
       }
 
-      graph.appendChild(
-          createDataElement(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
+      graphData.put(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel()));
       ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault()).withNano(0);
-      graph.appendChild(
-          createDataElement(
-              KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+      graphData.put(KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+      return graphData.build();
     }
 
     private void defineKey(KeyDef pKeyDef) {
@@ -8,10 +8,12 @@
 
 package org.sosy_lab.cpachecker.util.dependencegraph;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.PrintStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -20,11 +22,20 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -58,7 +69,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.CFAUtils;
-import org.sosy_lab.cpachecker.util.dependencegraph.Dominance.DomTree;
+import org.sosy_lab.cpachecker.util.dependencegraph.ControlDependenceBuilder.FunctionControlDependencies;
 import org.sosy_lab.cpachecker.util.dependencegraph.FlowDepAnalysis.DependenceConsumer;
 import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.EdgeType;
 import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.Node;
@@ -67,7 +78,9 @@ import org.sosy_lab.cpachecker.util.resources.ResourceLimit;
 import org.sosy_lab.cpachecker.util.resources.ResourceLimitChecker;
 import org.sosy_lab.cpachecker.util.resources.WalltimeLimit;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.statistics.StatConcurrentTimer;
 import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 
 /** Factory for creating a {@link SystemDependenceGraph} from a {@link CFA}. */
 @Options(prefix = "dependencegraph")
@@ -82,6 +95,12 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
   private final StatTimer flowDependenceTimer = new StatTimer("Time for flow deps.");
   private final StatTimer controlDependenceTimer = new StatTimer("Time for control deps.");
   private final StatTimer summaryEdgeTimer = new StatTimer("Time for summary edges");
+  // wall time of computing (but not inserting) the control dependencies of all functions
+  private final StatTimer controlDependenceComputationTimer =
+      new StatTimer("Time for computing control deps.");
+  // the control dependencies of functions may be computed by several threads in parallel
+  private final StatConcurrentTimer functionControlDependenceTimer =
+      new StatConcurrentTimer("Time for control deps. of single functions");
 
   @Option(
       secure = true,
@@ -108,12 +127,30 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
               + " represented by a single assumption (with true- and false-edges)")
   private boolean controlDepsTakeBothAssumptions = true;
 
+  @Option(
+      secure = true,
+      name = "controldeps.threads",
+      description =
+          "Number of threads that compute the post-dominator trees and control dependencies of"
+              + " different functions in parallel.")
+  @IntegerOption(min = 1)
+  private int controlDepThreads = 1;
+
   @Option(
       secure = true,
       name = "flowdeps.use",
       description = "Whether to consider (data-)flow dependencies.")
   private boolean considerFlowDeps = true;
 
+  @Option(
+      secure = true,
+      name = "flowdeps.threads",
+      description =
+          "Number of threads that compute the flow dependencies of different functions in"
+              + " parallel.")
+  @IntegerOption(min = 1)
+  private int flowDepThreads = 1;
+
   @Option(
       secure = true,
       name = "considerPointees",
@@ -205,7 +242,7 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
   private void insertDependencies(
       CallGraph<AFunctionDeclaration> pCallGraph,
       ImmutableSet<AFunctionDeclaration> pReachableFunctions)
-      throws CPAException {
+      throws CPAException, InterruptedException {
 
     if (considerFlowDeps) {
       flowDependenceTimer.start();
@@ -237,7 +274,7 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
     }
   }
 
-  public CSystemDependenceGraph build() throws CPAException {
+  public CSystemDependenceGraph build() throws CPAException, InterruptedException {
 
     dependenceGraphConstructionTimer.start();
 
@@ -698,7 +735,7 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
   }
 
   private void insertFlowDependencies(ImmutableSet<AFunctionDeclaration> pReachableFunctions)
-      throws CPAException {
+      throws CPAException, InterruptedException {
 
     GlobalPointerState pointerState = createGlobalPointerState();
     if (pointerState != null) {
@@ -716,47 +753,134 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
     ImmutableMultimap<String, CFAEdge> complexTypeDeclarationEdges =
         getComplexTypeDeclarationEdges(globalEdges);
 
-    for (FunctionEntryNode entryNode : cfa.getAllFunctionHeads()) {
+    DependenceConsumer dependenceConsumer =
+        (pDefEdge, pUseEdge, pCause, pIsDeclaration) ->
+            insertFlowDependency(
+                pointerState, foreignDefUseData, pDefEdge, pUseEdge, pCause, pIsDeclaration);
+
+    ExecutorService executor = null;
+    if (flowDepThreads > 1) {
+      executor =
+          Executors.newFixedThreadPool(
+              flowDepThreads,
+              new ThreadFactoryBuilder().setDaemon(true).setNameFormat("flowdeps-%d").build());
+    }
+    List<Future<?>> futures = new ArrayList<>();
+    List<CollectingDependenceConsumer> results = new ArrayList<>();
+
+    try {
+
+      for (FunctionEntryNode entryNode : cfa.getAllFunctionHeads()) {
+
+        if (onlyReachableFunctions && !pReachableFunctions.contains(entryNode.getFunction())) {
+          continue;
+        }
+
+        insertFunctionDeclarationEdge(functionDeclarationEdges, entryNode);
+
+        DependenceConsumer consumer = dependenceConsumer;
+        if (executor != null) {
+          // the builder is not thread-safe, so dependencies are inserted after the analysis
+          CollectingDependenceConsumer result = new CollectingDependenceConsumer();
+          results.add(result);
+          consumer = result;
+        }
+
+        boolean isMain = entryNode.equals(cfa.getMainFunction());
+
+        FlowDepAnalysis analysis =
+            new FlowDepAnalysis(
+                entryNode,
+                isMain ? ImmutableList.of() : globalEdges,
+                defUseExtractor,
+                pointerState,
+                foreignDefUseData,
+                complexTypeDeclarationEdges,
+                consumer);
+
+        if (executor != null) {
+          futures.add(executor.submit(analysis::run));
+        } else {
+          analysis.run();
+        }
+      }
 
-      if (onlyReachableFunctions && !pReachableFunctions.contains(entryNode.getFunction())) {
-        continue;
+      for (int i = 0; i < futures.size(); i++) {
+        futures.get(i).get();
+        results.get(i).forward(dependenceConsumer);
       }
 
-      DomTree<CFANode> domTree = DominanceUtils.createFunctionDomTree(entryNode);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      Throwables.throwIfUnchecked(cause);
+      throw new UnexpectedCheckedException("computation of flow dependencies", cause);
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  private FunctionControlDependencies computeControlDependencies(FunctionEntryNode pEntryNode) {
 
-      insertFunctionDeclarationEdge(functionDeclarationEdges, entryNode);
+    long start = functionControlDependenceTimer.start();
+    try {
+      return ControlDependenceBuilder.computeControlDependencies(
+          pEntryNode, controlDepsTakeBothAssumptions);
+    } finally {
+      functionControlDependenceTimer.stop(start);
+    }
+  }
 
-      DependenceConsumer dependenceConsumer =
-          (pDefEdge, pUseEdge, pCause, pIsDeclaration) ->
-              insertFlowDependency(
-                  pointerState, foreignDefUseData, pDefEdge, pUseEdge, pCause, pIsDeclaration);
+  private List<FunctionControlDependencies> computeControlDependencies(
+      List<FunctionEntryNode> pEntryNodes) {
 
-      boolean isMain = entryNode.equals(cfa.getMainFunction());
+    if (controlDepThreads == 1) {
+      List<FunctionControlDependencies> results = new ArrayList<>(pEntryNodes.size());
+      for (FunctionEntryNode entryNode : pEntryNodes) {
+        results.add(computeControlDependencies(entryNode));
+      }
+      return results;
+    }
 
-      new FlowDepAnalysis(
-              domTree,
-              Dominance.createDomFrontiers(domTree),
-              entryNode,
-              isMain ? ImmutableList.of() : globalEdges,
-              defUseExtractor,
-              pointerState,
-              foreignDefUseData,
-              complexTypeDeclarationEdges,
-              dependenceConsumer)
-          .run();
+    ForkJoinPool pool = new ForkJoinPool(controlDepThreads);
+    try {
+      List<ForkJoinTask<FunctionControlDependencies>> tasks = new ArrayList<>(pEntryNodes.size());
+      for (FunctionEntryNode entryNode : pEntryNodes) {
+        tasks.add(pool.submit(() -> computeControlDependencies(entryNode)));
+      }
+      List<FunctionControlDependencies> results = new ArrayList<>(tasks.size());
+      for (ForkJoinTask<FunctionControlDependencies> task : tasks) {
+        results.add(task.join());
+      }
+      return results;
+    } finally {
+      pool.shutdown();
     }
   }
 
   private void insertControlDependencies(ImmutableSet<AFunctionDeclaration> pReachableFunctions) {
 
+    List<FunctionEntryNode> entryNodes = new ArrayList<>();
     for (FunctionEntryNode entryNode : cfa.getAllFunctionHeads()) {
-
-      if (onlyReachableFunctions && !pReachableFunctions.contains(entryNode.getFunction())) {
-        continue;
+      if (!onlyReachableFunctions || pReachableFunctions.contains(entryNode.getFunction())) {
+        entryNodes.add(entryNode);
       }
+    }
+
+    List<FunctionControlDependencies> controlDependencies;
+    controlDependenceComputationTimer.start();
+    try {
+      controlDependencies = computeControlDependencies(entryNodes);
+    } finally {
+      controlDependenceComputationTimer.stop();
+    }
+
+    for (int i = 0; i < entryNodes.size(); i++) {
 
-      ControlDependenceBuilder.insertControlDependencies(
-          builder, entryNode, controlDepsTakeBothAssumptions);
+      FunctionEntryNode entryNode = entryNodes.get(i);
+
+      ControlDependenceBuilder.insertControlDependencies(builder, controlDependencies.get(i));
 
       Optional<AFunctionDeclaration> procedure = Optional.of(entryNode.getFunction());
 
@@ -844,6 +968,21 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
               put(pOut, initialIndentation, dependenceGraphConstructionTimer);
               put(pOut, detailsIndentation, flowDependenceTimer);
               put(pOut, detailsIndentation, controlDependenceTimer);
+              if (functionControlDependenceTimer.getUpdateCount() > 0) {
+                put(
+                    pOut,
+                    detailsIndentation + 1,
+                    functionControlDependenceTimer.getTitle(),
+                    functionControlDependenceTimer.prettyFormat());
+                // the sum of the times of all functions is the time a sequential computation needs
+                put(
+                    pOut,
+                    detailsIndentation + 1,
+                    "Speedup of computing control deps.",
+                    StatisticsUtils.div(
+                        functionControlDependenceTimer.getConsumedTime().asNanos(),
+                        controlDependenceComputationTimer.getConsumedTime().asNanos()));
+              }
               put(pOut, detailsIndentation, summaryEdgeTimer);
 
               for (var nodeType : SystemDependenceGraph.NodeType.values()) {
@@ -869,6 +1008,23 @@ public class CSystemDependenceGraphBuilder implements StatisticsProvider {
         });
   }
 
+  /** Records dependencies, such that they can be inserted into the builder later on. */
+  private static final class CollectingDependenceConsumer implements DependenceConsumer {
+
+    private final List<Consumer<DependenceConsumer>> dependencies = new ArrayList<>();
+
+    @Override
+    public void accept(
+        CFAEdge pDefEdge, CFAEdge pUseEdge, MemoryLocation pCause, boolean pIsDeclaration) {
+      dependencies.add(
+          consumer -> consumer.accept(pDefEdge, pUseEdge, pCause, pIsDeclaration));
+    }
+
+    private void forward(DependenceConsumer pConsumer) {
+      dependencies.forEach(dependency -> dependency.accept(pConsumer));
+    }
+  }
+
   private static final class CSdgDotExporter
       extends SdgDotExporter<
           AFunctionDeclaration, CFAEdge, MemoryLocation, CSystemDependenceGraph.Node> {
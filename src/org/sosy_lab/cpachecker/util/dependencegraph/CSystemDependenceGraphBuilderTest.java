@@ -0,0 +1,259 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.dependencegraph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.AFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.EdgeType;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.NodeType;
+import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.VisitResult;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Compares the flow and control dependencies of system dependence graphs for small programs with
+ * the expected dependencies, for sequential and parallel computation of the dependencies.
+ */
+@RunWith(Parameterized.class)
+public class CSystemDependenceGraphBuilderTest {
+
+  @Parameters(name = "threads={0}")
+  public static Object[] getThreads() {
+    return new Object[] {1, 4};
+  }
+
+  @Parameter(0)
+  public int threads;
+
+  private static final ImmutableList<String> LOOP =
+      ImmutableList.of(
+          "int main() {",
+          "  int i = 0;",
+          "  int s = 0;",
+          "  while (i < 10) {",
+          "    s = s + i;",
+          "    i = i + 1;",
+          "  }",
+          "  s = 5;",
+          "  return s;",
+          "}");
+
+  private static final ImmutableList<String> POINTERS =
+      ImmutableList.of(
+          "int main() {",
+          "  int a = 1;",
+          "  int b = 2;",
+          "  int c = 0;",
+          "  int *p = &a;",
+          "  if (c > 0) {",
+          "    p = &b;",
+          "  }",
+          "  *p = 3;",
+          "  int x = a;",
+          "  int y = b;",
+          "  return x + y;",
+          "}");
+
+  private static final ImmutableList<String> GLOBALS =
+      ImmutableList.of(
+          "int g = 1;",
+          "int get() {",
+          "  return g;",
+          "}",
+          "int main() {",
+          "  int x = g;",
+          "  g = x + 1;",
+          "  x = get();",
+          "  return x;",
+          "}");
+
+  private static final ImmutableList<String> STRUCTS =
+      ImmutableList.of(
+          "struct s { int f; int g; };",
+          "int main() {",
+          "  struct s v;",
+          "  v.f = 1;",
+          "  v.g = 2;",
+          "  v.f = 3;",
+          "  int x = v.f;",
+          "  return x;",
+          "}");
+
+  private static CSystemDependenceGraph createSdg(ImmutableList<String> pProgram, int pThreads)
+      throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("dependencegraph.flowdeps.threads", Integer.toString(pThreads))
+            .setOption("dependencegraph.controldeps.threads", Integer.toString(pThreads))
+            .build();
+    CFA cfa = TestDataTools.makeCFA(pProgram.toArray(new String[0]));
+    return new CSystemDependenceGraphBuilder(
+            cfa, config, LogManager.createTestLogManager(), ShutdownNotifier.createDummy())
+        .build();
+  }
+
+  /**
+   * Returns the edges of the SDG as strings, such that they do not depend on the node ids. If a
+   * type is given, only edges of this type between the code of two statements are returned.
+   */
+  private static Set<String> getEdges(
+      CSystemDependenceGraph pSdg, Optional<EdgeType> pStatementDependencyType) {
+    Set<String> edges = new HashSet<>();
+    CSystemDependenceGraph.ForwardsVisitor visitor =
+        new CSystemDependenceGraph.ForwardsVisitor() {
+
+          @Override
+          public VisitResult visitNode(CSystemDependenceGraph.Node pNode) {
+            return VisitResult.CONTINUE;
+          }
+
+          @Override
+          public VisitResult visitEdge(
+              EdgeType pType,
+              CSystemDependenceGraph.Node pPredecessor,
+              CSystemDependenceGraph.Node pSuccessor) {
+            if (pStatementDependencyType.isEmpty()) {
+              edges.add(pType + ": " + describe(pPredecessor) + " -> " + describe(pSuccessor));
+            } else if (pType == pStatementDependencyType.orElseThrow()
+                && pSuccessor.getType() == NodeType.STATEMENT) {
+              edges.add(getCode(pPredecessor) + " -> " + getCode(pSuccessor));
+            }
+            return VisitResult.SKIP;
+          }
+        };
+    for (CSystemDependenceGraph.Node node : pSdg.getNodes()) {
+      pSdg.traverse(ImmutableList.of(node), visitor);
+    }
+    return edges;
+  }
+
+  /** Returns the code of the statement of the node, or the name of its variable. */
+  private static String getCode(CSystemDependenceGraph.Node pNode) {
+    if (pNode.getStatement().isPresent()) {
+      return pNode.getStatement().orElseThrow().getCode();
+    }
+    return pNode.getVariable().map(MemoryLocation::getIdentifier).orElse("");
+  }
+
+  private static String describe(CSystemDependenceGraph.Node pNode) {
+    return String.format(
+        "%s(%s, %s, %s)",
+        pNode.getType(),
+        pNode.getProcedure().map(AFunctionDeclaration::getName).orElse(""),
+        pNode.getStatement().map(CFAEdge::getCode).orElse(""),
+        pNode.getVariable().map(MemoryLocation::getExtendedQualifiedName).orElse(""));
+  }
+
+  private Set<String> getFlowDependencies(ImmutableList<String> pProgram) throws Exception {
+    return getEdges(createSdg(pProgram, threads), Optional.of(EdgeType.FLOW_DEPENDENCY));
+  }
+
+  private Set<String> getControlDependencies(ImmutableList<String> pProgram) throws Exception {
+    return getEdges(createSdg(pProgram, threads), Optional.of(EdgeType.CONTROL_DEPENDENCY));
+  }
+
+  @Test
+  public void testLoop() throws Exception {
+    Set<String> flowDeps = getFlowDependencies(LOOP);
+
+    assertThat(flowDeps)
+        .containsAtLeast(
+            "int i = 0; -> i < 10",
+            "int i = 0; -> !(i < 10)",
+            "int i = 0; -> s = s + i;",
+            "int i = 0; -> i = i + 1;",
+            "i = i + 1; -> i < 10",
+            "i = i + 1; -> !(i < 10)",
+            "i = i + 1; -> s = s + i;",
+            "i = i + 1; -> i = i + 1;",
+            "int s = 0; -> s = s + i;",
+            "s = s + i; -> s = s + i;",
+            "s = 5; -> return s;");
+    // the definition after the loop kills all other definitions of s
+    assertThat(flowDeps).containsNoneOf("int s = 0; -> return s;", "s = s + i; -> return s;");
+  }
+
+  @Test
+  public void testPointers() throws Exception {
+    Set<String> flowDeps = getFlowDependencies(POINTERS);
+
+    assertThat(flowDeps)
+        .containsAtLeast(
+            "int *p = &a; -> *p = 3;",
+            "p = &b; -> *p = 3;",
+            "*p = 3; -> int x = a;",
+            "*p = 3; -> int y = b;",
+            "int b = 2; -> int y = b;",
+            "int x = a; -> return x + y;",
+            "int y = b; -> return x + y;");
+    // p may point to a or b, so the definition via p does not kill other definitions of a
+    assertThat(flowDeps).contains("int a = 1; -> int x = a;");
+  }
+
+  @Test
+  public void testGlobals() throws Exception {
+    Set<String> flowDeps = getFlowDependencies(GLOBALS);
+
+    assertThat(flowDeps)
+        .containsAtLeast(
+            "int g = 1; -> int x = g;",
+            "int x = g; -> g = x + 1;",
+            // g is defined in get by the call (formal-in node of g)
+            "g -> return g;",
+            "x = get(); -> return x;");
+    assertThat(flowDeps).doesNotContain("int x = g; -> return x;");
+  }
+
+  @Test
+  public void testPartialStructDefinitions() throws Exception {
+    Set<String> flowDeps = getFlowDependencies(STRUCTS);
+
+    // definitions of single fields do not kill each other
+    assertThat(flowDeps)
+        .containsAtLeast(
+            "v.f = 1; -> int x = v.f;",
+            "v.g = 2; -> int x = v.f;",
+            "v.f = 3; -> int x = v.f;",
+            "int x = v.f; -> return x;");
+  }
+
+  @Test
+  public void testControlDependencies() throws Exception {
+    assertThat(getControlDependencies(LOOP))
+        .containsAtLeast("i < 10 -> s = s + i;", "i < 10 -> i = i + 1;");
+    assertThat(getControlDependencies(LOOP)).doesNotContain("i < 10 -> s = 5;");
+
+    assertThat(getControlDependencies(POINTERS)).contains("c > 0 -> p = &b;");
+    assertThat(getControlDependencies(POINTERS)).doesNotContain("c > 0 -> *p = 3;");
+  }
+
+  @Test
+  public void testSameGraphAsSequential() throws Exception {
+    for (ImmutableList<String> program : ImmutableSet.of(LOOP, POINTERS, GLOBALS, STRUCTS)) {
+      assertThat(getEdges(createSdg(program, threads), Optional.empty()))
+          .containsExactlyElementsIn(getEdges(createSdg(program, 1), Optional.empty()));
+    }
+  }
+}
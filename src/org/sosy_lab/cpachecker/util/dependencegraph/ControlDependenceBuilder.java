@@ -10,9 +10,13 @@ package org.sosy_lab.cpachecker.util.dependencegraph;
 
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.sosy_lab.cpachecker.cfa.ast.AFunctionDeclaration;
@@ -35,21 +39,19 @@ import org.sosy_lab.cpachecker.util.dependencegraph.SystemDependenceGraph.VisitR
 /**
  * Class for computing control dependencies and inserting them into a {@link SystemDependenceGraph}.
  *
- * @param <N> the node type of the SDG
+ * <p>The computation of the control dependencies of a function does not depend on other functions
+ * or on the SDG, so the control dependencies of different functions can be computed in parallel
+ * (see {@link #computeControlDependencies(FunctionEntryNode, boolean)}). Only the insertion into
+ * the SDG (see {@link #insertControlDependencies(SystemDependenceGraph.Builder,
+ * FunctionControlDependencies)}) has to happen sequentially.
  */
-final class ControlDependenceBuilder<N extends Node<AFunctionDeclaration, CFAEdge, ?>> {
+final class ControlDependenceBuilder {
 
-  private final SystemDependenceGraph.Builder<AFunctionDeclaration, CFAEdge, ?, N> builder;
-  private final Optional<AFunctionDeclaration> procedure;
-  private final Set<CFAEdge> dependentEdges;
+  // dependent edge -> edges the dependent edge is control dependent on
+  private final SetMultimap<CFAEdge, CFAEdge> dependencies;
 
-  private ControlDependenceBuilder(
-      SystemDependenceGraph.Builder<AFunctionDeclaration, CFAEdge, ?, N> pBuilder,
-      FunctionEntryNode pEntryNode) {
-
-    builder = pBuilder;
-    procedure = Optional.of(pEntryNode.getFunction());
-    dependentEdges = new HashSet<>();
+  private ControlDependenceBuilder() {
+    dependencies = LinkedHashMultimap.create();
   }
 
   private static boolean ignoreFunctionEdge(CFAEdge pEdge) {
@@ -64,47 +66,79 @@ final class ControlDependenceBuilder<N extends Node<AFunctionDeclaration, CFAEdg
   }
 
   /**
-   * Compute control dependencies for a specified function and insert them into a {@link
-   * SystemDependenceGraph}.
+   * Compute control dependencies for a specified function without inserting them into a {@link
+   * SystemDependenceGraph}. This method can be called concurrently.
    *
-   * @param pBuilder the SDG builder used to insert dependencies
    * @param pEntryNode the function (specified by its entry node) to compute control dependencies
    *     for
    * @param pDependOnBothAssumptions whether to always depend on both assume edges of a branching,
    *     even if it would be sufficient to only depend on one of the assume edges
+   * @return the control dependencies of the function, which can be inserted using {@link
+   *     #insertControlDependencies(SystemDependenceGraph.Builder, FunctionControlDependencies)}
    */
-  static void insertControlDependencies(
-      SystemDependenceGraph.Builder<AFunctionDeclaration, CFAEdge, ?, ?> pBuilder,
-      FunctionEntryNode pEntryNode,
-      boolean pDependOnBothAssumptions) {
+  static FunctionControlDependencies computeControlDependencies(
+      FunctionEntryNode pEntryNode, boolean pDependOnBothAssumptions) {
 
-    ControlDependenceBuilder<?> controlDependenceBuilder =
-        new ControlDependenceBuilder<>(pBuilder, pEntryNode);
+    ControlDependenceBuilder controlDependenceBuilder = new ControlDependenceBuilder();
 
     DomTree<CFANode> postDomTree = DominanceUtils.createFunctionPostDomTree(pEntryNode);
     Set<CFANode> postDomTreeNodes = new HashSet<>();
     Iterators.addAll(postDomTreeNodes, postDomTree.iterator());
 
-    controlDependenceBuilder.insertControlDependencies(
+    controlDependenceBuilder.computeControlDependencies(
         postDomTree, postDomTreeNodes, pDependOnBothAssumptions);
 
     NodeCollectingCFAVisitor nodeCollector = new NodeCollectingCFAVisitor();
     CFATraversal.dfs().ignoreFunctionCalls().traverse(pEntryNode, nodeCollector);
 
-    controlDependenceBuilder.insertMissingControlDependencies(
+    controlDependenceBuilder.computeMissingControlDependencies(
         postDomTree, postDomTreeNodes, nodeCollector.getVisitedNodes());
 
-    controlDependenceBuilder.insertEntryControlDependencies(nodeCollector.getVisitedNodes());
+    return new FunctionControlDependencies(
+        pEntryNode,
+        ImmutableSet.copyOf(nodeCollector.getVisitedNodes()),
+        ImmutableSetMultimap.copyOf(controlDependenceBuilder.dependencies));
+  }
+
+  /**
+   * Insert previously computed control dependencies of a function into a {@link
+   * SystemDependenceGraph}.
+   *
+   * @param pBuilder the SDG builder used to insert dependencies
+   * @param pDependencies the control dependencies of a function
+   */
+  static <N extends Node<AFunctionDeclaration, CFAEdge, ?>> void insertControlDependencies(
+      SystemDependenceGraph.Builder<AFunctionDeclaration, CFAEdge, ?, N> pBuilder,
+      FunctionControlDependencies pDependencies) {
+
+    Optional<AFunctionDeclaration> procedure =
+        Optional.of(pDependencies.entryNode.getFunction());
+
+    for (Map.Entry<CFAEdge, CFAEdge> dependency : pDependencies.dependencies.entries()) {
+
+      Optional<CFAEdge> dependentStatement = Optional.of(dependency.getKey());
+      Optional<CFAEdge> controlStatement = Optional.of(dependency.getValue());
+
+      pBuilder
+          .node(NodeType.STATEMENT, procedure, dependentStatement, Optional.empty())
+          .depends(EdgeType.CONTROL_DEPENDENCY, Optional.empty())
+          .on(NodeType.STATEMENT, procedure, controlStatement, Optional.empty());
+    }
+
+    insertEntryControlDependencies(
+        pBuilder,
+        procedure,
+        pDependencies.functionNodes,
+        pDependencies.dependencies.keySet());
   }
 
   /**
-   * Compute control dependencies using dominance frontiers created from the post-DomTree and insert
-   * these dependencies into the system dependence graph.
+   * Compute control dependencies using dominance frontiers created from the post-DomTree.
    *
    * <p>Implementation detail: how post-DomTrees are used to find control dependencies is described
    * in "The Program Dependence Graph and Its Use in Optimization" (Ferrante et al.)
    */
-  private void insertControlDependencies(
+  private void computeControlDependencies(
       DomTree<CFANode> pPostDomTree,
       Set<CFANode> pPostDomTreeNodes,
       boolean pDependOnBothAssumptions) {
@@ -123,16 +157,7 @@ final class ControlDependenceBuilder<N extends Node<AFunctionDeclaration, CFAEdg
 
               for (CFAEdge dependentEdge : CFAUtils.allLeavingEdges(dependentNode)) {
                 if (!ignoreFunctionEdge(dependentEdge) && !assumeEdge.equals(dependentEdge)) {
-
-                  Optional<CFAEdge> dependentStatement = Optional.of(dependentEdge);
-                  Optional<CFAEdge> controlStatement = Optional.of(assumeEdge);
-
-                  builder
-                      .node(NodeType.STATEMENT, procedure, dependentStatement, Optional.empty())
-                      .depends(EdgeType.CONTROL_DEPENDENCY, Optional.empty())
-                      .on(NodeType.STATEMENT, procedure, controlStatement, Optional.empty());
-
-                  dependentEdges.add(dependentEdge);
+                  dependencies.put(dependentEdge, assumeEdge);
                 }
               }
             }
@@ -143,10 +168,10 @@ final class ControlDependenceBuilder<N extends Node<AFunctionDeclaration, CFAEdg
   }
 
   /**
-   * Insert necessary control dependencies that were overlooked by post-DomTree based {@link
-   * #insertControlDependencies(DomTree, Set, boolean)}.
+   * Compute necessary control dependencies that were overlooked by post-DomTree based {@link
+   * #computeControlDependencies(DomTree, Set, boolean)}.
    */
-  private void insertMissingControlDependencies(
+  private void computeMissingControlDependencies(
       DomTree<CFANode> pPostDomTree, Set<CFANode> pPostDomTreeNodes, Set<CFANode> pFunctionNodes) {
 
     // Some function nodes are missing from the post-DomTree. This happens when a path from the node
@@ -177,16 +202,7 @@ final class ControlDependenceBuilder<N extends Node<AFunctionDeclaration, CFAEdg
       if (!ignoreFunctionEdge(dependentEdge)) {
         for (CFAEdge assumeEdge : assumeEdgesWithoutDominator) {
           if (!assumeEdge.equals(dependentEdge)) {
-
-            Optional<CFAEdge> dependentStatement = Optional.of(dependentEdge);
-            Optional<CFAEdge> controlStatement = Optional.of(assumeEdge);
-
-            builder
-                .node(NodeType.STATEMENT, procedure, dependentStatement, Optional.empty())
-                .depends(EdgeType.CONTROL_DEPENDENCY, Optional.empty())
-                .on(NodeType.STATEMENT, procedure, controlStatement, Optional.empty());
-
-            dependentEdges.add(dependentEdge);
+            dependencies.put(dependentEdge, assumeEdge);
           }
         }
       }
@@ -229,22 +245,27 @@ final class ControlDependenceBuilder<N extends Node<AFunctionDeclaration, CFAEdg
    *
    * }</pre>
    */
-  private void insertEntryControlDependencies(Set<CFANode> pFunctionNodes) {
+  private static <N extends Node<AFunctionDeclaration, CFAEdge, ?>>
+      void insertEntryControlDependencies(
+          SystemDependenceGraph.Builder<AFunctionDeclaration, CFAEdge, ?, N> pBuilder,
+          Optional<AFunctionDeclaration> pProcedure,
+          Set<CFANode> pFunctionNodes,
+          Set<CFAEdge> pDependentEdges) {
 
     for (CFAEdge edge : functionEdges(pFunctionNodes)) {
-      if (!dependentEdges.contains(edge)) {
-        builder
-            .node(NodeType.STATEMENT, procedure, Optional.of(edge), Optional.empty())
+      if (!pDependentEdges.contains(edge)) {
+        pBuilder
+            .node(NodeType.STATEMENT, pProcedure, Optional.of(edge), Optional.empty())
             .depends(EdgeType.CONTROL_DEPENDENCY, Optional.empty())
-            .on(NodeType.ENTRY, procedure, Optional.empty(), Optional.empty());
+            .on(NodeType.ENTRY, pProcedure, Optional.empty(), Optional.empty());
       }
     }
 
     Set<CFAEdge> entryNodeDependent = new HashSet<>();
     N entryNode =
-        builder.node(NodeType.ENTRY, procedure, Optional.empty(), Optional.empty()).getNode();
+        pBuilder.node(NodeType.ENTRY, pProcedure, Optional.empty(), Optional.empty()).getNode();
 
-    builder.traverse(
+    pBuilder.traverse(
         ImmutableSet.of(entryNode),
         new ForwardsVisitor<>() {
 
@@ -271,11 +292,28 @@ final class ControlDependenceBuilder<N extends Node<AFunctionDeclaration, CFAEdg
 
     for (CFAEdge edge : functionEdges(pFunctionNodes)) {
       if (!entryNodeDependent.contains(edge)) {
-        builder
-            .node(NodeType.STATEMENT, procedure, Optional.of(edge), Optional.empty())
+        pBuilder
+            .node(NodeType.STATEMENT, pProcedure, Optional.of(edge), Optional.empty())
             .depends(EdgeType.CONTROL_DEPENDENCY, Optional.empty())
-            .on(NodeType.ENTRY, procedure, Optional.empty(), Optional.empty());
+            .on(NodeType.ENTRY, pProcedure, Optional.empty(), Optional.empty());
       }
     }
   }
+
+  /** The control dependencies of a single function. */
+  static final class FunctionControlDependencies {
+
+    private final FunctionEntryNode entryNode;
+    private final ImmutableSet<CFANode> functionNodes;
+    private final ImmutableSetMultimap<CFAEdge, CFAEdge> dependencies;
+
+    private FunctionControlDependencies(
+        FunctionEntryNode pEntryNode,
+        ImmutableSet<CFANode> pFunctionNodes,
+        ImmutableSetMultimap<CFAEdge, CFAEdge> pDependencies) {
+      entryNode = pEntryNode;
+      functionNodes = pFunctionNodes;
+      dependencies = pDependencies;
+    }
+  }
 }
@@ -11,6 +11,7 @@ package org.sosy_lab.cpachecker.util.dependencegraph;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
@@ -269,25 +270,28 @@ public final class Dominance {
 
     Objects.requireNonNull(pDomTree, "pDomTree must not be null");
 
-    DomFrontiers.Frontier[] frontiers = computeFrontiers(pDomTree.getInput(), pDomTree.getDoms());
-
-    return new DomFrontiers<>(pDomTree.getIds(), pDomTree.getNodes(), frontiers);
+    return computeFrontiers(
+        pDomTree.getIds(), pDomTree.getNodes(), pDomTree.getInput(), pDomTree.getDoms());
   }
 
   /**
    * For more information on the algorithm, see "A Simple, Fast Dominance Algorithm" (Cooper et
    * al.).
    */
-  private static DomFrontiers.Frontier[] computeFrontiers(
-      final DomInput pInput, final int[] pDoms) {
+  private static <T> DomFrontiers<T> computeFrontiers(
+      final Map<T, Integer> pIds, final T[] pNodes, final DomInput pInput, final int[] pDoms) {
 
-    DomFrontiers.Frontier[] frontiers = new DomFrontiers.Frontier[pInput.getNodeCount()];
-    for (int id = 0; id < frontiers.length; id++) {
-      frontiers[id] = new DomFrontiers.Frontier();
-    }
+    int nodeCount = pInput.getNodeCount();
+    int[] sizes = new int[nodeCount]; // sizes[x] == number of nodes in the frontier of x
+    int[] lastAdded = new int[nodeCount]; // lastAdded[x] == last node added to the frontier of x
+    Arrays.fill(lastAdded, UNDEFINED);
+
+    // pairs of (frontier owner, frontier member) in the order they are found
+    int[] pairs = new int[2 * nodeCount];
+    int pairCount = 0;
 
     int index = 0; // index for input data (data format is specified in DomInput)
-    for (int id = 0; id < pInput.getNodeCount(); id++) { // all nodes
+    for (int id = 0; id < nodeCount; id++) { // all nodes
 
       if (pInput.data[index] == DomInput.DELIMITER) { // has no predecessors?
         index++; // skip delimiter
@@ -303,7 +307,17 @@ public final class Dominance {
       while ((runner = pInput.data[index]) != DomInput.DELIMITER) { // all predecessors of node
 
         while (runner != UNDEFINED && runner != pDoms[id]) {
-          frontiers[runner].add(id);
+          // all additions of a node happen in this loop, so checking the last one avoids duplicates
+          if (lastAdded[runner] != id) {
+            lastAdded[runner] = id;
+            sizes[runner]++;
+            if (2 * pairCount == pairs.length) {
+              pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+            }
+            pairs[2 * pairCount] = runner;
+            pairs[2 * pairCount + 1] = id;
+            pairCount++;
+          }
           runner = pDoms[runner];
         }
 
@@ -313,7 +327,19 @@ public final class Dominance {
       index++; // skip delimiter
     }
 
-    return frontiers;
+    // the frontier of node x is frontiers[offsets[x]] to frontiers[offsets[x + 1] - 1]
+    int[] offsets = new int[nodeCount + 1];
+    for (int id = 0; id < nodeCount; id++) {
+      offsets[id + 1] = offsets[id] + sizes[id];
+    }
+
+    int[] frontiers = new int[pairCount];
+    int[] next = Arrays.copyOf(offsets, nodeCount);
+    for (int pair = 0; pair < pairCount; pair++) {
+      frontiers[next[pairs[2 * pair]]++] = pairs[2 * pair + 1];
+    }
+
+    return new DomFrontiers<>(pIds, pNodes, offsets, frontiers);
   }
 
   /**
@@ -728,21 +754,22 @@ public final class Dominance {
 
     private final Map<T, Integer> ids;
     private final T[] nodes;
-    private final Frontier[] frontiers;
+    private final int[] offsets;
+    private final int[] frontiers;
 
-    private DomFrontiers(Map<T, Integer> pIds, T[] pNodes, Frontier[] pFrontiers) {
+    private DomFrontiers(Map<T, Integer> pIds, T[] pNodes, int[] pOffsets, int[] pFrontiers) {
       ids = pIds;
       nodes = pNodes;
+      offsets = pOffsets;
       frontiers = pFrontiers;
     }
 
     private Set<T> getFrontier(int pId) {
 
-      Frontier frontier = frontiers[pId];
       Set<T> nodeSet = new HashSet<>();
 
-      for (int id : frontier.getSet()) {
-        nodeSet.add(nodes[id]);
+      for (int index = offsets[pId]; index < offsets[pId + 1]; index++) {
+        nodeSet.add(nodes[frontiers[index]]);
       }
 
       return Collections.unmodifiableSet(nodeSet);
@@ -784,7 +811,7 @@ public final class Dominance {
       Objects.requireNonNull(pNodes, "pNodes must not be null");
 
       Set<T> frontier = new HashSet<>();
-      Set<Integer> seen = new HashSet<>(); // a node is in seen if it is or has been in the waitlist
+      BitSet seen = new BitSet(nodes.length); // a node is in seen if it is or has been in waitlist
       Deque<Integer> waitlist = new ArrayDeque<>();
 
       for (T node : pNodes) {
@@ -797,16 +824,18 @@ public final class Dominance {
         }
 
         waitlist.add(id);
-        seen.add(id);
+        seen.set(id);
       }
 
       while (!waitlist.isEmpty()) {
 
         int removed = waitlist.remove();
 
-        for (int id : frontiers[removed].getSet()) {
+        for (int index = offsets[removed]; index < offsets[removed + 1]; index++) {
+          int id = frontiers[index];
           if (frontier.add(nodes[id])) {
-            if (seen.add(id)) { // if not previously seen -> add to waitlist
+            if (!seen.get(id)) { // if not previously seen -> add to waitlist
+              seen.set(id);
               waitlist.add(id);
             }
           }
@@ -818,29 +847,15 @@ public final class Dominance {
 
     @Override
     public String toString() {
-      return Arrays.toString(frontiers);
-    }
-
-    private static final class Frontier {
-
-      private Set<Integer> set;
-
-      private Frontier() {
-        set = new HashSet<>();
-      }
 
-      private Set<Integer> getSet() {
-        return set;
-      }
+      List<String> frontierStrings = new ArrayList<>(nodes.length);
 
-      private void add(int pId) {
-        set.add(pId);
+      for (int id = 0; id < nodes.length; id++) {
+        frontierStrings.add(
+            Arrays.toString(Arrays.copyOfRange(frontiers, offsets[id], offsets[id + 1])));
       }
 
-      @Override
-      public String toString() {
-        return set.toString();
-      }
+      return frontierStrings.toString();
     }
   }
 }
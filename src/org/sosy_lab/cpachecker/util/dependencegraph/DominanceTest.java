@@ -0,0 +1,112 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.dependencegraph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.util.dependencegraph.Dominance.DomFrontiers;
+import org.sosy_lab.cpachecker.util.dependencegraph.Dominance.DomTree;
+
+public class DominanceTest {
+
+  /** Creates the dominance tree of the graph with the given edges, starting at node 0. */
+  private static DomTree<Integer> createDomTree(ImmutableListMultimap<Integer, Integer> pEdges) {
+    ImmutableListMultimap<Integer, Integer> predecessors = pEdges.inverse();
+    return Dominance.createDomTree(0, pEdges::get, predecessors::get);
+  }
+
+  private static int getImmediateDominator(DomTree<Integer> pDomTree, int pNode) {
+    return pDomTree.getNode(pDomTree.getParent(pDomTree.getId(pNode)));
+  }
+
+  @Test
+  public void testDiamond() {
+    // 0 -> 1 -> 3 and 0 -> 2 -> 3
+    DomTree<Integer> domTree =
+        createDomTree(
+            ImmutableListMultimap.<Integer, Integer>builder()
+                .putAll(0, 1, 2)
+                .putAll(1, 3)
+                .putAll(2, 3)
+                .build());
+    DomFrontiers<Integer> frontiers = Dominance.createDomFrontiers(domTree);
+
+    assertThat(domTree.hasParent(domTree.getId(0))).isFalse();
+    assertThat(getImmediateDominator(domTree, 1)).isEqualTo(0);
+    assertThat(getImmediateDominator(domTree, 2)).isEqualTo(0);
+    assertThat(getImmediateDominator(domTree, 3)).isEqualTo(0);
+
+    assertThat(frontiers.getFrontier(0)).isEmpty();
+    assertThat(frontiers.getFrontier(1)).containsExactly(3);
+    assertThat(frontiers.getFrontier(2)).containsExactly(3);
+    assertThat(frontiers.getFrontier(3)).isEmpty();
+
+    assertThat(frontiers.getIteratedFrontier(ImmutableSet.of(1))).containsExactly(3);
+    assertThat(frontiers.getIteratedFrontier(ImmutableSet.of(1, 2))).containsExactly(3);
+    assertThat(frontiers.getIteratedFrontier(ImmutableSet.of(0, 3))).isEmpty();
+  }
+
+  @Test
+  public void testLoop() {
+    // loop head 1 with body 2 -> 3 -> 1 and exit 4
+    DomTree<Integer> domTree =
+        createDomTree(
+            ImmutableListMultimap.<Integer, Integer>builder()
+                .putAll(0, 1)
+                .putAll(1, 2, 4)
+                .putAll(2, 3)
+                .putAll(3, 1)
+                .build());
+    DomFrontiers<Integer> frontiers = Dominance.createDomFrontiers(domTree);
+
+    assertThat(getImmediateDominator(domTree, 1)).isEqualTo(0);
+    assertThat(getImmediateDominator(domTree, 2)).isEqualTo(1);
+    assertThat(getImmediateDominator(domTree, 3)).isEqualTo(2);
+    assertThat(getImmediateDominator(domTree, 4)).isEqualTo(1);
+
+    assertThat(frontiers.getFrontier(0)).isEmpty();
+    // the loop head is in its own frontier
+    assertThat(frontiers.getFrontier(1)).containsExactly(1);
+    assertThat(frontiers.getFrontier(2)).containsExactly(1);
+    assertThat(frontiers.getFrontier(3)).containsExactly(1);
+    assertThat(frontiers.getFrontier(4)).isEmpty();
+
+    assertThat(frontiers.getIteratedFrontier(ImmutableSet.of(3))).containsExactly(1);
+    assertThat(frontiers.getIteratedFrontier(ImmutableSet.of(4))).isEmpty();
+  }
+
+  @Test
+  public void testIrreducible() {
+    // the cycle 1 <-> 2 can be entered at 1 and at 2, both leave to 3
+    DomTree<Integer> domTree =
+        createDomTree(
+            ImmutableListMultimap.<Integer, Integer>builder()
+                .putAll(0, 1, 2)
+                .putAll(1, 2, 3)
+                .putAll(2, 1, 3)
+                .build());
+    DomFrontiers<Integer> frontiers = Dominance.createDomFrontiers(domTree);
+
+    assertThat(getImmediateDominator(domTree, 1)).isEqualTo(0);
+    assertThat(getImmediateDominator(domTree, 2)).isEqualTo(0);
+    assertThat(getImmediateDominator(domTree, 3)).isEqualTo(0);
+
+    assertThat(frontiers.getFrontier(0)).isEmpty();
+    assertThat(frontiers.getFrontier(1)).containsExactly(2, 3);
+    assertThat(frontiers.getFrontier(2)).containsExactly(1, 3);
+    assertThat(frontiers.getFrontier(3)).isEmpty();
+
+    // 1 is in the frontier of 2, which is in the frontier of 1
+    assertThat(frontiers.getIteratedFrontier(ImmutableSet.of(1))).containsExactly(1, 2, 3);
+    assertThat(frontiers.getIteratedFrontier(ImmutableSet.of(3))).isEmpty();
+  }
+}
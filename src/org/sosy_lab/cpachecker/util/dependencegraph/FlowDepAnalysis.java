@@ -8,15 +8,20 @@
 
 package org.sosy_lab.cpachecker.util.dependencegraph;
 
-import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -41,7 +46,16 @@ import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.util.CFAUtils;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 
-final class FlowDepAnalysis extends ReachDefAnalysis<MemoryLocation, CFANode, CFAEdge> {
+/**
+ * Computes the flow dependences of a single function.
+ *
+ * <p>All definitions (pairs of an edge and a memory location defined by the edge) of the function
+ * are numbered densely, such that sets of definitions can be represented as {@link BitSet}s. The
+ * definitions reaching each node are computed by a worklist algorithm that always continues with
+ * the node that comes first in reverse postorder. An instance must only be used by a single
+ * thread, but the analyses of different functions are independent of each other.
+ */
+final class FlowDepAnalysis {
 
   private final FunctionEntryNode entryNode;
   private final List<CFAEdge> globalEdges;
@@ -53,13 +67,15 @@ final class FlowDepAnalysis extends ReachDefAnalysis<MemoryLocation, CFANode, CF
 
   private final DependenceConsumer dependenceConsumer;
 
-  private final Multimap<CFAEdge, ReachDefAnalysis.Def<MemoryLocation, CFAEdge>> flowDeps;
-  private final Multimap<CFAEdge, ReachDefAnalysis.Def<MemoryLocation, CFAEdge>> declDeps;
   private final Multimap<CFAEdge, MemoryLocation> maybeDefs;
 
+  // the edge of each definition, the index in this list is the id of the definition
+  private final List<CFAEdge> defEdges;
+  // the ids of all definitions of a memory location
+  private final Map<MemoryLocation, BitSet> variableDefs;
+  private final Map<CFAEdge, EdgeDefs> edgeDefs;
+
   FlowDepAnalysis(
-      Dominance.DomTree<CFANode> pDomTree,
-      Dominance.DomFrontiers<CFANode> pDomFrontiers,
       FunctionEntryNode pEntryNode,
       List<CFAEdge> pGlobalEdges,
       EdgeDefUseData.Extractor pDefUseExtractor,
@@ -68,8 +84,6 @@ final class FlowDepAnalysis extends ReachDefAnalysis<MemoryLocation, CFANode, CF
       ImmutableMultimap<String, CFAEdge> pComplexTypeDeclarationEdges,
       DependenceConsumer pDependenceConsumer) {
 
-    super(SingleFunctionGraph.INSTANCE, pDomTree, pDomFrontiers);
-
     entryNode = pEntryNode;
     globalEdges = pGlobalEdges;
 
@@ -80,9 +94,11 @@ final class FlowDepAnalysis extends ReachDefAnalysis<MemoryLocation, CFANode, CF
 
     dependenceConsumer = pDependenceConsumer;
 
-    flowDeps = ArrayListMultimap.create();
-    declDeps = ArrayListMultimap.create();
     maybeDefs = HashMultimap.create();
+
+    defEdges = new ArrayList<>();
+    variableDefs = new HashMap<>();
+    edgeDefs = new HashMap<>();
   }
 
   private CFunctionCallEdge getFunctionCallEdge(CFunctionSummaryEdge pSummaryEdge) {
@@ -196,8 +212,7 @@ final class FlowDepAnalysis extends ReachDefAnalysis<MemoryLocation, CFANode, CF
     return uses;
   }
 
-  @Override
-  protected Set<MemoryLocation> getEdgeDefs(CFAEdge pEdge) {
+  private Set<MemoryLocation> getEdgeDefs(CFAEdge pEdge) {
 
     if (pEdge instanceof CFunctionCallEdge) {
       return getCallEdgeDefs((CFunctionCallEdge) pEdge);
@@ -219,138 +234,164 @@ final class FlowDepAnalysis extends ReachDefAnalysis<MemoryLocation, CFANode, CF
     }
   }
 
-  @Override
-  protected Collection<Def<MemoryLocation, CFAEdge>> getReachDefs(MemoryLocation pVariable) {
+  private static boolean isIntraproceduralEdge(CFAEdge pEdge) {
+    return !(pEdge instanceof CFunctionCallEdge)
+        && !(pEdge instanceof CFunctionReturnEdge)
+        && !(pEdge instanceof CFunctionSummaryStatementEdge);
+  }
 
-    List<Def<MemoryLocation, CFAEdge>> reachDefs = new ArrayList<>();
+  private static FluentIterable<CFAEdge> getLeavingEdges(CFANode pNode) {
+    return CFAUtils.allLeavingEdges(pNode).filter(FlowDepAnalysis::isIntraproceduralEdge);
+  }
 
-    for (Def<MemoryLocation, CFAEdge> def : iterateDefsNewestFirst(pVariable)) {
+  /** Returns all nodes of the function that are reachable from its entry in reverse postorder. */
+  private static ImmutableList<CFANode> getReversePostorder(FunctionEntryNode pEntryNode) {
 
-      reachDefs.add(def);
+    List<CFANode> postorder = new ArrayList<>();
+    Set<CFANode> visited = new HashSet<>();
+    Deque<CFANode> nodeStack = new ArrayDeque<>();
+    Deque<Iterator<CFAEdge>> edgeStack = new ArrayDeque<>();
 
-      Optional<CFAEdge> optEdge = def.getEdge();
-      if (optEdge.isPresent()) {
+    visited.add(pEntryNode);
+    nodeStack.push(pEntryNode);
+    edgeStack.push(getLeavingEdges(pEntryNode).iterator());
 
-        CFAEdge edge = optEdge.orElseThrow();
-        if (!maybeDefs.get(edge).contains(pVariable)
-            && !defUseExtractor.extract(edge).hasPartialDefs()) {
-          break;
-        }
+    while (!nodeStack.isEmpty()) {
 
+      Iterator<CFAEdge> edges = edgeStack.peek();
+
+      if (edges.hasNext()) {
+        CFANode successor = edges.next().getSuccessor();
+        if (visited.add(successor)) {
+          nodeStack.push(successor);
+          edgeStack.push(getLeavingEdges(successor).iterator());
+        }
       } else {
-        break;
+        postorder.add(nodeStack.pop());
+        edgeStack.pop();
       }
     }
 
-    return reachDefs;
+    return ImmutableList.copyOf(Lists.reverse(postorder));
   }
 
-  @Override
-  protected void insertCombiners(Dominance.DomFrontiers<CFANode> pDomFrontiers) {
+  private void registerDefs(CFAEdge pEdge) {
 
-    for (AParameterDeclaration declaration : entryNode.getFunctionParameters()) {
-      MemoryLocation variable = MemoryLocation.forDeclaration(declaration);
-      insertCombiner(entryNode, variable);
+    if (edgeDefs.containsKey(pEdge)) {
+      return;
     }
 
-    for (MemoryLocation variable : foreignDefUseData.getForeignUses(entryNode.getFunction())) {
-      insertCombiner(entryNode, variable);
+    Set<MemoryLocation> variables = getEdgeDefs(pEdge);
+    BitSet gen = new BitSet();
+
+    for (MemoryLocation variable : variables) {
+      int defId = defEdges.size();
+      defEdges.add(pEdge);
+      variableDefs.computeIfAbsent(variable, key -> new BitSet()).set(defId);
+      gen.set(defId);
     }
 
-    super.insertCombiners(pDomFrontiers);
+    edgeDefs.put(pEdge, new EdgeDefs(variables, gen, pEdge instanceof CDeclarationEdge));
   }
 
-  @Override
-  protected void traverseDomTree(Dominance.DomTraversable<CFANode> pDomTraversable) {
+  /**
+   * A definition of a variable kills all other definitions of the variable, unless the variable is
+   * only maybe defined (e.g., via a pointer with multiple possible pointees) or only partially
+   * defined (e.g., a single field of a struct).
+   */
+  private boolean isMustDef(CFAEdge pEdge, MemoryLocation pVariable) {
+    return !maybeDefs.get(pEdge).contains(pVariable)
+        && !defUseExtractor.extract(pEdge).hasPartialDefs();
+  }
 
-    globalEdges.forEach(this::pushEdge);
+  private void registerKills() {
 
-    // init function parameters
-    for (CFAEdge callEdge : CFAUtils.allEnteringEdges(pDomTraversable.getNode())) {
-      pushEdge(callEdge);
-      popEdge(callEdge);
+    for (Map.Entry<CFAEdge, EdgeDefs> entry : edgeDefs.entrySet()) {
+      CFAEdge edge = entry.getKey();
+      EdgeDefs defs = entry.getValue();
+      for (MemoryLocation variable : defs.variables) {
+        if (isMustDef(edge, variable)) {
+          defs.kill.or(variableDefs.get(variable));
+        }
+      }
     }
-
-    super.traverseDomTree(pDomTraversable);
   }
 
-  private void handleDependence(
-      CFAEdge pEdge, Def<MemoryLocation, CFAEdge> pDef, boolean pIsDeclaration) {
+  /** Returns the ids of all definitions of the variable, the result must not be modified. */
+  private BitSet getAllDefs(MemoryLocation pVariable) {
 
-    MemoryLocation variable = pDef.getVariable();
-    Set<ReachDefAnalysis.Def<MemoryLocation, CFAEdge>> defs = new HashSet<>();
-    pDef.collect(defs);
+    BitSet defs = variableDefs.get(pVariable);
 
-    for (ReachDefAnalysis.Def<MemoryLocation, CFAEdge> def : defs) {
+    return defs != null ? defs : new BitSet();
+  }
 
-      Optional<CFAEdge> optDefEdge = def.getEdge();
-      if (optDefEdge.isPresent()) {
-        dependenceConsumer.accept(optDefEdge.orElseThrow(), pEdge, variable, pIsDeclaration);
-      }
-    }
+  /** Returns the ids of all definitions of the variable that are contained in the specified set. */
+  private BitSet getDefs(MemoryLocation pVariable, BitSet pDefs) {
+
+    BitSet defs = (BitSet) getAllDefs(pVariable).clone();
+    defs.and(pDefs);
+
+    return defs;
   }
 
-  @Override
-  public void run() {
+  private List<CFAEdge> getDefEdges(MemoryLocation pVariable, BitSet pDefs) {
 
-    super.run();
+    BitSet defs = getDefs(pVariable, pDefs);
+    List<CFAEdge> edges = new ArrayList<>(defs.cardinality());
 
-    for (Map.Entry<CFAEdge, Def<MemoryLocation, CFAEdge>> entry : flowDeps.entries()) {
-      handleDependence(entry.getKey(), entry.getValue(), false);
+    for (int defId = defs.nextSetBit(0); defId >= 0; defId = defs.nextSetBit(defId + 1)) {
+      edges.add(defEdges.get(defId));
     }
 
-    for (Map.Entry<CFAEdge, Def<MemoryLocation, CFAEdge>> entry : declDeps.entries()) {
-      handleDependence(entry.getKey(), entry.getValue(), true);
-    }
+    return edges;
+  }
 
-    addFunctionUseDependences();
-    addReturnValueDependences();
-    addForeignDefDependences();
+  private BitSet transferDefs(CFAEdge pEdge, BitSet pReachDefs) {
+
+    EdgeDefs defs = edgeDefs.get(pEdge);
+    BitSet result = (BitSet) pReachDefs.clone();
+    result.andNot(defs.kill);
+    result.or(defs.gen);
+
+    return result;
   }
 
-  private ReachDefAnalysis.Def<MemoryLocation, CFAEdge> getDeclaration(MemoryLocation pVariable) {
+  // declarations are never killed, so the oldest declaration of a variable stays available
+  private BitSet transferDecls(CFAEdge pEdge, BitSet pReachDecls) {
 
-    for (ReachDefAnalysis.Def<MemoryLocation, CFAEdge> def : iterateDefsOldestFirst(pVariable)) {
-      Optional<CFAEdge> optEdge = def.getEdge();
-      if (optEdge.isPresent() && optEdge.orElseThrow() instanceof CDeclarationEdge) {
-        return def;
-      }
+    EdgeDefs defs = edgeDefs.get(pEdge);
+    if (!defs.isDeclaration) {
+      return pReachDecls;
     }
 
-    return null;
+    BitSet result = (BitSet) pReachDecls.clone();
+    result.or(defs.gen);
+
+    return result;
   }
 
-  @Override
-  protected void pushNode(CFANode pNode) {
+  /** Adds all elements of the source to the target and returns whether the target changed. */
+  private static boolean addAll(BitSet pTarget, BitSet pSource) {
 
-    super.pushNode(pNode);
+    int size = pTarget.cardinality();
+    pTarget.or(pSource);
 
-    if (pNode instanceof FunctionExitNode) {
-      for (MemoryLocation defVar : foreignDefUseData.getForeignDefs(pNode.getFunction())) {
-        for (ReachDefAnalysis.Def<MemoryLocation, CFAEdge> def : getReachDefs(defVar)) {
-          for (CFAEdge returnEdge : CFAUtils.leavingEdges(pNode)) {
-            flowDeps.put(returnEdge, def);
-          }
-        }
-      }
-    }
+    return pTarget.cardinality() != size;
   }
 
-  @Override
-  protected void pushEdge(CFAEdge pEdge) {
+  private void handleEdge(CFAEdge pEdge, BitSet pReachDefs, BitSet pReachDecls) {
 
     for (MemoryLocation useVar : getEdgeUses(pEdge)) {
-      for (ReachDefAnalysis.Def<MemoryLocation, CFAEdge> def : getReachDefs(useVar)) {
-        assert def != null
-            : String.format("Variable is missing definition: %s @ %s", useVar, pEdge);
-        flowDeps.put(pEdge, def);
+      for (CFAEdge defEdge : getDefEdges(useVar, pReachDefs)) {
+        dependenceConsumer.accept(defEdge, pEdge, useVar, false);
       }
     }
 
-    for (MemoryLocation defVar : getEdgeDefs(pEdge)) {
-      ReachDefAnalysis.Def<MemoryLocation, CFAEdge> declaration = getDeclaration(defVar);
-      if (declaration != null) {
-        declDeps.put(pEdge, declaration);
+    for (MemoryLocation defVar : edgeDefs.get(pEdge).variables) {
+      // definitions are numbered in reverse postorder, so the lowest id is the oldest declaration
+      int declaration = getDefs(defVar, pReachDecls).nextSetBit(0);
+      if (declaration >= 0) {
+        dependenceConsumer.accept(defEdges.get(declaration), pEdge, defVar, true);
       }
     }
 
@@ -374,8 +415,110 @@ final class FlowDepAnalysis extends ReachDefAnalysis<MemoryLocation, CFANode, CF
         }
       }
     }
+  }
+
+  private void handleExitNode(FunctionExitNode pExitNode, BitSet pReachDefs) {
+
+    for (MemoryLocation defVar : foreignDefUseData.getForeignDefs(pExitNode.getFunction())) {
+      for (CFAEdge defEdge : getDefEdges(defVar, pReachDefs)) {
+        for (CFAEdge returnEdge : CFAUtils.leavingEdges(pExitNode)) {
+          dependenceConsumer.accept(defEdge, returnEdge, defVar, false);
+        }
+      }
+    }
+  }
+
+  public void run() {
+
+    ImmutableList<CFANode> nodes = getReversePostorder(entryNode);
+    Map<CFANode, Integer> nodeIds = new HashMap<>();
+    for (CFANode node : nodes) {
+      nodeIds.put(node, nodeIds.size());
+    }
+
+    ImmutableList<CFAEdge> callEdges = CFAUtils.allEnteringEdges(entryNode).toList();
+
+    // all definitions have to be numbered before kill sets can be created
+    globalEdges.forEach(this::registerDefs);
+    callEdges.forEach(this::registerDefs);
+    for (CFANode node : nodes) {
+      getLeavingEdges(node).forEach(this::registerDefs);
+    }
+    registerKills();
+
+    BitSet globalDefs = new BitSet();
+    BitSet globalDecls = new BitSet();
+    for (CFAEdge globalEdge : globalEdges) {
+      handleEdge(globalEdge, globalDefs, globalDecls);
+      globalDefs = transferDefs(globalEdge, globalDefs);
+      globalDecls = transferDecls(globalEdge, globalDecls);
+    }
+
+    // combine the definitions of function parameters and foreign uses from all call edges
+    BitSet callVariableDefs = new BitSet();
+    for (AParameterDeclaration declaration : entryNode.getFunctionParameters()) {
+      callVariableDefs.or(getAllDefs(MemoryLocation.forDeclaration(declaration)));
+    }
+    for (MemoryLocation variable : foreignDefUseData.getForeignUses(entryNode.getFunction())) {
+      callVariableDefs.or(getAllDefs(variable));
+    }
+
+    BitSet entryDefs = (BitSet) globalDefs.clone();
+    entryDefs.andNot(callVariableDefs);
+    for (CFAEdge callEdge : callEdges) {
+      handleEdge(callEdge, globalDefs, globalDecls);
+      BitSet defs = transferDefs(callEdge, globalDefs);
+      defs.and(callVariableDefs);
+      entryDefs.or(defs);
+    }
+
+    int nodeCount = nodes.size();
+    BitSet[] reachDefs = new BitSet[nodeCount];
+    BitSet[] reachDecls = new BitSet[nodeCount];
+    for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
+      reachDefs[nodeId] = new BitSet();
+      reachDecls[nodeId] = new BitSet();
+    }
+
+    // the entry node is the first node in reverse postorder
+    reachDefs[0].or(entryDefs);
+    reachDecls[0].or(globalDecls);
+
+    // every node has to be handled at least once, because even nodes without any reaching
+    // definitions can have leaving edges that define variables
+    BitSet worklist = new BitSet(nodeCount);
+    worklist.set(0, nodeCount);
+
+    for (int nodeId = worklist.nextSetBit(0); nodeId >= 0; nodeId = worklist.nextSetBit(0)) {
+
+      worklist.clear(nodeId);
+
+      for (CFAEdge edge : getLeavingEdges(nodes.get(nodeId))) {
+        int successorId = nodeIds.get(edge.getSuccessor());
+        boolean changed = addAll(reachDefs[successorId], transferDefs(edge, reachDefs[nodeId]));
+        changed |= addAll(reachDecls[successorId], transferDecls(edge, reachDecls[nodeId]));
+        if (changed) {
+          worklist.set(successorId);
+        }
+      }
+    }
+
+    for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
+
+      CFANode node = nodes.get(nodeId);
 
-    super.pushEdge(pEdge);
+      for (CFAEdge edge : getLeavingEdges(node)) {
+        handleEdge(edge, reachDefs[nodeId], reachDecls[nodeId]);
+      }
+
+      if (node instanceof FunctionExitNode) {
+        handleExitNode((FunctionExitNode) node, reachDefs[nodeId]);
+      }
+    }
+
+    addFunctionUseDependences();
+    addReturnValueDependences();
+    addForeignDefDependences();
   }
 
   private void addFunctionUseDependences() {
@@ -383,7 +526,7 @@ final class FlowDepAnalysis extends ReachDefAnalysis<MemoryLocation, CFANode, CF
     for (CFAEdge callEdge : CFAUtils.allEnteringEdges(entryNode)) {
       CFAEdge summaryEdge = callEdge.getPredecessor().getLeavingSummaryEdge();
       assert summaryEdge != null : "Missing summary edge for call edge: " + callEdge;
-      for (MemoryLocation parameter : getEdgeDefs(callEdge)) {
+      for (MemoryLocation parameter : edgeDefs.get(callEdge).variables) {
         dependenceConsumer.accept(summaryEdge, callEdge, parameter, false);
       }
     }
@@ -430,47 +573,19 @@ final class FlowDepAnalysis extends ReachDefAnalysis<MemoryLocation, CFANode, CF
     void accept(CFAEdge pDefEdge, CFAEdge pUseEdge, MemoryLocation pCause, boolean pIsDeclaration);
   }
 
-  private static final class SingleFunctionGraph
-      implements ReachDefAnalysis.Graph<CFANode, CFAEdge> {
-
-    private static final SingleFunctionGraph INSTANCE = new SingleFunctionGraph();
-
-    @Override
-    public CFANode getPredecessor(CFAEdge pEdge) {
-      return pEdge.getPredecessor();
-    }
-
-    @Override
-    public CFANode getSuccessor(CFAEdge pEdge) {
-      return pEdge.getSuccessor();
-    }
-
-    @Override
-    public Optional<CFAEdge> getEdge(CFANode pPredecessor, CFANode pSuccessor) {
-
-      for (CFAEdge edge : getLeavingEdges(pPredecessor)) {
-        if (edge.getSuccessor().equals(pSuccessor)) {
-          return Optional.of(edge);
-        }
-      }
+  /** The definitions of an edge as sets of definition ids. */
+  private static final class EdgeDefs {
 
-      return Optional.empty();
-    }
-
-    private boolean ignoreEdge(CFAEdge pEdge) {
-      return !(pEdge instanceof CFunctionCallEdge)
-          && !(pEdge instanceof CFunctionReturnEdge)
-          && !(pEdge instanceof CFunctionSummaryStatementEdge);
-    }
-
-    @Override
-    public Iterable<CFAEdge> getLeavingEdges(CFANode pNode) {
-      return () -> Iterators.filter(CFAUtils.allLeavingEdges(pNode).iterator(), this::ignoreEdge);
-    }
+    private final Set<MemoryLocation> variables;
+    private final BitSet gen;
+    private final BitSet kill;
+    private final boolean isDeclaration;
 
-    @Override
-    public Iterable<CFAEdge> getEnteringEdges(CFANode pNode) {
-      return () -> Iterators.filter(CFAUtils.allEnteringEdges(pNode).iterator(), this::ignoreEdge);
+    private EdgeDefs(Set<MemoryLocation> pVariables, BitSet pGen, boolean pIsDeclaration) {
+      variables = pVariables;
+      gen = pGen;
+      kill = new BitSet();
+      isDeclaration = pIsDeclaration;
     }
   }
 }
@@ -21,14 +21,20 @@ public class Octagon {
   private static List<OctagonPhantomReference> phantomReferences = new ArrayList<>();
   private static ReferenceQueue<Octagon> referenceQueue = new ReferenceQueue<>();
 
-  Octagon(long l, OctagonManager manager) {
+  Octagon(long l, NativeOctagonManager manager) {
     octId = l;
     this.manager = manager;
-    registerPhantomReference(this);
+    registerPhantomReference(this, manager);
   }
 
-  private static void registerPhantomReference(Octagon oct) {
-    phantomReferences.add(new OctagonPhantomReference(oct, referenceQueue));
+  /** Constructor for octagons that are not stored in native memory. */
+  Octagon(OctagonManager manager) {
+    octId = 0;
+    this.manager = manager;
+  }
+
+  private static void registerPhantomReference(Octagon oct, NativeOctagonManager manager) {
+    phantomReferences.add(new OctagonPhantomReference(oct, manager, referenceQueue));
   }
 
   public static void removePhantomReferences() {
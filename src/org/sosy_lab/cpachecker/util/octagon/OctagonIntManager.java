@@ -20,7 +20,7 @@ import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 
 
-public class OctagonIntManager extends OctagonManager {
+public class OctagonIntManager extends NativeOctagonManager {
 
   public OctagonIntManager() {
     super("JOct_int");
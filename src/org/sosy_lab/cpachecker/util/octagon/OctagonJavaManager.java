@@ -0,0 +1,985 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.BiMap;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonDoubleValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonIntValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Octagon manager implemented in Java, which needs neither the native octagon library nor native
+ * memory.
+ *
+ * <p>An octagon over n variables is stored as difference-bound matrix (DBM) over the 2n values
+ * V<sub>2i</sub> = v<sub>i</sub> and V<sub>2i+1</sub> = -v<sub>i</sub> in a flat array in
+ * row-major order, where the entry (i, j) is the upper bound of V<sub>j</sub> - V<sub>i</sub>. The
+ * matrices are never modified after an octagon was created, so octagons can be shared, and
+ * operations that do not change an octagon return it without copying its matrix. All operations
+ * except widening and narrowing return octagons in strong closure (tight closure for integers),
+ * which is computed in place with loops over the flat array without allocations. The closure of
+ * the results of widening and narrowing is computed when it is needed first and then stored with
+ * the octagon. Constraints that only affect a few variables are added with an incremental closure
+ * that only considers paths over these variables.
+ *
+ * <p>The number arrays have the same layout as for the native library. The operations of the
+ * native library for general linear constraints and substitutions are not part of {@link
+ * OctagonManager}, because the octagon analysis does not use them.
+ */
+public class OctagonJavaManager extends OctagonManager {
+
+  private static final double INF = Double.POSITIVE_INFINITY;
+
+  /** Marker for the closure of an empty octagon. */
+  private static final double[] EMPTY = new double[0];
+
+  /** Return values of the lazy tests. */
+  private static final int TRUE = 1;
+
+  private static final int FALSE = 2;
+
+  private final boolean integers;
+
+  /**
+   * Create a manager.
+   *
+   * @param pIntegers whether the variables only have integer values, which allows a more precise
+   *     closure and rounding of bounds
+   */
+  public OctagonJavaManager(boolean pIntegers) {
+    integers = pIntegers;
+  }
+
+  private static final class JavaOctagon extends Octagon {
+
+    private final int dimension;
+
+    /** The DBM of size (2*dimension)^2, or null if the octagon is empty. */
+    private final double @Nullable [] matrix;
+
+    /**
+     * The matrix in strong closure, {@link #EMPTY} if the octagon is empty, or null if the closure
+     * was not computed yet. The closure is immutable like the matrix (and the same array if the
+     * matrix is closed), so it is safe if several threads compute it concurrently.
+     */
+    private volatile double @Nullable [] closure;
+
+    private JavaOctagon(
+        OctagonManager pManager, int pDimension, double @Nullable [] pMatrix, boolean pClosed) {
+      super(pManager);
+      dimension = pDimension;
+      matrix = pMatrix;
+      if (pMatrix == null) {
+        closure = EMPTY;
+      } else if (pClosed) {
+        closure = pMatrix;
+      }
+    }
+
+    private boolean isClosed() {
+      return closure == matrix || closure == EMPTY;
+    }
+
+    @Override
+    public int hashCode() {
+      // equality is semantic and the matrices of equal octagons may differ if they are not closed
+      return dimension;
+    }
+
+    @Override
+    public String toString() {
+      return "octagon with dimension " + dimension;
+    }
+  }
+
+  private static final class JavaNumArray extends NumArray {
+
+    private final double[] values;
+
+    private JavaNumArray(int pSize) {
+      values = new double[pSize];
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return this == pObj;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+      return Arrays.toString(values);
+    }
+  }
+
+  private JavaOctagon cast(Octagon pOct) {
+    checkArgument(
+        pOct instanceof JavaOctagon && pOct.getManager() == this,
+        "Octagon %s was not created by this manager",
+        pOct);
+    return (JavaOctagon) pOct;
+  }
+
+  private static double[] values(NumArray pArray) {
+    checkArgument(pArray instanceof JavaNumArray, "Array was not created by a Java manager");
+    return ((JavaNumArray) pArray).values;
+  }
+
+  private JavaOctagon create(int pDimension, double @Nullable [] pMatrix, boolean pClosed) {
+    return new JavaOctagon(this, pDimension, pMatrix, pClosed);
+  }
+
+  /* num handling functions */
+
+  @Override
+  public NumArray init_num_t(int n) {
+    return new JavaNumArray(n);
+  }
+
+  @Override
+  public void num_set(NumArray n1, NumArray n2) {
+    double[] target = values(n1);
+    double[] source = values(n2);
+    System.arraycopy(source, 0, target, 0, Math.min(source.length, target.length));
+  }
+
+  @Override
+  public void num_set_int(NumArray n, int pos, long i) {
+    values(n)[pos] = i;
+  }
+
+  @Override
+  public void num_set_float(NumArray n, int pos, double d) {
+    values(n)[pos] = d;
+  }
+
+  @Override
+  public void num_set_inf(NumArray n, int pos) {
+    values(n)[pos] = INF;
+  }
+
+  @Override
+  public long num_get_int(NumArray n, int pos) {
+    return (long) values(n)[pos];
+  }
+
+  @Override
+  public double num_get_float(NumArray n, int pos) {
+    return values(n)[pos];
+  }
+
+  @Override
+  public boolean num_infty(NumArray n, int pos) {
+    return Double.isInfinite(values(n)[pos]);
+  }
+
+  @Override
+  public void num_clear_n(NumArray n, int size) {
+    // memory is managed by the garbage collector
+  }
+
+  /* Octagon creation */
+
+  @Override
+  public Octagon empty(int n) {
+    return create(n, null, true);
+  }
+
+  @Override
+  public Octagon universe(int n) {
+    return create(n, newUniverseMatrix(n), true);
+  }
+
+  private static double[] newUniverseMatrix(int pDimension) {
+    int size = 2 * pDimension;
+    double[] m = new double[size * size];
+    Arrays.fill(m, INF);
+    for (int i = 0; i < size; i++) {
+      m[i * size + i] = 0;
+    }
+    return m;
+  }
+
+  @Override
+  public Octagon copy(Octagon oct) {
+    // octagons are immutable
+    return cast(oct);
+  }
+
+  @Override
+  public Octagon full_copy(Octagon oct) {
+    return cast(oct);
+  }
+
+  /* Query functions */
+
+  @Override
+  public int dimension(Octagon oct) {
+    return cast(oct).dimension;
+  }
+
+  @Override
+  public int nbconstraints(Octagon oct) {
+    JavaOctagon o = cast(oct);
+    if (o.matrix == null) {
+      return 0;
+    }
+    double[] m = o.matrix;
+    int size = 2 * o.dimension;
+    int result = 0;
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        // count each pair of coherent entries (i, j) and (j^1, i^1) once
+        if (i != j && m[i * size + j] != INF && i * size + j <= (j ^ 1) * size + (i ^ 1)) {
+          result++;
+        }
+      }
+    }
+    return result;
+  }
+
+  /* Test functions */
+
+  @Override
+  public boolean isEmpty(Octagon oct) {
+    return closedMatrix(cast(oct)) == null;
+  }
+
+  @Override
+  public int isEmptyLazy(Octagon oct) {
+    return isEmpty(oct) ? TRUE : FALSE;
+  }
+
+  @Override
+  public boolean isUniverse(Octagon oct) {
+    JavaOctagon o = cast(oct);
+    if (o.matrix == null) {
+      return false;
+    }
+    // every finite bound excludes some points, even if the matrix is not closed
+    int size = 2 * o.dimension;
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        if (i != j && o.matrix[i * size + j] != INF) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isIncludedIn(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = cast(oct1);
+    JavaOctagon o2 = cast(oct2);
+    checkArgument(o1.dimension == o2.dimension, "octagons have different dimensions");
+    if (o1 == o2) {
+      return true;
+    }
+    double[] m1 = closedMatrix(o1);
+    if (m1 == null) {
+      return true;
+    }
+    double[] m2 = o2.matrix;
+    if (m2 == null) {
+      return false;
+    }
+    for (int i = 0; i < m1.length; i++) {
+      if (m1[i] > m2[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int isIncludedInLazy(Octagon oct1, Octagon oct2) {
+    return isIncludedIn(oct1, oct2) ? TRUE : FALSE;
+  }
+
+  @Override
+  public boolean isEqual(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = cast(oct1);
+    JavaOctagon o2 = cast(oct2);
+    if (o1.dimension != o2.dimension) {
+      return false;
+    }
+    if (o1 == o2) {
+      return true;
+    }
+    double[] m1 = closedMatrix(o1);
+    double[] m2 = closedMatrix(o2);
+    if (m1 == null || m2 == null) {
+      return m1 == m2;
+    }
+    for (int i = 0; i < m1.length; i++) {
+      if (m1[i] != m2[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int isEqualLazy(Octagon oct1, Octagon oct2) {
+    return isEqual(oct1, oct2) ? TRUE : FALSE;
+  }
+
+  @Override
+  public boolean isIn(Octagon oct1, NumArray array) {
+    JavaOctagon o = cast(oct1);
+    if (o.matrix == null) {
+      return false;
+    }
+    double[] point = values(array);
+    int size = 2 * o.dimension;
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        if (value(point, j) - value(point, i) > o.matrix[i * size + j]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /** The value of V_i for the given values of the variables. */
+  private static double value(double[] pPoint, int i) {
+    double v = pPoint[i / 2];
+    return (i & 1) == 0 ? v : -v;
+  }
+
+  /* Operators */
+
+  @Override
+  public Octagon intersection(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = cast(oct1);
+    JavaOctagon o2 = cast(oct2);
+    checkArgument(o1.dimension == o2.dimension, "octagons have different dimensions");
+    if (o1.matrix == null) {
+      return o1;
+    }
+    if (o2.matrix == null) {
+      return o2;
+    }
+    double[] m = null;
+    for (int i = 0; i < o1.matrix.length; i++) {
+      if (o2.matrix[i] < o1.matrix[i]) {
+        if (m == null) {
+          m = o1.matrix.clone();
+        }
+        m[i] = o2.matrix[i];
+      }
+    }
+    if (m == null) {
+      // the second octagon does not restrict the first one
+      return o1;
+    }
+    return create(o1.dimension, close(m, 2 * o1.dimension) ? m : null, true);
+  }
+
+  @Override
+  public Octagon union(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = cast(oct1);
+    JavaOctagon o2 = cast(oct2);
+    checkArgument(o1.dimension == o2.dimension, "octagons have different dimensions");
+    double[] m1 = closedMatrix(o1);
+    double[] m2 = closedMatrix(o2);
+    if (m1 == null) {
+      return o2;
+    }
+    if (m2 == null) {
+      return o1;
+    }
+    // the pointwise maximum of strongly closed matrices is strongly closed
+    double[] m = null;
+    for (int i = 0; i < m1.length; i++) {
+      if (m2[i] > m1[i]) {
+        if (m == null) {
+          m = m1.clone();
+        }
+        m[i] = m2[i];
+      }
+    }
+    return m == null ? o1 : create(o1.dimension, m, true);
+  }
+
+  /**
+   * Widening with 0 as threshold: bounds of the first octagon that are not stable are relaxed to 0
+   * if possible, and to infinity otherwise. Only the second octagon is closed, and the result is
+   * not closed, because closing it may prevent the termination of the widening sequence.
+   */
+  @Override
+  public Octagon widening(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = cast(oct1);
+    JavaOctagon o2 = cast(oct2);
+    checkArgument(o1.dimension == o2.dimension, "octagons have different dimensions");
+    double[] m2 = closedMatrix(o2);
+    if (o1.matrix == null || m2 == null) {
+      return o1.matrix == null ? o2 : o1;
+    }
+    double[] m = null;
+    for (int i = 0; i < m2.length; i++) {
+      if (m2[i] > o1.matrix[i]) {
+        if (m == null) {
+          m = o1.matrix.clone();
+        }
+        m[i] = m2[i] <= 0 ? 0 : INF;
+      }
+    }
+    return m == null ? o1 : create(o1.dimension, m, false);
+  }
+
+  @Override
+  public Octagon narrowing(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = cast(oct1);
+    JavaOctagon o2 = cast(oct2);
+    checkArgument(o1.dimension == o2.dimension, "octagons have different dimensions");
+    double[] m2 = closedMatrix(o2);
+    if (o1.matrix == null || m2 == null) {
+      return o1.matrix == null ? o1 : create(o1.dimension, null, true);
+    }
+    double[] m = null;
+    for (int i = 0; i < m2.length; i++) {
+      if (o1.matrix[i] == INF && m2[i] != INF) {
+        if (m == null) {
+          m = o1.matrix.clone();
+        }
+        m[i] = m2[i];
+      }
+    }
+    return m == null ? o1 : create(o1.dimension, m, false);
+  }
+
+  /* Transfer functions */
+
+  @Override
+  public Octagon forget(Octagon oct, int k) {
+    JavaOctagon o = cast(oct);
+    checkArgument(0 <= k && k < o.dimension, "invalid variable %s", k);
+    double[] closed = closedMatrix(o);
+    if (closed == null || isUnconstrained(closed, 2 * o.dimension, k)) {
+      return o;
+    }
+    double[] m = closed.clone();
+    forget(m, 2 * o.dimension, k);
+    return create(o.dimension, m, true);
+  }
+
+  /** Whether the matrix has no bounds for a variable. */
+  private static boolean isUnconstrained(double[] m, int size, int k) {
+    for (int v = 2 * k; v <= 2 * k + 1; v++) {
+      int row = v * size;
+      for (int i = 0; i < size; i++) {
+        if (i != v && (m[row + i] != INF || m[i * size + v] != INF)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /** Remove all bounds of a variable, which keeps the strong closure. */
+  private static void forget(double[] m, int size, int k) {
+    for (int v = 2 * k; v <= 2 * k + 1; v++) {
+      int row = v * size;
+      for (int i = 0; i < size; i++) {
+        m[row + i] = INF;
+        m[i * size + v] = INF;
+      }
+      m[row + v] = 0;
+    }
+  }
+
+  @Override
+  public Octagon assingVar(Octagon oct, int k, NumArray array) {
+    return assign(cast(oct), k, values(array), false);
+  }
+
+  @Override
+  public Octagon intervAssingVar(Octagon oct, int k, NumArray array) {
+    return assign(cast(oct), k, values(array), true);
+  }
+
+  /** Upper bound of the i-th coefficient of an assignment. */
+  private static double upper(double[] pTab, int i, boolean pInterval) {
+    return pInterval ? pTab[2 * i] : pTab[i];
+  }
+
+  /** Lower bound of the i-th coefficient of an assignment. */
+  private static double lower(double[] pTab, int i, boolean pInterval) {
+    return pInterval ? -pTab[2 * i + 1] : pTab[i];
+  }
+
+  /**
+   * Assign the linear expression with the given (interval) coefficients to variable k, where the
+   * last coefficient is the constant. Assignments of the form x := ±y + c are exact, all other
+   * assignments use the bounds of the expression that follow from the bounds of the variables.
+   */
+  private Octagon assign(JavaOctagon o, int k, double[] pTab, boolean pInterval) {
+    int n = o.dimension;
+    checkArgument(0 <= k && k < n, "invalid variable %s", k);
+    double[] closed = closedMatrix(o);
+    if (closed == null) {
+      return o;
+    }
+    int size = 2 * n;
+
+    int variables = 0;
+    int var = -1;
+    for (int i = 0; i < n; i++) {
+      if (lower(pTab, i, pInterval) != 0 || upper(pTab, i, pInterval) != 0) {
+        variables++;
+        var = i;
+      }
+    }
+    double coefficient = variables == 1 ? upper(pTab, var, pInterval) : 0;
+    boolean octagonal =
+        variables == 0
+            || (variables == 1
+                && (coefficient == 1 || coefficient == -1)
+                && lower(pTab, var, pInterval) == coefficient);
+    double constLow = roundLower(lower(pTab, n, pInterval));
+    double constHigh = roundUpper(upper(pTab, n, pInterval));
+
+    double[] m = closed.clone();
+    if (octagonal && var == k) {
+      // x := ±x + c is a translation, which keeps the closure
+      if (coefficient == -1) {
+        negate(m, size, k);
+      }
+      translate(m, size, k, constLow, constHigh);
+      return create(n, m, true);
+    }
+
+    if (octagonal && variables == 1) {
+      // x := ±y + c is expressed exactly with the constraints c_low <= x -/+ y <= c_high
+      forget(m, size, k);
+      int y = coefficient == 1 ? 2 * var : 2 * var + 1;
+      setMin(m, size, y, 2 * k, constHigh); // x - (±y) <= c_high
+      setMin(m, size, 2 * k, y, -constLow); // ±y - x <= -c_low
+      return createClosedIncrementally(n, m, k, var);
+    }
+
+    // general case: evaluate the expression with interval arithmetic
+    double low = constLow;
+    double high = constHigh;
+    for (int i = 0; i < n; i++) {
+      double coeffLow = lower(pTab, i, pInterval);
+      double coeffHigh = upper(pTab, i, pInterval);
+      if (coeffLow == 0 && coeffHigh == 0) {
+        continue;
+      }
+      double varHigh = m[(2 * i + 1) * size + 2 * i] / 2;
+      double varLow = -m[2 * i * size + 2 * i + 1] / 2;
+      double p1 = mul(coeffLow, varLow);
+      double p2 = mul(coeffLow, varHigh);
+      double p3 = mul(coeffHigh, varLow);
+      double p4 = mul(coeffHigh, varHigh);
+      low += Math.min(Math.min(p1, p2), Math.min(p3, p4));
+      high += Math.max(Math.max(p1, p2), Math.max(p3, p4));
+    }
+    if (Double.isNaN(low) || Double.isNaN(high)) {
+      // infinite bounds with different signs were added
+      low = Double.NEGATIVE_INFINITY;
+      high = INF;
+    }
+    forget(m, size, k);
+    setMin(m, size, 2 * k + 1, 2 * k, 2 * roundUpper(high));
+    setMin(m, size, 2 * k, 2 * k + 1, -2 * roundLower(low));
+    return createClosedIncrementally(n, m, k, k);
+  }
+
+  /** Multiplication where 0 times infinity is 0. */
+  private static double mul(double a, double b) {
+    return a == 0 || b == 0 ? 0 : a * b;
+  }
+
+  /** Replace variable k by its negation, i.e., swap the indices 2k and 2k+1. */
+  private static void negate(double[] m, int size, int k) {
+    int a = 2 * k;
+    int b = a + 1;
+    for (int i = 0; i < size; i++) {
+      swap(m, a * size + i, b * size + i);
+    }
+    for (int i = 0; i < size; i++) {
+      swap(m, i * size + a, i * size + b);
+    }
+  }
+
+  private static void swap(double[] m, int i, int j) {
+    double tmp = m[i];
+    m[i] = m[j];
+    m[j] = tmp;
+  }
+
+  /** Translate variable k by a value from the interval [low, high]. */
+  private static void translate(double[] m, int size, int k, double low, double high) {
+    int pos = 2 * k;
+    int neg = pos + 1;
+    for (int i = 0; i < size; i++) {
+      if (i != pos && i != neg) {
+        m[i * size + pos] += high;
+        m[pos * size + i] -= low;
+        m[i * size + neg] -= low;
+        m[neg * size + i] += high;
+      }
+    }
+    m[neg * size + pos] += 2 * high;
+    m[pos * size + neg] -= 2 * low;
+  }
+
+  /**
+   * Add bounds for the octagonal constraints in the array, which contains the type, the two
+   * variables, and the constant for each constraint.
+   */
+  @Override
+  public Octagon addBinConstraint(Octagon oct, int noOfConstraints, NumArray array) {
+    JavaOctagon o = cast(oct);
+    double[] closed = closedMatrix(o);
+    if (closed == null) {
+      return o;
+    }
+    double[] tab = values(array);
+    int size = 2 * o.dimension;
+    int[] entries = new int[2 * noOfConstraints];
+    double[] bounds = new double[noOfConstraints];
+    boolean implied = true;
+    for (int c = 0; c < noOfConstraints; c++) {
+      int type = (int) tab[4 * c];
+      int x = (int) tab[4 * c + 1];
+      int y = (int) tab[4 * c + 2];
+      double bound = roundUpper(tab[4 * c + 3]);
+      switch (type) {
+        case 0: // x <= c
+          setEntry(entries, c, 2 * x + 1, 2 * x);
+          bound *= 2;
+          break;
+        case 1: // -x <= c
+          setEntry(entries, c, 2 * x, 2 * x + 1);
+          bound *= 2;
+          break;
+        case 2: // x + y <= c
+          setEntry(entries, c, 2 * y + 1, 2 * x);
+          break;
+        case 3: // x - y <= c
+          setEntry(entries, c, 2 * y, 2 * x);
+          break;
+        case 4: // -x + y <= c
+          setEntry(entries, c, 2 * x, 2 * y);
+          break;
+        case 5: // -x - y <= c
+          setEntry(entries, c, 2 * y, 2 * x + 1);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown constraint type " + type);
+      }
+      bounds[c] = bound;
+      // the matrix is closed, so a constraint is implied iff it is not below the current entry
+      implied &= bound >= closed[entries[2 * c] * size + entries[2 * c + 1]];
+    }
+    if (implied) {
+      return o;
+    }
+
+    double[] m = closed.clone();
+    for (int c = 0; c < noOfConstraints; c++) {
+      setMin(m, size, entries[2 * c], entries[2 * c + 1], bounds[c]);
+    }
+
+    for (int c = 0; c < noOfConstraints; c++) {
+      for (int i = 1; i <= 2; i++) {
+        int var = (int) tab[4 * c + i];
+        if (var >= 0 && var < o.dimension) {
+          relax(m, size, 2 * var);
+          relax(m, size, 2 * var + 1);
+        }
+      }
+    }
+    return create(o.dimension, finishClosure(m, size) ? m : null, true);
+  }
+
+  private static void setEntry(int[] pEntries, int pConstraint, int i, int j) {
+    pEntries[2 * pConstraint] = i;
+    pEntries[2 * pConstraint + 1] = j;
+  }
+
+  /**
+   * Lower the bound of V_j - V_i to the given value if it is smaller, together with the coherent
+   * entry for V_{i^1} - V_{j^1}.
+   */
+  private static void setMin(double[] m, int size, int i, int j, double bound) {
+    m[i * size + j] = Math.min(m[i * size + j], bound);
+    int twin = (j ^ 1) * size + (i ^ 1);
+    m[twin] = Math.min(m[twin], bound);
+  }
+
+  @Override
+  public Octagon set_bounds(Octagon oct, int pos, NumArray lower, NumArray upper) {
+    // like for the native library, lower contains the negated lower bound
+    JavaOctagon o = cast(oct);
+    double[] closed = closedMatrix(o);
+    if (closed == null) {
+      return o;
+    }
+    int size = 2 * o.dimension;
+    double upperBound = 2 * roundUpper(values(upper)[0]);
+    double lowerBound = 2 * roundUpper(values(lower)[0]);
+    if (upperBound >= closed[(2 * pos + 1) * size + 2 * pos]
+        && lowerBound >= closed[2 * pos * size + 2 * pos + 1]) {
+      return o;
+    }
+    double[] m = closed.clone();
+    setMin(m, size, 2 * pos + 1, 2 * pos, upperBound);
+    setMin(m, size, 2 * pos, 2 * pos + 1, lowerBound);
+    return createClosedIncrementally(o.dimension, m, pos, pos);
+  }
+
+  /* Change of dimensions */
+
+  @Override
+  public Octagon addDimensionAndEmbed(Octagon oct, int k) {
+    JavaOctagon o = cast(oct);
+    checkArgument(k >= 0);
+    if (k == 0) {
+      return o;
+    }
+    // adding unconstrained variables keeps the closure
+    return create(o.dimension + k, resize(o.matrix, o.dimension, o.dimension + k), o.isClosed());
+  }
+
+  @Override
+  public Octagon addDimensionAndProject(Octagon oct, int k) {
+    JavaOctagon o = cast(oct);
+    checkArgument(k >= 0);
+    double[] closed = closedMatrix(o);
+    int n = o.dimension + k;
+    double[] m = resize(closed, o.dimension, n);
+    if (m == null) {
+      return create(n, null, true);
+    }
+    int size = 2 * n;
+    for (int v = o.dimension; v < n; v++) {
+      m[(2 * v + 1) * size + 2 * v] = 0;
+      m[2 * v * size + 2 * v + 1] = 0;
+    }
+    for (int v = o.dimension; v < n; v++) {
+      relax(m, size, 2 * v);
+      relax(m, size, 2 * v + 1);
+    }
+    return create(n, finishClosure(m, size) ? m : null, true);
+  }
+
+  @Override
+  public Octagon removeDimension(Octagon oct, int k) {
+    JavaOctagon o = cast(oct);
+    checkArgument(0 <= k && k <= o.dimension, "cannot remove %s dimensions", k);
+    if (k == 0) {
+      return o;
+    }
+    // close first, otherwise the bounds that are implied by the removed variables are lost
+    return create(o.dimension - k, resize(closedMatrix(o), o.dimension, o.dimension - k), true);
+  }
+
+  /**
+   * Copy the matrix to a matrix for the given number of variables. Variables are added or removed
+   * at the end, new variables are unconstrained.
+   */
+  private static double @Nullable [] resize(
+      double @Nullable [] pMatrix, int pOldDimension, int pNewDimension) {
+    if (pMatrix == null) {
+      return null;
+    }
+    int oldSize = 2 * pOldDimension;
+    int newSize = 2 * pNewDimension;
+    double[] m = newUniverseMatrix(pNewDimension);
+    int copied = Math.min(oldSize, newSize);
+    for (int i = 0; i < copied; i++) {
+      System.arraycopy(pMatrix, i * oldSize, m, i * newSize, copied);
+    }
+    return m;
+  }
+
+  /* Closure */
+
+  /**
+   * Return the matrix of the octagon in strong closure, or null if the octagon is empty. The
+   * closure is computed only once per octagon.
+   */
+  private double @Nullable [] closedMatrix(JavaOctagon o) {
+    double[] closure = o.closure;
+    if (closure == null) {
+      double[] m = o.matrix.clone();
+      closure = close(m, 2 * o.dimension) ? m : EMPTY;
+      o.closure = closure;
+    }
+    return closure == EMPTY ? null : closure;
+  }
+
+  /** Finish the closure of a matrix where only bounds of the two given variables were lowered. */
+  private JavaOctagon createClosedIncrementally(int pDimension, double[] m, int pVar1, int pVar2) {
+    int size = 2 * pDimension;
+    relax(m, size, 2 * pVar1);
+    relax(m, size, 2 * pVar1 + 1);
+    if (pVar2 != pVar1) {
+      relax(m, size, 2 * pVar2);
+      relax(m, size, 2 * pVar2 + 1);
+    }
+    return create(pDimension, finishClosure(m, size) ? m : null, true);
+  }
+
+  /**
+   * Compute the strong closure of the matrix in place.
+   *
+   * @return false if the octagon is empty
+   */
+  private boolean close(double[] m, int size) {
+    for (int k = 0; k < size; k++) {
+      relax(m, size, k);
+    }
+    return finishClosure(m, size);
+  }
+
+  /**
+   * One step of the Floyd-Warshall algorithm: shorten all paths via the index k. If the matrix was
+   * closed before some bounds were lowered, doing this for the indices of all variables with
+   * lowered bounds is enough to compute the closure again.
+   */
+  private static void relax(double[] m, int size, int k) {
+    int rowK = k * size;
+    for (int i = 0; i < size; i++) {
+      double ik = m[i * size + k];
+      if (ik == INF) {
+        continue;
+      }
+      int rowI = i * size;
+      for (int j = 0; j < size; j++) {
+        m[rowI + j] = Math.min(m[rowI + j], ik + m[rowK + j]);
+      }
+    }
+  }
+
+  /**
+   * Check the closed matrix for emptiness and strengthen it, i.e., combine the unary bounds of all
+   * pairs of values. For integers, the unary bounds are tightened first.
+   *
+   * @return false if the octagon is empty
+   */
+  private boolean finishClosure(double[] m, int size) {
+    for (int i = 0; i < size; i++) {
+      if (m[i * size + i] < 0) {
+        return false;
+      }
+    }
+    if (integers) {
+      for (int i = 0; i < size; i++) {
+        int unary = i * size + (i ^ 1);
+        m[unary] = 2 * Math.floor(m[unary] / 2);
+      }
+      for (int i = 0; i < size; i += 2) {
+        if (m[i * size + i + 1] + m[(i + 1) * size + i] < 0) {
+          return false;
+        }
+      }
+    }
+    // the unary bounds m[i][i^1] are not changed by strengthening
+    for (int i = 0; i < size; i++) {
+      double unaryI = m[i * size + (i ^ 1)];
+      if (unaryI == INF) {
+        continue;
+      }
+      int rowI = i * size;
+      for (int j = 0; j < size; j++) {
+        m[rowI + j] = Math.min(m[rowI + j], (unaryI + m[(j ^ 1) * size + j]) / 2);
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      m[i * size + i] = 0;
+    }
+    return true;
+  }
+
+  private double roundUpper(double pBound) {
+    return integers ? Math.floor(pBound) : pBound;
+  }
+
+  private double roundLower(double pBound) {
+    return integers ? Math.ceil(pBound) : pBound;
+  }
+
+  /* Output */
+
+  @Override
+  public String print(Octagon oct, BiMap<Integer, MemoryLocation> map) {
+    StringBuilder str = new StringBuilder();
+    int dimension = dimension(oct);
+    str.append("Octagon (dimension: " + dimension + ")\n");
+    if (isEmpty(oct)) {
+      str.append("[Empty]\n");
+      return str.toString();
+    }
+
+    for (int i = 0; i < map.size(); i++) {
+      str.append(" ").append(map.get(i)).append(" -> ");
+      OctagonInterval bounds = getVariableBounds(oct, i);
+      if (bounds.getLow().isInfinite()) {
+        str.append("[-INFINITY, ");
+      } else {
+        str.append("[").append(bounds.getLow()).append(", ");
+      }
+      if (bounds.getHigh().isInfinite()) {
+        str.append("INFINITY]\n");
+      } else {
+        str.append(bounds.getHigh()).append("]\n");
+      }
+    }
+    return str.toString();
+  }
+
+  @Override
+  public OctagonInterval getVariableBounds(Octagon oct, int id) {
+    JavaOctagon o = cast(oct);
+    assert id < o.dimension;
+    double[] m = closedMatrix(o);
+    if (m == null) {
+      m = o.matrix;
+    }
+    int size = 2 * o.dimension;
+    double upper = m == null ? INF : m[(2 * id + 1) * size + 2 * id] / 2;
+    double negLower = m == null ? INF : m[2 * id * size + 2 * id + 1] / 2;
+
+    if (!integers) {
+      return new OctagonInterval(-negLower, upper);
+    } else if (negLower == INF && upper == INF) {
+      return new OctagonInterval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    } else if (negLower == INF) {
+      return new OctagonInterval(
+          new OctagonDoubleValue(Double.NEGATIVE_INFINITY), OctagonIntValue.of((long) upper));
+    } else if (upper == INF) {
+      return new OctagonInterval(
+          OctagonIntValue.of((long) -negLower), new OctagonDoubleValue(Double.POSITIVE_INFINITY));
+    } else {
+      return new OctagonInterval((long) -negLower, (long) upper);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Java octagon manager (" + (integers ? "integers" : "floats") + ")";
+  }
+}
@@ -0,0 +1,163 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+
+public class OctagonJavaManagerTest {
+
+  private static final int PX = 0;
+  private static final int MX = 1;
+  private static final int PXMY = 3;
+
+  private final OctagonManager manager = new OctagonJavaManager(true);
+
+  private Octagon addConstraint(Octagon oct, int type, int x, int y, long constant) {
+    NumArray arr = manager.init_num_t(4);
+    manager.num_set_int(arr, 0, type);
+    manager.num_set_int(arr, 1, x);
+    manager.num_set_int(arr, 2, y);
+    manager.num_set_int(arr, 3, constant);
+    return manager.addBinConstraint(oct, 1, arr);
+  }
+
+  /** Assign coefficients[0] * v0 + ... + coefficients[n-1] * v(n-1) + coefficients[n]. */
+  private Octagon assign(Octagon oct, int var, long... coefficients) {
+    NumArray arr = manager.init_num_t(coefficients.length);
+    for (int i = 0; i < coefficients.length; i++) {
+      manager.num_set_int(arr, i, coefficients[i]);
+    }
+    return manager.assingVar(oct, var, arr);
+  }
+
+  private void assertBounds(Octagon oct, int var, double low, double high) {
+    OctagonInterval bounds = manager.getVariableBounds(oct, var);
+    assertThat(bounds.getLow().getValue().doubleValue()).isEqualTo(low);
+    assertThat(bounds.getHigh().getValue().doubleValue()).isEqualTo(high);
+  }
+
+  @Test
+  public void testClosure() {
+    Octagon oct = manager.universe(2);
+    oct = addConstraint(oct, PX, 0, -1, 5); // x <= 5
+    oct = addConstraint(oct, PXMY, 1, 0, 0); // y - x <= 0
+    assertBounds(oct, 1, Double.NEGATIVE_INFINITY, 5);
+    assertThat(manager.isEmpty(oct)).isFalse();
+
+    oct = addConstraint(oct, MX, 1, -1, -6); // y >= 6
+    assertThat(manager.isEmpty(oct)).isTrue();
+  }
+
+  @Test
+  public void testIntegerTightening() {
+    Octagon oct = manager.universe(2);
+    // x + x <= 3 implies x <= 1 for integers
+    NumArray arr = manager.init_num_t(4);
+    manager.num_set_int(arr, 0, 2);
+    manager.num_set_int(arr, 1, 0);
+    manager.num_set_int(arr, 2, 0);
+    manager.num_set_int(arr, 3, 3);
+    oct = manager.addBinConstraint(oct, 1, arr);
+    assertBounds(oct, 0, Double.NEGATIVE_INFINITY, 1);
+  }
+
+  @Test
+  public void testAssignment() {
+    Octagon oct = manager.universe(3);
+    oct = assign(oct, 0, 0, 0, 0, 3); // x := 3
+    oct = assign(oct, 1, 1, 0, 0, 1); // y := x + 1
+    assertBounds(oct, 1, 4, 4);
+    oct = assign(oct, 1, 0, -1, 0, 10); // y := -y + 10
+    assertBounds(oct, 1, 6, 6);
+    oct = assign(oct, 2, 2, 1, 0, 0); // z := 2x + y
+    assertBounds(oct, 2, 12, 12);
+
+    oct = manager.forget(oct, 0);
+    assertBounds(oct, 0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    assertBounds(oct, 1, 6, 6);
+  }
+
+  @Test
+  public void testRelationalAssignment() {
+    Octagon oct = manager.universe(2);
+    oct = assign(oct, 1, 1, 0, 2); // y := x + 2
+    oct = addConstraint(oct, PX, 0, -1, 10); // x <= 10
+    assertBounds(oct, 1, Double.NEGATIVE_INFINITY, 12);
+  }
+
+  @Test
+  public void testLattice() {
+    Octagon zero = assign(manager.universe(1), 0, 0, 0);
+    Octagon one = assign(manager.universe(1), 0, 0, 1);
+    Octagon join = manager.union(zero, one);
+    assertBounds(join, 0, 0, 1);
+    assertThat(manager.isIncludedIn(zero, join)).isTrue();
+    assertThat(manager.isIncludedIn(join, zero)).isFalse();
+    assertThat(manager.isEmpty(manager.intersection(zero, one))).isTrue();
+    assertThat(manager.isEqual(manager.union(join, zero), join)).isTrue();
+
+    Octagon widened = manager.widening(zero, join);
+    assertBounds(widened, 0, 0, Double.POSITIVE_INFINITY);
+    assertThat(manager.isIncludedIn(join, widened)).isTrue();
+  }
+
+  @Test
+  public void testDimensions() {
+    Octagon oct = assign(manager.universe(1), 0, 0, 7);
+    Octagon embedded = manager.addDimensionAndEmbed(oct, 2);
+    assertThat(manager.dimension(embedded)).isEqualTo(3);
+    assertBounds(embedded, 0, 7, 7);
+    assertBounds(embedded, 2, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    assertThat(manager.isEqual(manager.removeDimension(embedded, 2), oct)).isTrue();
+  }
+
+  @Test
+  public void testUnchangedOctagonsAreShared() {
+    Octagon zero = assign(manager.universe(2), 0, 0, 0, 0);
+    Octagon join = manager.union(zero, assign(manager.universe(2), 0, 0, 0, 1));
+
+    assertThat(manager.copy(zero)).isSameInstanceAs(zero);
+    assertThat(manager.union(join, zero)).isSameInstanceAs(join);
+    assertThat(manager.intersection(zero, join)).isSameInstanceAs(zero);
+    assertThat(manager.widening(join, zero)).isSameInstanceAs(join);
+    assertThat(manager.forget(zero, 1)).isSameInstanceAs(zero);
+    assertThat(addConstraint(zero, PX, 0, -1, 3)).isSameInstanceAs(zero); // x <= 3 is implied
+    assertThat(manager.addDimensionAndEmbed(zero, 0)).isSameInstanceAs(zero);
+
+    Octagon restricted = addConstraint(join, PX, 0, -1, 0); // x <= 0
+    assertThat(restricted).isNotSameInstanceAs(join);
+    assertThat(manager.isEqual(restricted, zero)).isTrue();
+  }
+
+  @Test
+  public void testClosureOfWidening() {
+    Octagon oct = manager.universe(2);
+    oct = assign(oct, 0, 0, 0, 0); // x := 0
+    oct = assign(oct, 1, 1, 0, 0); // y := x
+    Octagon next = assign(oct, 0, 1, 0, 1); // x := x + 1
+    next = assign(next, 1, 1, 0, 0); // y := x
+
+    // the widening is not closed, but queries use its closure
+    Octagon widened = manager.widening(oct, manager.union(oct, next));
+    assertBounds(widened, 0, 0, Double.POSITIVE_INFINITY);
+    assertBounds(widened, 1, 0, Double.POSITIVE_INFINITY);
+    assertThat(manager.isIncludedIn(next, widened)).isTrue();
+    assertThat(manager.isIncludedIn(widened, next)).isFalse();
+    // y - x <= 0 and x - y <= 0 are stable
+    assertThat(addConstraint(widened, PXMY, 0, 1, 0)).isSameInstanceAs(widened);
+    assertThat(manager.isEmpty(addConstraint(widened, PXMY, 0, 1, -1))).isTrue();
+
+    // widening again with the same octagon is stable
+    assertThat(manager.isEqual(manager.widening(widened, manager.union(widened, next)), widened))
+        .isTrue();
+  }
+}
@@ -8,6 +8,7 @@
 
 package org.sosy_lab.cpachecker.util.predicates.bdd;
 
+import java.util.logging.Level;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
@@ -43,7 +44,12 @@ public class BDDManagerFactory {
   // documentation of the packages can be found at source of BDDFactory.init()
   private String bddPackage = "JAVA";
 
-  @Option(secure = true, description = "sequentialize all accesses to the BDD library.")
+  @Option(
+      secure = true,
+      description =
+          "Make accesses to the BDD library safe for concurrent use. Most packages are"
+              + " sequentialized with a global lock. For PJBDD (unless its thread safety is"
+              + " disabled), its concurrent unique table and cache are used without a global lock.")
   private boolean synchronizeLibraryAccess = false;
 
   @Option(
@@ -71,10 +77,13 @@ public class BDDManagerFactory {
 
   public RegionManager createRegionManager() throws InvalidConfigurationException {
     RegionManager rmgr;
+    boolean threadSafe = false;
     if (bddPackage.equals("SYLVAN")) {
       rmgr = new SylvanBDDRegionManager(config, logger);
     } else if (bddPackage.equals("PJBDD")) {
-      rmgr = new PJBDDRegionManager(config);
+      PJBDDRegionManager pjbddManager = new PJBDDRegionManager(config);
+      threadSafe = pjbddManager.isThreadSafe();
+      rmgr = pjbddManager;
     } else {
       rmgr = new JavaBDDRegionManager(bddPackage, config, logger);
     }
@@ -85,7 +94,12 @@ public class BDDManagerFactory {
       rmgr = new CountingRegionManager(rmgr);
     }
     if (synchronizeLibraryAccess) {
-      rmgr = new SynchronizedRegionManager(rmgr);
+      // TimedRegionManager is not thread-safe, so it needs the lock in any case
+      if (threadSafe && !measureLibraryAccess) {
+        logger.log(Level.FINE, "Using BDD library concurrently without a global lock.");
+      } else {
+        rmgr = new SynchronizedRegionManager(rmgr);
+      }
     }
     return rmgr;
   }
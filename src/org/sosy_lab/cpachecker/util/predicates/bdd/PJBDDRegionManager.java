@@ -45,19 +45,32 @@ import org.sosy_lab.pjbdd.api.Creator;
 import org.sosy_lab.pjbdd.api.CreatorBuilder;
 import org.sosy_lab.pjbdd.api.DD;
 
+/**
+ * Region manager based on PJBDD. Unless thread safety is disabled in the configuration, PJBDD uses
+ * a concurrent unique table and compute cache, and this region manager may be used by several
+ * threads at the same time without external synchronization (except for {@link
+ * #setVarOrder(ImmutableIntArray)}).
+ */
 public class PJBDDRegionManager implements RegionManager {
 
   private final Region trueFormula;
   private final Region falseFormula;
   private final Creator bddCreator;
+  private final boolean threadSafe;
 
   public PJBDDRegionManager(Configuration pConfig) throws InvalidConfigurationException {
     BuildFromConfig buildFromConfig = new BuildFromConfig(pConfig);
     bddCreator = buildFromConfig.makeCreator();
+    threadSafe = !buildFromConfig.disableThreadSafety;
     trueFormula = wrap(bddCreator.makeTrue());
     falseFormula = wrap(bddCreator.makeFalse());
   }
 
+  /** Whether all operations except setting the variable order may be called concurrently. */
+  public boolean isThreadSafe() {
+    return threadSafe;
+  }
+
   @Override
   public boolean entails(Region f1, Region f2) {
     return bddCreator.makeImply(unwrap(f1), unwrap(f2)).isTrue();
@@ -115,6 +128,15 @@ public class PJBDDRegionManager implements RegionManager {
     throw new UnsupportedOperationException("dynamic reordering not yet implemented");
   }
 
+  /**
+   * Shut down the BDD creator. The creator is shared by all threads, so this must not be done
+   * before the whole analysis that uses this region manager is finished.
+   */
+  @Override
+  public void release() {
+    bddCreator.shutDown();
+  }
+
   @Override
   public RegionBuilder builder(ShutdownNotifier pShutdownNotifier) {
     return new RegionBuilder();
@@ -307,7 +329,6 @@ public class PJBDDRegionManager implements RegionManager {
     @Override
     public void close() {
       cache.clear();
-      PJBDDRegionManager.this.bddCreator.shutDown();
     }
 
     @Override
@@ -0,0 +1,161 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.bdd;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.regions.Region;
+import org.sosy_lab.cpachecker.util.predicates.regions.RegionManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Checks that PJBDD used concurrently without a global lock, as {@link BDDManagerFactory} creates
+ * it, computes the same regions as sequentially. The performance of this mode is measured by
+ * ConcurrentRegionManagerBenchmark.
+ */
+public class PJBDDRegionManagerTest {
+
+  private static final int PREDICATES = 16;
+  private static final int THREADS = 8;
+  private static final int TASKS = 64;
+  private static final int CUBES = 200;
+  private static final int CUBE_SIZE = 4;
+
+  private RegionManager rmgr;
+  private Region[] predicates;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() throws Exception {
+    Configuration config =
+        Configuration.builder()
+            .setOption("bdd.package", "PJBDD")
+            .setOption("bdd.synchronizeLibraryAccess", "true")
+            .build();
+    rmgr =
+        new BDDManagerFactory(config, LogManager.createTestLogManager()).createRegionManager();
+    assertThat(rmgr).isInstanceOf(PJBDDRegionManager.class);
+    predicates = new Region[PREDICATES];
+    for (int i = 0; i < PREDICATES; i++) {
+      predicates[i] = rmgr.createPredicate();
+    }
+    executor =
+        Executors.newFixedThreadPool(
+            THREADS, new ThreadFactoryBuilder().setNameFormat("bdd-test-%d").build());
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+    rmgr.release();
+  }
+
+  /**
+   * Build a disjunction of random cubes over the predicates and quantify some predicates away, like
+   * ConcurrentRegionManagerBenchmark does.
+   */
+  private Callable<Region> buildDisjunction(int pSeed) {
+    return () -> {
+      Random random = new Random(pSeed);
+      Region result = rmgr.makeFalse();
+      for (int c = 0; c < CUBES; c++) {
+        Region cube = rmgr.makeTrue();
+        for (int i = 0; i < CUBE_SIZE; i++) {
+          Region predicate = predicates[random.nextInt(PREDICATES)];
+          cube = rmgr.makeAnd(cube, random.nextBoolean() ? predicate : rmgr.makeNot(predicate));
+        }
+        result = rmgr.makeOr(result, cube);
+        if (random.nextInt(16) == 0) {
+          result = rmgr.makeExists(result, predicates[random.nextInt(PREDICATES)]);
+        }
+      }
+      return result;
+    };
+  }
+
+  private List<Region> computeSequentially() throws Exception {
+    List<Region> results = new ArrayList<>(TASKS);
+    for (int task = 0; task < TASKS; task++) {
+      results.add(buildDisjunction(task).call());
+    }
+    return results;
+  }
+
+  private List<Region> computeConcurrently() throws Exception {
+    List<Future<Region>> futures = new ArrayList<>(TASKS);
+    for (int task = 0; task < TASKS; task++) {
+      futures.add(executor.submit(buildDisjunction(task)));
+    }
+    List<Region> results = new ArrayList<>(TASKS);
+    for (Future<Region> future : futures) {
+      results.add(future.get());
+    }
+    return results;
+  }
+
+  @Test(timeout = 120000)
+  public void testConcurrentOperations() throws Exception {
+    List<Region> expected = computeSequentially();
+
+    for (int round = 0; round < 3; round++) {
+      assertThat(computeConcurrently()).containsExactlyElementsIn(expected).inOrder();
+    }
+  }
+
+  @Test(timeout = 120000)
+  public void testOperationsAfterFormulaConversion() throws Exception {
+    Configuration config = TestDataTools.configurationForTest().build();
+    try (Solver solver =
+        Solver.create(config, LogManager.createTestLogManager(), ShutdownNotifier.createDummy())) {
+      FormulaManagerView fmgr = solver.getFormulaManager();
+      BooleanFormulaManagerView bfmgr = fmgr.getBooleanFormulaManager();
+      Map<BooleanFormula, Region> atoms = new HashMap<>();
+      List<BooleanFormula> variables = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        BooleanFormula variable = bfmgr.makeVariable("p" + i);
+        variables.add(variable);
+        atoms.put(variable, predicates[i]);
+      }
+      // (p0 & p1) | !p2
+      BooleanFormula formula =
+          bfmgr.or(bfmgr.and(variables.get(0), variables.get(1)), bfmgr.not(variables.get(2)));
+      Region expected =
+          rmgr.makeOr(rmgr.makeAnd(predicates[0], predicates[1]), rmgr.makeNot(predicates[2]));
+
+      List<Region> expectedDisjunctions = computeSequentially();
+
+      // the conversion must not shut down the shared creator when it is finished,
+      // only releasing the region manager does this
+      assertThat(rmgr.fromFormula(formula, fmgr, atoms::get)).isEqualTo(expected);
+      assertThat(computeConcurrently()).containsExactlyElementsIn(expectedDisjunctions).inOrder();
+      assertThat(rmgr.fromFormula(formula, fmgr, atoms::get)).isEqualTo(expected);
+      assertThat(computeSequentially()).containsExactlyElementsIn(expectedDisjunctions).inOrder();
+    }
+  }
+}
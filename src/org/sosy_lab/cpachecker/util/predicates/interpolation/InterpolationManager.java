@@ -59,6 +59,7 @@ import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.Triple;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.ITPStrategy;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.NestedInterpolation;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.ParallelSequentialInterpolation;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.SequentialInterpolation;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.SequentialInterpolationWithSolver;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.TreeInterpolation;
@@ -102,6 +103,7 @@ public final class InterpolationManager {
     if (interpolantVerificationTimer.getNumberOfIntervals() > 0) {
       w1.put("Interpolant verification", interpolantVerificationTimer);
     }
+    itpStrategy.printStatistics(w1);
   }
 
 
@@ -147,6 +149,9 @@ public final class InterpolationManager {
               + "- SEQ_CPACHECKER: Generate an inductive sequence of interpolants by asking the"
               + " solver individually for each of them. This allows us to fine-tune the queries"
               + " with the option sequentialStrategy and is supported by all solvers.\n"
+              + "- SEQ_CPACHECKER_PARALLEL: Like SEQ_CPACHECKER with forward interpolants, but the"
+              + " queries are answered in parallel by several solver instances (cf. options"
+              + " cpa.predicate.refinement.parallelInterpolation.*).\n"
               + "- SEQ: Generate an inductive sequence of interpolants by asking the solver for"
               + " the whole sequence at once.\n"
               + "- TREE: Use the tree-interpolation feature of the solver to get interpolants.\n"
@@ -161,6 +166,7 @@ public final class InterpolationManager {
 
   private enum InterpolationStrategy {
     SEQ, SEQ_CPACHECKER,
+    SEQ_CPACHECKER_PARALLEL,
     TREE,
     TREE_WELLSCOPED,
     TREE_NESTED,
@@ -242,6 +248,10 @@ public final class InterpolationManager {
       case SEQ_CPACHECKER:
         itpStrategy = new SequentialInterpolation(pLogger, pShutdownNotifier, fmgr, config);
         break;
+      case SEQ_CPACHECKER_PARALLEL:
+        itpStrategy =
+            new ParallelSequentialInterpolation(pLogger, pShutdownNotifier, fmgr, config);
+        break;
       case SEQ:
         itpStrategy = new SequentialInterpolationWithSolver(pLogger, pShutdownNotifier, fmgr);
         break;
@@ -22,6 +22,7 @@ import org.sosy_lab.cpachecker.util.Triple;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.InterpolationManager;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
@@ -57,6 +58,11 @@ public abstract class ITPStrategy {
       final List<Triple<BooleanFormula, AbstractState, T>> formulasWithStateAndGroupId)
       throws InterruptedException, SolverException;
 
+  /** Print the statistics of this strategy, if any. */
+  public void printStatistics(StatisticsWriter pWriter) {
+    // no statistics by default
+  }
+
   /**
    * This method checks the validity of the interpolants according to the current interpolation
    * strategy. The default interpolation strategy is sequential interpolation, i.e. we assume:
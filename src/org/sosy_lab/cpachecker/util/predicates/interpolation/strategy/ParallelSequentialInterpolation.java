@@ -0,0 +1,343 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.interpolation.strategy;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.Triple;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.InterpolationManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * This strategy computes the same sequence of forward interpolants as {@link
+ * SequentialInterpolation}, i.e., each interpolant for i={0..n-1} for the partitions A=[0 .. i] and
+ * B=[i+1 .. n], but answers the independent interpolation queries in parallel.
+ *
+ * <p>Solver instances must not be shared between threads, so each additional thread has its own
+ * {@link Solver} with its own interpolating prover, onto which the formulas of the counterexample
+ * are translated and pushed. The calling thread answers queries with the prover of the given
+ * {@link InterpolationManager.Interpolator}, which already contains all formulas. All threads take
+ * the next unanswered query from a shared counter, so that threads with expensive queries answer
+ * less queries. The interpolants are translated back into the formula manager of the analysis.
+ *
+ * <p>Interpolation strategies have no life cycle, so the additional solvers and threads exist only
+ * while the queries for one counterexample are answered.
+ */
+@Options(prefix = "cpa.predicate.refinement.parallelInterpolation")
+public class ParallelSequentialInterpolation extends ITPStrategy {
+
+  @Option(
+      secure = true,
+      description =
+          "number of threads for answering interpolation queries in parallel, including the"
+              + " thread of the analysis. Each additional thread uses its own solver instance.")
+  @IntegerOption(min = 1)
+  private int threads = 4;
+
+  @Option(
+      secure = true,
+      description =
+          "minimal number of interpolation queries for a counterexample such that they are"
+              + " answered in parallel. Shorter counterexamples are handled only by the thread"
+              + " of the analysis, because translating the formulas to the other solvers is not"
+              + " worth it.")
+  @IntegerOption(min = 1)
+  private int minQueries = 8;
+
+  private final Configuration config;
+  private final ShutdownNotifier shutdownNotifier;
+
+  private int parallelComputations = 0;
+  private int queries = 0;
+  private long sumQueryTime = 0;
+  private long maxQueryTime = 0;
+  private final StatInt queriesPerThread =
+      new StatInt(StatKind.AVG, "Queries answered per thread");
+  private final StatInt loadBalance =
+      new StatInt(StatKind.AVG, "Busy time of slowest thread relative to average (in %)");
+
+  public ParallelSequentialInterpolation(
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      FormulaManagerView pFmgr,
+      Configuration pConfig)
+      throws InvalidConfigurationException {
+    super(pLogger, pShutdownNotifier, pFmgr);
+    pConfig.inject(this);
+    config = pConfig;
+    shutdownNotifier = pShutdownNotifier;
+  }
+
+  @Override
+  public <T> List<BooleanFormula> getInterpolants(
+      final InterpolationManager.Interpolator<T> interpolator,
+      final List<Triple<BooleanFormula, AbstractState, T>> formulasWithStateAndGroupId)
+      throws InterruptedException, SolverException {
+    final List<T> groupIds = projectToThird(formulasWithStateAndGroupId);
+    final int n = groupIds.size() - 1;
+
+    if (threads == 1 || n < minQueries) {
+      QueryResults results = new QueryResults(n);
+      long busyTime =
+          answerQueries(interpolator.itpProver, groupIds, -1, new AtomicInteger(), results);
+      queries += n;
+      sumQueryTime += busyTime;
+      for (long queryTime : results.queryTimes) {
+        maxQueryTime = Math.max(maxQueryTime, queryTime);
+      }
+      return ImmutableList.copyOf(results.interpolants);
+    }
+
+    List<Solver> solvers = new ArrayList<>(threads - 1);
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            threads - 1,
+            new ThreadFactoryBuilder().setNameFormat("interpolation-worker-%d").build());
+    try {
+      for (int i = 1; i < threads; i++) {
+        solvers.add(Solver.create(config, logger, shutdownNotifier));
+      }
+      return getInterpolantsInParallel(
+          interpolator, formulasWithStateAndGroupId, solvers, executor);
+
+    } catch (InvalidConfigurationException e) {
+      // the same configuration was already used successfully for the solver of the analysis
+      throw new AssertionError(e);
+
+    } finally {
+      // all tasks have terminated here, so the solvers are no longer used
+      executor.shutdown();
+      for (Solver solver : solvers) {
+        solver.close();
+      }
+    }
+  }
+
+  private <T> List<BooleanFormula> getInterpolantsInParallel(
+      final InterpolationManager.Interpolator<T> interpolator,
+      final List<Triple<BooleanFormula, AbstractState, T>> formulasWithStateAndGroupId,
+      final List<Solver> solvers,
+      final ExecutorService executor)
+      throws InterruptedException, SolverException {
+    final List<T> groupIds = projectToThird(formulasWithStateAndGroupId);
+    final int n = groupIds.size() - 1;
+
+    // Translate the formulas for all threads before starting them,
+    // because the formula manager of the analysis must not be accessed concurrently.
+    final List<BooleanFormula> formulas =
+        Lists.transform(formulasWithStateAndGroupId, Triple::getFirst);
+    final List<List<BooleanFormula>> translatedFormulas = new ArrayList<>(solvers.size());
+    for (Solver solver : solvers) {
+      FormulaManagerView otherFmgr = solver.getFormulaManager();
+      List<BooleanFormula> translated = new ArrayList<>(formulas.size());
+      for (BooleanFormula formula : formulas) {
+        translated.add(otherFmgr.translateFrom(formula, fmgr));
+      }
+      translatedFormulas.add(translated);
+    }
+
+    final AtomicInteger nextQuery = new AtomicInteger();
+    final QueryResults results = new QueryResults(n);
+    final List<Future<Long>> futures = new ArrayList<>(solvers.size());
+    final List<Long> busyTimes = new ArrayList<>(solvers.size() + 1);
+    boolean success = false;
+    try {
+      for (int i = 0; i < solvers.size(); i++) {
+        final Solver solver = solvers.get(i);
+        final int thread = i;
+        futures.add(
+            executor.submit(
+                () ->
+                    answerQueriesWithSolver(
+                        solver, thread, translatedFormulas.get(thread), nextQuery, results)));
+      }
+      busyTimes.add(answerQueries(interpolator.itpProver, groupIds, -1, nextQuery, results));
+      for (Future<Long> future : futures) {
+        busyTimes.add(future.get());
+      }
+      success = true;
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      Throwables.propagateIfPossible(cause, InterruptedException.class, SolverException.class);
+      throw new UnexpectedCheckedException("parallel interpolation", cause);
+
+    } finally {
+      if (!success) {
+        // Stop the other threads before returning, because their solvers are closed afterwards.
+        nextQuery.set(n);
+        for (Future<?> future : futures) {
+          try {
+            Uninterruptibles.getUninterruptibly(future);
+          } catch (ExecutionException e) {
+            logger.logDebugException(e, "Parallel interpolation query failed");
+          }
+        }
+      }
+    }
+
+    final ImmutableList.Builder<BooleanFormula> interpolants =
+        ImmutableList.builderWithExpectedSize(n);
+    for (int i = 0; i < n; i++) {
+      int thread = results.threads[i];
+      if (thread < 0) {
+        interpolants.add(results.interpolants[i]);
+      } else {
+        interpolants.add(
+            fmgr.translateFrom(results.interpolants[i], solvers.get(thread).getFormulaManager()));
+      }
+    }
+    updateStatistics(results, busyTimes);
+    return interpolants.build();
+  }
+
+  /** The results of the queries for one counterexample, each array has one entry per query. */
+  private static final class QueryResults {
+
+    private final BooleanFormula[] interpolants;
+    // index of the thread (and solver) that answered the query, -1 for the calling thread
+    private final int[] threads;
+    private final long[] queryTimes;
+
+    private QueryResults(int pQueries) {
+      interpolants = new BooleanFormula[pQueries];
+      threads = new int[pQueries];
+      queryTimes = new long[pQueries];
+    }
+  }
+
+  private long answerQueriesWithSolver(
+      Solver pSolver,
+      int pThread,
+      List<BooleanFormula> pFormulas,
+      AtomicInteger pNextQuery,
+      QueryResults pResults)
+      throws InterruptedException, SolverException {
+    try (InterpolatingProverEnvironment<?> prover =
+        pSolver.newProverEnvironmentWithInterpolation()) {
+      return pushAndAnswerQueries(prover, pThread, pFormulas, pNextQuery, pResults);
+    }
+  }
+
+  private <S> long pushAndAnswerQueries(
+      InterpolatingProverEnvironment<S> pProver,
+      int pThread,
+      List<BooleanFormula> pFormulas,
+      AtomicInteger pNextQuery,
+      QueryResults pResults)
+      throws InterruptedException, SolverException {
+    List<S> groupIds = new ArrayList<>(pFormulas.size());
+    for (BooleanFormula formula : pFormulas) {
+      groupIds.add(pProver.push(formula));
+    }
+    if (!pProver.isUnsat()) {
+      throw new SolverException(
+          "Counterexample is satisfiable in separate solver instance for interpolation");
+    }
+    return answerQueries(pProver, groupIds, pThread, pNextQuery, pResults);
+  }
+
+  /**
+   * Answer queries until there are no more unanswered queries. Each entry of the results is written
+   * only by the thread that answers the respective query.
+   *
+   * @param pThread the index of the current thread, or -1 for the calling thread
+   * @return the time spent on the queries in nanoseconds
+   */
+  private <S> long answerQueries(
+      InterpolatingProverEnvironment<S> pProver,
+      List<S> pGroupIds,
+      int pThread,
+      AtomicInteger pNextQuery,
+      QueryResults pResults)
+      throws InterruptedException, SolverException {
+    long busyTime = 0;
+    int n = pGroupIds.size() - 1;
+    for (int i = pNextQuery.getAndIncrement(); i < n; i = pNextQuery.getAndIncrement()) {
+      long start = System.nanoTime();
+      pResults.interpolants[i] = getInterpolantFromSublist(pProver, pGroupIds, 0, i);
+      long queryTime = System.nanoTime() - start;
+      pResults.queryTimes[i] = queryTime;
+      pResults.threads[i] = pThread;
+      busyTime += queryTime;
+    }
+    return busyTime;
+  }
+
+  private void updateStatistics(QueryResults pResults, List<Long> pBusyTimes) {
+    parallelComputations++;
+    queries += pResults.queryTimes.length;
+    for (long queryTime : pResults.queryTimes) {
+      sumQueryTime += queryTime;
+      maxQueryTime = Math.max(maxQueryTime, queryTime);
+    }
+
+    int[] answeredQueries = new int[threads];
+    for (int thread : pResults.threads) {
+      answeredQueries[thread + 1]++;
+    }
+    for (int count : answeredQueries) {
+      queriesPerThread.setNextValue(count);
+    }
+
+    long maxBusyTime = 0;
+    long sumBusyTime = 0;
+    for (long busyTime : pBusyTimes) {
+      maxBusyTime = Math.max(maxBusyTime, busyTime);
+      sumBusyTime += busyTime;
+    }
+    if (sumBusyTime > 0) {
+      loadBalance.setNextValue((int) (100 * maxBusyTime * pBusyTimes.size() / sumBusyTime));
+    }
+  }
+
+  @Override
+  public void printStatistics(StatisticsWriter pWriter) {
+    pWriter
+        .put("Number of interpolation queries", queries)
+        .put("Number of parallel interpolation computations", parallelComputations)
+        .putIf(
+            queries > 0,
+            "Avg. time per interpolation query",
+            TimeSpan.ofNanos(sumQueryTime / Math.max(queries, 1)).formatAs(TimeUnit.SECONDS))
+        .put(
+            "Max. time per interpolation query",
+            TimeSpan.ofNanos(maxQueryTime).formatAs(TimeUnit.SECONDS))
+        .putIf(parallelComputations > 0, queriesPerThread)
+        .putIf(parallelComputations > 0, loadBalance);
+  }
+}
@@ -0,0 +1,145 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.interpolation.strategy;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.cpa.predicate.BlockFormulaStrategy.BlockFormulas;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.CounterexampleTraceInfo;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.InterpolationManager;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManagerImpl;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.IntegerFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+/** Compares the interpolants of SEQ_CPACHECKER_PARALLEL with those of SEQ_CPACHECKER. */
+public class ParallelSequentialInterpolationTest {
+
+  private static final int LENGTH = 10;
+
+  private LogManager logger;
+  private ShutdownNotifier notifier;
+  private Solver solver;
+  private FormulaManagerView fmgr;
+
+  @Before
+  public void setUp() throws Exception {
+    logger = LogManager.createTestLogManager();
+    notifier = ShutdownNotifier.createDummy();
+    solver =
+        Solver.create(
+            TestDataTools.configurationForTest().setOption("solver.solver", "SMTINTERPOL").build(),
+            logger,
+            notifier);
+    fmgr = solver.getFormulaManager();
+  }
+
+  @After
+  public void tearDown() {
+    solver.close();
+  }
+
+  private InterpolationManager createInterpolationManager(String pStrategy) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("solver.solver", "SMTINTERPOL")
+            .setOption("cpa.predicate.refinement.strategy", pStrategy)
+            .setOption("cpa.predicate.refinement.incrementalCexTraceCheck", "false")
+            .setOption("cpa.predicate.refinement.parallelInterpolation.threads", "3")
+            .setOption("cpa.predicate.refinement.parallelInterpolation.minQueries", "2")
+            .build();
+    PathFormulaManager pfmgr =
+        new PathFormulaManagerImpl(
+            fmgr,
+            config,
+            logger,
+            notifier,
+            MachineModel.LINUX32,
+            Optional.empty(),
+            AnalysisDirection.FORWARD);
+    return new InterpolationManager(
+        pfmgr, solver, Optional.empty(), Optional.empty(), config, notifier, logger);
+  }
+
+  /** The infeasible path x0 = 0; x1 = x0 + 1; ...; x9 = x8 + 1; x9 < 5. */
+  private BlockFormulas createInfeasiblePath() {
+    IntegerFormulaManagerView ifmgr = fmgr.getIntegerFormulaManager();
+    List<BooleanFormula> formulas = new ArrayList<>();
+    IntegerFormula previous = ifmgr.makeVariable("x0");
+    formulas.add(ifmgr.equal(previous, ifmgr.makeNumber(0)));
+    for (int i = 1; i < LENGTH; i++) {
+      IntegerFormula current = ifmgr.makeVariable("x" + i);
+      formulas.add(ifmgr.equal(current, ifmgr.add(previous, ifmgr.makeNumber(1))));
+      previous = current;
+    }
+    formulas.add(ifmgr.lessThan(previous, ifmgr.makeNumber(5)));
+    return new BlockFormulas(formulas);
+  }
+
+  @Test(timeout = 60000)
+  public void testSameInterpolantsAsSequential() throws Exception {
+    BlockFormulas path = createInfeasiblePath();
+
+    CounterexampleTraceInfo sequential =
+        createInterpolationManager("SEQ_CPACHECKER").buildCounterexampleTrace(path);
+    InterpolationManager parallelManager = createInterpolationManager("SEQ_CPACHECKER_PARALLEL");
+    CounterexampleTraceInfo parallel = parallelManager.buildCounterexampleTrace(path);
+
+    assertThat(sequential.isSpurious()).isTrue();
+    assertThat(parallel.isSpurious()).isTrue();
+    assertThat(sequential.getInterpolants()).hasSize(LENGTH);
+    assertThat(parallel.getInterpolants()).hasSize(LENGTH);
+    assertValidSequence(path, sequential.getInterpolants());
+    assertValidSequence(path, parallel.getInterpolants());
+
+    ByteArrayOutputStream statistics = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(statistics, true, Charset.defaultCharset())) {
+      parallelManager.printStatistics(StatisticsWriter.writingStatisticsTo(out));
+    }
+    assertThat(statistics.toString(Charset.defaultCharset()))
+        .containsMatch("(?m)Number of parallel interpolation computations:\\s+1$");
+  }
+
+  /**
+   * Interpolants of different solver instances need not be syntactically equal, so we check that
+   * both strategies produce forward interpolants for the same partitions A=[0 .. i] and B=[i+1 ..
+   * n], i.e., that SEQ_CPACHECKER_PARALLEL answers the same queries as SEQ_CPACHECKER.
+   */
+  private void assertValidSequence(BlockFormulas pPath, List<BooleanFormula> pInterpolants)
+      throws Exception {
+    BooleanFormulaManagerView bfmgr = fmgr.getBooleanFormulaManager();
+    List<BooleanFormula> formulas = pPath.getFormulas();
+    for (int i = 0; i < pInterpolants.size(); i++) {
+      BooleanFormula prefix = bfmgr.and(formulas.subList(0, i + 1));
+      BooleanFormula suffix = bfmgr.and(formulas.subList(i + 1, formulas.size()));
+      assertThat(solver.implies(prefix, pInterpolants.get(i))).isTrue();
+      assertThat(solver.isUnsat(bfmgr.and(pInterpolants.get(i), suffix))).isTrue();
+    }
+  }
+}
@@ -10,13 +10,20 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Equivalence;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import java.io.PrintStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.LongAdder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
@@ -37,9 +44,50 @@ import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 /**
  * Implementation of {@link PathFormulaManager} that delegates to another
  * instance but caches results of some methods.
+ *
+ * <p>The caches can be bounded by an estimate of the memory they retain, in which case the least
+ * recently used entries are evicted first. The size of an entry is estimated from the length of the
+ * cached path formula, i.e., the number of edges that are encoded in its formula DAG.
  */
+@Options(prefix = "cpa.predicate.pathFormulaCache")
 public class CachingPathFormulaManager implements PathFormulaManager {
 
+  // The following constants are rough estimates and only need to be in the right order of
+  // magnitude, because the weights are only used to bound the caches, not to measure memory.
+
+  /**
+   * Estimated number of formula nodes that are created for a single CFA edge. A typical assignment
+   * "x = y + 1" needs the instantiated variables x@2 and y@1, the constant, the addition, the
+   * equality, and the conjunction with the previous path formula, i.e., six nodes, and assumptions
+   * and pointer accesses need a few more.
+   */
+  private static final int ESTIMATED_NODES_PER_EDGE = 8;
+
+  /**
+   * Estimated size of a single formula node inside the solver. Solver terms are objects with an
+   * operator, an array of children, a sort, and a hash code, which is about 48 to 80 bytes on a
+   * 64-bit JVM with compressed pointers (and similar for terms of native solvers).
+   */
+  private static final int ESTIMATED_BYTES_PER_NODE = 64;
+
+  /**
+   * Estimated size of a cache entry itself on a 64-bit JVM with compressed pointers: the access
+   * ordered cache entry (48 bytes), the {@link Pair} and the {@link Equivalence.Wrapper} of the key
+   * (24 bytes each), the {@link PathFormula} (32 bytes), the hash table slot, and the changed part
+   * of the SSA map.
+   */
+  private static final int ESTIMATED_BYTES_PER_ENTRY = 160;
+
+  @Option(
+      secure = true,
+      description =
+          "Maximum estimated memory in bytes that each of the path-formula caches may retain."
+              + " Least recently used entries are evicted if the limit is exceeded."
+              + " The estimate is based on the size of the cached formulas, formula nodes"
+              + " shared between several entries are counted for each of them."
+              + " Use 0 for unbounded caches.")
+  private long maximumRetainedBytes = 0;
+
   @SuppressWarnings("deprecation")
   public final ThreadSafeTimerContainer pathFormulaComputationTimer =
       new ThreadSafeTimerContainer(null);
@@ -48,23 +96,85 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   public final PathFormulaManager delegate;
 
-  private final Map<
+  private final Cache<
           Pair<Equivalence.Wrapper<CFAEdge>, PathFormula>, Pair<PathFormula, ErrorConditions>>
-      andFormulaWithConditionsCache = new HashMap<>();
-  private final Map<Pair<Equivalence.Wrapper<CFAEdge>, PathFormula>, PathFormula> andFormulaCache =
-      new HashMap<>();
+      andFormulaWithConditionsCache;
+  private final Cache<Pair<Equivalence.Wrapper<CFAEdge>, PathFormula>, PathFormula>
+      andFormulaCache;
 
-  private final Map<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache
-            = new HashMap<>();
+  private final Cache<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache;
 
-  private final Map<PathFormula, PathFormula> emptyFormulaCache
-            = new HashMap<>();
+  private final Cache<PathFormula, PathFormula> emptyFormulaCache;
 
   private final PathFormula emptyFormula;
 
-  public CachingPathFormulaManager(PathFormulaManager pDelegate) {
+  public CachingPathFormulaManager(PathFormulaManager pDelegate, Configuration pConfig)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (maximumRetainedBytes < 0) {
+      throw new InvalidConfigurationException(
+          "Invalid value "
+              + maximumRetainedBytes
+              + " for option cpa.predicate.pathFormulaCache.maximumRetainedBytes,"
+              + " only non-negative values are allowed.");
+    }
     delegate = pDelegate;
     emptyFormula = delegate.makeEmptyPathFormula();
+
+    andFormulaWithConditionsCache =
+        createCache((key, value) -> estimateRetainedBytes(value.getFirst()));
+    andFormulaCache = createCache((key, value) -> estimateRetainedBytes(value));
+    orFormulaCache = createCache((key, value) -> estimateRetainedBytes(value));
+    emptyFormulaCache = createCache((key, value) -> estimateRetainedBytes(key));
+  }
+
+  private <K, V> Cache<K, V> createCache(Weigher<K, V> pWeigher) {
+    if (maximumRetainedBytes > 0) {
+      return CacheBuilder.newBuilder()
+          .recordStats()
+          .maximumWeight(maximumRetainedBytes)
+          .weigher(pWeigher)
+          .build();
+    }
+    return CacheBuilder.newBuilder().recordStats().build();
+  }
+
+  /**
+   * Estimate the memory that is kept alive by a cache entry with the given path formula. Most of
+   * the formula DAG is typically shared with other path formulas, but it can be retained by the
+   * cache alone once the analysis does not reference it anymore, so we count it completely.
+   */
+  private static int estimateRetainedBytes(PathFormula pFormula) {
+    long nodes = (long) Math.max(pFormula.getLength(), 1) * ESTIMATED_NODES_PER_EDGE;
+    return (int)
+        Math.min(ESTIMATED_BYTES_PER_ENTRY + nodes * ESTIMATED_BYTES_PER_NODE, Integer.MAX_VALUE);
+  }
+
+  /** Sum up the estimated sizes of all entries that are currently cached. */
+  @VisibleForTesting
+  long getEstimatedRetainedBytes() {
+    long sum = 0;
+    for (Pair<PathFormula, ErrorConditions> value : andFormulaWithConditionsCache.asMap().values()) {
+      sum += estimateRetainedBytes(value.getFirst());
+    }
+    for (PathFormula value : andFormulaCache.asMap().values()) {
+      sum += estimateRetainedBytes(value);
+    }
+    for (PathFormula value : orFormulaCache.asMap().values()) {
+      sum += estimateRetainedBytes(value);
+    }
+    for (PathFormula key : emptyFormulaCache.asMap().keySet()) {
+      sum += estimateRetainedBytes(key);
+    }
+    return sum;
+  }
+
+  @VisibleForTesting
+  long getNumberOfEvictions() {
+    return andFormulaWithConditionsCache.stats().evictionCount()
+        + andFormulaCache.stats().evictionCount()
+        + orFormulaCache.stats().evictionCount()
+        + emptyFormulaCache.stats().evictionCount();
   }
 
   /**
@@ -81,7 +191,8 @@ public class CachingPathFormulaManager implements PathFormulaManager {
       PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
     final Pair<Equivalence.Wrapper<CFAEdge>, PathFormula> formulaCacheKey =
         createFormulaCacheKey(pOldFormula, pEdge);
-    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.get(formulaCacheKey);
+    Pair<PathFormula, ErrorConditions> result =
+        andFormulaWithConditionsCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       TimerWrapper t = pathFormulaComputationTimer.getNewTimer();
       t.start();
@@ -100,7 +211,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   public PathFormula makeAnd(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
     final Pair<Equivalence.Wrapper<CFAEdge>, PathFormula> formulaCacheKey =
         createFormulaCacheKey(pOldFormula, pEdge);
-    PathFormula result = andFormulaCache.get(formulaCacheKey);
+    PathFormula result = andFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       TimerWrapper t = pathFormulaComputationTimer.getNewTimer();
       try {
@@ -121,10 +232,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   public PathFormula makeOr(PathFormula pF1, PathFormula pF2) throws InterruptedException {
     final Pair<PathFormula, PathFormula> formulaCacheKey = Pair.of(pF1, pF2);
 
-    PathFormula result = orFormulaCache.get(formulaCacheKey);
+    PathFormula result = orFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       // try again with other order
-      result = orFormulaCache.get(Pair.of(pF2, pF1));
+      result = orFormulaCache.getIfPresent(Pair.of(pF2, pF1));
     }
 
     if (result == null) {
@@ -148,7 +259,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public PathFormula makeEmptyPathFormulaWithContextFrom(PathFormula pOldFormula) {
-    PathFormula result = emptyFormulaCache.get(pOldFormula);
+    PathFormula result = emptyFormulaCache.getIfPresent(pOldFormula);
     if (result == null) {
       result = delegate.makeEmptyPathFormulaWithContextFrom(pOldFormula);
       emptyFormulaCache.put(pOldFormula, result);
@@ -214,10 +325,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public void clearCaches() {
-    andFormulaWithConditionsCache.clear();
-    andFormulaCache.clear();
-    orFormulaCache.clear();
-    emptyFormulaCache.clear();
+    andFormulaWithConditionsCache.invalidateAll();
+    andFormulaCache.invalidateAll();
+    orFormulaCache.invalidateAll();
+    emptyFormulaCache.invalidateAll();
     delegate.clearCaches();
   }
 
@@ -243,6 +354,20 @@ public class CachingPathFormulaManager implements PathFormulaManager {
             + " ("
             + toPercent(cacheHits, totalPathFormulaComputations)
             + ")");
+    long evictions = getNumberOfEvictions();
+    long entries =
+        andFormulaWithConditionsCache.size()
+            + andFormulaCache.size()
+            + orFormulaCache.size()
+            + emptyFormulaCache.size();
+    out.println("  Cache entries:                     " + entries);
+    out.println("  Cache evictions:                   " + evictions);
+    out.print(
+        "  Estimated retained memory:         " + (getEstimatedRetainedBytes() >> 10) + " KiB");
+    if (maximumRetainedBytes > 0) {
+      out.print(" (limit per cache: " + (maximumRetainedBytes >> 10) + " KiB)");
+    }
+    out.println();
     out.println();
 
     out.println("Inside post operator:                  ");
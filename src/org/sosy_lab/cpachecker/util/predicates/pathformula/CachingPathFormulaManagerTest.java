@@ -0,0 +1,141 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpressionBuilder;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cfa.types.c.CStorageClass;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
+
+@SuppressFBWarnings("NP_NONNULL_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR")
+public class CachingPathFormulaManagerTest extends SolverViewBasedTest0 {
+
+  private static final int PATH_LENGTH = 100;
+
+  private PathFormulaManager pfmgr;
+  private CFAEdge increment;
+
+  @Before
+  public void setup() throws Exception {
+    pfmgr =
+        new PathFormulaManagerImpl(
+            mgrv,
+            config,
+            logger,
+            ShutdownNotifier.createDummy(),
+            MachineModel.LINUX32,
+            Optional.empty(),
+            AnalysisDirection.FORWARD);
+
+    // x = x + 1;
+    CVariableDeclaration x =
+        new CVariableDeclaration(
+            FileLocation.DUMMY, false, CStorageClass.AUTO, CNumericTypes.INT, "x", "x", "x", null);
+    CIdExpression xId = new CIdExpression(FileLocation.DUMMY, x);
+    CBinaryExpressionBuilder builder = new CBinaryExpressionBuilder(MachineModel.LINUX32, logger);
+    increment =
+        new CStatementEdge(
+            "x = x + 1;",
+            new CExpressionAssignmentStatement(
+                FileLocation.DUMMY,
+                xId,
+                builder.buildBinaryExpression(
+                    xId, CIntegerLiteralExpression.ONE, BinaryOperator.PLUS)),
+            FileLocation.DUMMY,
+            CFANode.newDummyCFANode("main"),
+            CFANode.newDummyCFANode("main"));
+  }
+
+  private CachingPathFormulaManager createCachingManager(long pMaximumRetainedBytes)
+      throws Exception {
+    Configuration cacheConfig =
+        Configuration.builder()
+            .copyFrom(config)
+            .setOption(
+                "cpa.predicate.pathFormulaCache.maximumRetainedBytes",
+                Long.toString(pMaximumRetainedBytes))
+            .build();
+    return new CachingPathFormulaManager(pfmgr, cacheConfig);
+  }
+
+  /** Apply the increment edge repeatedly and return all intermediate path formulas. */
+  private List<PathFormula> makePath(PathFormulaManager pPfmgr) throws Exception {
+    List<PathFormula> path = new ArrayList<>(PATH_LENGTH + 1);
+    PathFormula pf = pPfmgr.makeEmptyPathFormula();
+    path.add(pf);
+    for (int i = 0; i < PATH_LENGTH; i++) {
+      pf = pPfmgr.makeAnd(pf, increment);
+      path.add(pf);
+    }
+    return path;
+  }
+
+  @Test
+  public void testUnboundedCache() throws Exception {
+    CachingPathFormulaManager cachingPfmgr = createCachingManager(0);
+    List<PathFormula> uncached = makePath(pfmgr);
+
+    assertThat(makePath(cachingPfmgr)).containsExactlyElementsIn(uncached).inOrder();
+    assertThat(cachingPfmgr.pathFormulaCacheHits.sum()).isEqualTo(0);
+
+    assertThat(makePath(cachingPfmgr)).containsExactlyElementsIn(uncached).inOrder();
+    assertThat(cachingPfmgr.pathFormulaCacheHits.sum()).isEqualTo(PATH_LENGTH);
+    assertThat(cachingPfmgr.getNumberOfEvictions()).isEqualTo(0);
+  }
+
+  @Test
+  public void testBoundedCache() throws Exception {
+    // The entries of the path have an estimated size of about 2.6 MB in total,
+    // so only some of them fit into the cache.
+    long limit = 1 << 20;
+    CachingPathFormulaManager cachingPfmgr = createCachingManager(limit);
+    List<PathFormula> uncached = makePath(pfmgr);
+
+    assertThat(makePath(cachingPfmgr)).containsExactlyElementsIn(uncached).inOrder();
+    assertThat(cachingPfmgr.getNumberOfEvictions()).isGreaterThan(0);
+    assertThat(cachingPfmgr.getEstimatedRetainedBytes()).isAtMost(limit);
+
+    // results are the same regardless whether they are computed again or taken from the cache
+    assertThat(makePath(cachingPfmgr)).containsExactlyElementsIn(uncached).inOrder();
+    assertThat(cachingPfmgr.getEstimatedRetainedBytes()).isAtMost(limit);
+    assertThat(cachingPfmgr.pathFormulaCacheHits.sum()).isLessThan(PATH_LENGTH);
+  }
+
+  @Test
+  public void testClearCaches() throws Exception {
+    CachingPathFormulaManager cachingPfmgr = createCachingManager(0);
+    makePath(cachingPfmgr);
+    assertThat(cachingPfmgr.getEstimatedRetainedBytes()).isGreaterThan(0);
+
+    cachingPfmgr.clearCaches();
+    assertThat(cachingPfmgr.getEstimatedRetainedBytes()).isEqualTo(0);
+    assertThat(makePath(cachingPfmgr)).containsExactlyElementsIn(makePath(pfmgr)).inOrder();
+  }
+}
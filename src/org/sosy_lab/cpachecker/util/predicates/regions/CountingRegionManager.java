@@ -147,6 +147,11 @@ public class CountingRegionManager implements RegionManager {
     delegate.reorder(pStrategy);
   }
 
+  @Override
+  public void release() {
+    delegate.release();
+  }
+
   @Override
   public Region replace(Region pRegion, List<Region> pOldPredicates, List<Region> pNewPredicates) {
     operationsCtr.setNextValue(1);
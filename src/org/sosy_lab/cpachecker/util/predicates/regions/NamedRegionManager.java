@@ -244,6 +244,11 @@ public class NamedRegionManager implements RegionManager {
     delegate.reorder(strategy);
   }
 
+  @Override
+  public void release() {
+    delegate.release();
+  }
+
   @Override
   public Region fromFormula(BooleanFormula pF, FormulaManagerView pFmgr,
       Function<BooleanFormula, Region> pAtomToRegion) {
@@ -93,6 +93,12 @@ public interface RegionManager extends RegionCreator {
    */
   void reorder(VariableOrderingStrategy strategy);
 
+  /**
+   * Release the resources of the underlying library, e.g., worker threads. The region manager and
+   * its regions must not be used afterwards. By default, nothing needs to be released.
+   */
+  default void release() {}
+
   /**
    * Replace predicates in the region with a new predicates.
    *
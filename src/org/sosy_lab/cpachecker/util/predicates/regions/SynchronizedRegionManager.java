@@ -157,6 +157,13 @@ public class SynchronizedRegionManager implements RegionManager {
     }
   }
 
+  @Override
+  public void release() {
+    synchronized (delegate) {
+      delegate.release();
+    }
+  }
+
   @Override
   public Region replace(Region pRegion, List<Region> pOldPredicates, List<Region> pNewPredicates) {
     synchronized (delegate) {
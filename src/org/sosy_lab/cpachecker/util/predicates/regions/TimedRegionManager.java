@@ -210,6 +210,11 @@ public class TimedRegionManager implements RegionManager {
     }
   }
 
+  @Override
+  public void release() {
+    delegate.release();
+  }
+
   @Override
   public Region replace(Region pRegion, List<Region> pOldPredicates, List<Region> pNewPredicates) {
     timer.start();
@@ -11,16 +11,21 @@ package org.sosy_lab.cpachecker.util.predicates.smt;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.FluentIterable.from;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsWriter.writingStatisticsTo;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
@@ -45,6 +50,7 @@ import org.sosy_lab.common.Appender;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -57,6 +63,7 @@ import org.sosy_lab.cpachecker.util.Triple;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
 import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView.BooleanFormulaTransformationVisitor;
 import org.sosy_lab.cpachecker.util.predicates.smt.ReplaceIntegerWithBitvectorTheory.ReplaceIntegerEncodingOptions;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 import org.sosy_lab.java_smt.api.ArrayFormula;
 import org.sosy_lab.java_smt.api.BitvectorFormula;
 import org.sosy_lab.java_smt.api.BitvectorFormulaManager;
@@ -180,6 +187,15 @@ public class FormulaManagerView {
               + " are required by the analysis.")
   private Theory encodeIntegerAs = Theory.INTEGER;
 
+  @Option(
+      secure = true,
+      description =
+          "Maximum number of entries in each of the caches for instantiating and uninstantiating"
+              + " formulas. Least recently used entries are evicted if the limit is exceeded."
+              + " Use 0 to disable caching.")
+  @IntegerOption(min = 0)
+  private long instantiationCacheSize = 100000;
+
   @VisibleForTesting
   public FormulaManagerView(
       FormulaManager pFormulaManager, Configuration config, LogManager pLogger)
@@ -214,6 +230,12 @@ public class FormulaManagerView {
               + "This kind of theory approximation is not supported.");
     }
 
+    // the caches are thread-safe, because formulas may be (un)instantiated in parallel
+    instantiateCache =
+        CacheBuilder.newBuilder().recordStats().maximumSize(instantiationCacheSize).build();
+    uninstantiateCache =
+        CacheBuilder.newBuilder().recordStats().maximumSize(instantiationCacheSize).build();
+
     intOptions = new ReplaceIntegerEncodingOptions(config);
     wrappingHandler =
         new FormulaWrappingHandler(
@@ -1159,11 +1181,23 @@ public class FormulaManagerView {
    * are not allowed in the formula.
    */
   public <F extends Formula> F instantiate(F pF, final SSAMap pSsa) {
+    // SSAMaps cache their hash code, so the key is cheap to look up
+    Pair<Formula, SSAMap> key = Pair.of(pF, pSsa);
+    @SuppressWarnings("unchecked")
+    F result = (F) instantiateCache.getIfPresent(key);
+    if (result == null) {
+      result = instantiate0(pF, pSsa);
+      instantiateCache.put(key, result);
+    }
+    return result;
+  }
+
+  private <F extends Formula> F instantiate0(F pF, final SSAMap pSsa) {
     return wrap(
         getFormulaType(pF),
         myFreeVariableNodeTransformer(
             unwrap(pF),
-            new HashMap<>(),
+            null,
             pFullSymbolName -> {
               int sepPos = pFullSymbolName.indexOf(INDEX_SEPARATOR);
               if (sepPos == pFullSymbolName.length() - 1) {
@@ -1188,8 +1222,11 @@ public class FormulaManagerView {
   // various caches for speeding up expensive tasks
   //
 
-  // cache for uninstantiating terms (see uninstantiate() below)
-  private final Map<Formula, Formula> uninstantiateCache = new HashMap<>();
+  // cache for results of instantiate() (see above), keyed by formula and SSAMap
+  private final Cache<Pair<Formula, SSAMap>, Formula> instantiateCache;
+
+  // cache for uninstantiating terms (see uninstantiate() below), contains also all subterms
+  private final Cache<Formula, Formula> uninstantiateCache;
 
   /**
    * Only use inside this package and for solver-specific classes
@@ -1252,18 +1289,28 @@ public class FormulaManagerView {
 
     return wrap(getFormulaType(pFormula),
         myFreeVariableNodeTransformer(unwrap(pFormula),
-            new HashMap<>(), pRenameFunction));
+            null, pRenameFunction));
   }
 
+  /**
+   * Apply the renaming to all free variables and UFs in a formula.
+   *
+   * @param pSharedCache an optional cache for the results of the renaming that is shared between
+   *     calls with the same renaming function. The transformation works on a local copy of the
+   *     used entries and updates the shared cache only at the end, such that concurrent updates
+   *     and evictions do not affect it.
+   */
   private <T extends Formula> T myFreeVariableNodeTransformer(
       final T pFormula,
-      final Map<Formula, Formula> pCache,
+      final @Nullable Cache<Formula, Formula> pSharedCache,
       final Function<String, String> pRenameFunction) {
 
-    Preconditions.checkNotNull(pCache);
     Preconditions.checkNotNull(pFormula);
     Preconditions.checkNotNull(pRenameFunction);
 
+    final Map<Formula, Formula> cache = new HashMap<>();
+    // formulas that were already looked up in the shared cache, to look up each one only once
+    final Set<Formula> lookedUp = new HashSet<>();
     final Deque<Formula> toProcess = new ArrayDeque<>();
 
     // Add the formula to the work queue
@@ -1277,7 +1324,7 @@ public class FormulaManagerView {
       public Void visitFreeVariable(Formula f, String name) {
         String newName = pRenameFunction.apply(name);
         Formula renamed = unwrap(makeVariable(getFormulaType(f), newName));
-        pCache.put(f, renamed);
+        cache.put(f, renamed);
         return null;
       }
 
@@ -1285,13 +1332,13 @@ public class FormulaManagerView {
       public Void visitBoundVariable(Formula f, int deBruijnIdx) {
 
         // Bound variables have to stay as-is.
-        pCache.put(f, f);
+        cache.put(f, f);
         return null;
       }
 
       @Override
       public Void visitConstant(Formula f, Object value) {
-        pCache.put(f, f);
+        cache.put(f, f);
         return null;
       }
 
@@ -1306,7 +1353,7 @@ public class FormulaManagerView {
         List<Formula> newArgs = new ArrayList<>(args.size());
 
         for (Formula c : args) {
-          Formula newC = pCache.get(c);
+          Formula newC = cache.get(c);
 
           if (newC != null) {
             newArgs.add(newC);
@@ -1336,7 +1383,7 @@ public class FormulaManagerView {
           } else {
             out = manager.makeApplication(decl, newArgs);
           }
-          pCache.put(f, out);
+          cache.put(f, out);
         }
         return null;
       }
@@ -1345,13 +1392,13 @@ public class FormulaManagerView {
       public Void visitQuantifier(BooleanFormula f, Quantifier quantifier,
           List<Formula> args,
           BooleanFormula body) {
-        BooleanFormula transformedBody = (BooleanFormula) pCache.get(body);
+        BooleanFormula transformedBody = (BooleanFormula) cache.get(body);
 
         if (transformedBody != null) {
           BooleanFormula newTt = getQuantifiedFormulaManager().mkQuantifier(
               quantifier, args, transformedBody
           );
-          pCache.put(f, newTt);
+          cache.put(f, newTt);
 
         } else {
           toProcess.push(body);
@@ -1364,22 +1411,64 @@ public class FormulaManagerView {
     while (!toProcess.isEmpty()) {
       Formula tt = toProcess.peek();
 
-      if (pCache.containsKey(tt)) {
+      if (cache.containsKey(tt)) {
         toProcess.pop();
         continue;
       }
+      if (pSharedCache != null && lookedUp.add(tt)) {
+        Formula cached = pSharedCache.getIfPresent(tt);
+        if (cached != null) {
+          cache.put(tt, cached);
+          toProcess.pop();
+          continue;
+        }
+      }
 
       //noinspection ResultOfMethodCallIgnored
       visit(tt, process);
     }
 
+    if (pSharedCache != null) {
+      pSharedCache.putAll(cache);
+    }
+
     @SuppressWarnings("unchecked")
-    T result = (T)pCache.get(pFormula);
+    T result = (T)cache.get(pFormula);
     assert result != null;
     assert getRawFormulaType(pFormula).equals(getRawFormulaType(result));
     return result;
   }
 
+  /** Print statistics about the caches for instantiating and uninstantiating formulas. */
+  public void printStatistics(PrintStream pOut) {
+    StatisticsWriter writer = writingStatisticsTo(pOut);
+    putCacheStatistics(writer, "Cache for instantiating formulas", instantiateCache);
+    putCacheStatistics(writer, "Cache for uninstantiating terms", uninstantiateCache);
+  }
+
+  @VisibleForTesting
+  Cache<?, ?> getInstantiateCache() {
+    return instantiateCache;
+  }
+
+  @VisibleForTesting
+  Cache<?, ?> getUninstantiateCache() {
+    return uninstantiateCache;
+  }
+
+  private static void putCacheStatistics(
+      StatisticsWriter pWriter, String pName, Cache<?, ?> pCache) {
+    CacheStats stats = pCache.stats();
+    pWriter
+        .put(pName, "")
+        .beginLevel()
+        .put("Number of entries", pCache.size())
+        .put("Number of hits", stats.hitCount())
+        .put("Number of misses", stats.missCount())
+        .put("Number of evictions", stats.evictionCount())
+        .endLevel();
+  }
+
   /**
    * Extract all atoms of a given boolean formula.
    */
@@ -10,17 +10,27 @@ package org.sosy_lab.cpachecker.util.predicates.smt;
 
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth.assertWithMessage;
+import static com.google.common.truth.TruthJUnit.assume;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameter;
 import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.SSAMapBuilder;
@@ -280,6 +290,166 @@ public class FormulaManagerViewTest extends SolverViewBasedTest0 {
     testUnInstantiate(_inst3, _uinst3, ssaBuilder);
   }
 
+  @Test
+  public void testUnInstantiateCached() {
+    IntegerFormula _i = imgrv.makeVariable("i");
+    IntegerFormula _j = imgrv.makeVariable("j");
+    BooleanFormula uninstantiated = imgrv.lessThan(_i, imgrv.add(_j, imgrv.makeNumber(1)));
+
+    SSAMap ssa1 =
+        SSAMap.emptySSAMap()
+            .builder()
+            .setIndex("i", CNumericTypes.INT, 1)
+            .setIndex("j", CNumericTypes.INT, 1)
+            .build();
+    SSAMap ssa2 = ssa1.builder().setIndex("j", CNumericTypes.INT, 2).build();
+
+    BooleanFormula inst1 = mgrv.instantiate(uninstantiated, ssa1);
+    BooleanFormula inst2 = mgrv.instantiate(uninstantiated, ssa2);
+    assertThat(inst1.toString()).isNotEqualTo(inst2.toString());
+    assertThat(mgrv.getInstantiateCache().stats().hitCount()).isEqualTo(0);
+    assertThat(mgrv.getInstantiateCache().stats().missCount()).isEqualTo(2);
+
+    // repeated calls must give the same results as the first ones, and come from the cache
+    assertThat(mgrv.instantiate(uninstantiated, ssa1).toString()).isEqualTo(inst1.toString());
+    assertThat(mgrv.instantiate(uninstantiated, ssa2).toString()).isEqualTo(inst2.toString());
+    assertThat(mgrv.getInstantiateCache().stats().hitCount()).isEqualTo(2);
+    assertThat(mgrv.getInstantiateCache().stats().missCount()).isEqualTo(2);
+
+    assertThat(mgrv.uninstantiate(inst1).toString()).isEqualTo(uninstantiated.toString());
+    assertThat(mgrv.getUninstantiateCache().stats().hitCount()).isEqualTo(0);
+    // the second formula shares subterms like i@1 with the first one
+    assertThat(mgrv.uninstantiate(inst2).toString()).isEqualTo(uninstantiated.toString());
+    CacheStats stats = mgrv.getUninstantiateCache().stats();
+    assertThat(stats.hitCount()).isGreaterThan(0);
+    // the whole first formula is in the cache now, so only the formula itself is looked up
+    assertThat(mgrv.uninstantiate(inst1).toString()).isEqualTo(uninstantiated.toString());
+    assertThat(mgrv.getUninstantiateCache().stats().minus(stats))
+        .isEqualTo(new CacheStats(1, 0, 0, 0, 0, 0));
+  }
+
+  @Test
+  public void testUnInstantiateCacheSizeIsBounded() throws InvalidConfigurationException {
+    FormulaManagerView boundedMgrv =
+        new FormulaManagerView(
+            mgr,
+            createTestConfigBuilder()
+                .setOption("cpa.predicate.instantiationCacheSize", "2")
+                .build(),
+            logger);
+    BooleanFormula uninstantiated = createFormulaForCacheTest(mgrv);
+
+    for (SSAMap ssa : createSSAMapsForCacheTest()) {
+      BooleanFormula expected = mgrv.instantiate(uninstantiated, ssa);
+      BooleanFormula instantiated = boundedMgrv.instantiate(uninstantiated, ssa);
+      assertThat(instantiated.toString()).isEqualTo(expected.toString());
+      assertThat(boundedMgrv.uninstantiate(instantiated).toString())
+          .isEqualTo(uninstantiated.toString());
+      assertThat(boundedMgrv.getInstantiateCache().size()).isAtMost(2);
+      assertThat(boundedMgrv.getUninstantiateCache().size()).isAtMost(2);
+    }
+    assertThat(boundedMgrv.getInstantiateCache().stats().evictionCount()).isGreaterThan(0);
+    assertThat(boundedMgrv.getUninstantiateCache().stats().evictionCount()).isGreaterThan(0);
+  }
+
+  @Test
+  public void testUnInstantiateCacheDisabled() throws InvalidConfigurationException {
+    FormulaManagerView uncachedMgrv =
+        new FormulaManagerView(
+            mgr,
+            createTestConfigBuilder()
+                .setOption("cpa.predicate.instantiationCacheSize", "0")
+                .build(),
+            logger);
+    BooleanFormula uninstantiated = createFormulaForCacheTest(mgrv);
+
+    for (int round = 0; round < 2; round++) {
+      for (SSAMap ssa : createSSAMapsForCacheTest()) {
+        BooleanFormula expected = mgrv.instantiate(uninstantiated, ssa);
+        BooleanFormula instantiated = uncachedMgrv.instantiate(uninstantiated, ssa);
+        assertThat(instantiated.toString()).isEqualTo(expected.toString());
+        assertThat(uncachedMgrv.uninstantiate(instantiated).toString())
+            .isEqualTo(uninstantiated.toString());
+      }
+    }
+    for (Cache<?, ?> cache :
+        ImmutableList.of(
+            uncachedMgrv.getInstantiateCache(), uncachedMgrv.getUninstantiateCache())) {
+      assertThat(cache.size()).isEqualTo(0);
+      assertThat(cache.stats().hitCount()).isEqualTo(0);
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testUnInstantiateCacheConcurrently() throws Exception {
+    // The native solvers do not allow accessing their context from several threads,
+    // so we use a Java solver and only look up formulas that are already in the caches.
+    assume().that(solverToUse()).isEqualTo(Solvers.SMTINTERPOL);
+    final int threads = 4;
+    final int rounds = 50;
+
+    BooleanFormula uninstantiated = createFormulaForCacheTest(mgrv);
+    List<SSAMap> ssaMaps = createSSAMapsForCacheTest();
+    List<BooleanFormula> expected = new ArrayList<>();
+    for (SSAMap ssa : ssaMaps) {
+      BooleanFormula instantiated = mgrv.instantiate(uninstantiated, ssa);
+      assertThat(mgrv.uninstantiate(instantiated)).isEqualTo(uninstantiated);
+      expected.add(instantiated);
+    }
+    CacheStats instantiateStats = mgrv.getInstantiateCache().stats();
+    CacheStats uninstantiateStats = mgrv.getUninstantiateCache().stats();
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int round = 0; round < rounds; round++) {
+                    for (int k = 0; k < ssaMaps.size(); k++) {
+                      assertThat(mgrv.instantiate(uninstantiated, ssaMaps.get(k)))
+                          .isEqualTo(expected.get(k));
+                      assertThat(mgrv.uninstantiate(expected.get(k))).isEqualTo(uninstantiated);
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long lookups = (long) threads * rounds * ssaMaps.size();
+    assertThat(mgrv.getInstantiateCache().stats().minus(instantiateStats))
+        .isEqualTo(new CacheStats(lookups, 0, 0, 0, 0, 0));
+    assertThat(mgrv.getUninstantiateCache().stats().minus(uninstantiateStats))
+        .isEqualTo(new CacheStats(lookups, 0, 0, 0, 0, 0));
+  }
+
+  /** i < j + 1 */
+  private static BooleanFormula createFormulaForCacheTest(FormulaManagerView pMgrv) {
+    IntegerFormulaManagerView imgr = pMgrv.getIntegerFormulaManager();
+    return imgr.lessThan(
+        imgr.makeVariable("i"), imgr.add(imgr.makeVariable("j"), imgr.makeNumber(1)));
+  }
+
+  /** SSA maps with the indices i@k and j@k for k from 1 to 5. */
+  private static List<SSAMap> createSSAMapsForCacheTest() {
+    List<SSAMap> ssaMaps = new ArrayList<>();
+    for (int k = 1; k <= 5; k++) {
+      ssaMaps.add(
+          SSAMap.emptySSAMap()
+              .builder()
+              .setIndex("i", CNumericTypes.INT, k)
+              .setIndex("j", CNumericTypes.INT, k)
+              .build());
+    }
+    return ssaMaps;
+  }
+
   private void testUnInstantiate(
       BooleanFormula pInstantiated, BooleanFormula pUninstantiated, SSAMapBuilder pSsaBuilder)
       throws SolverException, InterruptedException {
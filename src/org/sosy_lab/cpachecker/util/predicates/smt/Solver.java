@@ -302,6 +302,7 @@ public final class Solver implements AutoCloseable {
           .put("Sum time for allSat queries", stats.getSumTimeOfAllSatQueries().formatAs(TimeUnit.SECONDS))
           .put("Max time for allSat queries", stats.getMaxTimeOfAllSatQueries().formatAs(TimeUnit.SECONDS));
     }
+    fmgr.printStatistics(pOut);
   }
 
   /**
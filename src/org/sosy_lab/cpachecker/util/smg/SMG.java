@@ -12,17 +12,23 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 import java.math.BigInteger;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cpa.smg.util.PersistentSet;
@@ -52,6 +58,7 @@ public class SMG {
   private final PersistentMap<SMGObject, PersistentSet<SMGHasValueEdge>> hasValueEdges;
   private final PersistentMap<SMGValue, SMGPointsToEdge> pointsToEdges;
   private final BigInteger sizeOfPointer;
+  private final SMGReachabilityIndex reachabilityIndex;
 
   /** Creates a new, empty SMG */
   public SMG(BigInteger pSizeOfPointer) {
@@ -64,6 +71,7 @@ public class SMG {
     PersistentMap<SMGValue, SMGPointsToEdge> pointsToEdgesTmpMap = PathCopyingPersistentTreeMap.of();
     pointsToEdges = pointsToEdgesTmpMap.putAndCopy(SMGValue.zeroValue(), nullPointer);
     sizeOfPointer = pSizeOfPointer;
+    reachabilityIndex = SMGReachabilityIndex.EMPTY;
   }
 
   private SMG(
@@ -71,12 +79,14 @@ public class SMG {
       PersistentSet<SMGValue> pSmgValues,
       PersistentMap<SMGObject, PersistentSet<SMGHasValueEdge>> pHasValueEdges,
       PersistentMap<SMGValue, SMGPointsToEdge> pPointsToEdges,
-      BigInteger pSizeOfPointer) {
+      BigInteger pSizeOfPointer,
+      SMGReachabilityIndex pReachabilityIndex) {
     smgObjects = pSmgObjects;
     smgValues = pSmgValues;
     hasValueEdges = pHasValueEdges;
     pointsToEdges = pPointsToEdges;
     sizeOfPointer = pSizeOfPointer;
+    reachabilityIndex = pReachabilityIndex;
   }
 
   /**
@@ -91,7 +101,8 @@ public class SMG {
         smgValues,
         hasValueEdges,
         pointsToEdges,
-        sizeOfPointer);
+        sizeOfPointer,
+        reachabilityIndex.addCandidate(pObject));
   }
 
   /**
@@ -106,7 +117,8 @@ public class SMG {
         smgValues.addAndCopy(pValue),
         hasValueEdges,
         pointsToEdges,
-        sizeOfPointer);
+        sizeOfPointer,
+        reachabilityIndex.addCandidate(pValue));
   }
 
   /**
@@ -121,7 +133,8 @@ public class SMG {
         smgValues.removeAndCopy(pValue),
         hasValueEdges,
         pointsToEdges,
-        sizeOfPointer);
+        sizeOfPointer,
+        reachabilityIndex);
   }
 
   public SMG copyAndRemoveValues(Collection<SMGValue> pUnreachableValues) {
@@ -152,7 +165,8 @@ public class SMG {
         smgValues,
         hasValueEdges.putAndCopy(source, edges),
         pointsToEdges,
-        sizeOfPointer);
+        sizeOfPointer,
+        reachabilityIndex.addEdge(edge.hasValue(), getTarget(edge.hasValue())));
   }
 
   /**
@@ -168,12 +182,7 @@ public class SMG {
       return this;
     }
 
-    return new SMG(
-        smgObjects,
-        smgValues,
-        hasValueEdges,
-        pointsToEdges.putAndCopy(source, edge),
-        sizeOfPointer);
+    return copyAndSetPTEdges(edge, source);
   }
 
   /**
@@ -184,19 +193,37 @@ public class SMG {
    * @return a modified copy of the SMG.
    */
   public SMG copyAndSetHVEdges(PersistentSet<SMGHasValueEdge> edges, SMGObject source) {
+    PersistentSet<SMGHasValueEdge> oldEdges =
+        hasValueEdges.getOrDefault(source, PersistentSet.of());
+    SMGReachabilityIndex newIndex = reachabilityIndex;
+    for (SMGHasValueEdge oldEdge : oldEdges) {
+      if (!edges.contains(oldEdge)) {
+        newIndex = newIndex.removeEdge(oldEdge.hasValue(), getTarget(oldEdge.hasValue()));
+      }
+    }
+    for (SMGHasValueEdge newEdge : edges) {
+      if (!oldEdges.contains(newEdge)) {
+        newIndex = newIndex.addEdge(newEdge.hasValue(), getTarget(newEdge.hasValue()));
+      }
+    }
 
     return new SMG(
         smgObjects,
         smgValues,
         hasValueEdges.putAndCopy(source, edges),
         pointsToEdges,
-        sizeOfPointer);
+        sizeOfPointer,
+        newIndex);
   }
 
   public SMG copyAndAddHVEdges(Iterable<SMGHasValueEdge> edges, SMGObject source) {
     PersistentSet<SMGHasValueEdge> smgEdges = hasValueEdges.get(source);
+    SMGReachabilityIndex newIndex = reachabilityIndex;
     for (SMGHasValueEdge edgeToAdd : edges) {
-      smgEdges = smgEdges.addAndCopy(edgeToAdd);
+      if (!smgEdges.contains(edgeToAdd)) {
+        smgEdges = smgEdges.addAndCopy(edgeToAdd);
+        newIndex = newIndex.addEdge(edgeToAdd.hasValue(), getTarget(edgeToAdd.hasValue()));
+      }
     }
 
     return new SMG(
@@ -204,7 +231,8 @@ public class SMG {
         smgValues,
         hasValueEdges.putAndCopy(source, smgEdges),
         pointsToEdges,
-        sizeOfPointer);
+        sizeOfPointer,
+        newIndex);
   }
 
   /**
@@ -217,8 +245,12 @@ public class SMG {
   public SMG copyAndRemoveHVEdges(Iterable<SMGHasValueEdge> edges, SMGObject source) {
     PersistentSet<SMGHasValueEdge> smgEdges =
         hasValueEdges.getOrDefault(source, PersistentSet.of());
+    SMGReachabilityIndex newIndex = reachabilityIndex;
     for (SMGHasValueEdge edgeToRemove : edges) {
-      smgEdges = smgEdges.removeAndCopy(edgeToRemove);
+      if (smgEdges.contains(edgeToRemove)) {
+        smgEdges = smgEdges.removeAndCopy(edgeToRemove);
+        newIndex = newIndex.removeEdge(edgeToRemove.hasValue(), getTarget(edgeToRemove.hasValue()));
+      }
     }
 
     return new SMG(
@@ -226,7 +258,8 @@ public class SMG {
         smgValues,
         hasValueEdges.putAndCopy(source, smgEdges),
         pointsToEdges,
-        sizeOfPointer);
+        sizeOfPointer,
+        newIndex);
   }
 
   /**
@@ -242,7 +275,8 @@ public class SMG {
         smgValues,
         hasValueEdges,
         pointsToEdges.putAndCopy(source, edge),
-        sizeOfPointer);
+        sizeOfPointer,
+        reachabilityIndex.changeTarget(source, getTarget(source), edge.pointsTo()));
   }
 
   /**
@@ -283,11 +317,20 @@ public class SMG {
       }
     }
 
+    // only account for the points-to edges that were actually redirected above
+    SMGReachabilityIndex newIndex = reachabilityIndex.replaceCandidate(pOldObject, pNewObject);
+    for (Map.Entry<SMGValue, SMGPointsToEdge> oldEntry : pointsToEdges.entrySet()) {
+      if (pOldObject.equals(oldEntry.getValue().pointsTo())
+          && pNewObject.equals(newPointsToEdges.get(oldEntry.getKey()).pointsTo())) {
+        newIndex = newIndex.changeTarget(oldEntry.getKey(), pOldObject, pNewObject);
+      }
+    }
+
     //replace object
     PersistentMap<SMGObject, Boolean> newObjects =
         smgObjects.removeAndCopy(pOldObject).putAndCopy(pNewObject, true);
 
-    return new SMG(newObjects, smgValues, newHVEdges, newPointsToEdges, sizeOfPointer);
+    return new SMG(newObjects, smgValues, newHVEdges, newPointsToEdges, sizeOfPointer, newIndex);
   }
 
 
@@ -295,7 +338,11 @@ public class SMG {
     PersistentMap<SMGObject, Boolean> newObjects = smgObjects.putAndCopy(pObject, false);
     PersistentMap<SMGObject, PersistentSet<SMGHasValueEdge>> newHVEdges =
         hasValueEdges.removeAndCopy(pObject);
-    return new SMG(newObjects, smgValues, newHVEdges, pointsToEdges, sizeOfPointer);
+    SMGReachabilityIndex newIndex = reachabilityIndex.addCandidate(pObject);
+    for (SMGHasValueEdge edge : getEdges(pObject)) {
+      newIndex = newIndex.removeEdge(edge.hasValue(), getTarget(edge.hasValue()));
+    }
+    return new SMG(newObjects, smgValues, newHVEdges, pointsToEdges, sizeOfPointer, newIndex);
   }
 
   public SMG copyAndRemoveObjects(Collection<SMGObject> pUnreachableObjects) {
@@ -824,6 +871,99 @@ public class SMG {
     return new SMGObjectsAndValues(visitedObjects, visitedValues);
   }
 
+  /**
+   * Creates a copy of the SMG without the objects that are not reachable from the given objects
+   * and without the values that are not used by any has-value edge (except zero). Like with {@link
+   * #collectReachableObjectsAndValues(Collection)}, this includes invalid objects: these stay in
+   * the SMG as invalid objects and are reported again by the next pruning as long as they are
+   * unreachable.
+   *
+   * <p>In contrast to {@link #collectReachableObjectsAndValues(Collection)}, this does not traverse
+   * the whole SMG. Only the objects and values that were added, invalidated, or lost a reference
+   * since the last pruning are inspected, as well as the objects that were visible at the last
+   * pruning but are not visible anymore, together with the part of the SMG that is reachable from
+   * them. An object of this part stays if it is one of the given objects, if it is referenced from
+   * outside of this part (the reference counts of the SMG show this), or if it is reachable from
+   * such an object.
+   *
+   * @param pVisibleObjects the roots, i.e., the objects that are always reachable.
+   * @param pUnreachableObjects the removed objects are added to this collection.
+   * @return A modified copy of the SMG.
+   */
+  public SMG copyAndPruneUnreachable(
+      Set<SMGObject> pVisibleObjects, Collection<SMGObject> pUnreachableObjects) {
+    // collect the region of the SMG that is reachable from the candidates, and the references
+    // between the objects of this region
+    Set<SMGObject> region = new HashSet<>();
+    Map<SMGObject, Integer> internalReferences = new HashMap<>();
+    Deque<SMGObject> workDeque = new ArrayDeque<>();
+    for (SMGObject candidate :
+        Iterables.concat(
+            reachabilityIndex.getCandidateObjects(),
+            Sets.difference(reachabilityIndex.getVisibleObjects(), pVisibleObjects))) {
+      if (smgObjects.containsKey(candidate) && region.add(candidate)) {
+        workDeque.push(candidate);
+      }
+    }
+    while (!workDeque.isEmpty()) {
+      for (SMGObject target : getTargets(workDeque.pop())) {
+        internalReferences.merge(target, 1, Integer::sum);
+        if (region.add(target)) {
+          workDeque.push(target);
+        }
+      }
+    }
 
+    // objects with references from outside of the region are reachable, as are visible objects
+    Set<SMGObject> reachable = new HashSet<>();
+    for (SMGObject object : region) {
+      if (pVisibleObjects.contains(object)
+          || reachabilityIndex.getReferenceCount(object)
+              > internalReferences.getOrDefault(object, 0)) {
+        reachable.add(object);
+        workDeque.push(object);
+      }
+    }
+    while (!workDeque.isEmpty()) {
+      for (SMGObject target : getTargets(workDeque.pop())) {
+        if (region.contains(target) && reachable.add(target)) {
+          workDeque.push(target);
+        }
+      }
+    }
+
+    Set<SMGObject> unreachableObjects = Sets.difference(region, reachable).immutableCopy();
+    // removing the objects also removes their edges, which may leave further values unused
+    SMG newSmg = copyAndRemoveObjects(unreachableObjects);
+    List<SMGValue> unreachableValues = new ArrayList<>();
+    for (SMGValue candidate : newSmg.reachabilityIndex.getCandidateValues()) {
+      if (!candidate.isZero()
+          && newSmg.smgValues.contains(candidate)
+          && newSmg.reachabilityIndex.getReferenceCount(candidate) == 0) {
+        unreachableValues.add(candidate);
+      }
+    }
+    newSmg = newSmg.copyAndRemoveValues(unreachableValues);
+
+    pUnreachableObjects.addAll(unreachableObjects);
+    return new SMG(
+        newSmg.smgObjects,
+        newSmg.smgValues,
+        newSmg.hasValueEdges,
+        newSmg.pointsToEdges,
+        sizeOfPointer,
+        newSmg.reachabilityIndex.afterPruning(pVisibleObjects, unreachableObjects));
+  }
 
+  /** Returns the objects of the SMG that the has-value edges of the given object point to. */
+  private FluentIterable<SMGObject> getTargets(SMGObject pObject) {
+    return FluentIterable.from(getEdges(pObject))
+        .transform(edge -> getTarget(edge.hasValue()))
+        .filter(target -> target != null && smgObjects.containsKey(target));
+  }
+
+  private @Nullable SMGObject getTarget(SMGValue pValue) {
+    SMGPointsToEdge edge = pointsToEdges.get(pValue);
+    return edge == null ? null : edge.pointsTo();
+  }
 }
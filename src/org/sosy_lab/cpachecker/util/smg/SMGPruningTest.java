@@ -0,0 +1,140 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2021 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.smg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGHasValueEdge;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGObject;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGValue;
+import org.sosy_lab.cpachecker.util.smg.test.SMGTest0;
+
+public class SMGPruningTest extends SMGTest0 {
+
+  private SMG smg;
+  private final SMGObject root = createRegion(mockType16bSize);
+  private final Set<SMGObject> roots = ImmutableSet.of(root);
+
+  @Before
+  public void setUp() {
+    smg = new SMG(mockType8bSize).copyAndAddObject(root);
+  }
+
+  /** Create a value that points to the given object. */
+  private SMGValue addPointer(SMGObject pTarget) {
+    SMGValue pointer = createValue();
+    smg = smg.copyAndAddValue(pointer).copyAndAddPTEdge(createPTRegionEdge(0, pTarget), pointer);
+    return pointer;
+  }
+
+  /** Let the field at the given offset of the source object point to the target object. */
+  private SMGHasValueEdge link(SMGObject pSource, int pOffset, SMGObject pTarget) {
+    SMGHasValueEdge edge = createHasValueEdge(64, pOffset, addPointer(pTarget));
+    smg = smg.copyAndAddHVEdge(edge, pSource);
+    return edge;
+  }
+
+  private List<SMGObject> createNodes(int pCount) {
+    List<SMGObject> nodes = new ArrayList<>(pCount);
+    for (int i = 0; i < pCount; i++) {
+      SMGObject node = createRegion(mockType16bSize);
+      smg = smg.copyAndAddObject(node);
+      nodes.add(node);
+    }
+    return nodes;
+  }
+
+  private List<SMGObject> prune() {
+    return prune(roots);
+  }
+
+  private List<SMGObject> prune(Set<SMGObject> pRoots) {
+    List<SMGObject> removed = new ArrayList<>();
+    smg = smg.copyAndPruneUnreachable(pRoots, removed);
+    return removed;
+  }
+
+  @Test
+  public void cyclicListBecomesUnreachable() {
+    List<SMGObject> nodes = createNodes(5);
+    SMGHasValueEdge head = link(root, 0, nodes.get(0));
+    for (int i = 0; i < nodes.size() - 1; i++) {
+      link(nodes.get(i), 0, nodes.get(i + 1));
+      link(nodes.get(i + 1), 64, nodes.get(i));
+    }
+    assertThat(prune()).isEmpty();
+
+    smg = smg.copyAndRemoveHVEdges(ImmutableList.of(head), root);
+    assertThat(prune()).containsExactlyElementsIn(nodes);
+    for (SMGObject node : nodes) {
+      assertThat(smg.isValid(node)).isFalse();
+    }
+    assertThat(smg.getValues()).containsExactly(SMGValue.zeroValue());
+  }
+
+  @Test
+  public void sharedNodeStaysReachable() {
+    List<SMGObject> nodes = createNodes(3);
+    SMGHasValueEdge first = link(root, 0, nodes.get(0));
+    link(root, 64, nodes.get(1));
+    link(nodes.get(0), 0, nodes.get(2));
+    link(nodes.get(1), 0, nodes.get(2));
+    assertThat(prune()).isEmpty();
+
+    smg = smg.copyAndRemoveHVEdges(ImmutableList.of(first), root);
+    assertThat(prune()).containsExactly(nodes.get(0));
+    assertThat(smg.isValid(nodes.get(2))).isTrue();
+    assertThat(smg.collectReachableObjectsAndValues(roots).getObjects())
+        .containsAtLeast(nodes.get(1), nodes.get(2));
+  }
+
+  @Test
+  public void redirectedPointerReleasesOldTarget() {
+    List<SMGObject> nodes = createNodes(2);
+    SMGHasValueEdge edge = link(root, 0, nodes.get(0));
+    assertThat(prune()).isEmpty();
+
+    smg = smg.copyAndAddPTEdge(createPTRegionEdge(0, nodes.get(1)), edge.hasValue());
+    assertThat(prune()).containsExactly(nodes.get(0));
+    assertThat(smg.isValid(nodes.get(1))).isTrue();
+  }
+
+  @Test
+  public void unreachableInvalidObjectIsReported() {
+    List<SMGObject> nodes = createNodes(1);
+    SMGHasValueEdge edge = link(root, 0, nodes.get(0));
+    smg = smg.copyAndInvalidateObject(nodes.get(0));
+    // a dangling pointer keeps the invalid object reachable
+    assertThat(prune()).isEmpty();
+
+    smg = smg.copyAndRemoveHVEdges(ImmutableList.of(edge), root);
+    assertThat(prune()).containsExactly(nodes.get(0));
+    // the object stays in the SMG as invalid object, so it is reported again
+    assertThat(prune()).containsExactly(nodes.get(0));
+  }
+
+  @Test
+  public void objectThatIsNotVisibleAnymoreIsReported() {
+    SMGObject variable = createRegion(mockType16bSize);
+    smg = smg.copyAndAddObject(variable);
+    List<SMGObject> nodes = createNodes(1);
+    link(variable, 0, nodes.get(0));
+    assertThat(prune(ImmutableSet.of(root, variable))).isEmpty();
+
+    // e.g., the stack frame of the variable was dropped without invalidating it
+    assertThat(prune()).containsExactly(variable, nodes.get(0));
+  }
+}
@@ -0,0 +1,209 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2021 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.smg;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
+import org.sosy_lab.cpachecker.cpa.smg.util.PersistentSet;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGObject;
+import org.sosy_lab.cpachecker.util.smg.graph.SMGValue;
+
+/**
+ * Immutable index that is maintained alongside the edges of an {@link SMG} and allows to prune
+ * unreachable parts of the SMG without traversing the whole graph.
+ *
+ * <p>The index stores for each value the number of has-value edges with this value, and for each
+ * object the number of has-value edges whose value points to this object. Additionally, it stores
+ * the objects and values that may have become unreachable since the last pruning, i.e., new ones
+ * and those that were invalidated or whose number of references decreased, and the objects that
+ * were visible at the last pruning. Only these candidates, the objects that are not visible
+ * anymore, and what is reachable from them need to be inspected when pruning. The index is not
+ * part of the equality of SMGs.
+ */
+final class SMGReachabilityIndex {
+
+  static final SMGReachabilityIndex EMPTY =
+      new SMGReachabilityIndex(
+          PathCopyingPersistentTreeMap.of(),
+          PathCopyingPersistentTreeMap.of(),
+          PersistentSet.of(),
+          PersistentSet.of(),
+          ImmutableSet.of());
+
+  private final PersistentMap<SMGValue, Integer> valueReferences;
+  private final PersistentMap<SMGObject, Integer> objectReferences;
+  private final PersistentSet<SMGObject> candidateObjects;
+  private final PersistentSet<SMGValue> candidateValues;
+  private final ImmutableSet<SMGObject> visibleObjects;
+
+  private SMGReachabilityIndex(
+      PersistentMap<SMGValue, Integer> pValueReferences,
+      PersistentMap<SMGObject, Integer> pObjectReferences,
+      PersistentSet<SMGObject> pCandidateObjects,
+      PersistentSet<SMGValue> pCandidateValues,
+      ImmutableSet<SMGObject> pVisibleObjects) {
+    valueReferences = pValueReferences;
+    objectReferences = pObjectReferences;
+    candidateObjects = pCandidateObjects;
+    candidateValues = pCandidateValues;
+    visibleObjects = pVisibleObjects;
+  }
+
+  /** Returns the number of has-value edges with the given value. */
+  int getReferenceCount(SMGValue pValue) {
+    return valueReferences.getOrDefault(pValue, 0);
+  }
+
+  /** Returns the number of has-value edges whose value points to the given object. */
+  int getReferenceCount(SMGObject pObject) {
+    return objectReferences.getOrDefault(pObject, 0);
+  }
+
+  PersistentSet<SMGObject> getCandidateObjects() {
+    return candidateObjects;
+  }
+
+  PersistentSet<SMGValue> getCandidateValues() {
+    return candidateValues;
+  }
+
+  SMGReachabilityIndex addCandidate(SMGObject pObject) {
+    if (candidateObjects.contains(pObject)) {
+      return this;
+    }
+    return new SMGReachabilityIndex(
+        valueReferences,
+        objectReferences,
+        candidateObjects.addAndCopy(pObject),
+        candidateValues,
+        visibleObjects);
+  }
+
+  SMGReachabilityIndex addCandidate(SMGValue pValue) {
+    if (candidateValues.contains(pValue)) {
+      return this;
+    }
+    return new SMGReachabilityIndex(
+        valueReferences,
+        objectReferences,
+        candidateObjects,
+        candidateValues.addAndCopy(pValue),
+        visibleObjects);
+  }
+
+  /** Returns the objects that were visible at the last pruning. */
+  ImmutableSet<SMGObject> getVisibleObjects() {
+    return visibleObjects;
+  }
+
+  /**
+   * Returns the index for the SMG after a pruning with the given visible objects. The objects that
+   * were found unreachable stay in the SMG as invalid objects and thus stay candidates.
+   */
+  SMGReachabilityIndex afterPruning(
+      Set<SMGObject> pVisibleObjects, Collection<SMGObject> pUnreachableObjects) {
+    return new SMGReachabilityIndex(
+        valueReferences,
+        objectReferences,
+        PersistentSet.copyOf(pUnreachableObjects),
+        PersistentSet.of(),
+        ImmutableSet.copyOf(pVisibleObjects));
+  }
+
+  /**
+   * Account for a new has-value edge.
+   *
+   * @param pValue the value of the edge
+   * @param pTarget the object the value points to, if it is a pointer
+   */
+  SMGReachabilityIndex addEdge(SMGValue pValue, @Nullable SMGObject pTarget) {
+    PersistentMap<SMGObject, Integer> newObjectReferences = objectReferences;
+    if (pTarget != null) {
+      newObjectReferences = add(objectReferences, pTarget, 1);
+    }
+    return new SMGReachabilityIndex(
+        add(valueReferences, pValue, 1),
+        newObjectReferences,
+        candidateObjects,
+        candidateValues,
+        visibleObjects);
+  }
+
+  /**
+   * Account for a removed has-value edge.
+   *
+   * @param pValue the value of the edge
+   * @param pTarget the object the value points to, if it is a pointer
+   */
+  SMGReachabilityIndex removeEdge(SMGValue pValue, @Nullable SMGObject pTarget) {
+    PersistentMap<SMGObject, Integer> newObjectReferences = objectReferences;
+    PersistentSet<SMGObject> newCandidateObjects = candidateObjects;
+    if (pTarget != null) {
+      newObjectReferences = add(objectReferences, pTarget, -1);
+      newCandidateObjects = candidateObjects.addAndCopy(pTarget);
+    }
+    PersistentMap<SMGValue, Integer> newValueReferences = add(valueReferences, pValue, -1);
+    PersistentSet<SMGValue> newCandidateValues = candidateValues;
+    if (!newValueReferences.containsKey(pValue)) {
+      newCandidateValues = candidateValues.addAndCopy(pValue);
+    }
+    return new SMGReachabilityIndex(
+        newValueReferences,
+        newObjectReferences,
+        newCandidateObjects,
+        newCandidateValues,
+        visibleObjects);
+  }
+
+  /** Account for a changed (or new) points-to edge of the given value. */
+  SMGReachabilityIndex changeTarget(
+      SMGValue pValue, @Nullable SMGObject pOldTarget, @Nullable SMGObject pNewTarget) {
+    int references = getReferenceCount(pValue);
+    if (references == 0 || (pOldTarget != null && pOldTarget.equals(pNewTarget))) {
+      return this;
+    }
+    PersistentMap<SMGObject, Integer> newObjectReferences = objectReferences;
+    PersistentSet<SMGObject> newCandidateObjects = candidateObjects;
+    if (pOldTarget != null) {
+      newObjectReferences = add(newObjectReferences, pOldTarget, -references);
+      newCandidateObjects = candidateObjects.addAndCopy(pOldTarget);
+    }
+    if (pNewTarget != null) {
+      newObjectReferences = add(newObjectReferences, pNewTarget, references);
+    }
+    return new SMGReachabilityIndex(
+        valueReferences, newObjectReferences, newCandidateObjects, candidateValues, visibleObjects);
+  }
+
+  /** Account for the old object being replaced by the new object. */
+  SMGReachabilityIndex replaceCandidate(SMGObject pOldObject, SMGObject pNewObject) {
+    if (!candidateObjects.contains(pOldObject)) {
+      return this;
+    }
+    return new SMGReachabilityIndex(
+        valueReferences,
+        objectReferences,
+        candidateObjects.removeAndCopy(pOldObject).addAndCopy(pNewObject),
+        candidateValues,
+        visibleObjects);
+  }
+
+  private static <K> PersistentMap<K, Integer> add(
+      PersistentMap<K, Integer> pCounts, K pKey, int pDelta) {
+    int count = pCounts.getOrDefault(pKey, 0) + pDelta;
+    checkState(count >= 0, "Negative reference count for %s", pKey);
+    return count == 0 ? pCounts.removeAndCopy(pKey) : pCounts.putAndCopy(pKey, count);
+  }
+}
@@ -29,6 +29,7 @@ public final class MemoryLocation implements Comparable<MemoryLocation>, Seriali
   private final @Nullable String functionName;
   private final String identifier;
   private final @Nullable Long offset;
+  private final transient int hashCode;
 
   private MemoryLocation(
       @Nullable String pFunctionName, String pIdentifier, @Nullable Long pOffset) {
@@ -37,6 +38,12 @@ public final class MemoryLocation implements Comparable<MemoryLocation>, Seriali
     functionName = pFunctionName;
     identifier = pIdentifier;
     offset = pOffset;
+    hashCode = Objects.hash(functionName, identifier, offset);
+  }
+
+  /** Recompute the transient hash code after deserialization. */
+  private Object readResolve() {
+    return new MemoryLocation(functionName, identifier, offset);
   }
 
   @Override
@@ -52,14 +59,15 @@ public final class MemoryLocation implements Comparable<MemoryLocation>, Seriali
 
     MemoryLocation otherLocation = (MemoryLocation) other;
 
-    return Objects.equals(functionName, otherLocation.functionName)
+    return hashCode == otherLocation.hashCode
+        && Objects.equals(functionName, otherLocation.functionName)
         && Objects.equals(identifier, otherLocation.identifier)
         && Objects.equals(offset, otherLocation.offset);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(functionName, identifier, offset);
+    return hashCode;
   }
 
   /** Create an instance for the given declaration, which usually should be a variable. */
@@ -0,0 +1,94 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.statistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.sosy_lab.common.time.TimeSpan;
+
+/**
+ * Thread-safe timer for intervals that are measured concurrently by several threads, as
+ * replacement for {@link ThreadSafeTimerContainer}. The time of all intervals is summed up, so it
+ * can be larger than the elapsed wall time if the intervals overlap.
+ *
+ * <p>The timer has no state per interval, instead the start time is returned to the caller:
+ *
+ * <pre>{@code
+ * long start = timer.start();
+ * try {
+ *   ...
+ * } finally {
+ *   timer.stop(start);
+ * }
+ * }</pre>
+ *
+ * <p>Only finished intervals are counted. Values that are read while other threads stop
+ * intervals are not necessarily consistent with each other, but all intervals are counted once
+ * the threads are finished.
+ */
+public class StatConcurrentTimer extends AbstractStatValue {
+
+  private final LongAdder sumNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+  private final LongAdder intervals = new LongAdder();
+
+  public StatConcurrentTimer(String pTitle) {
+    super(StatKind.SUM, pTitle);
+  }
+
+  /** Start a new interval and return its start time, which has to be given to {@link #stop}. */
+  public long start() {
+    return System.nanoTime();
+  }
+
+  /** Stop the interval with the given start time, as returned by {@link #start()}. */
+  public void stop(long pStart) {
+    long time = System.nanoTime() - pStart;
+    sumNanos.add(time);
+    maxNanos.accumulate(time);
+    intervals.increment();
+  }
+
+  @Override
+  public int getUpdateCount() {
+    return intervals.intValue();
+  }
+
+  public TimeSpan getConsumedTime() {
+    return TimeSpan.ofNanos(sumNanos.sum());
+  }
+
+  public TimeSpan getMaxTime() {
+    return TimeSpan.ofNanos(maxNanos.get());
+  }
+
+  /** Return the average time of all intervals, or 0 if there is no interval. */
+  public TimeSpan getAvgTime() {
+    long sum = sumNanos.sum();
+    long count = intervals.sum();
+    return TimeSpan.ofNanos(count == 0 ? 0 : sum / count);
+  }
+
+  @Override
+  public String toString() {
+    return getConsumedTime().formatAs(TimeUnit.SECONDS);
+  }
+
+  /** Pretty-format the timer output into a string in seconds. */
+  public String prettyFormat() {
+    TimeUnit t = TimeUnit.SECONDS;
+    return String.format(
+        "%s (Max: %s), (Avg: %s), (#intervals = %s)",
+        getConsumedTime().formatAs(t),
+        getMaxTime().formatAs(t),
+        getAvgTime().formatAs(t),
+        getUpdateCount());
+  }
+}
@@ -0,0 +1,71 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.statistics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.sosy_lab.common.time.TimeSpan;
+
+public class StatConcurrentTimerTest {
+
+  private final StatConcurrentTimer timer = new StatConcurrentTimer("");
+
+  @Test
+  public void noInterval() {
+    assertThat(timer.getUpdateCount()).isEqualTo(0);
+    assertThat(timer.getConsumedTime()).isEqualTo(TimeSpan.empty());
+    assertThat(timer.getMaxTime()).isEqualTo(TimeSpan.empty());
+    assertThat(timer.getAvgTime()).isEqualTo(TimeSpan.empty());
+  }
+
+  @Test
+  public void nestedIntervals() {
+    long outer = timer.start();
+    long inner = timer.start();
+    timer.stop(inner);
+    assertThat(timer.getUpdateCount()).isEqualTo(1);
+    timer.stop(outer);
+    assertThat(timer.getUpdateCount()).isEqualTo(2);
+    assertThat(timer.getMaxTime().compareTo(timer.getConsumedTime())).isAtMost(0);
+  }
+
+  @Test
+  public void concurrentIntervals() throws Exception {
+    int threads = 4;
+    int intervalsPerThread = 1000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < intervalsPerThread; i++) {
+                    timer.stop(timer.start());
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+      assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+    // no interval is lost
+    assertThat(timer.getUpdateCount()).isEqualTo(threads * intervalsPerThread);
+  }
+}